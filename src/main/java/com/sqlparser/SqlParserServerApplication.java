@@ -1,12 +1,30 @@
 package com.sqlparser;
 
+import com.sqlparser.cli.DumpRewriter;
+import com.sqlparser.cli.QueryLogAnalyzer;
+import com.sqlparser.config.SqlParserProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+import java.util.Arrays;
 
 @SpringBootApplication
+@EnableConfigurationProperties(SqlParserProperties.class)
 public class SqlParserServerApplication {
 
     public static void main(String[] args) {
+        // Offline tools run without starting the server, and without Spring's logging setup
+        if (args.length > 0 && (args[0].equals(QueryLogAnalyzer.COMMAND) || args[0].equals(DumpRewriter.COMMAND))
+                && System.getProperty("logback.configurationFile") == null) {
+            System.setProperty("logback.configurationFile", "logback-cli.xml");
+        }
+        if (args.length > 0 && args[0].equals(QueryLogAnalyzer.COMMAND)) {
+            System.exit(QueryLogAnalyzer.run(Arrays.copyOfRange(args, 1, args.length), System.out, System.err));
+        }
+        if (args.length > 0 && args[0].equals(DumpRewriter.COMMAND)) {
+            System.exit(DumpRewriter.run(Arrays.copyOfRange(args, 1, args.length), System.out, System.err));
+        }
         SpringApplication.run(SqlParserServerApplication.class, args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.sqlparser.cache;
+
+/**
+ * Point-in-time snapshot of a cache tier, serialized as-is by the metrics endpoint.
+ */
+public final class CacheStats {
+
+    private final String tier;
+    private final long entries;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long offHeapBytes;
+    private final long usedBytes;
+    private final long totalLookupNanos;
+
+    public CacheStats(String tier, long entries, long hits, long misses, long evictions,
+                      long offHeapBytes, long usedBytes, long totalLookupNanos) {
+        this.tier = tier;
+        this.entries = entries;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.offHeapBytes = offHeapBytes;
+        this.usedBytes = usedBytes;
+        this.totalLookupNanos = totalLookupNanos;
+    }
+
+    public String getTier() { return tier; }
+    public long getEntries() { return entries; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    // Direct memory reserved by slabs, whether or not it holds live entries
+    public long getOffHeapBytes() { return offHeapBytes; }
+    public long getUsedBytes() { return usedBytes; }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    public double getAverageLookupMicros() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : totalLookupNanos / 1_000.0 / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" + tier + ", entries=" + entries + ", hits=" + hits + ", misses=" + misses
+            + ", evictions=" + evictions + ", offHeapBytes=" + offHeapBytes + ", usedBytes=" + usedBytes + '}';
+    }
+}
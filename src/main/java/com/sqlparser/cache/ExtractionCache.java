@@ -0,0 +1,23 @@
+package com.sqlparser.cache;
+
+import com.sqlparser.visitor.ExtractionResult;
+
+import java.util.List;
+
+/**
+ * Lookup path in front of parsing: extraction results keyed by the exact SQL text the caller
+ * passed in. Implementations must be thread-safe and may drop entries at any time.
+ */
+public interface ExtractionCache extends AutoCloseable {
+
+    /** Returns the cached result for this exact SQL text, or null on a miss. */
+    ExtractionResult get(String sql);
+
+    void put(String sql, ExtractionResult result);
+
+    /** One snapshot per tier, fastest tier first. */
+    List<CacheStats> stats();
+
+    @Override
+    default void close() {}
+}
@@ -0,0 +1,202 @@
+package com.sqlparser.cache;
+
+import com.sqlparser.visitor.ExtractionResult;
+import com.sqlparser.visitor.TableNameExtractor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact binary form of a cache entry: the key SQL followed by the extraction result.
+ * <pre>
+ *   entry    := varint(sqlLen) sqlUtf8 varint(nameCount) name* varint(tokenCount) token* [response]
+ *   token    := varint(textRef) [name if textRef == 0] varint(start) varint((end - start) << 2 | kind)
+ *   name     := string                                  (no dictionary)
+ *             | varint(id + 1) | varint(0) string      (with a dictionary)
+ *   string   := varint(byteLen) utf8
+ *   response := varint(byteLen) bytes                   (no dictionary)
+ * </pre>
+ * A token whose text equals one of the table names stores {@code textRef = nameIndex + 1}
+ * instead of repeating the string, which covers the common unquoted, unqualified case.
+ * {@code kind} is the ordinal of the token's {@link TableNameExtractor.TableToken.Kind}.
+ * The encoded response is optional and simply ends the entry, so entries written without it
+ * still decode.
+ * <p>
+ * With a {@link TableNameDictionary}, names are stored as dictionary ids (inline only when the
+ * dictionary is full) and the encoded response is left out: it only repeats the names, and the
+ * service rebuilds it from them. Entries must be decoded with the dictionary they were encoded
+ * with.
+ */
+public final class ExtractionCodec {
+
+    private static final TableNameExtractor.TableToken.Kind[] KINDS = TableNameExtractor.TableToken.Kind.values();
+    private static final int KIND_BITS = 2;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+    private ExtractionCodec() {}
+
+    public static byte[] encode(byte[] sqlUtf8, ExtractionResult result) {
+        return encode(sqlUtf8, result, null);
+    }
+
+    public static byte[] encode(byte[] sqlUtf8, ExtractionResult result, TableNameDictionary dictionary) {
+        Writer out = new Writer(sqlUtf8.length + 64);
+        out.varint(sqlUtf8.length);
+        out.bytes(sqlUtf8);
+
+        List<String> names = new ArrayList<>(result.getTableNames());
+        out.varint(names.size());
+        for (String name : names) {
+            out.name(name, dictionary);
+        }
+        List<TableNameExtractor.TableToken> tokens = result.getTokens();
+        out.varint(tokens.size());
+        for (TableNameExtractor.TableToken token : tokens) {
+            int ref = names.indexOf(token.getText());
+            out.varint(ref + 1);
+            if (ref < 0) {
+                out.name(token.getText(), dictionary);
+            }
+            out.varint(token.getStart());
+            out.varint((token.getEnd() - token.getStart()) << KIND_BITS | token.getKind().ordinal());
+        }
+        byte[] response = result.getEncodedResponse();
+        if (response != null && dictionary == null) {
+            out.varint(response.length);
+            out.bytes(response);
+        }
+        return out.toByteArray();
+    }
+
+    public static ExtractionResult decode(byte[] entry, byte[] sqlUtf8) {
+        return decode(entry, sqlUtf8, null);
+    }
+
+    /**
+     * Decodes an entry, or returns null when its key is not exactly {@code sqlUtf8}
+     * (a hash collision in the caller's index).
+     */
+    public static ExtractionResult decode(byte[] entry, byte[] sqlUtf8, TableNameDictionary dictionary) {
+        Reader in = new Reader(entry);
+        int sqlLength = in.varint();
+        if (sqlLength != sqlUtf8.length
+            || !Arrays.equals(entry, in.pos, in.pos + sqlLength, sqlUtf8, 0, sqlLength)) {
+            return null;
+        }
+        in.pos += sqlLength;
+
+        int nameCount = in.varint();
+        List<String> names = new ArrayList<>(nameCount);
+        for (int i = 0; i < nameCount; i++) {
+            names.add(in.name(dictionary));
+        }
+        int tokenCount = in.varint();
+        List<TableNameExtractor.TableToken> tokens = new ArrayList<>(tokenCount);
+        for (int i = 0; i < tokenCount; i++) {
+            int ref = in.varint();
+            String text = ref == 0 ? in.name(dictionary) : names.get(ref - 1);
+            int start = in.varint();
+            int lengthAndKind = in.varint();
+            int length = lengthAndKind >>> KIND_BITS;
+            tokens.add(new TableNameExtractor.TableToken(text, start, start + length, KINDS[lengthAndKind & KIND_MASK]));
+        }
+        byte[] response = null;
+        if (in.pos < entry.length) {
+            int length = in.varint();
+            response = Arrays.copyOfRange(entry, in.pos, in.pos + length);
+        }
+        Set<String> tableNames = new LinkedHashSet<>(names);
+        return new ExtractionResult(tableNames, tokens, response);
+    }
+
+    private static final class Writer {
+        private byte[] buf;
+        private int size;
+
+        Writer(int initialCapacity) {
+            buf = new byte[initialCapacity];
+        }
+
+        void varint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        void bytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void string(String s) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            bytes(utf8);
+        }
+
+        void name(String name, TableNameDictionary dictionary) {
+            if (dictionary == null) {
+                string(name);
+                return;
+            }
+            int id = dictionary.idOf(name);
+            varint(id + 1);
+            if (id < 0) {
+                string(name);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        int varint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buf[pos++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        String string() {
+            int length = varint();
+            String s = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+
+        String name(TableNameDictionary dictionary) {
+            if (dictionary == null) {
+                return string();
+            }
+            int ref = varint();
+            return ref == 0 ? string() : dictionary.nameOf(ref - 1);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.sqlparser.cache;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Open-addressed (linear probing) map from a 64-bit SQL hash to a non-zero {@code long}
+ * location, held in two primitive arrays so the index costs ~16-32 bytes per entry.
+ * <p>
+ * There is no removal: owners decide which locations are still live, and slots pointing at
+ * dead locations are dropped whenever the table is rebuilt. Not thread-safe.
+ */
+final class HashIndex {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private final LongPredicate live;
+    private long[] hashes = new long[MIN_CAPACITY];
+    // 0 marks an empty slot
+    private long[] locations = new long[MIN_CAPACITY];
+    private int occupied;
+
+    HashIndex(LongPredicate live) {
+        this.live = live;
+    }
+
+    /** Returns the location stored for the hash, or 0 when absent or no longer live. */
+    long get(long hash) {
+        int mask = hashes.length - 1;
+        for (int i = (int) hash & mask; locations[i] != 0; i = (i + 1) & mask) {
+            if (hashes[i] == hash) {
+                return live.test(locations[i]) ? locations[i] : 0;
+            }
+        }
+        return 0;
+    }
+
+    void put(long hash, long location) {
+        if ((occupied + 1) * 4L > hashes.length * 3L) {
+            rebuild();
+        }
+        int mask = hashes.length - 1;
+        int i = (int) hash & mask;
+        while (locations[i] != 0) {
+            if (hashes[i] == hash) {
+                locations[i] = location;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        hashes[i] = hash;
+        locations[i] = location;
+        occupied++;
+    }
+
+    int liveCount() {
+        int count = 0;
+        for (long location : locations) {
+            if (location != 0 && live.test(location)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Live locations in slot order (callers sort if they need file or slab order). */
+    long[] liveLocations() {
+        long[] result = new long[liveCount()];
+        int n = 0;
+        for (long location : locations) {
+            if (location != 0 && live.test(location)) {
+                result[n++] = location;
+            }
+        }
+        return result;
+    }
+
+    void clear() {
+        hashes = new long[MIN_CAPACITY];
+        locations = new long[MIN_CAPACITY];
+        occupied = 0;
+    }
+
+    // Grows, shrinks or just compacts the table to at least twice the live entry count
+    private void rebuild() {
+        long[] oldHashes = hashes;
+        long[] oldLocations = locations;
+        int count = liveCount();
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, count * 4 - 1)));
+        hashes = new long[capacity];
+        locations = new long[capacity];
+        occupied = 0;
+        int mask = capacity - 1;
+        for (int j = 0; j < oldLocations.length; j++) {
+            if (oldLocations[j] != 0 && live.test(oldLocations[j])) {
+                int i = (int) oldHashes[j] & mask;
+                while (locations[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                hashes[i] = oldHashes[j];
+                locations[i] = oldLocations[j];
+                occupied++;
+            }
+        }
+    }
+}
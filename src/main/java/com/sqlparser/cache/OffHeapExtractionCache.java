@@ -0,0 +1,196 @@
+package com.sqlparser.cache;
+
+import com.sqlparser.visitor.ExtractionResult;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Extraction cache whose entries live in direct-memory slabs, so millions of cached statements
+ * add almost nothing to the GC-managed heap.
+ * <p>
+ * The cache is split into independently locked segments chosen by the SQL hash. Each segment
+ * writes entries sequentially into a ring of fixed-size slabs; when the ring wraps, the oldest
+ * slab is recycled and everything in it is evicted at once (FIFO by slab, no per-entry
+ * bookkeeping). The only on-heap structure is a per-segment {@link HashIndex} mapping hash to
+ * {@code (slab generation << 32 | offset)}. Index slots pointing into a recycled slab are
+ * simply stale and are dropped on the next rebuild.
+ * <p>
+ * Slabs are allocated lazily, so an idle cache reserves no direct memory.
+ * <p>
+ * With a {@link TableNameDictionary}, entries store table names as dictionary ids (see
+ * {@link ExtractionCodec}); the same dictionary must be used for the cache's whole lifetime.
+ */
+public class OffHeapExtractionCache implements ExtractionCache {
+
+    private final Segment[] segments;
+    // null when names are stored as strings
+    private final TableNameDictionary dictionary;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+
+    public OffHeapExtractionCache(long capacityBytes, int slabBytes, int segmentCount) {
+        this(capacityBytes, slabBytes, segmentCount, null);
+    }
+
+    /**
+     * @param capacityBytes total direct memory the cache may reserve
+     * @param slabBytes     size of one slab; entries larger than this are not cached
+     * @param segmentCount  number of independently locked segments, rounded up to a power of two
+     * @param dictionary    table-name dictionary for entry encoding, or null to store names as strings
+     */
+    public OffHeapExtractionCache(long capacityBytes, int slabBytes, int segmentCount, TableNameDictionary dictionary) {
+        if (slabBytes < 1024) {
+            throw new IllegalArgumentException("slabBytes must be at least 1024, got " + slabBytes);
+        }
+        int count = segmentCount <= 1 ? 1 : Integer.highestOneBit(segmentCount - 1) << 1;
+        long slabsPerSegment = Math.max(2, capacityBytes / count / slabBytes);
+        this.dictionary = dictionary;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(slabBytes, (int) Math.min(slabsPerSegment, 1 << 20));
+        }
+    }
+
+    @Override
+    public ExtractionResult get(String sql) {
+        long start = System.nanoTime();
+        byte[] key = sql.getBytes(StandardCharsets.UTF_8);
+        long hash = SqlHash.hash64(key);
+        byte[] entry = segmentFor(hash).read(hash);
+        ExtractionResult result = entry != null ? ExtractionCodec.decode(entry, key, dictionary) : null;
+        lookupNanos.add(System.nanoTime() - start);
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    @Override
+    public void put(String sql, ExtractionResult result) {
+        byte[] key = sql.getBytes(StandardCharsets.UTF_8);
+        long hash = SqlHash.hash64(key);
+        segmentFor(hash).write(hash, ExtractionCodec.encode(key, result, dictionary));
+    }
+
+    @Override
+    public List<CacheStats> stats() {
+        long entries = 0;
+        long evictions = 0;
+        long reserved = 0;
+        long used = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entries += segment.liveEntries();
+                evictions += segment.evictions;
+                reserved += segment.reservedBytes();
+                used += segment.usedBytes();
+            }
+        }
+        return List.of(new CacheStats("off-heap", entries, hits.sum(), misses.sum(), evictions,
+            reserved, used, lookupNanos.sum()));
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 40) & (segments.length - 1)];
+    }
+
+    private static final class Segment {
+        private static final int HEADER_BYTES = Integer.BYTES;
+
+        private final int slabBytes;
+        private final ByteBuffer[] slabs;
+        private final int[] slabEntries;
+        private final int[] slabUsed;
+        // Generation of the slab being written; slab index is generation % slabs.length
+        private long generation = 1;
+        private int writeOffset;
+        private long evictions;
+        // Locations are (generation << 32 | offset); generations start at 1 so they are never 0
+        private final HashIndex index = new HashIndex(this::isLive);
+
+        Segment(int slabBytes, int slabCount) {
+            this.slabBytes = slabBytes;
+            this.slabs = new ByteBuffer[slabCount];
+            this.slabEntries = new int[slabCount];
+            this.slabUsed = new int[slabCount];
+        }
+
+        synchronized byte[] read(long hash) {
+            long location = index.get(hash);
+            if (location == 0) {
+                return null;
+            }
+            ByteBuffer slab = slabs[slabIndex(location >>> 32)];
+            int offset = (int) location;
+            byte[] entry = new byte[slab.getInt(offset)];
+            slab.get(offset + HEADER_BYTES, entry);
+            return entry;
+        }
+
+        synchronized void write(long hash, byte[] entry) {
+            int size = HEADER_BYTES + entry.length;
+            if (size > slabBytes) {
+                return;
+            }
+            if (writeOffset + size > slabBytes || slabs[slabIndex(generation)] == null) {
+                advance();
+            }
+            int slabIndex = slabIndex(generation);
+            ByteBuffer slab = slabs[slabIndex];
+            slab.putInt(writeOffset, entry.length);
+            slab.put(writeOffset + HEADER_BYTES, entry);
+            index.put(hash, generation << 32 | writeOffset);
+            writeOffset += size;
+            slabEntries[slabIndex]++;
+            slabUsed[slabIndex] = writeOffset;
+        }
+
+        private void advance() {
+            if (slabs[slabIndex(generation)] != null) {
+                generation++;
+            }
+            int index = slabIndex(generation);
+            if (slabs[index] == null) {
+                slabs[index] = ByteBuffer.allocateDirect(slabBytes);
+            } else {
+                evictions += slabEntries[index];
+            }
+            slabEntries[index] = 0;
+            slabUsed[index] = 0;
+            writeOffset = 0;
+        }
+
+        private boolean isLive(long location) {
+            long slabGeneration = location >>> 32;
+            return slabGeneration > generation - slabs.length;
+        }
+
+        private int slabIndex(long slabGeneration) {
+            return (int) (slabGeneration % slabs.length);
+        }
+
+        int liveEntries() {
+            return index.liveCount();
+        }
+
+        long reservedBytes() {
+            long reserved = 0;
+            for (ByteBuffer slab : slabs) {
+                if (slab != null) {
+                    reserved += slabBytes;
+                }
+            }
+            return reserved;
+        }
+
+        long usedBytes() {
+            long used = 0;
+            for (int bytes : slabUsed) {
+                used += bytes;
+            }
+            return used;
+        }
+    }
+}
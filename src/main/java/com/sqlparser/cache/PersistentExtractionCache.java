@@ -0,0 +1,302 @@
+package com.sqlparser.cache;
+
+import com.sqlparser.visitor.ExtractionResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Extraction cache persisted in a memory-mapped, append-only file so a restarted server
+ * serves hits immediately.
+ * <pre>
+ *   file    := header record* (zero length marks the end)
+ *   header  := int magic, int version, long reserved
+ *   record  := int entryLength, int crc32c(entry), long sqlHash, entry (ExtractionCodec)
+ * </pre>
+ * Opening the file only walks the 16-byte record headers through the mapping to rebuild the
+ * on-heap {@link HashIndex}; entries stay in the page cache until they are hit, and their
+ * checksum is verified on read. A torn last record (crash mid-append) is truncated on open.
+ * <p>
+ * When the file is full it is compacted: live records (the latest per hash) are copied in
+ * append order into a fresh file, dropping the oldest until at most half the capacity is used,
+ * and the new file atomically replaces the old one.
+ */
+public class PersistentExtractionCache implements ExtractionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistentExtractionCache.class);
+
+    private static final int MAGIC = 0x53515043; // "SQPC"
+    // 2: tokens carry their occurrence kind (see ExtractionCodec)
+    // 3: multi-part column qualifiers resolved against the whole statement
+    private static final int VERSION = 3;
+    private static final int FILE_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 16;
+
+    private final Path path;
+    private final long capacityBytes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAdder corrupt = new LongAdder();
+
+    // Guarded by lock; locations are record offset + 1 so they are never 0
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private HashIndex index = new HashIndex(location -> true);
+    private int writePosition;
+    private long evictions;
+    private long compactions;
+
+    /**
+     * @param path          cache file, created if missing
+     * @param capacityBytes size of the mapping; at most 2GB
+     */
+    public PersistentExtractionCache(Path path, long capacityBytes) {
+        if (capacityBytes < 4096 || capacityBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacityBytes must be between 4KB and 2GB, got " + capacityBytes);
+        }
+        this.path = path;
+        this.capacityBytes = capacityBytes;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open extraction cache file " + path, e);
+        }
+    }
+
+    @Override
+    public ExtractionResult get(String sql) {
+        long start = System.nanoTime();
+        byte[] key = sql.getBytes(StandardCharsets.UTF_8);
+        long hash = SqlHash.hash64(key);
+        ExtractionResult result = null;
+        byte[] entry = read(hash);
+        if (entry != null) {
+            result = ExtractionCodec.decode(entry, key);
+        }
+        lookupNanos.add(System.nanoTime() - start);
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    @Override
+    public void put(String sql, ExtractionResult result) {
+        byte[] key = sql.getBytes(StandardCharsets.UTF_8);
+        long hash = SqlHash.hash64(key);
+        byte[] entry = ExtractionCodec.encode(key, result);
+        int size = RECORD_HEADER_BYTES + entry.length;
+        // A record may use at most half the file so compaction can always make room
+        if (size > (capacityBytes - FILE_HEADER_BYTES) / 2) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (writePosition + size > buffer.capacity()) {
+                compact();
+            }
+            append(buffer, writePosition, hash, entry);
+            index.put(hash, writePosition + 1L);
+            writePosition += size;
+            markEnd();
+        } catch (IOException e) {
+            logger.warn("Extraction cache compaction failed, entry not persisted: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<CacheStats> stats() {
+        lock.readLock().lock();
+        try {
+            return List.of(new CacheStats("persistent", index.liveCount(), hits.sum(), misses.sum(),
+                evictions, buffer.capacity(), writePosition, lookupNanos.sum()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getCompactionCount() {
+        lock.readLock().lock();
+        try {
+            return compactions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getCorruptRecordCount() {
+        return corrupt.sum();
+    }
+
+    /** Flushes the mapping to disk and releases the file. */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close extraction cache file {}: {}", path, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private byte[] read(long hash) {
+        lock.readLock().lock();
+        try {
+            long location = index.get(hash);
+            if (location == 0) {
+                return null;
+            }
+            int offset = (int) (location - 1);
+            int length = buffer.getInt(offset);
+            byte[] entry = new byte[length];
+            buffer.get(offset + RECORD_HEADER_BYTES, entry);
+            if (crc(entry) != buffer.getInt(offset + Integer.BYTES)) {
+                corrupt.increment();
+                return null;
+            }
+            return entry;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), capacityBytes);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            if (buffer.getInt(0) != 0) {
+                logger.warn("Extraction cache file {} has an unknown format, starting empty", path);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(Integer.BYTES, VERSION);
+            writePosition = FILE_HEADER_BYTES;
+            markEnd();
+            return;
+        }
+
+        int position = FILE_HEADER_BYTES;
+        int last = -1;
+        int records = 0;
+        while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            index.put(buffer.getLong(position + 8), position + 1L);
+            last = position;
+            records++;
+            position += RECORD_HEADER_BYTES + length;
+        }
+        writePosition = position;
+        if (last >= 0 && !checksumMatches(last)) {
+            logger.warn("Dropping torn last record at offset {} in {}", last, path);
+            writePosition = last;
+            records--;
+            index = new HashIndex(location -> true);
+            rebuildIndex(writePosition);
+        }
+        markEnd();
+        logger.info("Opened extraction cache {} with {} record(s), {} bytes used", path, records, writePosition);
+    }
+
+    private void rebuildIndex(int end) {
+        for (int position = FILE_HEADER_BYTES; position < end; position += RECORD_HEADER_BYTES + buffer.getInt(position)) {
+            index.put(buffer.getLong(position + 8), position + 1L);
+        }
+    }
+
+    private void compact() throws IOException {
+        long[] live = index.liveLocations();
+        Arrays.sort(live);
+        int budget = (int) (buffer.capacity() - FILE_HEADER_BYTES) / 2;
+        int first = live.length;
+        long kept = 0;
+        while (first > 0) {
+            int length = RECORD_HEADER_BYTES + buffer.getInt((int) (live[first - 1] - 1));
+            if (kept + length > budget) {
+                break;
+            }
+            kept += length;
+            first--;
+        }
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        FileChannel newChannel = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer target = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, buffer.capacity());
+        target.putInt(0, MAGIC);
+        target.putInt(Integer.BYTES, VERSION);
+        HashIndex newIndex = new HashIndex(location -> true);
+        int position = FILE_HEADER_BYTES;
+        for (int i = first; i < live.length; i++) {
+            int offset = (int) (live[i] - 1);
+            int size = RECORD_HEADER_BYTES + buffer.getInt(offset);
+            target.put(position, buffer, offset, size);
+            newIndex.put(buffer.getLong(offset + 8), position + 1L);
+            position += size;
+        }
+        target.force();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel.close();
+        channel = newChannel;
+        buffer = target;
+        index = newIndex;
+        evictions += first;
+        compactions++;
+        logger.debug("Compacted extraction cache: kept {} of {} live record(s), {} -> {} bytes",
+            live.length - first, live.length, writePosition, position);
+        writePosition = position;
+    }
+
+    private static void append(MappedByteBuffer target, int position, long hash, byte[] entry) {
+        target.putInt(position + Integer.BYTES, crc(entry));
+        target.putLong(position + 8, hash);
+        target.put(position + RECORD_HEADER_BYTES, entry);
+        // Length last: a record only becomes visible to the open() scan once it is complete
+        target.putInt(position, entry.length);
+    }
+
+    private void markEnd() {
+        if (writePosition + Integer.BYTES <= buffer.capacity()) {
+            buffer.putInt(writePosition, 0);
+        }
+    }
+
+    private boolean checksumMatches(int offset) {
+        byte[] entry = new byte[buffer.getInt(offset)];
+        buffer.get(offset + RECORD_HEADER_BYTES, entry);
+        return crc(entry) == buffer.getInt(offset + Integer.BYTES);
+    }
+
+    private static int crc(byte[] entry) {
+        CRC32C crc = new CRC32C();
+        crc.update(entry);
+        return (int) crc.getValue();
+    }
+}
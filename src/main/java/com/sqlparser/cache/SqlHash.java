@@ -0,0 +1,91 @@
+package com.sqlparser.cache;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * 64-bit hash of the UTF-8 bytes of a statement (murmur3-style mixing, 8 bytes per round).
+ * Only used to place entries; a hit is always confirmed against the stored SQL bytes.
+ */
+public final class SqlHash {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private SqlHash() {}
+
+    public static long hash64(byte[] bytes) {
+        long h = 0x9e3779b97f4a7c15L ^ bytes.length;
+        int i = 0;
+        for (int limit = bytes.length - 7; i < limit; i += 8) {
+            long k = (long) LONGS.get(bytes, i);
+            k *= C1;
+            k = Long.rotateLeft(k, 31);
+            k *= C2;
+            h ^= k;
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+        }
+        long tail = 0;
+        for (int shift = 0; i < bytes.length; i++, shift += 8) {
+            tail |= (bytes[i] & 0xFFL) << shift;
+        }
+        h ^= Long.rotateLeft(tail * C1, 31) * C2;
+        return fmix64(h);
+    }
+
+    /**
+     * 128-bit MurmurHash3 (x64 variant, seed 0) of {@code bytes} as {high, low}. Unlike
+     * {@link #hash64} it is meant to be kept and compared on its own, e.g. as a statement
+     * fingerprint.
+     */
+    public static long[] hash128(byte[] bytes) {
+        long h1 = 0;
+        long h2 = 0;
+        int i = 0;
+        for (int limit = bytes.length - 15; i < limit; i += 16) {
+            long k1 = (long) LONGS.get(bytes, i);
+            long k2 = (long) LONGS.get(bytes, i + 8);
+            h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        for (int shift = 0; i < bytes.length; i++, shift += 8) {
+            if (shift < 64) {
+                k1 |= (bytes[i] & 0xFFL) << shift;
+            } else {
+                k2 |= (bytes[i] & 0xFFL) << (shift - 64);
+            }
+        }
+        if (k2 != 0) {
+            h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+        }
+        if (k1 != 0) {
+            h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+        }
+        h1 ^= bytes.length;
+        h2 ^= bytes.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[] {h1, h2};
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,60 @@
+package com.sqlparser.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide mapping between canonical table names (as TableNameExtractor produces them) and
+ * compact int ids, so a cache entry stores a one- or two-byte varint instead of the name's
+ * bytes, and every decoded result shares one String per name.
+ * <p>
+ * Ids are handed out in first-seen order and never reused or dropped. Once {@code maxNames}
+ * names are registered, new names get no id and callers store them inline, so a workload with
+ * unbounded distinct names cannot grow the dictionary without limit. Ids are only meaningful
+ * inside this process; tiers that outlive it (the persistent file) keep names as strings.
+ */
+public final class TableNameDictionary {
+
+    private final int maxNames;
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    // Written under the lock, read without it; republished on every add so readers see the slot
+    private volatile String[] names = new String[64];
+    private int size;
+
+    public TableNameDictionary(int maxNames) {
+        this.maxNames = maxNames;
+    }
+
+    /** Returns the name's id, registering it if there is room, or -1 when the dictionary is full. */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : register(name);
+    }
+
+    /** The name registered under {@code id}; ids come from {@link #idOf}, so the slot is set. */
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized int register(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (size >= maxNames) {
+            return -1;
+        }
+        String[] current = names;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = name;
+        names = current;
+        ids.put(name, size);
+        return size++;
+    }
+}
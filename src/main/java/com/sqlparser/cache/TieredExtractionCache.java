@@ -0,0 +1,56 @@
+package com.sqlparser.cache;
+
+import com.sqlparser.visitor.ExtractionResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chains cache tiers, fastest first. A hit in a slower tier is promoted into every faster
+ * tier; puts go to all tiers. Each tier keeps its own statistics.
+ */
+public class TieredExtractionCache implements ExtractionCache {
+
+    private final List<ExtractionCache> tiers;
+
+    public TieredExtractionCache(List<ExtractionCache> tiers) {
+        this.tiers = List.copyOf(tiers);
+    }
+
+    @Override
+    public ExtractionResult get(String sql) {
+        for (int i = 0; i < tiers.size(); i++) {
+            ExtractionResult result = tiers.get(i).get(sql);
+            if (result != null) {
+                for (int j = 0; j < i; j++) {
+                    tiers.get(j).put(sql, result);
+                }
+                return result;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void put(String sql, ExtractionResult result) {
+        for (ExtractionCache tier : tiers) {
+            tier.put(sql, result);
+        }
+    }
+
+    @Override
+    public List<CacheStats> stats() {
+        List<CacheStats> stats = new ArrayList<>();
+        for (ExtractionCache tier : tiers) {
+            stats.addAll(tier.stats());
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        for (ExtractionCache tier : tiers) {
+            tier.close();
+        }
+    }
+}
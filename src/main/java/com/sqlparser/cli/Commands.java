@@ -0,0 +1,31 @@
+package com.sqlparser.cli;
+
+import com.sqlparser.config.SqlParserProperties;
+import com.sqlparser.service.SqlParserService;
+
+/**
+ * Setup shared by the offline commands.
+ */
+final class Commands {
+
+    private Commands() {}
+
+    /**
+     * A parser service for one batch run: no extraction cache, coalescing or sampled
+     * verification, since batch inputs rarely repeat a statement.
+     */
+    static SqlParserService offlineService() {
+        SqlParserProperties properties = new SqlParserProperties();
+        properties.getCache().getOffHeap().setEnabled(false);
+        properties.getCoalescing().setEnabled(false);
+        properties.getVerification().setSampleRate(0);
+        return new SqlParserService(properties);
+    }
+
+    static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
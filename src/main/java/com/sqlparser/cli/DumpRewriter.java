@@ -0,0 +1,460 @@
+package com.sqlparser.cli;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.mapping.TableMappingRegistry;
+import com.sqlparser.parser.SqlText;
+import com.sqlparser.service.SqlParserService;
+import io.trino.sql.parser.ParsingException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rewrites the table names of every statement in a SQL dump with a mapping file, run as
+ * {@code java -jar sql-parser-server.jar rewrite-dump --mapping <file> [options] <input> <output>}.
+ * <p>
+ * The input is read through a file channel into a large buffer and cut at statement-ending
+ * semicolons (outside strings, quoted identifiers and comments) into batches of about
+ * {@code --batch-kb}. Batches are rewritten on a thread pool while the reader moves on; at most
+ * two batches per thread are in flight, and their output is written in input order as each
+ * oldest batch completes, so memory stays bounded whatever the size of the dump.
+ * <p>
+ * Everything between statements (whitespace, comments, the semicolons) is copied as is, and so
+ * is every statement the mapping does not change. A statement that fails to parse (or, with
+ * {@code --verify}, whose rewrite fails verification) is also copied unchanged and reported as
+ * one JSON line in the reject file, with the byte offset, line and column where it starts and
+ * the position of the parse error.
+ */
+public final class DumpRewriter {
+
+    public static final String COMMAND = "rewrite-dump";
+
+    private static final String USAGE = "Usage: " + COMMAND + " --mapping file [--threads N] [--batch-kb 256]"
+        + " [--rejects file] [--verify] <input> <output>";
+    private static final int BUFFER_BYTES = 8 * 1024 * 1024;
+
+    private final SqlParserService service;
+    private final TableMapping mapping;
+    private final boolean verify;
+    private final int batchBytes;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    DumpRewriter(SqlParserService service, TableMapping mapping, boolean verify, int batchBytes) {
+        this.service = service;
+        this.mapping = mapping;
+        this.verify = verify;
+        this.batchBytes = batchBytes;
+    }
+
+    /**
+     * Runs the command line; returns the process exit code.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Path mappingFile = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int batchKb = 256;
+        Path rejects = null;
+        boolean verify = false;
+        Path input = null;
+        Path output = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--mapping" -> mappingFile = Path.of(Commands.value(args, ++i));
+                    case "--threads" -> threads = Integer.parseInt(Commands.value(args, ++i));
+                    case "--batch-kb" -> batchKb = Integer.parseInt(Commands.value(args, ++i));
+                    case "--rejects" -> rejects = Path.of(Commands.value(args, ++i));
+                    case "--verify" -> verify = true;
+                    default -> {
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        if (input == null) {
+                            input = Path.of(args[i]);
+                        } else if (output == null) {
+                            output = Path.of(args[i]);
+                        } else {
+                            throw new IllegalArgumentException("Unexpected argument " + args[i]);
+                        }
+                    }
+                }
+            }
+            if (mappingFile == null || output == null || threads < 1 || batchKb < 1 || batchKb > 1024 * 1024) {
+                throw new IllegalArgumentException("Expected --mapping, an input and an output, --threads >= 1"
+                    + " and --batch-kb in 1..1048576");
+            }
+            if (Files.exists(input) && Files.exists(output) && Files.isSameFile(input, output)) {
+                throw new IllegalArgumentException("The output must not be the input");
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        if (rejects == null) {
+            rejects = output.resolveSibling(output.getFileName() + ".rejects.jsonl");
+        }
+
+        SqlParserService service = Commands.offlineService();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Dump statements rarely repeat, so their rewrites are not memoized
+            TableMapping mapping = new TableMappingRegistry(1, 0).load("dump", mappingFile);
+            DumpRewriter rewriter = new DumpRewriter(service, mapping, verify, batchKb * 1024);
+            long start = System.nanoTime();
+            Totals totals = rewriter.rewrite(input, output, rejects, executor, threads * 2);
+            long elapsed = System.nanoTime() - start;
+            err.printf(Locale.ENGLISH, "Rewrote %,d statements (%,d changed, %,d rejected%s), %,d MB in %.1f s:"
+                    + " %,.0f statements/s on %d threads%n",
+                totals.statements, totals.changed, totals.rejected, totals.rejected > 0 ? " to " + rejects : "",
+                totals.bytesRead >> 20, elapsed / 1e9, totals.statements * 1e9 / Math.max(elapsed, 1),
+                threads);
+            return 0;
+        } catch (IOException | UncheckedIOException e) {
+            err.println("Error rewriting dump: " + e.getMessage());
+            return 1;
+        } finally {
+            executor.shutdownNow();
+            service.close();
+        }
+    }
+
+    static final class Totals {
+        long statements;
+        long changed;
+        long rejected;
+        long bytesRead;
+        long bytesWritten;
+    }
+
+    /**
+     * Rewrites {@code input} into {@code output} with at most {@code window} batches in flight on
+     * {@code executor}; the reject file is only created when a statement is rejected.
+     */
+    Totals rewrite(Path input, Path output, Path rejects, ExecutorService executor, int window) throws IOException {
+        Totals totals = new Totals();
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>(window);
+        FileChannel rejectChannel = null;
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                 StandardOpenOption.TRUNCATE_EXISTING)) {
+            StatementScanner scanner = new StatementScanner();
+            byte[] buffer = new byte[Math.max(BUFFER_BYTES, 2 * batchBytes)];
+            // buffer[batchStart, filled) is read but not yet submitted; ends are relative to batchStart
+            int filled = 0;
+            int batchStart = 0;
+            int[] ends = new int[1024];
+            int pieces = 0;
+            long batchOffset = 0;
+            Cursor cursor = new Cursor();
+            Cursor batchCursor = new Cursor();
+            while (true) {
+                if (buffer.length - filled < buffer.length / 4) {
+                    System.arraycopy(buffer, batchStart, buffer, 0, filled - batchStart);
+                    filled -= batchStart;
+                    batchStart = 0;
+                    if (buffer.length - filled < buffer.length / 4) {
+                        // A statement longer than most of the buffer
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                }
+                int read = in.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled));
+                if (read < 0) {
+                    break;
+                }
+                totals.bytesRead += read;
+                for (int i = filled; i < filled + read; i++) {
+                    byte b = buffer[i];
+                    cursor.advance(b);
+                    if (!scanner.endsStatement(b)) {
+                        continue;
+                    }
+                    if (pieces == ends.length) {
+                        ends = Arrays.copyOf(ends, pieces * 2);
+                    }
+                    ends[pieces++] = i + 1 - batchStart;
+                    if (i + 1 - batchStart >= batchBytes) {
+                        Batch batch = new Batch(Arrays.copyOfRange(buffer, batchStart, i + 1),
+                            Arrays.copyOf(ends, pieces), batchOffset, batchCursor);
+                        rejectChannel = submit(batch, pending, window, executor, out, rejectChannel, rejects, totals);
+                        batchOffset += i + 1 - batchStart;
+                        batchStart = i + 1;
+                        pieces = 0;
+                        batchCursor = cursor.copy();
+                    }
+                }
+                filled += read;
+            }
+            if (filled > batchStart) {
+                // Text after the last semicolon, usually a statement without one
+                if (pieces == ends.length) {
+                    ends = Arrays.copyOf(ends, pieces + 1);
+                }
+                ends[pieces++] = filled - batchStart;
+                Batch batch = new Batch(Arrays.copyOfRange(buffer, batchStart, filled), Arrays.copyOf(ends, pieces),
+                    batchOffset, batchCursor);
+                rejectChannel = submit(batch, pending, 1, executor, out, rejectChannel, rejects, totals);
+            }
+            while (!pending.isEmpty()) {
+                rejectChannel = write(await(pending.poll()), out, rejectChannel, rejects, totals);
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+            if (rejectChannel != null) {
+                rejectChannel.close();
+            }
+        }
+        return totals;
+    }
+
+    private FileChannel submit(Batch batch, ArrayDeque<Future<Chunk>> pending, int window, ExecutorService executor,
+                               FileChannel out, FileChannel rejectChannel, Path rejects, Totals totals) throws IOException {
+        while (pending.size() >= window) {
+            rejectChannel = write(await(pending.poll()), out, rejectChannel, rejects, totals);
+        }
+        pending.add(executor.submit(() -> rewrite(batch)));
+        return rejectChannel;
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rewriting");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Rewriting a batch failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    // Writes a finished batch in order; returns the reject channel, opened on the first reject
+    private static FileChannel write(Chunk chunk, FileChannel out, FileChannel rejectChannel, Path rejects, Totals totals)
+            throws IOException {
+        writeFully(out, chunk.output);
+        totals.bytesWritten += chunk.output.length;
+        totals.statements += chunk.statements;
+        totals.changed += chunk.changed;
+        totals.rejected += chunk.rejected;
+        if (chunk.rejects.length > 0) {
+            if (rejectChannel == null) {
+                rejectChannel = FileChannel.open(rejects, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            writeFully(rejectChannel, chunk.rejects);
+        }
+        return rejectChannel;
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static final class Batch {
+        private final byte[] bytes;
+        // end of each piece: the text up to and including a statement's semicolon
+        private final int[] ends;
+        private final long offset;
+        private final Cursor start;
+
+        private Batch(byte[] bytes, int[] ends, long offset, Cursor start) {
+            this.bytes = bytes;
+            this.ends = ends;
+            this.offset = offset;
+            this.start = start;
+        }
+    }
+
+    private static final class Chunk {
+        private byte[] output;
+        private byte[] rejects;
+        private int statements;
+        private int changed;
+        private int rejected;
+    }
+
+    private Chunk rewrite(Batch batch) throws IOException {
+        byte[] bytes = batch.bytes;
+        Chunk chunk = new Chunk();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length + bytes.length / 8);
+        ByteArrayOutputStream rejects = new ByteArrayOutputStream();
+        Cursor cursor = batch.start.copy();
+        int start = 0;
+        for (int end : batch.ends) {
+            String piece = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            int body = piece.endsWith(";") ? piece.length() - 1 : piece.length();
+            String sql = piece.substring(0, body);
+            int first = SqlText.skipInsignificant(sql, 0);
+            if (first >= body) {
+                output.write(bytes, start, end - start);
+                cursor.advance(bytes, start, end);
+                start = end;
+                continue;
+            }
+            chunk.statements++;
+            String rewritten;
+            try {
+                // The plan splices every replacement in one pass; --verify needs the strict check
+                rewritten = verify ? service.replaceTableNames(sql, mapping, true)
+                    : service.planRewrite(sql, null).rewrite(mapping);
+            } catch (RuntimeException e) {
+                int statementStart = start + sql.substring(0, first).getBytes(StandardCharsets.UTF_8).length;
+                Cursor pieceStart = cursor.copy();
+                cursor.advance(bytes, start, statementStart);
+                reject(rejects, batch.offset + statementStart, cursor, pieceStart, sql.substring(first).trim(), e);
+                chunk.rejected++;
+                output.write(bytes, start, end - start);
+                cursor.advance(bytes, statementStart, end);
+                start = end;
+                continue;
+            }
+            if (rewritten.equals(sql)) {
+                output.write(bytes, start, end - start);
+            } else {
+                chunk.changed++;
+                output.write(rewritten.getBytes(StandardCharsets.UTF_8));
+                if (body < piece.length()) {
+                    output.write(';');
+                }
+            }
+            cursor.advance(bytes, start, end);
+            start = end;
+        }
+        chunk.output = output.toByteArray();
+        chunk.rejects = rejects.toByteArray();
+        return chunk;
+    }
+
+    // One JSON line: where the statement starts, the error and where in the file it was found
+    private void reject(ByteArrayOutputStream rejects, long offset, Cursor statement, Cursor piece, String sql,
+                        RuntimeException e) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(rejects)) {
+            json.writeStartObject();
+            json.writeNumberField("offset", offset);
+            json.writeNumberField("line", statement.line);
+            json.writeNumberField("column", statement.column);
+            if (e instanceof ParsingException parsing) {
+                // Relative to the piece, which starts where the previous statement ended
+                int line = parsing.getLineNumber();
+                json.writeStringField("error", parsing.getErrorMessage());
+                json.writeNumberField("errorLine", piece.line + line - 1);
+                json.writeNumberField("errorColumn", line == 1 ? piece.column + parsing.getColumnNumber() - 1
+                    : parsing.getColumnNumber());
+            } else {
+                json.writeStringField("error", e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+            json.writeStringField("sql", sql);
+            json.writeEndObject();
+        }
+        rejects.write('\n');
+    }
+
+    /**
+     * 1-based line and column (in code points) of the next byte of UTF-8 text.
+     */
+    static final class Cursor {
+        long line = 1;
+        long column = 1;
+
+        void advance(byte b) {
+            if (b == '\n') {
+                line++;
+                column = 1;
+            } else if ((b & 0xC0) != 0x80) {
+                column++;
+            }
+        }
+
+        void advance(byte[] bytes, int from, int to) {
+            for (int i = from; i < to; i++) {
+                advance(bytes[i]);
+            }
+        }
+
+        Cursor copy() {
+            Cursor copy = new Cursor();
+            copy.line = line;
+            copy.column = column;
+            return copy;
+        }
+    }
+
+    /**
+     * Finds the semicolons that end statements in UTF-8 SQL fed one byte at a time, skipping
+     * those in string literals, quoted identifiers and comments like {@link SqlText}. A doubled
+     * quote reads as a close and a reopen, so escapes need no lookahead and input can be cut
+     * anywhere.
+     */
+    static final class StatementScanner {
+        private static final int CODE = 0;
+        private static final int QUOTED = 1;
+        private static final int LINE_COMMENT = 2;
+        private static final int BLOCK_COMMENT = 3;
+
+        private int state = CODE;
+        private byte delimiter;
+        private byte previous;
+
+        boolean endsStatement(byte b) {
+            switch (state) {
+                case CODE -> {
+                    if (b == ';') {
+                        previous = 0;
+                        return true;
+                    } else if (b == '\'' || b == '"' || b == '`') {
+                        state = QUOTED;
+                        delimiter = b;
+                    } else if (b == '-' && previous == '-') {
+                        state = LINE_COMMENT;
+                    } else if (b == '*' && previous == '/') {
+                        state = BLOCK_COMMENT;
+                        // so that "/*/" does not close it
+                        b = 0;
+                    }
+                }
+                case QUOTED -> {
+                    if (b == delimiter) {
+                        state = CODE;
+                    }
+                }
+                case LINE_COMMENT -> {
+                    if (b == '\n' || b == '\r') {
+                        state = CODE;
+                    }
+                }
+                default -> {
+                    if (b == '/' && previous == '*') {
+                        state = CODE;
+                        // so that "*/*" does not reopen it
+                        b = 0;
+                    }
+                }
+            }
+            previous = b;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.sqlparser.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sqlparser.model.SqlFingerprint;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Table usage and query shapes collected from part of a query log. Each analyzer task fills its
+ * own instance without any locking; instances are merged as the tasks join.
+ */
+final class LogAnalysis {
+
+    // time of a record without (or with an unreadable) timestamp
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    static final class TableUsage {
+        long count;
+        long firstSeen = Long.MAX_VALUE;
+        long lastSeen = Long.MIN_VALUE;
+
+        private void seen(long count, long first, long last) {
+            this.count += count;
+            firstSeen = Math.min(firstSeen, first);
+            lastSeen = Math.max(lastSeen, last);
+        }
+    }
+
+    static final class QueryShape {
+        final String sql;
+        final Set<String> tables;
+        long count;
+
+        private QueryShape(String sql, Set<String> tables) {
+            this.sql = sql;
+            this.tables = tables;
+        }
+    }
+
+    final Map<String, TableUsage> tables = new HashMap<>();
+    // by 128-bit fingerprint
+    final Map<String, QueryShape> shapes = new HashMap<>();
+    long records;
+    long statements;
+    long failed;
+    long malformed;
+    long bytes;
+
+    void add(SqlFingerprint fingerprint, long time) {
+        statements++;
+        for (String table : fingerprint.getTableNames()) {
+            TableUsage usage = tables.computeIfAbsent(table, t -> new TableUsage());
+            if (time != NO_TIME) {
+                usage.seen(1, time, time);
+            } else {
+                usage.count++;
+            }
+        }
+        shapes.computeIfAbsent(fingerprint.getFingerprint(),
+            f -> new QueryShape(fingerprint.getParameterizedSql(), fingerprint.getTableNames())).count++;
+    }
+
+    /**
+     * Folds the smaller of the two into the larger and returns the larger.
+     */
+    LogAnalysis merge(LogAnalysis other) {
+        if (other.tables.size() + other.shapes.size() > tables.size() + shapes.size()) {
+            return other.merge(this);
+        }
+        other.tables.forEach((table, usage) ->
+            tables.computeIfAbsent(table, t -> new TableUsage()).seen(usage.count, usage.firstSeen, usage.lastSeen));
+        other.shapes.forEach((fingerprint, shape) -> {
+            QueryShape mine = shapes.putIfAbsent(fingerprint, shape);
+            if (mine != null) {
+                mine.count += shape.count;
+            }
+        });
+        records += other.records;
+        statements += other.statements;
+        failed += other.failed;
+        malformed += other.malformed;
+        bytes += other.bytes;
+        return this;
+    }
+
+    /**
+     * Writes the tables by descending count and the {@code top} most frequent shapes as one
+     * compact JSON object, after the run's totals.
+     */
+    void write(JsonGenerator json, int files, int threads, long elapsedNanos, int top) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("files", files);
+        json.writeNumberField("bytes", bytes);
+        json.writeNumberField("records", records);
+        json.writeNumberField("statements", statements);
+        json.writeNumberField("failed", failed);
+        json.writeNumberField("malformed", malformed);
+        json.writeNumberField("threads", threads);
+        json.writeNumberField("elapsedMillis", elapsedNanos / 1_000_000);
+        json.writeNumberField("statementsPerSecondPerCore", Math.round(perSecondPerCore(threads, elapsedNanos)));
+
+        List<Map.Entry<String, TableUsage>> byCount = new ArrayList<>(tables.entrySet());
+        byCount.sort(Comparator.comparingLong((Map.Entry<String, TableUsage> e) -> -e.getValue().count)
+            .thenComparing(Map.Entry::getKey));
+        json.writeArrayFieldStart("tables");
+        for (Map.Entry<String, TableUsage> entry : byCount) {
+            TableUsage usage = entry.getValue();
+            json.writeStartObject();
+            json.writeStringField("name", entry.getKey());
+            json.writeNumberField("count", usage.count);
+            if (usage.firstSeen != Long.MAX_VALUE) {
+                json.writeStringField("firstSeen", Instant.ofEpochMilli(usage.firstSeen).toString());
+                json.writeStringField("lastSeen", Instant.ofEpochMilli(usage.lastSeen).toString());
+            }
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        List<Map.Entry<String, QueryShape>> topShapes = new ArrayList<>(shapes.entrySet());
+        topShapes.sort(Comparator.comparingLong((Map.Entry<String, QueryShape> e) -> -e.getValue().count)
+            .thenComparing(Map.Entry::getKey));
+        json.writeArrayFieldStart("topShapes");
+        for (Map.Entry<String, QueryShape> entry : topShapes.subList(0, Math.min(top, topShapes.size()))) {
+            QueryShape shape = entry.getValue();
+            json.writeStartObject();
+            json.writeStringField("fingerprint", entry.getKey());
+            json.writeNumberField("count", shape.count);
+            json.writeArrayFieldStart("tables");
+            for (String table : new TreeSet<>(shape.tables)) {
+                json.writeString(table);
+            }
+            json.writeEndArray();
+            json.writeStringField("sql", shape.sql);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    // Statements parsed, failed ones included, per second and thread
+    double perSecondPerCore(int threads, long elapsedNanos) {
+        return elapsedNanos > 0 ? (statements + failed) * 1e9 / elapsedNanos / threads : 0;
+    }
+}
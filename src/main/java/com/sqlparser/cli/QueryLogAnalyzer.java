@@ -0,0 +1,345 @@
+package com.sqlparser.cli;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sqlparser.model.SqlFingerprint;
+import com.sqlparser.service.SqlParserService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Offline per-table usage statistics over query logs, run as
+ * {@code java -jar sql-parser-server.jar analyze-logs [options] <file or directory>...}.
+ * <p>
+ * Each log file is memory-mapped and cut into ranges of about {@code --chunk-mb} that end at
+ * line boundaries. The ranges are analyzed on a fork-join pool, each task collecting into its
+ * own {@link LogAnalysis}, so workers share nothing but the parser's per-thread recognizers;
+ * collections are merged as the tasks join. Every statement is parsed once for both its table
+ * names and its fingerprint (see {@link SqlParserService#fingerprint(String)}).
+ * <p>
+ * A record is one line: a JSON object with the statement in {@code --sql-field} and an optional
+ * ISO-8601 or epoch timestamp in {@code --time-field} ({@code --format jsonl}, the default), or
+ * {@code timestamp<TAB>sql} ({@code --format tsv}). The result is written as one compact JSON
+ * object; a summary with the throughput per core goes to stderr.
+ */
+public final class QueryLogAnalyzer {
+
+    public static final String COMMAND = "analyze-logs";
+
+    private static final String USAGE = "Usage: " + COMMAND + " [--format jsonl|tsv] [--sql-field query]"
+        + " [--time-field timestamp] [--threads N] [--chunk-mb 64] [--top 50] [--output file] <file or directory>...";
+
+    public enum Format { JSONL, TSV }
+
+    private final SqlParserService service;
+    private final Format format;
+    private final String sqlField;
+    private final String timeField;
+    private final long chunkBytes;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    QueryLogAnalyzer(SqlParserService service, Format format, String sqlField, String timeField, long chunkBytes) {
+        this.service = service;
+        this.format = format;
+        this.sqlField = sqlField;
+        this.timeField = timeField;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Runs the command line; returns the process exit code.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Format format = Format.JSONL;
+        String sqlField = "query";
+        String timeField = "timestamp";
+        int threads = Runtime.getRuntime().availableProcessors();
+        long chunkMb = 64;
+        int top = 50;
+        Path output = null;
+        List<Path> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--format" -> format = Format.valueOf(Commands.value(args, ++i).toUpperCase(Locale.ENGLISH));
+                    case "--sql-field" -> sqlField = Commands.value(args, ++i);
+                    case "--time-field" -> timeField = Commands.value(args, ++i);
+                    case "--threads" -> threads = Integer.parseInt(Commands.value(args, ++i));
+                    case "--chunk-mb" -> chunkMb = Long.parseLong(Commands.value(args, ++i));
+                    case "--top" -> top = Integer.parseInt(Commands.value(args, ++i));
+                    case "--output" -> output = Path.of(Commands.value(args, ++i));
+                    default -> {
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        inputs.add(Path.of(args[i]));
+                    }
+                }
+            }
+            if (inputs.isEmpty() || threads < 1 || chunkMb < 1 || chunkMb > 1024) {
+                throw new IllegalArgumentException("Expected at least one input, --threads >= 1 and --chunk-mb in 1..1024");
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+
+        SqlParserService service = Commands.offlineService();
+        if (!service.supportsFingerprinting()) {
+            service.close();
+            err.println("Error analyzing logs: fingerprinting needs the Trino parse tree, which is not accessible "
+                + "with this Trino version");
+            return 1;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Path> files = files(inputs);
+            QueryLogAnalyzer analyzer = new QueryLogAnalyzer(service, format, sqlField, timeField, chunkMb << 20);
+            long start = System.nanoTime();
+            LogAnalysis analysis = analyzer.analyze(files, pool);
+            long elapsed = System.nanoTime() - start;
+            try (OutputStream target = output != null ? Files.newOutputStream(output) : null;
+                 JsonGenerator json = analyzer.jsonFactory.createGenerator(target != null ? target : out)) {
+                json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                analysis.write(json, files.size(), threads, elapsed, top);
+                json.writeRaw('\n');
+            }
+            out.flush();
+            err.printf(Locale.ENGLISH, "Analyzed %,d statements (%,d failed to parse, %,d malformed records) from %,d files, "
+                    + "%,d MB in %.1f s: %,.0f statements/s per core on %d threads%n",
+                analysis.statements, analysis.failed, analysis.malformed, files.size(), analysis.bytes >> 20,
+                elapsed / 1e9, analysis.perSecondPerCore(threads, elapsed), threads);
+            return 0;
+        } catch (IOException | UncheckedIOException e) {
+            err.println("Error analyzing logs: " + e.getMessage());
+            return 1;
+        } finally {
+            pool.shutdown();
+            service.close();
+        }
+    }
+
+    // Files as given, directories expanded to the regular files directly inside them, sorted
+    private static List<Path> files(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> listing = Files.list(input)) {
+                    listing.filter(Files::isRegularFile).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    LogAnalysis analyze(List<Path> files, ForkJoinPool pool) throws IOException {
+        List<Range> ranges = new ArrayList<>();
+        for (Path file : files) {
+            split(file, ranges);
+        }
+        if (ranges.isEmpty()) {
+            return new LogAnalysis();
+        }
+        return pool.invoke(new AnalyzeTask(ranges, 0, ranges.size()));
+    }
+
+    private static final class Range {
+        private final Path file;
+        private final long start;
+        private final long end;
+
+        private Range(Path file, long start, long end) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    // Ranges of about chunkBytes, each ending after a line feed (or at the end of the file)
+    private void split(Path file, List<Range> ranges) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer probe = ByteBuffer.allocate(64 * 1024);
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(size, start + chunkBytes);
+                // Extend to the end of the line the cut falls in
+                while (end < size) {
+                    probe.clear();
+                    int read = channel.read(probe, end - 1);
+                    int newline = -1;
+                    for (int i = 0; i < read && newline < 0; i++) {
+                        if (probe.get(i) == '\n') {
+                            newline = i;
+                        }
+                    }
+                    if (newline >= 0) {
+                        end += newline;
+                        break;
+                    }
+                    end = Math.min(size, end + Math.max(read, 1));
+                }
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException(file + ": a line at offset " + start + " is longer than 2 GB");
+                }
+                ranges.add(new Range(file, start, end));
+                start = end;
+            }
+        }
+    }
+
+    private final class AnalyzeTask extends RecursiveTask<LogAnalysis> {
+        private final List<Range> ranges;
+        private final int from;
+        private final int to;
+
+        private AnalyzeTask(List<Range> ranges, int from, int to) {
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LogAnalysis compute() {
+            if (to - from == 1) {
+                try {
+                    return analyze(ranges.get(from));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            AnalyzeTask right = new AnalyzeTask(ranges, middle, to);
+            right.fork();
+            LogAnalysis left = new AnalyzeTask(ranges, from, middle).compute();
+            return left.merge(right.join());
+        }
+    }
+
+    private LogAnalysis analyze(Range range) throws IOException {
+        LogAnalysis analysis = new LogAnalysis();
+        analysis.bytes = range.end - range.start;
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(range.file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, range.start, range.end - range.start);
+        }
+        byte[] line = new byte[64 * 1024];
+        int length = mapped.limit();
+        int lineStart = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i < length && mapped.get(i) != '\n') {
+                continue;
+            }
+            int lineLength = i - lineStart;
+            if (lineLength > line.length) {
+                line = new byte[Math.max(lineLength, line.length * 2)];
+            }
+            mapped.get(lineStart, line, 0, lineLength);
+            record(line, lineLength, analysis);
+            lineStart = i + 1;
+        }
+        return analysis;
+    }
+
+    private void record(byte[] line, int length, LogAnalysis analysis) {
+        while (length > 0 && (line[length - 1] == '\r' || line[length - 1] == ' ' || line[length - 1] == '\t')) {
+            length--;
+        }
+        if (length == 0) {
+            return;
+        }
+        analysis.records++;
+        String sql = null;
+        String time = null;
+        if (format == Format.TSV) {
+            int tab = 0;
+            while (tab < length && line[tab] != '\t') {
+                tab++;
+            }
+            if (tab < length) {
+                time = new String(line, 0, tab, StandardCharsets.UTF_8);
+                sql = new String(line, tab + 1, length - tab - 1, StandardCharsets.UTF_8);
+            }
+        } else {
+            try (JsonParser json = jsonFactory.createParser(line, 0, length)) {
+                if (json.nextToken() == JsonToken.START_OBJECT) {
+                    while (json.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = json.currentName();
+                        JsonToken value = json.nextToken();
+                        if (field.equals(sqlField) && value == JsonToken.VALUE_STRING) {
+                            sql = json.getText();
+                        } else if (field.equals(timeField) && value.isScalarValue()) {
+                            time = json.getText();
+                        } else {
+                            json.skipChildren();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                sql = null;
+            }
+        }
+        if (sql == null || sql.isBlank()) {
+            analysis.malformed++;
+            return;
+        }
+        SqlFingerprint fingerprint = service.fingerprint(sql);
+        if (fingerprint.getError() != null) {
+            analysis.failed++;
+        } else {
+            analysis.add(fingerprint, parseTime(time));
+        }
+    }
+
+    /**
+     * Epoch milliseconds of an ISO-8601 instant, a local date-time (taken as UTC, {@code T} or a
+     * space between date and time), or a number of epoch seconds or milliseconds; NO_TIME when
+     * absent or unreadable.
+     */
+    static long parseTime(String time) {
+        if (time == null || time.isBlank()) {
+            return LogAnalysis.NO_TIME;
+        }
+        String text = time.trim();
+        try {
+            if (text.chars().allMatch(Character::isDigit)) {
+                long value = Long.parseLong(text);
+                // Ten digits or fewer are seconds (until the year 2286)
+                return text.length() <= 10 ? value * 1000 : value;
+            }
+            String iso = text.length() > 10 && text.charAt(10) == ' ' ? text.substring(0, 10) + 'T' + text.substring(11) : text;
+            try {
+                return Instant.parse(iso).toEpochMilli();
+            } catch (DateTimeParseException e) {
+                return LocalDateTime.parse(iso).toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return LogAnalysis.NO_TIME;
+        }
+    }
+}
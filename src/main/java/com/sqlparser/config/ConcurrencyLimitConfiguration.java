@@ -0,0 +1,32 @@
+package com.sqlparser.config;
+
+import com.sqlparser.limit.AdaptiveConcurrencyLimiter;
+import com.sqlparser.limit.ConcurrencyLimitFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the adaptive concurrency limiter in front of the parser endpoints.
+ * Disabled with {@code sqlparser.limiter.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sqlparser.limiter", name = "enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfiguration {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(SqlParserProperties properties) {
+        SqlParserProperties.Limiter limiter = properties.getLimiter();
+        return new AdaptiveConcurrencyLimiter(limiter.getInitialLimit(), limiter.getMinLimit(), limiter.getMaxLimit());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                                 SqlParserProperties properties) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+            new ConcurrencyLimitFilter(limiter, properties.getLimiter().getRejectionStatus()));
+        registration.addUrlPatterns("/api/sql/*");
+        return registration;
+    }
+}
@@ -0,0 +1,484 @@
+package com.sqlparser.config;
+
+import com.sqlparser.visitor.ExtractorMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tunables for the parser service, bound from {@code sqlparser.*} in application.properties.
+ * Defaults here are what the service uses when it is constructed outside Spring.
+ */
+@ConfigurationProperties(prefix = "sqlparser")
+public class SqlParserProperties {
+
+    private final Compaction compaction = new Compaction();
+    private final Extractor extractor = new Extractor();
+    private final Cache cache = new Cache();
+    private final Coalescing coalescing = new Coalescing();
+    private final Limiter limiter = new Limiter();
+    private final Antlr antlr = new Antlr();
+    private final Verification verification = new Verification();
+    private final MappingRegistry mappingRegistry = new MappingRegistry();
+    private final MappingFiles mappingFiles = new MappingFiles();
+    private final FanOut fanOut = new FanOut();
+    private final QueryIndex queryIndex = new QueryIndex();
+    private final StoredQueries storedQueries = new StoredQueries();
+    // Named table mappings for /api/sql/rewrite, e.g. sqlparser.mappings.archive.[sales.orders]=archive.orders
+    private final Map<String, Map<String, String>> mappings = new LinkedHashMap<>();
+
+    public Compaction getCompaction() {
+        return compaction;
+    }
+
+    public Extractor getExtractor() {
+        return extractor;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public Limiter getLimiter() {
+        return limiter;
+    }
+
+    public Antlr getAntlr() {
+        return antlr;
+    }
+
+    public Verification getVerification() {
+        return verification;
+    }
+
+    public MappingRegistry getMappingRegistry() {
+        return mappingRegistry;
+    }
+
+    public MappingFiles getMappingFiles() {
+        return mappingFiles;
+    }
+
+    public FanOut getFanOut() {
+        return fanOut;
+    }
+
+    public QueryIndex getQueryIndex() {
+        return queryIndex;
+    }
+
+    public StoredQueries getStoredQueries() {
+        return storedQueries;
+    }
+
+    public Map<String, Map<String, String>> getMappings() {
+        return mappings;
+    }
+
+    /**
+     * Literal-run compaction applied before parsing (see LiteralCompactor).
+     */
+    public static class Compaction {
+        private boolean enabled = true;
+        private int minRunLength = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMinRunLength() {
+            return minRunLength;
+        }
+
+        public void setMinRunLength(int minRunLength) {
+            this.minRunLength = minRunLength;
+        }
+    }
+
+    /**
+     * Traversal options for TableNameExtractor / ParseTreeTableExtractor; mode is the default
+     * when a request does not pick one.
+     */
+    public static class Extractor {
+        private boolean pruneExpressions = true;
+        private ExtractorMode mode = ExtractorMode.AST;
+
+        public boolean isPruneExpressions() {
+            return pruneExpressions;
+        }
+
+        public void setPruneExpressions(boolean pruneExpressions) {
+            this.pruneExpressions = pruneExpressions;
+        }
+
+        public ExtractorMode getMode() {
+            return mode;
+        }
+
+        public void setMode(ExtractorMode mode) {
+            this.mode = mode;
+        }
+    }
+
+    /**
+     * Extraction-result cache in front of parsing. encodedResponses stores the encoded
+     * /extract-tables response body in each entry so hits skip response serialization.
+     * dictionaryMaxNames bounds the table-name dictionary the off-heap tier encodes names
+     * with (see TableNameDictionary); 0 stores names as strings.
+     */
+    public static class Cache {
+        private final OffHeap offHeap = new OffHeap();
+        private final Persistent persistent = new Persistent();
+        private boolean encodedResponses = true;
+        private int dictionaryMaxNames = 100_000;
+
+        public boolean isEncodedResponses() {
+            return encodedResponses;
+        }
+
+        public void setEncodedResponses(boolean encodedResponses) {
+            this.encodedResponses = encodedResponses;
+        }
+
+        public int getDictionaryMaxNames() {
+            return dictionaryMaxNames;
+        }
+
+        public void setDictionaryMaxNames(int dictionaryMaxNames) {
+            this.dictionaryMaxNames = dictionaryMaxNames;
+        }
+
+        public OffHeap getOffHeap() {
+            return offHeap;
+        }
+
+        public Persistent getPersistent() {
+            return persistent;
+        }
+    }
+
+    /**
+     * Direct-memory tier (see OffHeapExtractionCache). Slabs are reserved lazily up to capacityMb.
+     */
+    public static class OffHeap {
+        private boolean enabled = true;
+        private int capacityMb = 256;
+        private int slabKb = 1024;
+        private int segments = 16;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacityMb() {
+            return capacityMb;
+        }
+
+        public void setCapacityMb(int capacityMb) {
+            this.capacityMb = capacityMb;
+        }
+
+        public int getSlabKb() {
+            return slabKb;
+        }
+
+        public void setSlabKb(int slabKb) {
+            this.slabKb = slabKb;
+        }
+
+        public int getSegments() {
+            return segments;
+        }
+
+        public void setSegments(int segments) {
+            this.segments = segments;
+        }
+    }
+
+    /**
+     * Memory-mapped, append-only file tier that survives restarts (see PersistentExtractionCache).
+     */
+    public static class Persistent {
+        private boolean enabled = false;
+        private String path = "data/extraction-cache.bin";
+        private int capacityMb = 512;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public int getCapacityMb() {
+            return capacityMb;
+        }
+
+        public void setCapacityMb(int capacityMb) {
+            this.capacityMb = capacityMb;
+        }
+    }
+
+    /**
+     * Single-flight coalescing of concurrent extract calls for the same SQL text.
+     */
+    public static class Coalescing {
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Adaptive concurrency limit on /api/sql/* (see AdaptiveConcurrencyLimiter).
+     */
+    public static class Limiter {
+        private boolean enabled = true;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 256;
+        private int rejectionStatus = 429;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public int getRejectionStatus() {
+            return rejectionStatus;
+        }
+
+        public void setRejectionStatus(int rejectionStatus) {
+            this.rejectionStatus = rejectionStatus;
+        }
+    }
+
+    /**
+     * Versions kept per registered table mapping and characters of rewritten statements (SQL plus
+     * output) memoized per version (see TableMappingRegistry); 0 disables memoization.
+     */
+    public static class MappingRegistry {
+        private int retainedVersions = 3;
+        private long maxMemoizedChars = 16_000_000;
+
+        public int getRetainedVersions() {
+            return retainedVersions;
+        }
+
+        public void setRetainedVersions(int retainedVersions) {
+            this.retainedVersions = retainedVersions;
+        }
+
+        public long getMaxMemoizedChars() {
+            return maxMemoizedChars;
+        }
+
+        public void setMaxMemoizedChars(long maxMemoizedChars) {
+            this.maxMemoizedChars = maxMemoizedChars;
+        }
+    }
+
+    /**
+     * Directory of {@code <name>.mapping} files registered as table mappings and reloaded when
+     * they change (see MappingFileWatcher); empty disables it, a zero interval loads them once.
+     */
+    public static class MappingFiles {
+        private String directory = "";
+        private Duration pollInterval = Duration.ofSeconds(10);
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+    }
+
+    /**
+     * Limit on /api/sql/rewrite/fan-out, which rewrites one parsed statement per mapping or shard.
+     */
+    public static class FanOut {
+        private int maxVariants = 1024;
+
+        public int getMaxVariants() {
+            return maxVariants;
+        }
+
+        public void setMaxVariants(int maxVariants) {
+            this.maxVariants = maxVariants;
+        }
+    }
+
+    /**
+     * Limit on /api/sql/query-index/affected, which lists the stored queries a mapping touches.
+     */
+    public static class QueryIndex {
+        private int maxQueryIds = 10_000;
+
+        public int getMaxQueryIds() {
+            return maxQueryIds;
+        }
+
+        public void setMaxQueryIds(int maxQueryIds) {
+            this.maxQueryIds = maxQueryIds;
+        }
+    }
+
+    /**
+     * Change feed of the stored-query registry (see StoredQueryRegistry): removals kept in the
+     * feed before readers that are further behind have to start over, and most changes one read
+     * returns.
+     */
+    public static class StoredQueries {
+        private int retainedRemovals = 10_000;
+        private int maxChanges = 1000;
+
+        public int getRetainedRemovals() {
+            return retainedRemovals;
+        }
+
+        public void setRetainedRemovals(int retainedRemovals) {
+            this.retainedRemovals = retainedRemovals;
+        }
+
+        public int getMaxChanges() {
+            return maxChanges;
+        }
+
+        public void setMaxChanges(int maxChanges) {
+            this.maxChanges = maxChanges;
+        }
+    }
+
+    /**
+     * Background re-extraction of a sample of rewritten SQL (see RewriteVerifier); 0 disables
+     * sampling, strict per-request checks stay available.
+     */
+    public static class Verification {
+        private double sampleRate = 0.01;
+        private int queueCapacity = 1000;
+        private int maxReports = 100;
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxReports() {
+            return maxReports;
+        }
+
+        public void setMaxReports(int maxReports) {
+            this.maxReports = maxReports;
+        }
+    }
+
+    /**
+     * Rebuild policy for the parser's ANTLR DFA cache (see ManagedSqlParser); 0 disables a trigger.
+     * reuseRecognizers keeps one lexer/parser per thread instead of building them for every parse.
+     */
+    public static class Antlr {
+        private long maxDfaStates = 50_000;
+        private Duration maxAge = Duration.ZERO;
+        private boolean reuseRecognizers = true;
+
+        public long getMaxDfaStates() {
+            return maxDfaStates;
+        }
+
+        public void setMaxDfaStates(long maxDfaStates) {
+            this.maxDfaStates = maxDfaStates;
+        }
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        public boolean isReuseRecognizers() {
+            return reuseRecognizers;
+        }
+
+        public void setReuseRecognizers(boolean reuseRecognizers) {
+            this.reuseRecognizers = reuseRecognizers;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.sqlparser.controller;
+
+import com.sqlparser.model.EncodedExtractTablesResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes a cached, pre-encoded extract-tables body straight to the response output stream.
+ * Spring Boot places converter beans ahead of its Jackson converter, and converters are
+ * picked by the body's runtime class, so only {@link EncodedExtractTablesResponse} lands here.
+ */
+@Component
+public class EncodedResponseConverter extends AbstractHttpMessageConverter<EncodedExtractTablesResponse> {
+
+    public EncodedResponseConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EncodedExtractTablesResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected EncodedExtractTablesResponse readInternal(Class<? extends EncodedExtractTablesResponse> clazz,
+            HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Encoded responses are write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(EncodedExtractTablesResponse response, MediaType contentType) {
+        return (long) response.getEncoded().length;
+    }
+
+    @Override
+    protected void writeInternal(EncodedExtractTablesResponse response, HttpOutputMessage outputMessage)
+            throws IOException {
+        outputMessage.getBody().write(response.getEncoded());
+    }
+}
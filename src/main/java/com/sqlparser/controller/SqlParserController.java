@@ -1,13 +1,31 @@
 package com.sqlparser.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlparser.index.AffectedQueries;
+import com.sqlparser.limit.AdaptiveConcurrencyLimiter;
+import com.sqlparser.mapping.TableMapping;
 import com.sqlparser.model.*;
+import com.sqlparser.service.RewritePlan;
 import com.sqlparser.service.SqlParserService;
+import com.sqlparser.service.StoredQueryChanges;
+import com.sqlparser.service.StoredQueryStats;
+import com.sqlparser.verify.RewriteMismatch;
+import com.sqlparser.visitor.ExtractionResult;
+import com.sqlparser.visitor.ExtractorMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @RestController
@@ -19,6 +37,13 @@ public class SqlParserController {
     @Autowired
     private SqlParserService sqlParserService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // absent when sqlparser.limiter.enabled=false
+    @Autowired(required = false)
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
     @PostMapping("/extract-tables")
     public ResponseEntity<ExtractTablesResponse> extractTables(@RequestBody ExtractTablesRequest request) {
         try {
@@ -27,7 +52,18 @@ public class SqlParserController {
                         .body(new ExtractTablesResponse(null, false, "SQL cannot be empty"));
             }
 
-            Set<String> tableNames = sqlParserService.extractTableNames(request.getSql());
+            ExtractorMode mode = request.getExtractor() != null ? ExtractorMode.fromName(request.getExtractor()) : null;
+            ExtractionResult result = sqlParserService.extract(request.getSql(), mode);
+            if (request.isPositions()) {
+                ExtractTablesResponse response = new ExtractTablesResponse(new HashSet<>(result.getTableNames()), true, "Success");
+                response.setOccurrences(sqlParserService.locateTables(request.getSql(), result));
+                return ResponseEntity.ok(response);
+            }
+            if (result.getEncodedResponse() != null) {
+                // Body encoded when the result was cached; EncodedResponseConverter writes it as-is
+                return ResponseEntity.ok(new EncodedExtractTablesResponse(result.getTableNames(), result.getEncodedResponse()));
+            }
+            Set<String> tableNames = new HashSet<>(result.getTableNames());
             return ResponseEntity.ok(new ExtractTablesResponse(tableNames, true, "Success"));
 
         } catch (Exception e) {
@@ -45,12 +81,20 @@ public class SqlParserController {
                         .body(new ReplaceTablesResponse(null, false, "SQL cannot be empty"));
             }
 
-            if (request.getTableMapping() == null || request.getTableMapping().isEmpty()) {
+            String modifiedSql;
+            if (request.getMapping() != null) {
+                TableMapping mapping = sqlParserService.getMapping(request.getMapping());
+                if (mapping == null) {
+                    return ResponseEntity.badRequest()
+                            .body(new ReplaceTablesResponse(null, false, "Unknown table mapping: " + request.getMapping()));
+                }
+                modifiedSql = sqlParserService.replaceTableNames(request.getSql(), mapping, request.isVerify());
+            } else if (request.getTableMapping() != null && !request.getTableMapping().isEmpty()) {
+                modifiedSql = sqlParserService.replaceTableNames(request.getSql(), request.getTableMapping(), request.isVerify());
+            } else {
                 return ResponseEntity.badRequest()
                         .body(new ReplaceTablesResponse(null, false, "Table mapping cannot be empty"));
             }
-
-            String modifiedSql = sqlParserService.replaceTableNames(request.getSql(), request.getTableMapping());
             return ResponseEntity.ok(new ReplaceTablesResponse(modifiedSql, true, "Success"));
 
         } catch (Exception e) {
@@ -60,6 +104,335 @@ public class SqlParserController {
         }
     }
 
+    @PostMapping("/rewrite")
+    public ResponseEntity<RewriteSqlResponse> rewrite(@RequestBody RewriteSqlRequest request) {
+        try {
+            if (request.getSql() == null || request.getSql().trim().isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(new RewriteSqlResponse(null, null, null, false, "SQL cannot be empty"));
+            }
+
+            TableMapping mapping;
+            if (request.getMapping() != null) {
+                mapping = sqlParserService.getMapping(request.getMapping());
+                if (mapping == null) {
+                    return ResponseEntity.badRequest()
+                            .body(new RewriteSqlResponse(null, null, null, false, "Unknown table mapping: " + request.getMapping()));
+                }
+            } else if (request.getTableMapping() != null && !request.getTableMapping().isEmpty()) {
+                mapping = TableMapping.of(request.getTableMapping());
+            } else {
+                return ResponseEntity.badRequest()
+                        .body(new RewriteSqlResponse(null, null, null, false, "Table mapping cannot be empty"));
+            }
+
+            ExtractorMode mode = request.getExtractor() != null ? ExtractorMode.fromName(request.getExtractor()) : null;
+            return ResponseEntity.ok(sqlParserService.rewrite(request.getSql(), mode, mapping, request.isVerify()));
+
+        } catch (Exception e) {
+            logger.error("Error rewriting SQL", e);
+            return ResponseEntity.badRequest()
+                    .body(new RewriteSqlResponse(null, null, null, false, "Error processing SQL: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Rewrites one statement into a variant per mapping or shard from a single parse. The body is
+     * streamed as the variants are rendered, in the shape of {@link FanOutRewriteResponse};
+     * everything that can fail is checked before the first byte so errors are still a 400.
+     */
+    @PostMapping("/rewrite/fan-out")
+    public ResponseEntity<StreamingResponseBody> fanOutRewrite(@RequestBody FanOutRewriteRequest request) {
+        try {
+            if (request.getSql() == null || request.getSql().trim().isEmpty()) {
+                return fanOutError("SQL cannot be empty");
+            }
+
+            List<TableMapping> mappings = new ArrayList<>();
+            // registered mapping references, or shards
+            List<String> labels = null;
+            List<String> shards = null;
+            if (request.getMappings() != null && !request.getMappings().isEmpty()) {
+                for (String reference : request.getMappings()) {
+                    TableMapping mapping = sqlParserService.getMapping(reference);
+                    if (mapping == null) {
+                        return fanOutError("Unknown table mapping: " + reference);
+                    }
+                    mappings.add(mapping);
+                }
+                labels = request.getMappings();
+            } else if (request.getTableMappings() != null && !request.getTableMappings().isEmpty()) {
+                // Checked before any mapping is compiled, each builds its own lookup indexes
+                if (request.getTableMappings().size() > sqlParserService.getMaxFanOutVariants()) {
+                    return fanOutError("Too many variants: " + request.getTableMappings().size()
+                        + " (max " + sqlParserService.getMaxFanOutVariants() + ")");
+                }
+                for (Map<String, String> tableMapping : request.getTableMappings()) {
+                    mappings.add(TableMapping.of(tableMapping != null ? tableMapping : Map.of()));
+                }
+            } else if (request.getTableMappingTemplate() != null && !request.getTableMappingTemplate().isEmpty()) {
+                shards = request.getShards();
+                if (shards == null || shards.isEmpty()) {
+                    // Checked before the labels are built, a huge shardCount must not allocate them
+                    if (request.getShardCount() > sqlParserService.getMaxFanOutVariants()) {
+                        return fanOutError("Too many variants: " + request.getShardCount()
+                            + " (max " + sqlParserService.getMaxFanOutVariants() + ")");
+                    }
+                    shards = new ArrayList<>();
+                    for (int shard = 0; shard < request.getShardCount(); shard++) {
+                        shards.add(String.valueOf(shard));
+                    }
+                }
+                if (shards.isEmpty()) {
+                    return fanOutError("Shards cannot be empty");
+                }
+                labels = shards;
+            } else {
+                return fanOutError("Table mapping cannot be empty");
+            }
+            int variants = shards != null ? shards.size() : mappings.size();
+            if (variants > sqlParserService.getMaxFanOutVariants()) {
+                return fanOutError("Too many variants: " + variants + " (max " + sqlParserService.getMaxFanOutVariants() + ")");
+            }
+
+            ExtractorMode mode = request.getExtractor() != null ? ExtractorMode.fromName(request.getExtractor()) : null;
+            RewritePlan plan = sqlParserService.planRewrite(request.getSql(), mode);
+            RewritePlan.Template template = shards != null ? plan.template(request.getTableMappingTemplate()) : null;
+            List<String> variantLabels = labels;
+            StreamingResponseBody body = out -> {
+                try (JsonGenerator json = objectMapper.createGenerator(out)) {
+                    json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                    json.writeStartObject();
+                    json.writeArrayFieldStart("tableNames");
+                    for (String tableName : plan.getTableNames()) {
+                        json.writeString(tableName);
+                    }
+                    json.writeEndArray();
+                    json.writeArrayFieldStart("variants");
+                    for (int i = 0; i < variants; i++) {
+                        json.writeStartObject();
+                        json.writeNumberField("index", i);
+                        if (template != null) {
+                            json.writeStringField("shard", variantLabels.get(i));
+                            json.writeStringField("sql", template.render(variantLabels.get(i)));
+                        } else {
+                            if (variantLabels != null) {
+                                json.writeStringField("mapping", variantLabels.get(i));
+                            }
+                            json.writeStringField("sql", plan.rewrite(mappings.get(i)));
+                        }
+                        json.writeEndObject();
+                    }
+                    json.writeEndArray();
+                    json.writeBooleanField("success", true);
+                    json.writeStringField("message", "Success");
+                    json.writeEndObject();
+                }
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+
+        } catch (Exception e) {
+            logger.error("Error rewriting SQL", e);
+            return fanOutError("Error processing SQL: " + e.getMessage());
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> fanOutError(String message) {
+        FanOutRewriteResponse response = new FanOutRewriteResponse(null, null, false, message);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, response));
+    }
+
+    @PutMapping("/mappings/{name}")
+    public ResponseEntity<RegisterMappingResponse> registerMapping(@PathVariable("name") String name,
+                                                                   @RequestBody Map<String, String> tableMapping) {
+        if (tableMapping == null || tableMapping.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(new RegisterMappingResponse(name, 0, 0, false, "Table mapping cannot be empty"));
+        }
+        for (Map.Entry<String, String> entry : tableMapping.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().trim().isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(new RegisterMappingResponse(name, 0, 0, false, "Replacement for " + entry.getKey() + " cannot be empty"));
+            }
+        }
+        try {
+            TableMapping mapping = sqlParserService.registerMapping(name, tableMapping);
+            return ResponseEntity.ok(new RegisterMappingResponse(name, mapping.getVersion(), tableMapping.size(), true, "Success"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new RegisterMappingResponse(name, 0, 0, false, e.getMessage()));
+        }
+    }
+
+    @PostMapping("/validate")
+    public ResponseEntity<ValidateSqlResponse> validate(@RequestBody ValidateSqlRequest request) {
+        List<String> statements = new ArrayList<>();
+        if (request.getSql() != null) {
+            statements.add(request.getSql());
+        }
+        if (request.getStatements() != null) {
+            statements.addAll(request.getStatements());
+        }
+        if (statements.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(new ValidateSqlResponse(null, false, "SQL cannot be empty"));
+        }
+
+        try {
+            List<SqlValidation> results = sqlParserService.validate(statements, request.isVerdictOnly());
+            return ResponseEntity.ok(new ValidateSqlResponse(results, true, "Success"));
+        } catch (Exception e) {
+            logger.error("Error validating SQL", e);
+            return ResponseEntity.badRequest()
+                    .body(new ValidateSqlResponse(null, false, "Error validating SQL: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/fingerprint")
+    public ResponseEntity<FingerprintResponse> fingerprint(@RequestBody FingerprintRequest request) {
+        List<String> statements = new ArrayList<>();
+        if (request.getSql() != null) {
+            statements.add(request.getSql());
+        }
+        if (request.getStatements() != null) {
+            statements.addAll(request.getStatements());
+        }
+        if (statements.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(new FingerprintResponse(null, false, "SQL cannot be empty"));
+        }
+
+        try {
+            return ResponseEntity.ok(new FingerprintResponse(sqlParserService.fingerprint(statements), true, "Success"));
+        } catch (UnsupportedOperationException e) {
+            // Not the request's fault: this deployment's Trino version does not expose the parse tree
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
+                    .body(new FingerprintResponse(null, false, e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error fingerprinting SQL", e);
+            return ResponseEntity.badRequest()
+                    .body(new FingerprintResponse(null, false, "Error fingerprinting SQL: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/query-index")
+    public ResponseEntity<IndexQueriesResponse> indexQueries(@RequestBody IndexQueriesRequest request) {
+        Map<String, String> queries = request.getQueries() != null ? request.getQueries() : Map.of();
+        List<String> remove = request.getRemove() != null ? request.getRemove() : List.of();
+        if (queries.isEmpty() && remove.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(new IndexQueriesResponse(0, 0, null, 0, false, "Queries cannot be empty"));
+        }
+
+        try {
+            int removed = sqlParserService.removeIndexedQueries(remove);
+            Map<String, String> failed = sqlParserService.indexQueries(queries);
+            return ResponseEntity.ok(new IndexQueriesResponse(queries.size() - failed.size(), removed, failed,
+                    sqlParserService.getQueryIndexStats().getQueries(), true, "Success"));
+        } catch (Exception e) {
+            logger.error("Error indexing queries", e);
+            return ResponseEntity.badRequest()
+                    .body(new IndexQueriesResponse(0, 0, null, 0, false, "Error indexing queries: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/query-index/affected")
+    public ResponseEntity<AffectedQueriesResponse> affectedQueries(@RequestBody AffectedQueriesRequest request) {
+        TableMapping mapping;
+        if (request.getMapping() != null) {
+            mapping = sqlParserService.getMapping(request.getMapping());
+            if (mapping == null) {
+                return ResponseEntity.badRequest()
+                        .body(new AffectedQueriesResponse(null, 0, null, false, "Unknown table mapping: " + request.getMapping()));
+            }
+        } else if (request.getTableMapping() != null && !request.getTableMapping().isEmpty()) {
+            mapping = TableMapping.of(request.getTableMapping());
+        } else {
+            return ResponseEntity.badRequest()
+                    .body(new AffectedQueriesResponse(null, 0, null, false, "Table mapping cannot be empty"));
+        }
+        if (request.getLimit() != null && request.getLimit() < 0) {
+            return ResponseEntity.badRequest()
+                    .body(new AffectedQueriesResponse(null, 0, null, false, "limit cannot be negative"));
+        }
+
+        int limit = request.getLimit() != null ? request.getLimit() : sqlParserService.getMaxQueryIds();
+        AffectedQueries affected = sqlParserService.findAffectedQueries(mapping, limit);
+        return ResponseEntity.ok(new AffectedQueriesResponse(affected.getTables(), affected.getCount(),
+                affected.getQueryIds(), true, "Success"));
+    }
+
+    @PostMapping("/stored-queries")
+    public ResponseEntity<StoreQueriesResponse> storeQueries(@RequestBody StoreQueriesRequest request) {
+        Map<String, String> queries = request.getQueries() != null ? request.getQueries() : Map.of();
+        List<String> remove = request.getRemove() != null ? request.getRemove() : List.of();
+        if (queries.isEmpty() && remove.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(new StoreQueriesResponse(0, 0, null, 0, 0, false, "Queries cannot be empty"));
+        }
+        String mapping = request.getMapping();
+        if (!queries.isEmpty()) {
+            if (mapping == null || mapping.isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(new StoreQueriesResponse(0, 0, null, 0, 0, false, "Table mapping name cannot be empty"));
+            }
+            if (mapping.indexOf('@') >= 0) {
+                return ResponseEntity.badRequest().body(new StoreQueriesResponse(0, 0, null, 0, 0, false,
+                        "Stored queries follow the latest version of a mapping; pass its name without @version"));
+            }
+            if (sqlParserService.getMapping(mapping) == null) {
+                return ResponseEntity.badRequest()
+                        .body(new StoreQueriesResponse(0, 0, null, 0, 0, false, "Unknown table mapping: " + mapping));
+            }
+        }
+
+        try {
+            int removed = sqlParserService.removeStoredQueries(remove);
+            Map<String, String> failed = queries.isEmpty() ? Map.of() : sqlParserService.storeQueries(mapping, queries);
+            StoredQueryStats stats = sqlParserService.getStoredQueryStats();
+            return ResponseEntity.ok(new StoreQueriesResponse(queries.size() - failed.size(), removed, failed,
+                    stats.getQueries(), stats.getLastSequence(), true, "Success"));
+        } catch (Exception e) {
+            logger.error("Error storing queries", e);
+            return ResponseEntity.badRequest()
+                    .body(new StoreQueriesResponse(0, 0, null, 0, 0, false, "Error storing queries: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/stored-queries/changes")
+    public ResponseEntity<StoredQueryChangesResponse> storedQueryChanges(
+            @RequestParam(name = "since", defaultValue = "0") long since,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        if (since < 0 || (limit != null && limit < 0)) {
+            return ResponseEntity.badRequest()
+                    .body(new StoredQueryChangesResponse(null, since, false, false, "since and limit cannot be negative"));
+        }
+
+        StoredQueryChanges changes = sqlParserService.getStoredQueryChanges(since,
+                limit != null ? limit : sqlParserService.getMaxStoredQueryChanges());
+        return ResponseEntity.ok(new StoredQueryChangesResponse(changes.getChanges(), changes.getLastSequence(),
+                changes.isReset(), true, "Success"));
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<MetricsResponse> metrics() {
+        return ResponseEntity.ok(new MetricsResponse(sqlParserService.getCacheStats(),
+                sqlParserService.getCoalescedRequestCount(),
+                concurrencyLimiter != null ? concurrencyLimiter.stats() : null,
+                sqlParserService.getDfaCacheStats(),
+                sqlParserService.getDictionarySize(),
+                sqlParserService.getVerificationStats(),
+                sqlParserService.getMappingFileStats(),
+                sqlParserService.getQueryIndexStats(),
+                sqlParserService.getStoredQueryStats()));
+    }
+
+    @GetMapping("/diagnostics/rewrite-mismatches")
+    public ResponseEntity<List<RewriteMismatch>> rewriteMismatches() {
+        return ResponseEntity.ok(sqlParserService.getRewriteMismatches());
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("SQL Parser Server is running");
@@ -0,0 +1,24 @@
+package com.sqlparser.index;
+
+import java.util.List;
+
+/**
+ * Result of a {@link QueryIndex} lookup: the indexed tables a mapping covers (case-folded,
+ * sorted), how many queries reference any of them, and the ids of the first of those queries.
+ */
+public final class AffectedQueries {
+
+    private final List<String> tables;
+    private final long count;
+    private final List<String> queryIds;
+
+    public AffectedQueries(List<String> tables, long count, List<String> queryIds) {
+        this.tables = tables;
+        this.count = count;
+        this.queryIds = queryIds;
+    }
+
+    public List<String> getTables() { return tables; }
+    public long getCount() { return count; }
+    public List<String> getQueryIds() { return queryIds; }
+}
@@ -0,0 +1,281 @@
+package com.sqlparser.index;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Compressed set of non-negative ints in the layout of a Roaring bitmap: values are grouped by
+ * their high 16 bits into containers, each holding the low 16 bits either as a sorted array (up
+ * to {@value #ARRAY_MAX} values, 2 bytes each) or as a 65536-bit bitmap (8 KB), whichever is
+ * smaller. Posting lists of dense query ids cost a bit per query, sparse ones 2 bytes per query,
+ * and unions work a container at a time.
+ * <p>
+ * Not thread-safe.
+ */
+final class PostingBitmap {
+
+    static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private static final class Container {
+        // exactly one of values (sorted, the first cardinality in use) and bits is set
+        private char[] values;
+        private long[] bits;
+        private int cardinality;
+
+        private Container(char[] values, long[] bits, int cardinality) {
+            this.values = values;
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        private boolean contains(char low) {
+            return values != null
+                ? Arrays.binarySearch(values, 0, cardinality, low) >= 0
+                : (bits[low >>> 6] & (1L << low)) != 0;
+        }
+
+        private boolean add(char low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] = before | (1L << low);
+                if (before == bits[low >>> 6]) {
+                    return false;
+                }
+                cardinality++;
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (cardinality == ARRAY_MAX) {
+                bits = toBits(values, cardinality);
+                values = null;
+                bits[low >>> 6] |= 1L << low;
+            } else {
+                if (cardinality == values.length) {
+                    values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+                }
+                System.arraycopy(values, index, values, index + 1, cardinality - index);
+                values[index] = low;
+            }
+            cardinality++;
+            return true;
+        }
+
+        private boolean remove(char low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] = before & ~(1L << low);
+                if (before == bits[low >>> 6]) {
+                    return false;
+                }
+                if (--cardinality <= ARRAY_MAX / 2) {
+                    // Below half the array limit, so alternating adds and removes do not convert back and forth
+                    values = toValues(bits, cardinality);
+                    bits = null;
+                }
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        private long bytes() {
+            return values != null ? values.length * 2L : BITMAP_WORDS * 8L;
+        }
+    }
+
+    // high 16 bits per container, ascending
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    private long cardinality;
+
+    boolean add(int value) {
+        char high = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, 0, size, high);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, high, new Container(new char[4], null, 0));
+        }
+        if (!containers[index].add((char) value)) {
+            return false;
+        }
+        cardinality++;
+        return true;
+    }
+
+    boolean remove(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (index < 0 || !containers[index].remove((char) value)) {
+            return false;
+        }
+        cardinality--;
+        if (containers[index].cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        }
+        return true;
+    }
+
+    boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    long cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /** Approximate heap footprint of the containers. */
+    long bytes() {
+        long bytes = size * 32L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Calls {@code action} with each value in ascending order until it returns false.
+     */
+    void forEach(IntPredicate action) {
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            Container container = containers[i];
+            if (container.values != null) {
+                for (int j = 0; j < container.cardinality; j++) {
+                    if (!action.test(high | container.values[j])) {
+                        return;
+                    }
+                }
+            } else {
+                long[] bits = container.bits;
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    for (long w = bits[word]; w != 0; w &= w - 1) {
+                        if (!action.test(high | (word << 6) | Long.numberOfTrailingZeros(w))) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Union of the bitmaps, built a container key at a time: a key held by one input is copied,
+     * keys held by several are OR-ed word by word.
+     */
+    static PostingBitmap or(List<PostingBitmap> bitmaps) {
+        PostingBitmap union = new PostingBitmap();
+        if (bitmaps.isEmpty()) {
+            return union;
+        }
+        int total = 0;
+        for (PostingBitmap bitmap : bitmaps) {
+            total += bitmap.size;
+        }
+        char[] allKeys = new char[total];
+        int filled = 0;
+        for (PostingBitmap bitmap : bitmaps) {
+            System.arraycopy(bitmap.keys, 0, allKeys, filled, bitmap.size);
+            filled += bitmap.size;
+        }
+        Arrays.sort(allKeys);
+        // position of each input's next container to merge
+        int[] cursors = new int[bitmaps.size()];
+        for (int i = 0; i < total; ) {
+            char key = allKeys[i];
+            int count = 0;
+            while (i < total && allKeys[i] == key) {
+                i++;
+                count++;
+            }
+            Container merged = null;
+            long[] bits = null;
+            for (int b = 0; b < cursors.length; b++) {
+                PostingBitmap bitmap = bitmaps.get(b);
+                if (cursors[b] >= bitmap.size || bitmap.keys[cursors[b]] != key) {
+                    continue;
+                }
+                Container container = bitmap.containers[cursors[b]++];
+                if (count == 1) {
+                    merged = container.values != null
+                        ? new Container(Arrays.copyOf(container.values, container.cardinality), null, container.cardinality)
+                        : new Container(null, container.bits.clone(), container.cardinality);
+                    break;
+                }
+                if (bits == null) {
+                    bits = new long[BITMAP_WORDS];
+                }
+                if (container.values != null) {
+                    for (int j = 0; j < container.cardinality; j++) {
+                        char low = container.values[j];
+                        bits[low >>> 6] |= 1L << low;
+                    }
+                } else {
+                    for (int word = 0; word < BITMAP_WORDS; word++) {
+                        bits[word] |= container.bits[word];
+                    }
+                }
+            }
+            if (merged == null) {
+                int cardinality = 0;
+                for (long word : bits) {
+                    cardinality += Long.bitCount(word);
+                }
+                merged = cardinality <= ARRAY_MAX
+                    ? new Container(toValues(bits, cardinality), null, cardinality)
+                    : new Container(null, bits, cardinality);
+            }
+            union.insert(union.size, key, merged);
+            union.cardinality += merged.cardinality;
+        }
+        return union;
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private static long[] toBits(char[] values, int cardinality) {
+        long[] bits = new long[BITMAP_WORDS];
+        for (int i = 0; i < cardinality; i++) {
+            bits[values[i] >>> 6] |= 1L << values[i];
+        }
+        return bits;
+    }
+
+    private static char[] toValues(long[] bits, int cardinality) {
+        char[] values = new char[Math.max(4, cardinality)];
+        int filled = 0;
+        for (int word = 0; word < BITMAP_WORDS; word++) {
+            for (long w = bits[word]; w != 0; w &= w - 1) {
+                values[filled++] = (char) ((word << 6) | Long.numberOfTrailingZeros(w));
+            }
+        }
+        return values;
+    }
+}
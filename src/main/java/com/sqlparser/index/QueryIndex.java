@@ -0,0 +1,237 @@
+package com.sqlparser.index;
+
+import com.sqlparser.mapping.TableMapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index from table names to the stored queries that reference them, for impact
+ * analysis before a migration: which queries would a mapping touch.
+ * <p>
+ * Each query id gets a dense int ordinal (ordinals of removed queries are reused) and each
+ * distinct table name, case-folded, an int table id. Every table keeps a {@link PostingBitmap}
+ * of the ordinals of the queries referencing it, and every query the table ids it was indexed
+ * with, so replacing or removing a query touches only its own posting lists. A lookup resolves
+ * the tables a mapping covers, unions their posting lists and maps the first ordinals back to
+ * query ids, without looking at any query text.
+ * <p>
+ * Queries are parsed by the caller, outside the lock; updates take the write lock only to swap
+ * posting-list entries, and lookups share the read lock.
+ */
+public class QueryIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    // by ordinal; null for a free ordinal
+    private String[] ids = new String[1024];
+    private int[][] tablesOf = new int[1024][];
+    private int nextOrdinal;
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    // by folded table name
+    private final Map<String, Integer> tableIds = new HashMap<>();
+    private final List<String> tableNames = new ArrayList<>();
+    private final List<PostingBitmap> postings = new ArrayList<>();
+
+    /**
+     * Indexes (or re-indexes) query {@code id} as referencing {@code tables}; returns false when
+     * the id was not indexed before.
+     */
+    public boolean put(String id, Collection<String> tables) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(id);
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                unlink(ordinal);
+            } else {
+                ordinal = allocate();
+                ordinals.put(id, ordinal);
+                ids[ordinal] = id;
+            }
+            int[] tableIdsOfQuery = new int[tables.size()];
+            int count = 0;
+            for (String table : tables) {
+                int tableId = tableId(TableMapping.fold(table));
+                if (postings.get(tableId).add(ordinal)) {
+                    tableIdsOfQuery[count++] = tableId;
+                }
+            }
+            tablesOf[ordinal] = count == tableIdsOfQuery.length ? tableIdsOfQuery : Arrays.copyOf(tableIdsOfQuery, count);
+            return existing != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops query {@code id}; returns false when it was not indexed.
+     */
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return false;
+            }
+            unlink(ordinal);
+            ids[ordinal] = null;
+            tablesOf[ordinal] = null;
+            if (freeCount == freeOrdinals.length) {
+                freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+            }
+            freeOrdinals[freeCount++] = ordinal;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The indexed queries referencing a table {@code mapping} has a replacement for, with the
+     * ids of at most {@code limit} of them. Tables match the way /replace-tables finds a
+     * replacement for them, by {@link TableMapping#tableKey}: mappings without prefix or wildcard
+     * rules and with fewer keys than there are indexed tables are resolved by looking up each
+     * key's table, others by testing each indexed table name, which both give the same tables.
+     */
+    public AffectedQueries affected(TableMapping mapping, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matched = new BitSet(tableNames.size());
+            if (!mapping.hasPatterns() && mapping.asMap().size() <= tableIds.size()) {
+                for (String key : mapping.asMap().keySet()) {
+                    Integer tableId = tableIds.get(TableMapping.tableKey(key));
+                    if (tableId != null) {
+                        matched.set(tableId);
+                    }
+                }
+            } else {
+                for (int tableId = 0; tableId < tableNames.size(); tableId++) {
+                    String name = tableNames.get(tableId);
+                    if (mapping.replacementFor(name, name) != null) {
+                        matched.set(tableId);
+                    }
+                }
+            }
+            return collect(matched, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The indexed queries referencing any of {@code tables}, compared case-insensitively, with
+     * the ids of at most {@code limit} of them.
+     */
+    public AffectedQueries affected(Collection<String> tables, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matched = new BitSet(tableNames.size());
+            for (String table : tables) {
+                Integer tableId = tableIds.get(TableMapping.fold(table));
+                if (tableId != null) {
+                    matched.set(tableId);
+                }
+            }
+            return collect(matched, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The indexed queries referencing a table {@code covers} accepts, testing each indexed table
+     * name (in lower case), with the ids of at most {@code limit} of them.
+     */
+    public AffectedQueries affected(Predicate<String> covers, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matched = new BitSet(tableNames.size());
+            for (int tableId = 0; tableId < tableNames.size(); tableId++) {
+                if (covers.test(tableNames.get(tableId))) {
+                    matched.set(tableId);
+                }
+            }
+            return collect(matched, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public QueryIndexStats stats() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            int live = 0;
+            for (PostingBitmap posting : postings) {
+                bytes += posting.bytes();
+                if (!posting.isEmpty()) {
+                    live++;
+                }
+            }
+            return new QueryIndexStats(ordinals.size(), live, bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Unions the posting lists of the matched tables; called under the read lock
+    private AffectedQueries collect(BitSet matched, int limit) {
+        List<String> tables = new ArrayList<>();
+        List<PostingBitmap> lists = new ArrayList<>();
+        for (int tableId = matched.nextSetBit(0); tableId >= 0; tableId = matched.nextSetBit(tableId + 1)) {
+            if (!postings.get(tableId).isEmpty()) {
+                tables.add(tableNames.get(tableId));
+                lists.add(postings.get(tableId));
+            }
+        }
+        tables.sort(null);
+        PostingBitmap union = lists.size() == 1 ? lists.get(0) : PostingBitmap.or(lists);
+        List<String> queryIds = new ArrayList<>((int) Math.min(limit, union.cardinality()));
+        union.forEach(ordinal -> {
+            if (queryIds.size() >= limit) {
+                return false;
+            }
+            queryIds.add(ids[ordinal]);
+            return true;
+        });
+        return new AffectedQueries(tables, union.cardinality(), queryIds);
+    }
+
+    private void unlink(int ordinal) {
+        for (int tableId : tablesOf[ordinal]) {
+            postings.get(tableId).remove(ordinal);
+        }
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeOrdinals[--freeCount];
+        }
+        if (nextOrdinal == ids.length) {
+            ids = Arrays.copyOf(ids, nextOrdinal * 2);
+            tablesOf = Arrays.copyOf(tablesOf, nextOrdinal * 2);
+        }
+        return nextOrdinal++;
+    }
+
+    private int tableId(String folded) {
+        Integer tableId = tableIds.get(folded);
+        if (tableId == null) {
+            tableId = tableNames.size();
+            tableIds.put(folded, tableId);
+            tableNames.add(folded);
+            postings.add(new PostingBitmap());
+        }
+        return tableId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.sqlparser.index;
+
+/**
+ * Size of the {@link QueryIndex}, serialized by the metrics endpoint.
+ */
+public final class QueryIndexStats {
+
+    private final int queries;
+    private final int tables;
+    private final long postingBytes;
+
+    public QueryIndexStats(int queries, int tables, long postingBytes) {
+        this.queries = queries;
+        this.tables = tables;
+        this.postingBytes = postingBytes;
+    }
+
+    public int getQueries() { return queries; }
+    // Tables referenced by at least one indexed query
+    public int getTables() { return tables; }
+    // Approximate heap size of the posting lists
+    public long getPostingBytes() { return postingBytes; }
+}
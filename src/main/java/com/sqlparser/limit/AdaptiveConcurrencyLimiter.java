@@ -0,0 +1,125 @@
+package com.sqlparser.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gradient-style adaptive concurrency limit, driven by measured request latency.
+ * <p>
+ * Two exponentially weighted averages of the round-trip time are kept: a short one that
+ * follows the current latency and a long one that approximates the no-queue baseline.
+ * After each sample the limit moves towards
+ * <pre>
+ *   limit * clamp(tolerance * longRtt / shortRtt, 0.5, 1.0) + sqrt(limit)
+ * </pre>
+ * so it grows by a small queue allowance while latency stays near the baseline and shrinks
+ * as soon as queueing inflates it. While fewer than half the permits are in use the limit is
+ * left alone, since such samples say nothing about capacity, but they are the best evidence of
+ * the no-queue latency and feed the long average at full weight; samples taken under
+ * saturation move it ten times more slowly so a persistently overloaded server does not learn
+ * its own queueing delay as the baseline. When the short average stays far below the long one
+ * (load dropped), the long average decays so the baseline can recover.
+ * <p>
+ * {@link #tryAcquire()} is a CAS on the in-flight counter; only {@link #release(long)} takes
+ * the (short) monitor to update the estimate.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double SATURATED_SLOWDOWN = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile double limit;
+    // Guarded by this
+    private double shortRttNanos;
+    private double longRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit, got "
+                + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /** Takes a permit, or returns false when the current limit is reached. */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /** Returns a permit taken by {@link #tryAcquire()} and feeds its latency into the estimate. */
+    public void release(long rttNanos) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightAtRelease);
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtRelease) {
+        double rtt = Math.max(1, rttNanos);
+        if (samples++ == 0) {
+            shortRttNanos = rtt;
+            longRttNanos = rtt;
+            return;
+        }
+        double current = limit;
+        boolean appLimited = inFlightAtRelease < current / 2;
+        shortRttNanos += (rtt - shortRttNanos) / SHORT_WINDOW;
+        // Samples taken while saturated include queueing, so they move the baseline far more slowly
+        double longWindow = appLimited ? Math.min(samples, LONG_WINDOW) : LONG_WINDOW * SATURATED_SLOWDOWN;
+        longRttNanos += (rtt - longRttNanos) / longWindow;
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        if (appLimited) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    /**
+     * Seconds a rejected client should wait: enough to drain the current in-flight work at the
+     * observed latency, at least one second (Retry-After has whole-second resolution).
+     */
+    public int getRetryAfterSeconds() {
+        double drainNanos;
+        synchronized (this) {
+            drainNanos = shortRttNanos * Math.max(1, inFlight.get()) / Math.max(1, limit);
+        }
+        return (int) Math.max(1, Math.ceil(drainNanos / 1_000_000_000.0));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public LimiterStats stats() {
+        synchronized (this) {
+            return new LimiterStats((int) limit, inFlight.get(), accepted.sum(), rejected.sum(),
+                shortRttNanos / 1_000.0, longRttNanos / 1_000.0);
+        }
+    }
+}
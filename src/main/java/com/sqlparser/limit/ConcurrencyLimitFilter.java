@@ -0,0 +1,105 @@
+package com.sqlparser.limit;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load in front of the parser endpoints: a request that cannot get a permit from the
+ * {@link AdaptiveConcurrencyLimiter} is answered immediately with the configured status
+ * (429 by default) and a Retry-After hint instead of queueing behind the work in flight.
+ * Accepted requests feed their end-to-end latency back into the limiter; one that goes async,
+ * like the streamed fan-out rewrite, keeps its permit until the async response completes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY =
+        "{\"success\":false,\"message\":\"Server is at its concurrency limit, retry later\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final int rejectionStatus;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, int rejectionStatus) {
+        this.limiter = limiter;
+        this.rejectionStatus = rejectionStatus;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            response.setStatus(rejectionStatus);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(REJECTED_BODY.length);
+            response.getOutputStream().write(REJECTED_BODY);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Holds the permit of a request that went async (a streamed response renders after the chain
+     * returns) until the response is complete. Completion is signalled after a timeout or an error
+     * as well, the flag only guards against a container signalling twice.
+     */
+    private class ReleaseOnComplete implements AsyncListener {
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnComplete(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for a nested async cycle, the permit is held until the last one completes
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    // Health, metrics and diagnostics must stay reachable when the parser is saturated
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.endsWith("/health") || path.endsWith("/metrics") || path.contains("/diagnostics/");
+    }
+}
@@ -0,0 +1,38 @@
+package com.sqlparser.limit;
+
+/**
+ * Point-in-time snapshot of the adaptive concurrency limiter, serialized by the metrics endpoint.
+ */
+public final class LimiterStats {
+
+    private final int limit;
+    private final int inFlight;
+    private final long accepted;
+    private final long rejected;
+    private final double shortRttMicros;
+    private final double longRttMicros;
+
+    public LimiterStats(int limit, int inFlight, long accepted, long rejected,
+                        double shortRttMicros, double longRttMicros) {
+        this.limit = limit;
+        this.inFlight = inFlight;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.shortRttMicros = shortRttMicros;
+        this.longRttMicros = longRttMicros;
+    }
+
+    public int getLimit() { return limit; }
+    public int getInFlight() { return inFlight; }
+    public long getAccepted() { return accepted; }
+    public long getRejected() { return rejected; }
+    // Recent latency and the slower-moving baseline the gradient compares it against
+    public double getShortRttMicros() { return shortRttMicros; }
+    public double getLongRttMicros() { return longRttMicros; }
+
+    @Override
+    public String toString() {
+        return "LimiterStats{limit=" + limit + ", inFlight=" + inFlight + ", accepted=" + accepted
+            + ", rejected=" + rejected + '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.sqlparser.mapping;
+
+/**
+ * State of one watched mapping file, serialized by the metrics endpoint.
+ */
+public final class MappingFileStats {
+
+    private final String name;
+    private final String path;
+    private final long version;
+    private final int entries;
+    private final long bytes;
+    private final long modifiedAt;
+    private final long loadedAt;
+    private final long loadMillis;
+    private final long failures;
+    private final String lastError;
+
+    public MappingFileStats(String name, String path, long version, int entries, long bytes, long modifiedAt,
+                            long loadedAt, long loadMillis, long failures, String lastError) {
+        this.name = name;
+        this.path = path;
+        this.version = version;
+        this.entries = entries;
+        this.bytes = bytes;
+        this.modifiedAt = modifiedAt;
+        this.loadedAt = loadedAt;
+        this.loadMillis = loadMillis;
+        this.failures = failures;
+        this.lastError = lastError;
+    }
+
+    public String getName() { return name; }
+    public String getPath() { return path; }
+    // Registered version and its size; 0 until the file has loaded once
+    public long getVersion() { return version; }
+    public int getEntries() { return entries; }
+    // Size and modification time (epoch millis) of the file as last seen, loaded or not
+    public long getBytes() { return bytes; }
+    public long getModifiedAt() { return modifiedAt; }
+    // When the registered version was loaded (epoch millis) and how long reading and compiling it took
+    public long getLoadedAt() { return loadedAt; }
+    public long getLoadMillis() { return loadMillis; }
+    // Loads rejected so far, and why the most recent one was (null once a load succeeds)
+    public long getFailures() { return failures; }
+    public String getLastError() { return lastError; }
+
+    @Override
+    public String toString() {
+        return "MappingFileStats{name=" + name + ", version=" + version + ", entries=" + entries + ", bytes=" + bytes
+            + ", loadMillis=" + loadMillis + ", failures=" + failures + '}';
+    }
+}
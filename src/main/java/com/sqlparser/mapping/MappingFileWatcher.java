@@ -0,0 +1,242 @@
+package com.sqlparser.mapping;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the table mappings of a directory of {@code <name>.mapping} files registered, reloading
+ * a file as the next version of {@code <name>} when its size or modification time changes.
+ * <p>
+ * A file holds one {@code table<TAB>replacement} (or {@code table=replacement}) per line in
+ * UTF-8; blank lines and lines starting with {@code #} are skipped. Files are read through
+ * memory-mapped windows straight into a {@link PackedStringMap}, without decoding any of it.
+ * A file that fails to parse, or changes while it is read, is not registered, so requests keep
+ * the previous version; writers should still replace files by rename so a half-written file is
+ * never read. Deleting a file leaves its last version registered.
+ * <p>
+ * The directory is polled on a single daemon thread; the registry swaps the new version in
+ * atomically, so rewrites in flight finish against the version they resolved.
+ */
+public class MappingFileWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappingFileWatcher.class);
+
+    static final String SUFFIX = ".mapping";
+    static final int WINDOW_BYTES = 64 * 1024 * 1024;
+    private static final int BUFFER_BYTES = 1024 * 1024;
+
+    private final Path directory;
+    private final TableMappingRegistry registry;
+    private final ConcurrentHashMap<String, MappingFileStats> files = new ConcurrentHashMap<>();
+    // null when the directory is loaded once and not polled
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Loads the directory's mapping files, then polls it every {@code pollInterval} (zero loads
+     * them once).
+     */
+    public MappingFileWatcher(Path directory, Duration pollInterval, TableMappingRegistry registry) {
+        this.directory = directory;
+        this.registry = registry;
+        poll();
+        if (pollInterval.isZero() || pollInterval.isNegative()) {
+            this.executor = null;
+        } else {
+            this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "mapping-file-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = pollInterval.toMillis();
+            executor.scheduleWithFixedDelay(this::poll, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Reloads every mapping file that changed since it was last seen.
+     */
+    synchronized void poll() {
+        List<Path> paths;
+        try (Stream<Path> listing = Files.list(directory)) {
+            paths = listing.filter(path -> path.getFileName().toString().endsWith(SUFFIX) && Files.isRegularFile(path))
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            logger.warn("Could not list table mapping directory {}: {}", directory, e.toString());
+            return;
+        }
+        for (Path path : paths) {
+            reloadIfChanged(path);
+        }
+    }
+
+    private void reloadIfChanged(Path path) {
+        String fileName = path.getFileName().toString();
+        String name = fileName.substring(0, fileName.length() - SUFFIX.length());
+        MappingFileStats previous = files.get(name);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // Removed since the listing
+            return;
+        }
+        long bytes = attributes.size();
+        long modifiedAt = attributes.lastModifiedTime().toMillis();
+        if (previous != null && previous.getBytes() == bytes && previous.getModifiedAt() == modifiedAt) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            PackedStringMap mapping = read(path, WINDOW_BYTES);
+            BasicFileAttributes after = Files.readAttributes(path, BasicFileAttributes.class);
+            if (after.size() != bytes || after.lastModifiedTime().toMillis() != modifiedAt) {
+                // Still being written; the next poll reads it again
+                return;
+            }
+            TableMapping compiled = registry.install(name, mapping);
+            long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            files.put(name, new MappingFileStats(name, path.toString(), compiled.getVersion(), mapping.size(), bytes,
+                modifiedAt, System.currentTimeMillis(), loadMillis, previous != null ? previous.getFailures() : 0, null));
+            logger.info("Loaded table mapping {} from {}: {} tables in {} ms", compiled, path, mapping.size(), loadMillis);
+        } catch (IOException | RuntimeException e) {
+            // Any failure only counts against this file, so the poller keeps running for the others
+            logger.warn("Could not load table mapping file {}, keeping the registered version: {}", path, e.toString());
+            files.put(name, previous != null
+                ? new MappingFileStats(name, path.toString(), previous.getVersion(), previous.getEntries(), bytes,
+                    modifiedAt, previous.getLoadedAt(), previous.getLoadMillis(), previous.getFailures() + 1, e.getMessage())
+                : new MappingFileStats(name, path.toString(), 0, 0, bytes, modifiedAt, 0, 0, 1, e.getMessage()));
+        }
+    }
+
+    /**
+     * One entry per mapping file seen so far, by name.
+     */
+    public List<MappingFileStats> stats() {
+        return files.values().stream().sorted(Comparator.comparing(MappingFileStats::getName)).toList();
+    }
+
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses a mapping file, mapping it {@code windowBytes} at a time and parsing lines from a
+     * buffer filled by bulk copies; a later line for the same table overrides an earlier one.
+     */
+    static PackedStringMap read(Path file, int windowBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // Generated files run to roughly 50 bytes per line
+            PackedStringMap mapping = new PackedStringMap((int) Math.min(size / 48, 1 << 24),
+                (int) Math.min(size, Integer.MAX_VALUE - 8));
+            if (size == 0) {
+                // Nothing to map; an emptied file is an empty mapping
+                return mapping;
+            }
+            byte[] buffer = new byte[(int) Math.min(BUFFER_BYTES, Math.max(size, 16))];
+            // buffer[0, filled) holds unparsed text, starting at a line start
+            int filled = 0;
+            int lineNumber = 0;
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+            long position = 0;
+            while (true) {
+                if (window == null || position == windowStart + window.limit()) {
+                    if (position < size) {
+                        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowBytes, size - position));
+                        windowStart = position;
+                    }
+                }
+                if (filled == buffer.length) {
+                    // A line longer than the buffer
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int copied = (int) Math.min(buffer.length - filled, windowStart + window.limit() - position);
+                window.get((int) (position - windowStart), buffer, filled, copied);
+                filled += copied;
+                position += copied;
+                boolean eof = position == size;
+                int lineStart = 0;
+                for (int i = 0; i < filled; i++) {
+                    if (buffer[i] == '\n') {
+                        parseLine(buffer, lineStart, i, ++lineNumber, mapping);
+                        lineStart = i + 1;
+                    }
+                }
+                if (eof) {
+                    if (lineStart < filled) {
+                        parseLine(buffer, lineStart, filled, ++lineNumber, mapping);
+                    }
+                    return mapping;
+                }
+                System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+                filled -= lineStart;
+            }
+        }
+    }
+
+    private static void parseLine(byte[] bytes, int start, int end, int lineNumber, PackedStringMap mapping)
+            throws IOException {
+        while (start < end && isBlank(bytes[start])) {
+            start++;
+        }
+        while (end > start && isBlank(bytes[end - 1])) {
+            end--;
+        }
+        if (start == end || bytes[start] == '#') {
+            return;
+        }
+        int separator = indexOf(bytes, start, end, (byte) '\t');
+        if (separator < 0) {
+            separator = indexOf(bytes, start, end, (byte) '=');
+        }
+        if (separator < 0) {
+            throw new IOException("Line " + lineNumber + " is not table<TAB>replacement or table=replacement");
+        }
+        int keyEnd = separator;
+        while (keyEnd > start && isBlank(bytes[keyEnd - 1])) {
+            keyEnd--;
+        }
+        int valueStart = separator + 1;
+        while (valueStart < end && isBlank(bytes[valueStart])) {
+            valueStart++;
+        }
+        if (keyEnd == start || valueStart == end) {
+            throw new IOException("Line " + lineNumber + " has an empty table or replacement");
+        }
+        mapping.add(bytes, start, keyEnd - start, valueStart, end - valueStart, true);
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,241 @@
+package com.sqlparser.mapping;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-only string map packed into a handful of arrays: keys and values as UTF-8 in one byte
+ * arena, plus an open-addressed index of entry numbers. A compiled mapping of millions of
+ * tables costs about its text size plus some 30 bytes per entry, as a few objects the collector
+ * never has to trace, instead of five objects per entry in a HashMap.
+ * <p>
+ * Entries are added while the map is built and iterate in insertion order; it is not modified
+ * once handed to a {@link TableMapping}.
+ */
+final class PackedStringMap extends AbstractMap<String, String> {
+
+    // keyOffset, keyLength, valueOffset, valueLength per entry
+    private static final int FIELDS = 4;
+
+    private byte[] arena;
+    private int arenaSize;
+    private int[] entries;
+    private int size;
+    // entry number + 1 per slot, 0 when free; at most half full
+    private int[] slots;
+
+    PackedStringMap(int expectedEntries, int expectedBytes) {
+        this.arena = new byte[Math.max(64, expectedBytes)];
+        this.entries = new int[Math.max(4, expectedEntries) * FIELDS];
+        this.slots = new int[Integer.highestOneBit(Math.max(4, expectedEntries) * 2 - 1) << 1];
+    }
+
+    static PackedStringMap copyOf(Map<String, String> map) {
+        PackedStringMap packed = new PackedStringMap(map.size(), map.size() * 32);
+        map.forEach((key, value) -> packed.add(key, value, true));
+        return packed;
+    }
+
+    /**
+     * Adds key and value given as UTF-8 bytes; with {@code replace} a later value for the same
+     * key overrides the earlier one (keeping its position), otherwise the first one stays.
+     */
+    void add(byte[] bytes, int keyOffset, int keyLength, int valueOffset, int valueLength, boolean replace) {
+        int hash = hash(bytes, keyOffset, keyLength);
+        int slot = find(bytes, keyOffset, keyLength, hash);
+        if (slots[slot] != 0) {
+            if (replace) {
+                int entry = (slots[slot] - 1) * FIELDS;
+                entries[entry + 2] = append(bytes, valueOffset, valueLength);
+                entries[entry + 3] = valueLength;
+            }
+            return;
+        }
+        if (size * FIELDS == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        int entry = size * FIELDS;
+        entries[entry] = append(bytes, keyOffset, keyLength);
+        entries[entry + 1] = keyLength;
+        entries[entry + 2] = append(bytes, valueOffset, valueLength);
+        entries[entry + 3] = valueLength;
+        slots[slot] = ++size;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+    }
+
+    void add(String key, String value, boolean replace) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] both = Arrays.copyOf(keyBytes, keyBytes.length + valueBytes.length);
+        System.arraycopy(valueBytes, 0, both, keyBytes.length, valueBytes.length);
+        add(both, 0, keyBytes.length, keyBytes.length, valueBytes.length, replace);
+    }
+
+    /**
+     * This map with every key passed through {@code fold}, the first entry winning among keys
+     * that fold alike; the map itself when no key changes (plain ASCII keys without capitals
+     * or quotes are not decoded to check).
+     */
+    PackedStringMap foldKeys(UnaryOperator<String> fold) {
+        int changed = -1;
+        for (int i = 0; i < size && changed < 0; i++) {
+            int entry = i * FIELDS;
+            if (!plainLowerAscii(entries[entry], entries[entry + 1]) && !fold.apply(key(entry)).equals(key(entry))) {
+                changed = i;
+            }
+        }
+        if (changed < 0) {
+            return this;
+        }
+        PackedStringMap folded = new PackedStringMap(size, arenaSize);
+        for (int i = 0; i < size; i++) {
+            int entry = i * FIELDS;
+            if (i < changed || plainLowerAscii(entries[entry], entries[entry + 1])) {
+                folded.add(arena, entries[entry], entries[entry + 1], entries[entry + 2], entries[entry + 3], false);
+            } else {
+                folded.add(fold.apply(key(entry)), value(entry), false);
+            }
+        }
+        return folded;
+    }
+
+    /**
+     * Calls {@code action} for each entry whose key contains {@code value}, decoding only those.
+     */
+    void forEachKeyContaining(byte value, BiConsumer<String, String> action) {
+        for (int i = 0; i < size; i++) {
+            int entry = i * FIELDS;
+            for (int j = entries[entry]; j < entries[entry] + entries[entry + 1]; j++) {
+                if (arena[j] == value) {
+                    action.accept(key(entry), value(entry));
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String text)) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int slot = find(bytes, 0, bytes.length, hash(bytes, 0, bytes.length));
+        return slots[slot] != 0 ? value((slots[slot] - 1) * FIELDS) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int entry = next++ * FIELDS;
+                        return new SimpleImmutableEntry<>(key(entry), value(entry));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Slot holding the key, or the free slot where it belongs
+    private int find(byte[] bytes, int offset, int length, int hash) {
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0 || (entries[entry * FIELDS + 1] == length
+                    && Arrays.equals(arena, entries[entry * FIELDS], entries[entry * FIELDS] + length,
+                        bytes, offset, offset + length))) {
+                return slot;
+            }
+        }
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int entry = i * FIELDS;
+            int slot = hash(arena, entries[entry], entries[entry + 1]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    private int append(byte[] bytes, int offset, int length) {
+        if (arenaSize + length > arena.length) {
+            if ((long) arenaSize + length > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Table mapping exceeds 2 GB");
+            }
+            arena = Arrays.copyOf(arena, (int) Math.min(Math.max((long) arena.length * 2, arenaSize + length),
+                Integer.MAX_VALUE - 8));
+        }
+        System.arraycopy(bytes, offset, arena, arenaSize, length);
+        arenaSize += length;
+        return arenaSize - length;
+    }
+
+    private boolean plainLowerAscii(int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (arena[i] < 0 || (arena[i] >= 'A' && arena[i] <= 'Z') || arena[i] == '"') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String key(int entry) {
+        return new String(arena, entries[entry], entries[entry + 1], StandardCharsets.UTF_8);
+    }
+
+    private String value(int entry) {
+        return new String(arena, entries[entry + 2], entries[entry + 3], StandardCharsets.UTF_8);
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 0x811c9dc5;
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ bytes[i]) * 0x01000193;
+        }
+        return hash ^ (hash >>> 15);
+    }
+}
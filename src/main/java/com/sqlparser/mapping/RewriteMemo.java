@@ -0,0 +1,114 @@
+package com.sqlparser.mapping;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rewritten output of one mapping version by SQL text, bounded by the characters it holds
+ * (statement plus output) rather than by entry count, so a few huge statements cannot pin
+ * unbounded memory and many small ones are not turned away early.
+ * <p>
+ * Entries are indexed by the statement's hash; a hit is confirmed against the stored text, and
+ * a colliding statement replaces the entry. Eviction is CLOCK: a hit only sets the entry's
+ * reference bit (reads take no lock), and a write that needs room sweeps the ring in insertion
+ * order, giving referenced entries a second chance and dropping the first unreferenced one.
+ */
+final class RewriteMemo {
+
+    private final long maxChars;
+    private final ConcurrentHashMap<Integer, Entry> index = new ConcurrentHashMap<>();
+    // guarded by this
+    private final ArrayDeque<Entry> ring = new ArrayDeque<>();
+    private int removedInRing;
+    private final AtomicLong chars = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    RewriteMemo(long maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    String get(String sql) {
+        Entry entry = index.get(sql.hashCode());
+        if (entry == null || !entry.sql.equals(sql)) {
+            return null;
+        }
+        entry.referenced = true;
+        return entry.rewritten;
+    }
+
+    synchronized void put(String sql, String rewritten) {
+        long size = (long) sql.length() + rewritten.length();
+        if (size > maxChars) {
+            return;
+        }
+        Entry replaced = index.remove(sql.hashCode());
+        if (replaced != null) {
+            // Left in the ring and skipped by the sweep rather than searched for; compacted away
+            // once they are half of the ring, so replaced output does not accumulate
+            replaced.removed = true;
+            chars.addAndGet(-replaced.size());
+            if (++removedInRing > ring.size() / 2) {
+                ring.removeIf(e -> e.removed);
+                removedInRing = 0;
+            }
+        }
+        while (chars.get() + size > maxChars) {
+            Entry candidate = ring.pollFirst();
+            if (candidate.removed) {
+                removedInRing--;
+                continue;
+            }
+            if (candidate.referenced) {
+                candidate.referenced = false;
+                ring.addLast(candidate);
+            } else {
+                index.remove(candidate.hash, candidate);
+                chars.addAndGet(-candidate.size());
+                evictions.incrementAndGet();
+            }
+        }
+        Entry entry = new Entry(sql, rewritten);
+        ring.addLast(entry);
+        index.put(entry.hash, entry);
+        chars.addAndGet(size);
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    long chars() {
+        return chars.get();
+    }
+
+    long evictions() {
+        return evictions.get();
+    }
+
+    synchronized void clear() {
+        index.clear();
+        ring.clear();
+        removedInRing = 0;
+        chars.set(0);
+    }
+
+    private static final class Entry {
+        final int hash;
+        final String sql;
+        final String rewritten;
+        volatile boolean referenced;
+        // guarded by the memo
+        boolean removed;
+
+        Entry(String sql, String rewritten) {
+            this.hash = sql.hashCode();
+            this.sql = sql;
+            this.rewritten = rewritten;
+        }
+
+        long size() {
+            return (long) sql.length() + rewritten.length();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.sqlparser.mapping;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable table-name mapping used to rewrite SQL, with the lookup rules of /replace-tables:
+ * the text as written, then without its quotes, then the extracted table name, and finally a
+ * case-insensitive match of the name with each part unquoted. The case-insensitive index is keyed
+ * by {@link #tableKey} and built once, so every lookup is a hash probe regardless of the
+ * mapping's size, and a key matches exactly the table names with the same table key. Keys
+ * with {@code *} parts ({@code raw.*}, {@code *.events}) are prefix and wildcard rules, tried
+ * when no key matches exactly (see {@link TableNameTrie}).
+ * <p>
+ * Mappings registered in a {@link TableMappingRegistry} carry a name and version and memoize
+ * the output for each rewritten SQL text, up to a number of characters, evicting statements
+ * that have not been hit recently (see {@link RewriteMemo}); inline mappings built with
+ * {@link #of(Map)} do not.
+ */
+public final class TableMapping {
+
+    private final String name;
+    private final long version;
+    private final Map<String, String> exact;
+    private final Map<String, String> folded;
+    // null when the mapping has no pattern rules
+    private final TableNameTrie patterns;
+    // null when rewrites are not memoized
+    private final RewriteMemo rewrites;
+
+    private TableMapping(String name, long version, Map<String, String> exact, long maxRewriteChars) {
+        this.name = name;
+        this.version = version;
+        this.exact = Collections.unmodifiableMap(exact);
+        this.folded = foldedIndex(exact);
+        this.patterns = compilePatterns(exact);
+        this.rewrites = maxRewriteChars > 0 ? new RewriteMemo(maxRewriteChars) : null;
+    }
+
+    public static TableMapping of(Map<String, String> mapping) {
+        return new TableMapping(null, 0, new LinkedHashMap<>(mapping), 0);
+    }
+
+    // Takes ownership of mapping, which is not copied
+    static TableMapping compile(String name, long version, PackedStringMap mapping, long maxRewriteChars) {
+        return new TableMapping(name, version, mapping, maxRewriteChars);
+    }
+
+    /**
+     * Replacement for a table occurrence, or null when the mapping does not cover it.
+     *
+     * @param actual    the occurrence's text in the SQL, quotes included
+     * @param tableName the table name extracted for the occurrence
+     */
+    public String replacementFor(String actual, String tableName) {
+        String replacement = exact.get(actual);
+        String unquoted = unquote(actual);
+        if (replacement == null && isQuoted(actual)) {
+            replacement = exact.get(unquoted);
+        }
+        if (replacement == null) {
+            replacement = exact.get(tableName);
+        }
+        if (replacement == null) {
+            replacement = folded.get(tableKey(actual));
+        }
+        if (replacement == null && patterns != null) {
+            replacement = patterns.replacementFor(actual);
+        }
+        return replacement;
+    }
+
+    /**
+     * Rewritten output memoized for {@code sql}, or null.
+     */
+    public String memoizedRewrite(String sql) {
+        return rewrites != null ? rewrites.get(sql) : null;
+    }
+
+    public void memoizeRewrite(String sql, String rewritten) {
+        if (rewrites != null) {
+            rewrites.put(sql, rewritten);
+        }
+    }
+
+    public int getMemoizedRewriteCount() {
+        return rewrites != null ? rewrites.size() : 0;
+    }
+
+    /**
+     * Characters held by the memo, statements plus their output.
+     */
+    public long getMemoizedRewriteChars() {
+        return rewrites != null ? rewrites.chars() : 0;
+    }
+
+    public long getMemoizedRewriteEvictions() {
+        return rewrites != null ? rewrites.evictions() : 0;
+    }
+
+    void clearRewrites() {
+        if (rewrites != null) {
+            rewrites.clear();
+        }
+    }
+
+    /**
+     * Strips one pair of surrounding double quotes, if present.
+     */
+    public static String unquote(String text) {
+        return isQuoted(text) ? text.substring(1, text.length() - 1) : text;
+    }
+
+    private static boolean isQuoted(String text) {
+        return text.startsWith("\"") && text.endsWith("\"") && text.length() > 2;
+    }
+
+    private static TableNameTrie compilePatterns(Map<String, String> exact) {
+        TableNameTrie trie = new TableNameTrie();
+        boolean[] any = new boolean[1];
+        BiConsumer<String, String> add = (key, value) -> {
+            if (TableNameTrie.isPattern(key)) {
+                trie.add(key, value);
+                any[0] = true;
+            }
+        };
+        if (exact instanceof PackedStringMap packed) {
+            packed.forEachKeyContaining((byte) '*', add);
+        } else {
+            exact.forEach(add);
+        }
+        return any[0] ? trie : null;
+    }
+
+    // Keys already in table-key form (the usual lower-case catalog names) are their own index
+    private static Map<String, String> foldedIndex(Map<String, String> exact) {
+        if (exact instanceof PackedStringMap packed) {
+            return packed.foldKeys(TableMapping::tableKey);
+        }
+        boolean allFolded = true;
+        for (String key : exact.keySet()) {
+            if (tableKey(key) != key) {
+                allFolded = false;
+                break;
+            }
+        }
+        if (allFolded) {
+            return exact;
+        }
+        Map<String, String> folded = new HashMap<>(exact.size() * 2);
+        // First key in iteration order wins among keys differing only in case
+        exact.forEach((key, value) -> folded.putIfAbsent(tableKey(key), value));
+        return folded;
+    }
+
+    /**
+     * The table a mapping key or a name as written refers to, in the form the extractor reports
+     * and the query index keeps tables: parts split on dots outside quotes, each unquoted and
+     * case-folded, so {@code "Sales"."Orders"}, {@code sales."ORDERS"} and {@code sales.orders}
+     * have the same key. Returns {@code name} itself when it is already in that form.
+     */
+    public static String tableKey(String name) {
+        if (name.indexOf('"') < 0) {
+            return fold(name);
+        }
+        StringBuilder key = new StringBuilder(name.length());
+        for (String part : TableNameTrie.splitParts(name)) {
+            if (key.length() > 0) {
+                key.append('.');
+            }
+            key.append(fold(unquote(part)));
+        }
+        return key.toString();
+    }
+
+    // Two strings are equalsIgnoreCase exactly when their folded forms are equal; returns text
+    // itself when folding changes nothing
+    public static String fold(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            char folded = Character.toLowerCase(Character.toUpperCase(c));
+            if (folded != c) {
+                char[] chars = text.toCharArray();
+                chars[i] = folded;
+                for (int j = i + 1; j < chars.length; j++) {
+                    chars[j] = Character.toLowerCase(Character.toUpperCase(chars[j]));
+                }
+                return new String(chars);
+            }
+        }
+        return text;
+    }
+
+    // null for inline mappings
+    public String getName() {
+        return name;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<String, String> asMap() {
+        return exact;
+    }
+
+    // true when some keys are prefix or wildcard rules
+    public boolean hasPatterns() {
+        return patterns != null;
+    }
+
+    public boolean isEmpty() {
+        return exact.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return name != null ? name + "@" + version : "inline mapping of " + exact.size() + " tables";
+    }
+}
@@ -0,0 +1,122 @@
+package com.sqlparser.mapping;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Named, versioned table mappings kept server-side, so rewrite requests refer to a mapping by
+ * {@code name} (latest version) or {@code name@version} instead of sending it every time.
+ * <p>
+ * Each upload is compiled once into a {@link TableMapping} and gets the next version for its
+ * name. Registering a new version drops the memoized rewrites of the older ones, which stay
+ * resolvable (up to {@code retainedVersions} per name) for requests that pin them.
+ * <p>
+ * Each name's versions are an immutable list replaced as a whole when a version is registered,
+ * so lookups take no lock and a caller holding a resolved mapping keeps a consistent snapshot
+ * while newer versions are swapped in.
+ * <p>
+ * Listeners are told about each new version after it is published, on the registering thread
+ * (a request or the mapping file watcher). Concurrent registrations of one name may reach a
+ * listener out of version order.
+ */
+public class TableMappingRegistry {
+
+    private final int retainedVersions;
+    private final long maxMemoizedChars;
+    // newest version first, never modified once published
+    private final ConcurrentHashMap<String, List<TableMapping>> mappings = new ConcurrentHashMap<>();
+    private final List<Consumer<TableMapping>> listeners = new CopyOnWriteArrayList<>();
+
+    public TableMappingRegistry() {
+        this(3, 16_000_000);
+    }
+
+    /**
+     * @param retainedVersions versions kept per name, newest first (at least 1)
+     * @param maxMemoizedChars characters of statements and their rewritten output memoized per
+     *                         version; 0 disables memoization
+     */
+    public TableMappingRegistry(int retainedVersions, long maxMemoizedChars) {
+        this.retainedVersions = Math.max(1, retainedVersions);
+        this.maxMemoizedChars = maxMemoizedChars;
+    }
+
+    /**
+     * Compiles and registers a new version of {@code name}; returns it.
+     */
+    public TableMapping register(String name, Map<String, String> mapping) {
+        return install(name, PackedStringMap.copyOf(mapping));
+    }
+
+    /**
+     * Reads a mapping file in the format of {@link MappingFileWatcher} and registers it as a new
+     * version of {@code name}; returns it.
+     *
+     * @throws IOException when the file cannot be read or a line is not a mapping entry
+     */
+    public TableMapping load(String name, Path file) throws IOException {
+        return install(name, MappingFileWatcher.read(file, MappingFileWatcher.WINDOW_BYTES));
+    }
+
+    // Takes ownership of mapping, which is not copied
+    TableMapping install(String name, PackedStringMap mapping) {
+        if (name.isEmpty() || name.indexOf('@') >= 0) {
+            throw new IllegalArgumentException("Invalid table mapping name: " + name);
+        }
+        TableMapping[] registered = new TableMapping[1];
+        mappings.compute(name, (key, versions) -> {
+            List<TableMapping> next = new ArrayList<>(retainedVersions);
+            registered[0] = TableMapping.compile(name, versions != null ? versions.get(0).getVersion() + 1 : 1,
+                mapping, maxMemoizedChars);
+            next.add(registered[0]);
+            if (versions != null) {
+                versions.forEach(TableMapping::clearRewrites);
+                next.addAll(versions.subList(0, Math.min(versions.size(), retainedVersions - 1)));
+            }
+            return List.copyOf(next);
+        });
+        listeners.forEach(listener -> listener.accept(registered[0]));
+        return registered[0];
+    }
+
+    /**
+     * Calls {@code listener} with every version registered from now on.
+     */
+    public void addListener(Consumer<TableMapping> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Resolves {@code name} (latest version) or {@code name@version}; null when unknown or no
+     * longer retained.
+     */
+    public TableMapping get(String reference) {
+        int at = reference.lastIndexOf('@');
+        List<TableMapping> versions = mappings.get(at >= 0 ? reference.substring(0, at) : reference);
+        if (versions == null) {
+            return null;
+        }
+        long version;
+        try {
+            version = at >= 0 ? Long.parseLong(reference.substring(at + 1)) : -1;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        for (TableMapping mapping : versions) {
+            if (version < 0 || mapping.getVersion() == version) {
+                return mapping;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return mappings.size();
+    }
+}
@@ -0,0 +1,166 @@
+package com.sqlparser.mapping;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pattern rules of a table mapping, compiled into a trie over qualified-name parts so a lookup
+ * walks the name's parts once however many rules there are.
+ * <p>
+ * A rule is a mapping key with {@code *} parts. When the only {@code *} is the last part it is a
+ * prefix rule: {@code raw.*} matches any name of one or more parts under {@code raw}, and the
+ * deepest matching prefix wins. Otherwise each {@code *} matches exactly one part:
+ * {@code *.events} matches any two-part name ending in {@code events}, and at each part a literal
+ * match is preferred over {@code *}. Prefix rules take precedence over wildcard rules; exact keys
+ * are looked up before either (see {@link TableMapping#replacementFor}).
+ * <p>
+ * A {@code *} part in the replacement is filled in with what the rule matched, as written in the
+ * SQL: the remaining parts for a prefix rule ({@code raw.*} to {@code lake_raw.*}), the parts the
+ * {@code *}s stood for, in order, for a wildcard rule. Parts match case-insensitively, quoted or not.
+ */
+final class TableNameTrie {
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        // '*' matching exactly one part
+        private Node any;
+        // "<path>.*" rule, matching one or more parts below this node
+        private Rule prefix;
+        // wildcard rule ending at this node
+        private Rule wildcard;
+    }
+
+    private static final class Rule {
+        private final String[] replacement;
+
+        private Rule(String replacement) {
+            this.replacement = splitParts(replacement).toArray(new String[0]);
+        }
+
+        // Replacement with its '*' parts filled in from captured, in order
+        private String apply(List<String> captured) {
+            StringBuilder text = new StringBuilder();
+            int next = 0;
+            for (String part : replacement) {
+                if (text.length() > 0) {
+                    text.append('.');
+                }
+                text.append(part.equals("*") && next < captured.size() ? captured.get(next++) : part);
+            }
+            return text.toString();
+        }
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * True when {@code key} is a rule rather than a table name.
+     */
+    static boolean isPattern(String key) {
+        return key.indexOf('*') >= 0 && splitParts(key).contains("*");
+    }
+
+    void add(String pattern, String replacement) {
+        List<String> parts = splitParts(pattern);
+        int firstStar = parts.indexOf("*");
+        Rule rule = new Rule(replacement);
+        Node node = root;
+        if (firstStar == parts.size() - 1) {
+            for (String part : parts.subList(0, firstStar)) {
+                node = node.children.computeIfAbsent(key(part), k -> new Node());
+            }
+            if (node.prefix == null) {
+                node.prefix = rule;
+            }
+            return;
+        }
+        for (String part : parts) {
+            if (part.equals("*")) {
+                node = node.any != null ? node.any : (node.any = new Node());
+            } else {
+                node = node.children.computeIfAbsent(key(part), k -> new Node());
+            }
+        }
+        if (node.wildcard == null) {
+            node.wildcard = rule;
+        }
+    }
+
+    /**
+     * Replacement for a qualified name as written in the SQL, or null when no rule matches.
+     */
+    String replacementFor(String written) {
+        List<String> parts = splitParts(written);
+        if (parts.isEmpty()) {
+            return null;
+        }
+        String[] keys = new String[parts.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(parts.get(i));
+        }
+        // Longest prefix: at least one part must remain for the '*'
+        Node node = root;
+        Rule prefix = null;
+        int prefixDepth = 0;
+        for (int depth = 0; node != null && depth < keys.length; depth++) {
+            if (node.prefix != null) {
+                prefix = node.prefix;
+                prefixDepth = depth;
+            }
+            node = node.children.get(keys[depth]);
+        }
+        if (prefix != null) {
+            return prefix.apply(List.of(String.join(".", parts.subList(prefixDepth, parts.size()))));
+        }
+        List<String> captured = new ArrayList<>(keys.length);
+        Rule wildcard = matchWildcard(root, keys, 0, parts, captured);
+        return wildcard != null ? wildcard.apply(captured) : null;
+    }
+
+    // Literal child first, then '*'; captured holds the parts matched by '*' on the current path
+    private static Rule matchWildcard(Node node, String[] keys, int depth, List<String> parts, List<String> captured) {
+        if (depth == keys.length) {
+            return node.wildcard;
+        }
+        Node child = node.children.get(keys[depth]);
+        if (child != null) {
+            Rule rule = matchWildcard(child, keys, depth + 1, parts, captured);
+            if (rule != null) {
+                return rule;
+            }
+        }
+        if (node.any != null) {
+            captured.add(parts.get(depth));
+            Rule rule = matchWildcard(node.any, keys, depth + 1, parts, captured);
+            if (rule != null) {
+                return rule;
+            }
+            captured.remove(captured.size() - 1);
+        }
+        return null;
+    }
+
+    private static String key(String part) {
+        return TableMapping.fold(TableMapping.unquote(part));
+    }
+
+    // Parts of a qualified name split on dots outside double quotes, each trimmed
+    static List<String> splitParts(String name) {
+        List<String> parts = new ArrayList<>(4);
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '.' && !quoted) {
+                parts.add(name.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        parts.add(name.substring(start).trim());
+        return parts;
+    }
+}
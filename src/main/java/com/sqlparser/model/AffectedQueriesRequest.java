@@ -0,0 +1,43 @@
+package com.sqlparser.model;
+
+import java.util.Map;
+
+public class AffectedQueriesRequest {
+    // a registered mapping (name or name@version), or an inline tableMapping
+    private String mapping;
+    private Map<String, String> tableMapping;
+    // most query ids to list; null lists up to sqlparser.query-index.max-query-ids
+    private Integer limit;
+
+    public AffectedQueriesRequest() {}
+
+    public AffectedQueriesRequest(String mapping, Map<String, String> tableMapping, Integer limit) {
+        this.mapping = mapping;
+        this.tableMapping = tableMapping;
+        this.limit = limit;
+    }
+
+    public String getMapping() {
+        return mapping;
+    }
+
+    public void setMapping(String mapping) {
+        this.mapping = mapping;
+    }
+
+    public Map<String, String> getTableMapping() {
+        return tableMapping;
+    }
+
+    public void setTableMapping(Map<String, String> tableMapping) {
+        this.tableMapping = tableMapping;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
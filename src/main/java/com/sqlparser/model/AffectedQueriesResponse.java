@@ -0,0 +1,64 @@
+package com.sqlparser.model;
+
+import java.util.List;
+
+public class AffectedQueriesResponse {
+    // indexed tables the mapping covers
+    private List<String> tables;
+    // queries referencing any of them, of which the first are listed in queryIds
+    private long count;
+    private List<String> queryIds;
+    private boolean success;
+    private String message;
+
+    public AffectedQueriesResponse() {}
+
+    public AffectedQueriesResponse(List<String> tables, long count, List<String> queryIds, boolean success,
+                                   String message) {
+        this.tables = tables;
+        this.count = count;
+        this.queryIds = queryIds;
+        this.success = success;
+        this.message = message;
+    }
+
+    public List<String> getTables() {
+        return tables;
+    }
+
+    public void setTables(List<String> tables) {
+        this.tables = tables;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public List<String> getQueryIds() {
+        return queryIds;
+    }
+
+    public void setQueryIds(List<String> queryIds) {
+        this.queryIds = queryIds;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,23 @@
+package com.sqlparser.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Set;
+
+/**
+ * Successful extract-tables response whose JSON body was encoded when the result was cached.
+ * EncodedResponseConverter writes those bytes as-is instead of serializing the fields again.
+ */
+public class EncodedExtractTablesResponse extends ExtractTablesResponse {
+    private final byte[] encoded;
+
+    public EncodedExtractTablesResponse(Set<String> tableNames, byte[] encoded) {
+        super(tableNames, true, "Success");
+        this.encoded = encoded;
+    }
+
+    @JsonIgnore
+    public byte[] getEncoded() {
+        return encoded;
+    }
+}
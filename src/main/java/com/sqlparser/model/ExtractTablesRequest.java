@@ -2,6 +2,10 @@ package com.sqlparser.model;
 
 public class ExtractTablesRequest {
     private String sql;
+    // optional "ast" / "parse-tree"; null uses sqlparser.extractor.mode
+    private String extractor;
+    // also return every table occurrence with its span (see TableOccurrence)
+    private boolean positions;
 
     public ExtractTablesRequest() {}
 
@@ -16,4 +20,20 @@ public class ExtractTablesRequest {
     public void setSql(String sql) {
         this.sql = sql;
     }
-}
\ No newline at end of file
+
+    public String getExtractor() {
+        return extractor;
+    }
+
+    public void setExtractor(String extractor) {
+        this.extractor = extractor;
+    }
+
+    public boolean isPositions() {
+        return positions;
+    }
+
+    public void setPositions(boolean positions) {
+        this.positions = positions;
+    }
+}
@@ -1,11 +1,17 @@
 package com.sqlparser.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
 import java.util.Set;
 
 public class ExtractTablesResponse {
     private Set<String> tableNames;
     private boolean success;
     private String message;
+    // only present when the request asked for positions
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<TableOccurrence> occurrences;
 
     public ExtractTablesResponse() {}
 
@@ -38,4 +44,12 @@ public class ExtractTablesResponse {
     public void setMessage(String message) {
         this.message = message;
     }
-}
\ No newline at end of file
+
+    public List<TableOccurrence> getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(List<TableOccurrence> occurrences) {
+        this.occurrences = occurrences;
+    }
+}
@@ -0,0 +1,80 @@
+package com.sqlparser.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrite of one statement into many variants: one per registered mapping (mappings), one per
+ * inline mapping (tableMappings), or one per shard of a mapping template whose replacements
+ * contain {shard} (tableMappingTemplate with shards or shardCount).
+ */
+public class FanOutRewriteRequest {
+    private String sql;
+    // registered mappings as name or name@version
+    private List<String> mappings;
+    private List<Map<String, String>> tableMappings;
+    private Map<String, String> tableMappingTemplate;
+    private List<String> shards;
+    // shards 0 .. shardCount-1 when shards is not given
+    private int shardCount;
+    // optional "ast" / "parse-tree"; null uses sqlparser.extractor.mode
+    private String extractor;
+
+    public FanOutRewriteRequest() {}
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public List<String> getMappings() {
+        return mappings;
+    }
+
+    public void setMappings(List<String> mappings) {
+        this.mappings = mappings;
+    }
+
+    public List<Map<String, String>> getTableMappings() {
+        return tableMappings;
+    }
+
+    public void setTableMappings(List<Map<String, String>> tableMappings) {
+        this.tableMappings = tableMappings;
+    }
+
+    public Map<String, String> getTableMappingTemplate() {
+        return tableMappingTemplate;
+    }
+
+    public void setTableMappingTemplate(Map<String, String> tableMappingTemplate) {
+        this.tableMappingTemplate = tableMappingTemplate;
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<String> shards) {
+        this.shards = shards;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public String getExtractor() {
+        return extractor;
+    }
+
+    public void setExtractor(String extractor) {
+        this.extractor = extractor;
+    }
+}
@@ -0,0 +1,57 @@
+package com.sqlparser.model;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shape of the fan-out rewrite response. Successful responses are streamed variant by variant
+ * in this shape; this class is what a client reads them into and what errors are returned as.
+ */
+public class FanOutRewriteResponse {
+    private Set<String> tableNames;
+    private List<RewriteVariant> variants;
+    private boolean success;
+    private String message;
+
+    public FanOutRewriteResponse() {}
+
+    public FanOutRewriteResponse(Set<String> tableNames, List<RewriteVariant> variants, boolean success,
+                                 String message) {
+        this.tableNames = tableNames;
+        this.variants = variants;
+        this.success = success;
+        this.message = message;
+    }
+
+    public Set<String> getTableNames() {
+        return tableNames;
+    }
+
+    public void setTableNames(Set<String> tableNames) {
+        this.tableNames = tableNames;
+    }
+
+    public List<RewriteVariant> getVariants() {
+        return variants;
+    }
+
+    public void setVariants(List<RewriteVariant> variants) {
+        this.variants = variants;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,35 @@
+package com.sqlparser.model;
+
+import java.util.List;
+
+public class FingerprintRequest {
+    // a single statement, or a batch in statements (sql comes first when both are set)
+    private String sql;
+    private List<String> statements;
+
+    public FingerprintRequest() {}
+
+    public FingerprintRequest(String sql) {
+        this.sql = sql;
+    }
+
+    public FingerprintRequest(List<String> statements) {
+        this.statements = statements;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public List<String> getStatements() {
+        return statements;
+    }
+
+    public void setStatements(List<String> statements) {
+        this.statements = statements;
+    }
+}
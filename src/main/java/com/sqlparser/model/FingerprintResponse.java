@@ -0,0 +1,42 @@
+package com.sqlparser.model;
+
+import java.util.List;
+
+public class FingerprintResponse {
+    // one entry per statement, in request order
+    private List<SqlFingerprint> results;
+    private boolean success;
+    private String message;
+
+    public FingerprintResponse() {}
+
+    public FingerprintResponse(List<SqlFingerprint> results, boolean success, String message) {
+        this.results = results;
+        this.success = success;
+        this.message = message;
+    }
+
+    public List<SqlFingerprint> getResults() {
+        return results;
+    }
+
+    public void setResults(List<SqlFingerprint> results) {
+        this.results = results;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,34 @@
+package com.sqlparser.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class IndexQueriesRequest {
+    // stored queries to add or replace, by id
+    private Map<String, String> queries;
+    // ids to drop, applied before queries
+    private List<String> remove;
+
+    public IndexQueriesRequest() {}
+
+    public IndexQueriesRequest(Map<String, String> queries, List<String> remove) {
+        this.queries = queries;
+        this.remove = remove;
+    }
+
+    public Map<String, String> getQueries() {
+        return queries;
+    }
+
+    public void setQueries(Map<String, String> queries) {
+        this.queries = queries;
+    }
+
+    public List<String> getRemove() {
+        return remove;
+    }
+
+    public void setRemove(List<String> remove) {
+        this.remove = remove;
+    }
+}
@@ -0,0 +1,74 @@
+package com.sqlparser.model;
+
+import java.util.Map;
+
+public class IndexQueriesResponse {
+    private int indexed;
+    private int removed;
+    // error per query that failed to parse; those are no longer indexed
+    private Map<String, String> failed;
+    // queries in the index after the update
+    private int size;
+    private boolean success;
+    private String message;
+
+    public IndexQueriesResponse() {}
+
+    public IndexQueriesResponse(int indexed, int removed, Map<String, String> failed, int size, boolean success,
+                                String message) {
+        this.indexed = indexed;
+        this.removed = removed;
+        this.failed = failed;
+        this.size = size;
+        this.success = success;
+        this.message = message;
+    }
+
+    public int getIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(int indexed) {
+        this.indexed = indexed;
+    }
+
+    public int getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(int removed) {
+        this.removed = removed;
+    }
+
+    public Map<String, String> getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Map<String, String> failed) {
+        this.failed = failed;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,111 @@
+package com.sqlparser.model;
+
+import com.sqlparser.cache.CacheStats;
+import com.sqlparser.index.QueryIndexStats;
+import com.sqlparser.limit.LimiterStats;
+import com.sqlparser.mapping.MappingFileStats;
+import com.sqlparser.parser.DfaCacheStats;
+import com.sqlparser.service.StoredQueryStats;
+import com.sqlparser.verify.VerificationStats;
+
+import java.util.List;
+
+public class MetricsResponse {
+    private List<CacheStats> caches;
+    private long coalescedRequests;
+    private LimiterStats limiter;
+    private DfaCacheStats dfa;
+    private int dictionaryNames;
+    private VerificationStats verification;
+    private List<MappingFileStats> mappingFiles;
+    private QueryIndexStats queryIndex;
+    private StoredQueryStats storedQueries;
+
+    public MetricsResponse() {}
+
+    public MetricsResponse(List<CacheStats> caches, long coalescedRequests, LimiterStats limiter, DfaCacheStats dfa,
+                           int dictionaryNames, VerificationStats verification, List<MappingFileStats> mappingFiles,
+                           QueryIndexStats queryIndex, StoredQueryStats storedQueries) {
+        this.caches = caches;
+        this.coalescedRequests = coalescedRequests;
+        this.limiter = limiter;
+        this.dfa = dfa;
+        this.dictionaryNames = dictionaryNames;
+        this.verification = verification;
+        this.mappingFiles = mappingFiles;
+        this.queryIndex = queryIndex;
+        this.storedQueries = storedQueries;
+    }
+
+    public List<CacheStats> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(List<CacheStats> caches) {
+        this.caches = caches;
+    }
+
+    public long getCoalescedRequests() {
+        return coalescedRequests;
+    }
+
+    public void setCoalescedRequests(long coalescedRequests) {
+        this.coalescedRequests = coalescedRequests;
+    }
+
+    public LimiterStats getLimiter() {
+        return limiter;
+    }
+
+    public void setLimiter(LimiterStats limiter) {
+        this.limiter = limiter;
+    }
+
+    public DfaCacheStats getDfa() {
+        return dfa;
+    }
+
+    public void setDfa(DfaCacheStats dfa) {
+        this.dfa = dfa;
+    }
+
+    public int getDictionaryNames() {
+        return dictionaryNames;
+    }
+
+    public void setDictionaryNames(int dictionaryNames) {
+        this.dictionaryNames = dictionaryNames;
+    }
+
+    public VerificationStats getVerification() {
+        return verification;
+    }
+
+    public void setVerification(VerificationStats verification) {
+        this.verification = verification;
+    }
+
+    public List<MappingFileStats> getMappingFiles() {
+        return mappingFiles;
+    }
+
+    public void setMappingFiles(List<MappingFileStats> mappingFiles) {
+        this.mappingFiles = mappingFiles;
+    }
+
+    public QueryIndexStats getQueryIndex() {
+        return queryIndex;
+    }
+
+    public void setQueryIndex(QueryIndexStats queryIndex) {
+        this.queryIndex = queryIndex;
+    }
+
+    public StoredQueryStats getStoredQueries() {
+        return storedQueries;
+    }
+
+    public void setStoredQueries(StoredQueryStats storedQueries) {
+        this.storedQueries = storedQueries;
+    }
+}
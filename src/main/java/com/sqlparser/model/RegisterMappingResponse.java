@@ -0,0 +1,63 @@
+package com.sqlparser.model;
+
+/**
+ * Result of uploading a table mapping: the version it was registered as, to be referenced as
+ * name@version (or just name for the latest).
+ */
+public class RegisterMappingResponse {
+    private String name;
+    private long version;
+    private int tables;
+    private boolean success;
+    private String message;
+
+    public RegisterMappingResponse() {}
+
+    public RegisterMappingResponse(String name, long version, int tables, boolean success, String message) {
+        this.name = name;
+        this.version = version;
+        this.tables = tables;
+        this.success = success;
+        this.message = message;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public int getTables() {
+        return tables;
+    }
+
+    public void setTables(int tables) {
+        this.tables = tables;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -5,6 +5,10 @@ import java.util.Map;
 public class ReplaceTablesRequest {
     private String sql;
     private Map<String, String> tableMapping;
+    // registered mapping as name or name@version, used instead of tableMapping
+    private String mapping;
+    // check the rewritten SQL before responding instead of only sampling it (see RewriteVerifier)
+    private boolean verify;
 
     public ReplaceTablesRequest() {}
 
@@ -28,4 +32,20 @@ public class ReplaceTablesRequest {
     public void setTableMapping(Map<String, String> tableMapping) {
         this.tableMapping = tableMapping;
     }
-}
\ No newline at end of file
+
+    public String getMapping() {
+        return mapping;
+    }
+
+    public void setMapping(String mapping) {
+        this.mapping = mapping;
+    }
+
+    public boolean isVerify() {
+        return verify;
+    }
+
+    public void setVerify(boolean verify) {
+        this.verify = verify;
+    }
+}
@@ -0,0 +1,65 @@
+package com.sqlparser.model;
+
+import java.util.Map;
+
+/**
+ * Extract-and-rewrite request: the mapping is either sent inline (tableMapping) or refers to a
+ * mapping registered on the server by name (mapping).
+ */
+public class RewriteSqlRequest {
+    private String sql;
+    private Map<String, String> tableMapping;
+    // check the rewritten SQL before responding instead of only sampling it (see RewriteVerifier)
+    private boolean verify;
+    // registered mapping as name or name@version
+    private String mapping;
+    // optional "ast" / "parse-tree"; null uses sqlparser.extractor.mode
+    private String extractor;
+
+    public RewriteSqlRequest() {}
+
+    public RewriteSqlRequest(String sql, Map<String, String> tableMapping) {
+        this.sql = sql;
+        this.tableMapping = tableMapping;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public Map<String, String> getTableMapping() {
+        return tableMapping;
+    }
+
+    public void setTableMapping(Map<String, String> tableMapping) {
+        this.tableMapping = tableMapping;
+    }
+
+    public String getMapping() {
+        return mapping;
+    }
+
+    public void setMapping(String mapping) {
+        this.mapping = mapping;
+    }
+
+    public String getExtractor() {
+        return extractor;
+    }
+
+    public void setExtractor(String extractor) {
+        this.extractor = extractor;
+    }
+
+    public boolean isVerify() {
+        return verify;
+    }
+
+    public void setVerify(boolean verify) {
+        this.verify = verify;
+    }
+}
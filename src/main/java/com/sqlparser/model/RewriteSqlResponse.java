@@ -0,0 +1,67 @@
+package com.sqlparser.model;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of one parse: the table names and occurrences extract-tables would return, and the SQL
+ * replace-tables would produce for the same mapping.
+ */
+public class RewriteSqlResponse {
+    private Set<String> tableNames;
+    private List<TableOccurrence> occurrences;
+    private String sql;
+    private boolean success;
+    private String message;
+
+    public RewriteSqlResponse() {}
+
+    public RewriteSqlResponse(Set<String> tableNames, List<TableOccurrence> occurrences, String sql,
+                              boolean success, String message) {
+        this.tableNames = tableNames;
+        this.occurrences = occurrences;
+        this.sql = sql;
+        this.success = success;
+        this.message = message;
+    }
+
+    public Set<String> getTableNames() {
+        return tableNames;
+    }
+
+    public void setTableNames(Set<String> tableNames) {
+        this.tableNames = tableNames;
+    }
+
+    public List<TableOccurrence> getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(List<TableOccurrence> occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
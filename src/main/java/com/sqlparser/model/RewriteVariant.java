@@ -0,0 +1,56 @@
+package com.sqlparser.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One rewritten variant of a fan-out rewrite, in request order; mapping names the registered
+ * mapping and shard the template shard it was rewritten for (absent otherwise).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RewriteVariant {
+    private int index;
+    private String mapping;
+    private String shard;
+    private String sql;
+
+    public RewriteVariant() {}
+
+    public RewriteVariant(int index, String mapping, String shard, String sql) {
+        this.index = index;
+        this.mapping = mapping;
+        this.shard = shard;
+        this.sql = sql;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getMapping() {
+        return mapping;
+    }
+
+    public void setMapping(String mapping) {
+        this.mapping = mapping;
+    }
+
+    public String getShard() {
+        return shard;
+    }
+
+    public void setShard(String shard) {
+        this.shard = shard;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+}
@@ -0,0 +1,78 @@
+package com.sqlparser.model;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fingerprint of one statement: the parameterized SQL, the literals its {@code ?}s stand for in
+ * order, the 128-bit fingerprint (32 hex digits) and its high 64 bits (16 hex digits), and the
+ * table names. For a statement that does not parse only error is set.
+ */
+public class SqlFingerprint {
+    private String fingerprint;
+    private String fingerprint64;
+    private String parameterizedSql;
+    private List<SqlLiteral> literals;
+    private Set<String> tableNames;
+    private String error;
+
+    public SqlFingerprint() {}
+
+    public SqlFingerprint(String fingerprint, String fingerprint64, String parameterizedSql, List<SqlLiteral> literals,
+                          Set<String> tableNames, String error) {
+        this.fingerprint = fingerprint;
+        this.fingerprint64 = fingerprint64;
+        this.parameterizedSql = parameterizedSql;
+        this.literals = literals;
+        this.tableNames = tableNames;
+        this.error = error;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public String getFingerprint64() {
+        return fingerprint64;
+    }
+
+    public void setFingerprint64(String fingerprint64) {
+        this.fingerprint64 = fingerprint64;
+    }
+
+    public String getParameterizedSql() {
+        return parameterizedSql;
+    }
+
+    public void setParameterizedSql(String parameterizedSql) {
+        this.parameterizedSql = parameterizedSql;
+    }
+
+    public List<SqlLiteral> getLiterals() {
+        return literals;
+    }
+
+    public void setLiterals(List<SqlLiteral> literals) {
+        this.literals = literals;
+    }
+
+    public Set<String> getTableNames() {
+        return tableNames;
+    }
+
+    public void setTableNames(Set<String> tableNames) {
+        this.tableNames = tableNames;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,33 @@
+package com.sqlparser.model;
+
+/**
+ * A literal taken out of a fingerprinted statement: type (string, integer, decimal, double,
+ * binary, interval, or the type name of a typed literal such as date) and unquoted value.
+ */
+public class SqlLiteral {
+    private String type;
+    private String value;
+
+    public SqlLiteral() {}
+
+    public SqlLiteral(String type, String value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+}
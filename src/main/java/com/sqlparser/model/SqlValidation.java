@@ -0,0 +1,53 @@
+package com.sqlparser.model;
+
+/**
+ * Syntax check of one statement. For an invalid statement, error, line and column (both 1-based)
+ * describe the first syntax error; they are null for valid statements and in verdict-only mode.
+ */
+public class SqlValidation {
+    private boolean valid;
+    private String error;
+    private Integer line;
+    private Integer column;
+
+    public SqlValidation() {}
+
+    public SqlValidation(boolean valid, String error, Integer line, Integer column) {
+        this.valid = valid;
+        this.error = error;
+        this.line = line;
+        this.column = column;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Integer getLine() {
+        return line;
+    }
+
+    public void setLine(Integer line) {
+        this.line = line;
+    }
+
+    public Integer getColumn() {
+        return column;
+    }
+
+    public void setColumn(Integer column) {
+        this.column = column;
+    }
+}
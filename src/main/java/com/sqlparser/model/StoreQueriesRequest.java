@@ -0,0 +1,45 @@
+package com.sqlparser.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class StoreQueriesRequest {
+    // name of the registered mapping the queries follow, latest version
+    private String mapping;
+    // stored queries to add or replace, by id
+    private Map<String, String> queries;
+    // ids to drop, applied before queries
+    private List<String> remove;
+
+    public StoreQueriesRequest() {}
+
+    public StoreQueriesRequest(String mapping, Map<String, String> queries, List<String> remove) {
+        this.mapping = mapping;
+        this.queries = queries;
+        this.remove = remove;
+    }
+
+    public String getMapping() {
+        return mapping;
+    }
+
+    public void setMapping(String mapping) {
+        this.mapping = mapping;
+    }
+
+    public Map<String, String> getQueries() {
+        return queries;
+    }
+
+    public void setQueries(Map<String, String> queries) {
+        this.queries = queries;
+    }
+
+    public List<String> getRemove() {
+        return remove;
+    }
+
+    public void setRemove(List<String> remove) {
+        this.remove = remove;
+    }
+}
@@ -0,0 +1,85 @@
+package com.sqlparser.model;
+
+import java.util.Map;
+
+public class StoreQueriesResponse {
+    private int stored;
+    private int removed;
+    // error per query that failed to parse; those are no longer stored
+    private Map<String, String> failed;
+    // stored queries after the update
+    private int size;
+    // sequence of the latest change in the feed, including the ones of this update
+    private long lastSequence;
+    private boolean success;
+    private String message;
+
+    public StoreQueriesResponse() {}
+
+    public StoreQueriesResponse(int stored, int removed, Map<String, String> failed, int size, long lastSequence,
+                                boolean success, String message) {
+        this.stored = stored;
+        this.removed = removed;
+        this.failed = failed;
+        this.size = size;
+        this.lastSequence = lastSequence;
+        this.success = success;
+        this.message = message;
+    }
+
+    public int getStored() {
+        return stored;
+    }
+
+    public void setStored(int stored) {
+        this.stored = stored;
+    }
+
+    public int getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(int removed) {
+        this.removed = removed;
+    }
+
+    public Map<String, String> getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Map<String, String> failed) {
+        this.failed = failed;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,66 @@
+package com.sqlparser.model;
+
+import com.sqlparser.service.StoredQueryChange;
+
+import java.util.List;
+
+public class StoredQueryChangesResponse {
+    private List<StoredQueryChange> changes;
+    // pass as since to read the changes after these
+    private long lastSequence;
+    // some changes after since are no longer in the feed: read again from 0 and replace the local copy
+    private boolean reset;
+    private boolean success;
+    private String message;
+
+    public StoredQueryChangesResponse() {}
+
+    public StoredQueryChangesResponse(List<StoredQueryChange> changes, long lastSequence, boolean reset,
+                                      boolean success, String message) {
+        this.changes = changes;
+        this.lastSequence = lastSequence;
+        this.reset = reset;
+        this.success = success;
+        this.message = message;
+    }
+
+    public List<StoredQueryChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<StoredQueryChange> changes) {
+        this.changes = changes;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,75 @@
+package com.sqlparser.model;
+
+/**
+ * One table occurrence in the request SQL: the table name it resolves to, the exact text at
+ * [start, end) (0-based character offsets, end exclusive) and where it sits in the statement.
+ * Replacing that span is what /replace-tables does for a mapped table.
+ */
+public class TableOccurrence {
+    private String table;
+    private String text;
+    private int start;
+    private int end;
+    private boolean quoted;
+    // "source", "dml-target", "ddl-object" or "qualifier"
+    private String kind;
+
+    public TableOccurrence() {}
+
+    public TableOccurrence(String table, String text, int start, int end, boolean quoted, String kind) {
+        this.table = table;
+        this.text = text;
+        this.start = start;
+        this.end = end;
+        this.quoted = quoted;
+        this.kind = kind;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public void setTable(String table) {
+        this.table = table;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public void setStart(int start) {
+        this.start = start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public void setEnd(int end) {
+        this.end = end;
+    }
+
+    public boolean isQuoted() {
+        return quoted;
+    }
+
+    public void setQuoted(boolean quoted) {
+        this.quoted = quoted;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+}
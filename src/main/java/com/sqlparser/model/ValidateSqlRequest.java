@@ -0,0 +1,46 @@
+package com.sqlparser.model;
+
+import java.util.List;
+
+public class ValidateSqlRequest {
+    // a single statement, or a batch in statements (sql is validated first when both are set)
+    private String sql;
+    private List<String> statements;
+    // only report valid/invalid, without error message and position
+    private boolean verdictOnly;
+
+    public ValidateSqlRequest() {}
+
+    public ValidateSqlRequest(String sql) {
+        this.sql = sql;
+    }
+
+    public ValidateSqlRequest(List<String> statements, boolean verdictOnly) {
+        this.statements = statements;
+        this.verdictOnly = verdictOnly;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public List<String> getStatements() {
+        return statements;
+    }
+
+    public void setStatements(List<String> statements) {
+        this.statements = statements;
+    }
+
+    public boolean isVerdictOnly() {
+        return verdictOnly;
+    }
+
+    public void setVerdictOnly(boolean verdictOnly) {
+        this.verdictOnly = verdictOnly;
+    }
+}
@@ -0,0 +1,58 @@
+package com.sqlparser.model;
+
+import java.util.List;
+
+public class ValidateSqlResponse {
+    // one entry per statement, in request order
+    private List<SqlValidation> results;
+    private int invalidCount;
+    private boolean success;
+    private String message;
+
+    public ValidateSqlResponse() {}
+
+    public ValidateSqlResponse(List<SqlValidation> results, boolean success, String message) {
+        this.results = results;
+        this.success = success;
+        this.message = message;
+        if (results != null) {
+            for (SqlValidation result : results) {
+                if (!result.isValid()) {
+                    invalidCount++;
+                }
+            }
+        }
+    }
+
+    public List<SqlValidation> getResults() {
+        return results;
+    }
+
+    public void setResults(List<SqlValidation> results) {
+        this.results = results;
+    }
+
+    public int getInvalidCount() {
+        return invalidCount;
+    }
+
+    public void setInvalidCount(int invalidCount) {
+        this.invalidCount = invalidCount;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
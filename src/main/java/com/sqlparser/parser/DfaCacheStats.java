@@ -0,0 +1,42 @@
+package com.sqlparser.parser;
+
+/**
+ * Point-in-time size of the ANTLR caches owned by {@link ManagedSqlParser}, serialized by the
+ * metrics endpoint.
+ */
+public final class DfaCacheStats {
+
+    private final long generation;
+    private final long parserDfaStates;
+    private final long predictionContexts;
+    private final long lexerDfaStates;
+    private final long rebuilds;
+    private final long parses;
+    private final long generationAgeMillis;
+
+    public DfaCacheStats(long generation, long parserDfaStates, long predictionContexts, long lexerDfaStates,
+                         long rebuilds, long parses, long generationAgeMillis) {
+        this.generation = generation;
+        this.parserDfaStates = parserDfaStates;
+        this.predictionContexts = predictionContexts;
+        this.lexerDfaStates = lexerDfaStates;
+        this.rebuilds = rebuilds;
+        this.parses = parses;
+        this.generationAgeMillis = generationAgeMillis;
+    }
+
+    public long getGeneration() { return generation; }
+    public long getParserDfaStates() { return parserDfaStates; }
+    public long getPredictionContexts() { return predictionContexts; }
+    public long getLexerDfaStates() { return lexerDfaStates; }
+    public long getRebuilds() { return rebuilds; }
+    public long getParses() { return parses; }
+    public long getGenerationAgeMillis() { return generationAgeMillis; }
+
+    @Override
+    public String toString() {
+        return "DfaCacheStats{generation=" + generation + ", parserDfaStates=" + parserDfaStates
+            + ", predictionContexts=" + predictionContexts + ", lexerDfaStates=" + lexerDfaStates
+            + ", rebuilds=" + rebuilds + '}';
+    }
+}
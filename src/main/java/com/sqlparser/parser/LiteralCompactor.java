@@ -0,0 +1,303 @@
+package com.sqlparser.parser;
+
+import java.util.Arrays;
+
+/**
+ * Pre-lexing pass that collapses long comma-separated runs of literals (IN lists, VALUES rows,
+ * ARRAY constructors, ...) down to their first element before the text is handed to Trino.
+ * <p>
+ * Table extraction never looks at literal values, but the parser allocates an AST node per
+ * literal, so ETL statements with hundreds of thousands of literals spend most of their time
+ * and heap on nodes nobody reads. The compacted text keeps the first item of each run as a
+ * placeholder so the statement stays syntactically identical in shape, and {@link Result}
+ * remembers every removed region so token offsets can be mapped back to the original SQL.
+ * <p>
+ * A run item is a numeric literal, a string literal, NULL/TRUE/FALSE, or a parenthesized tuple
+ * of those (a VALUES row). Anything else (identifiers, typed literals such as DATE '...',
+ * expressions) ends the run, so the removed text never contains a table reference.
+ */
+public final class LiteralCompactor {
+
+    public static final int DEFAULT_MIN_RUN_LENGTH = 64;
+
+    private final int minRunLength;
+
+    public LiteralCompactor() {
+        this(DEFAULT_MIN_RUN_LENGTH);
+    }
+
+    public LiteralCompactor(int minRunLength) {
+        if (minRunLength < 2) {
+            throw new IllegalArgumentException("minRunLength must be at least 2: " + minRunLength);
+        }
+        this.minRunLength = minRunLength;
+    }
+
+    public int getMinRunLength() {
+        return minRunLength;
+    }
+
+    public Result compact(String sql) {
+        // A qualifying run needs at least "x," per item, so short statements can be skipped outright
+        if (sql.length() < minRunLength * 2L) {
+            return Result.identity(sql);
+        }
+
+        int n = sql.length();
+        int[] removedStarts = new int[8];
+        int[] removedEnds = new int[8];
+        int regions = 0;
+
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+
+            int firstEnd = scanItem(sql, i);
+            if (firstEnd > 0) {
+                int count = 1;
+                int lastEnd = firstEnd;
+                while (true) {
+                    int comma = SqlText.skipInsignificant(sql, lastEnd);
+                    if (comma >= n || sql.charAt(comma) != ',') break;
+                    int next = SqlText.skipInsignificant(sql, comma + 1);
+                    int nextEnd = next < n ? scanItem(sql, next) : -1;
+                    if (nextEnd < 0) break;
+                    count++;
+                    lastEnd = nextEnd;
+                }
+                if (count >= minRunLength) {
+                    if (regions == removedStarts.length) {
+                        removedStarts = Arrays.copyOf(removedStarts, regions * 2);
+                        removedEnds = Arrays.copyOf(removedEnds, regions * 2);
+                    }
+                    removedStarts[regions] = firstEnd;
+                    removedEnds[regions] = lastEnd;
+                    regions++;
+                    i = lastEnd;
+                } else if (c == '(') {
+                    // A lone tuple may itself be a long IN list: look inside it
+                    i++;
+                } else {
+                    i = lastEnd;
+                }
+                continue;
+            }
+
+            // Not at a literal: step over exactly one lexical unit
+            if (c == '\'') {
+                int end = SqlText.skipStringLiteral(sql, i);
+                i = end < 0 ? n : end;
+            } else if (c == '"' || c == '`') {
+                int end = SqlText.skipQuotedIdentifier(sql, i);
+                i = end < 0 ? n : end;
+            } else if (SqlText.isLineCommentStart(sql, i)) {
+                i = SqlText.skipLineComment(sql, i);
+            } else if (SqlText.isBlockCommentStart(sql, i)) {
+                int end = SqlText.skipBlockComment(sql, i);
+                i = end < 0 ? n : end;
+            } else if (SqlText.isIdentifierPart(c)) {
+                // Identifiers, keywords and digit-identifiers are consumed whole so that
+                // digits inside them are never mistaken for literals
+                i = SqlText.skipWord(sql, i);
+            } else {
+                i++;
+            }
+        }
+
+        if (regions == 0) {
+            return Result.identity(sql);
+        }
+        return Result.of(sql, Arrays.copyOf(removedStarts, regions), Arrays.copyOf(removedEnds, regions));
+    }
+
+    // Returns the end of a run item starting at i, or -1 if no item starts there
+    private static int scanItem(String sql, int i) {
+        if (sql.charAt(i) == '(') {
+            return scanTuple(sql, i);
+        }
+        return scanScalar(sql, i);
+    }
+
+    private static int scanTuple(String sql, int open) {
+        int n = sql.length();
+        int i = SqlText.skipInsignificant(sql, open + 1);
+        while (i < n) {
+            int end = scanScalar(sql, i);
+            if (end < 0) return -1;
+            i = SqlText.skipInsignificant(sql, end);
+            if (i >= n) return -1;
+            char c = sql.charAt(i);
+            if (c == ')') return i + 1;
+            if (c != ',') return -1;
+            i = SqlText.skipInsignificant(sql, i + 1);
+        }
+        return -1;
+    }
+
+    private static int scanScalar(String sql, int i) {
+        int n = sql.length();
+        char c = sql.charAt(i);
+        if (c == '\'') {
+            return SqlText.skipStringLiteral(sql, i);
+        }
+        if (c == '+' || c == '-') {
+            if (i + 1 >= n || !startsNumber(sql, i + 1)) return -1;
+            return scanNumber(sql, i + 1);
+        }
+        if (startsNumber(sql, i)) {
+            return scanNumber(sql, i);
+        }
+        if (SqlText.isIdentifierStart(c)) {
+            int end = SqlText.skipWord(sql, i);
+            int len = end - i;
+            if ((len == 4 && (sql.regionMatches(true, i, "NULL", 0, 4) || sql.regionMatches(true, i, "TRUE", 0, 4)))
+                    || (len == 5 && sql.regionMatches(true, i, "FALSE", 0, 5))) {
+                return end;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsNumber(String sql, int i) {
+        char c = sql.charAt(i);
+        if (isDigit(c)) return true;
+        return c == '.' && i + 1 < sql.length() && isDigit(sql.charAt(i + 1));
+    }
+
+    // End of the numeric literal starting at i when Trino lexes it as one INTEGER_VALUE,
+    // DECIMAL_VALUE or DOUBLE_VALUE token, or -1. Removed items never reach the real lexer, so
+    // anything it would reject or split (0xZZ, 1__2, 1_, 0b12, 1_0e5, ...) must end the run.
+    private static int scanNumber(String sql, int i) {
+        int n = sql.length();
+        if (sql.charAt(i) == '0' && i + 1 < n && "xXoObB".indexOf(sql.charAt(i + 1)) >= 0) {
+            // 0x1F, 0o17, 0b101: '0X' ('_'? digit)+ and likewise
+            char prefix = Character.toLowerCase(sql.charAt(i + 1));
+            int radix = prefix == 'x' ? 16 : prefix == 'o' ? 8 : 2;
+            int end = scanDigits(sql, i + 2, radix, true);
+            return end > i + 2 ? checkEnd(sql, end) : -1;
+        }
+        // Integer part, DIGIT ('_'? DIGIT)*, and fraction, '.' followed by the same or nothing
+        int end = scanDigits(sql, i, 10, false);
+        if (end < n && sql.charAt(end) == '.') {
+            end = scanDigits(sql, end + 1, 10, false);
+        }
+        if (end < n && (sql.charAt(end) == 'e' || sql.charAt(end) == 'E')) {
+            // DOUBLE_VALUE: 'E' [+-]? DIGIT+, with no underscores anywhere
+            int j = end + 1;
+            if (j < n && (sql.charAt(j) == '+' || sql.charAt(j) == '-')) j++;
+            if (j < n && isDigit(sql.charAt(j)) && !containsUnderscore(sql, i, end)) {
+                end = j;
+                while (end < n && isDigit(sql.charAt(end))) end++;
+            }
+        }
+        return checkEnd(sql, end);
+    }
+
+    // Index past ('_'? digit)+ from i, with the first '_' only when leadingUnderscore (after a
+    // radix prefix), otherwise past digit ('_'? digit)*; i itself when no digit starts there
+    private static int scanDigits(String sql, int i, int radix, boolean leadingUnderscore) {
+        int n = sql.length();
+        boolean any = false;
+        while (true) {
+            int j = i < n && sql.charAt(i) == '_' && (any || leadingUnderscore) ? i + 1 : i;
+            if (j < n && sql.charAt(j) < 128 && Character.digit(sql.charAt(j), radix) >= 0) {
+                i = j + 1;
+                any = true;
+            } else {
+                return i;
+            }
+        }
+    }
+
+    private static boolean containsUnderscore(String sql, int from, int to) {
+        for (int k = from; k < to; k++) {
+            if (sql.charAt(k) == '_') return true;
+        }
+        return false;
+    }
+
+    // A letter, digit or underscore right after the literal makes the lexer read a digit
+    // identifier or a second token instead ("123abc", "1_", "1.5e"), so the item is not a literal
+    private static int checkEnd(String sql, int end) {
+        return end < sql.length() && SqlText.isIdentifierPart(sql.charAt(end)) ? -1 : end;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Compacted SQL plus the removed regions needed to translate offsets back to the original text.
+     */
+    public static final class Result {
+        private final String originalSql;
+        private final String sql;
+        // Compacted offset at which each removed region used to start, and total chars removed up to and including it
+        private final int[] compactedStarts;
+        private final int[] removedBefore;
+
+        private Result(String originalSql, String sql, int[] compactedStarts, int[] removedBefore) {
+            this.originalSql = originalSql;
+            this.sql = sql;
+            this.compactedStarts = compactedStarts;
+            this.removedBefore = removedBefore;
+        }
+
+        static Result identity(String sql) {
+            return new Result(sql, sql, new int[0], new int[0]);
+        }
+
+        static Result of(String originalSql, int[] removedStarts, int[] removedEnds) {
+            StringBuilder sb = new StringBuilder(originalSql.length());
+            int[] compactedStarts = new int[removedStarts.length];
+            int[] removedBefore = new int[removedStarts.length];
+            int copied = 0;
+            int removed = 0;
+            for (int r = 0; r < removedStarts.length; r++) {
+                sb.append(originalSql, copied, removedStarts[r]);
+                compactedStarts[r] = sb.length();
+                removed += removedEnds[r] - removedStarts[r];
+                removedBefore[r] = removed;
+                copied = removedEnds[r];
+            }
+            sb.append(originalSql, copied, originalSql.length());
+            return new Result(originalSql, sb.toString(), compactedStarts, removedBefore);
+        }
+
+        public String getOriginalSql() { return originalSql; }
+
+        // Text to hand to the parser
+        public String getSql() { return sql; }
+
+        public boolean isCompacted() { return compactedStarts.length > 0; }
+
+        public int getRemovedRegionCount() { return compactedStarts.length; }
+
+        public int getRemovedCharCount() {
+            return removedBefore.length == 0 ? 0 : removedBefore[removedBefore.length - 1];
+        }
+
+        /**
+         * Maps an offset in the compacted SQL back to the original SQL. Offsets at a removal
+         * point refer to the text that followed the removed region.
+         */
+        public int toOriginalOffset(int compactedOffset) {
+            int idx = Arrays.binarySearch(compactedStarts, compactedOffset);
+            int region = idx >= 0 ? lastIndexOf(compactedStarts, idx) : -idx - 2;
+            return region < 0 ? compactedOffset : compactedOffset + removedBefore[region];
+        }
+
+        // Several regions cannot share a compacted start (each keeps a first item), but stay defensive
+        private static int lastIndexOf(int[] values, int idx) {
+            while (idx + 1 < values.length && values[idx + 1] == values[idx]) idx++;
+            return idx;
+        }
+
+        @Override
+        public String toString() {
+            return "LiteralCompactor.Result{regions=" + compactedStarts.length
+                + ", originalLength=" + originalSql.length()
+                + ", compactedLength=" + sql.length() + '}';
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.sqlparser.parser;
+
+import io.trino.grammar.sql.SqlBaseLexer;
+import io.trino.grammar.sql.SqlBaseParser;
+import io.trino.sql.parser.ParsingException;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Statement;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.InputMismatchException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trino {@link SqlParser} whose ANTLR DFA and prediction-context caches are owned here instead
+ * of living in the generated recognizers' static fields, so their size can be measured and they
+ * can be dropped.
+ * <p>
+ * ANTLR memoizes every lookahead path it has seen; with highly diverse generated SQL those
+ * caches grow without bound. Each parse binds fresh lexer/parser simulators to the current
+ * {@link Generation}. A rebuild just publishes a new, empty generation: parses already running
+ * finish on the old one, which becomes garbage once they are done, so traffic never stops.
+ * The only cost is that the next few statements re-learn their lookahead.
+ * <p>
+ * Rebuilds happen when the parser DFA exceeds {@code maxDfaStates} or when the generation is
+ * older than {@code maxAge} (either check can be disabled with 0 / null). The check runs every
+ * {@link #CHECK_INTERVAL} parses on the parsing thread, so no background thread is needed.
+ * <p>
+ * With {@code reuseRecognizers} each thread also keeps one lexer / token stream / parser (with
+ * Trino's error strategy, listeners and identifier post-processor attached) and resets it
+ * with the next statement instead of building the whole pipeline per call. Parsing follows
+ * {@link SqlParser} step by step (SLL first, LL on error, same AST builder), so trees and
+ * error messages are identical. After each parse the recognizers are detached from the input
+ * and the DFA generation, so an idle thread pins neither a large statement nor a retired cache.
+ * <p>
+ * {@link #parseTree} stops after the parser and hands back the ANTLR tree, for callers that
+ * can read what they need from it without Trino's AST; {@link #isValid} only reports whether
+ * the grammar accepts the statement. A failed SLL pass is retried in LL mode as in Trino, but
+ * its error is rejected without building Trino's message, since that message is never shown.
+ */
+public class ManagedSqlParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManagedSqlParser.class);
+
+    static final int CHECK_INTERVAL = 1024;
+
+    private final SqlParser parser;
+    private final long maxDfaStates;
+    private final Duration maxAge;
+    private final ThreadLocal<Recognizers> recognizers;
+    private final AtomicLong parses = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private volatile Generation current = new Generation(1);
+
+    public ManagedSqlParser() {
+        this(0, null);
+    }
+
+    public ManagedSqlParser(long maxDfaStates, Duration maxAge) {
+        this(maxDfaStates, maxAge, true);
+    }
+
+    /**
+     * @param maxDfaStates rebuild once the parser DFA holds more states than this; 0 disables
+     * @param maxAge       rebuild once the current generation is older than this; null disables
+     * @param reuseRecognizers keep one lexer/parser per thread instead of building them per call
+     */
+    public ManagedSqlParser(long maxDfaStates, Duration maxAge, boolean reuseRecognizers) {
+        this.maxDfaStates = maxDfaStates;
+        this.maxAge = maxAge != null && !maxAge.isZero() ? maxAge : null;
+        this.parser = new SqlParser(this::bind);
+        this.recognizers = reuseRecognizers && TrinoParserInternals.isAvailable()
+            ? ThreadLocal.withInitial(Recognizers::new)
+            : null;
+    }
+
+    public Statement createStatement(String sql) {
+        countParse();
+        if (recognizers != null) {
+            return recognizers.get().parseStatement(sql);
+        }
+        return parser.createStatement(sql);
+    }
+
+    /**
+     * Runs only the lexer and parser, with the same error reporting as {@link #createStatement},
+     * and returns the ANTLR parse tree without building the Trino AST. Checks that only
+     * AstBuilder performs (e.g. malformed unicode escapes in literals) are not applied.
+     *
+     * @throws UnsupportedOperationException when {@link #supportsParseTree()} is false
+     */
+    public SqlBaseParser.SingleStatementContext parseTree(String sql) {
+        if (!supportsParseTree()) {
+            throw new UnsupportedOperationException("Trino parser internals are not accessible");
+        }
+        countParse();
+        Recognizers current = recognizers != null ? recognizers.get() : new Recognizers();
+        return current.parse(sql);
+    }
+
+    /**
+     * Syntax-only verdict: runs the lexer and parser like {@link #parseTree} but gives up at the
+     * first error without building Trino's error message (its expected-token analysis is the
+     * expensive part of rejecting a statement).
+     */
+    public boolean isValid(String sql) {
+        if (!supportsParseTree()) {
+            try {
+                createStatement(sql);
+                return true;
+            } catch (ParsingException e) {
+                return false;
+            }
+        }
+        countParse();
+        Recognizers current = recognizers != null ? recognizers.get() : new Recognizers();
+        return current.accepts(sql);
+    }
+
+    /** Whether {@link #parseTree} can reproduce Trino's error handling with this Trino version. */
+    public boolean supportsParseTree() {
+        return TrinoParserInternals.isAvailable();
+    }
+
+    boolean isReusingRecognizers() {
+        return recognizers != null;
+    }
+
+    /** Drops all learned lookahead by publishing an empty generation. */
+    public void rebuild() {
+        Generation retired;
+        synchronized (this) {
+            retired = current;
+            current = new Generation(retired.number + 1);
+        }
+        recordRebuild(retired);
+    }
+
+    public DfaCacheStats stats() {
+        Generation generation = current;
+        return new DfaCacheStats(generation.number, generation.parserDfaStates(), generation.contextCount(),
+            generation.lexerDfaStates(), rebuilds.get(), parses.get(),
+            System.currentTimeMillis() - generation.createdMillis);
+    }
+
+    private void countParse() {
+        if (parses.incrementAndGet() % CHECK_INTERVAL == 0) {
+            applyPolicy();
+        }
+    }
+
+    private void applyPolicy() {
+        Generation generation = current;
+        if (maxAge != null && System.currentTimeMillis() - generation.createdMillis >= maxAge.toMillis()) {
+            rebuildIfCurrent(generation);
+        } else if (maxDfaStates > 0 && generation.parserDfaStates() > maxDfaStates) {
+            rebuildIfCurrent(generation);
+        }
+    }
+
+    // Several threads may see the same generation exceed the policy; only the first one rebuilds
+    private void rebuildIfCurrent(Generation expected) {
+        synchronized (this) {
+            if (current != expected) {
+                return;
+            }
+            current = new Generation(expected.number + 1);
+        }
+        recordRebuild(expected);
+    }
+
+    private void recordRebuild(Generation generation) {
+        rebuilds.incrementAndGet();
+        logger.info("Rebuilt ANTLR DFA cache: generation {} retired with {} parser DFA states, {} prediction contexts",
+            generation.number, generation.parserDfaStates(), generation.contextCount());
+    }
+
+    private void bind(SqlBaseLexer lexer, SqlBaseParser sqlBaseParser) {
+        Generation generation = current;
+        lexer.setInterpreter(new LexerATNSimulator(lexer, SqlBaseLexer._ATN, generation.lexerDfa, generation.lexerContexts));
+        sqlBaseParser.setInterpreter(new ParserATNSimulator(sqlBaseParser, SqlBaseParser._ATN,
+            generation.parserDfa, generation.parserContexts));
+    }
+
+    /**
+     * One thread's lexer, token stream and parser, wired up once the way {@link SqlParser}
+     * wires up a fresh set on every call.
+     */
+    private final class Recognizers {
+        private final CharStream empty = CharStreams.fromString("");
+        private final SqlBaseLexer lexer = new SqlBaseLexer(empty);
+        private final CommonTokenStream tokens = new CommonTokenStream(lexer);
+        private final SqlBaseParser sqlBaseParser = new SqlBaseParser(tokens);
+
+        Recognizers() {
+            sqlBaseParser.setErrorHandler(new TrinoErrorStrategy());
+            sqlBaseParser.addParseListener(TrinoParserInternals.newPostProcessor(sqlBaseParser));
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(TrinoParserInternals.lexerErrorListener());
+            detach();
+        }
+
+        private void useErrorListener(ANTLRErrorListener errorListener) {
+            sqlBaseParser.removeErrorListeners();
+            sqlBaseParser.addErrorListener(errorListener);
+        }
+
+        Statement parseStatement(String sql) {
+            SqlBaseParser.SingleStatementContext tree = parse(sql);
+            try {
+                return (Statement) TrinoParserInternals.newAstBuilder().visit(tree);
+            } catch (StackOverflowError e) {
+                throw statementTooLarge();
+            }
+        }
+
+        SqlBaseParser.SingleStatementContext parse(String sql) {
+            return parse(sql, TrinoParserInternals.parserErrorHandler());
+        }
+
+        boolean accepts(String sql) {
+            try {
+                parse(sql, RejectingErrorListener.INSTANCE);
+                return true;
+            } catch (ParsingException e) {
+                return false;
+            }
+        }
+
+        // Only the LL pass reports errors: an SLL failure is retried anyway, so it is rejected
+        // without letting Trino's error handler compute a message nobody reads
+        private SqlBaseParser.SingleStatementContext parse(String sql, ANTLRErrorListener errorListener) {
+            try {
+                bind(lexer, sqlBaseParser);
+                lexer.setInputStream(CharStreams.fromString(sql));
+                tokens.setTokenSource(lexer);
+                sqlBaseParser.setTokenStream(tokens);
+                try {
+                    // first, try parsing with potentially faster SLL mode
+                    useErrorListener(RejectingErrorListener.INSTANCE);
+                    sqlBaseParser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+                    return sqlBaseParser.singleStatement();
+                } catch (ParsingException e) {
+                    // if we fail, parse with LL mode
+                    tokens.seek(0);
+                    sqlBaseParser.reset();
+                    useErrorListener(errorListener);
+                    sqlBaseParser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                    return sqlBaseParser.singleStatement();
+                }
+            } catch (StackOverflowError e) {
+                throw statementTooLarge();
+            } finally {
+                // The tree stays valid: its tokens read their text from the statement's own char stream
+                detach();
+            }
+        }
+
+        // Drops the statement's text, its tokens and the generation's simulators until the next
+        // parse. The parser itself keeps nothing: its context stack is empty once the root rule exits.
+        private void detach() {
+            lexer.setInputStream(empty);
+            tokens.setTokenSource(lexer);
+            lexer.setInterpreter(null);
+            sqlBaseParser.setInterpreter(null);
+        }
+    }
+
+    private static ParsingException statementTooLarge() {
+        return new ParsingException("statement is too large (stack overflow while parsing)");
+    }
+
+    /** Rejects at the first syntax error with a shared, stackless exception. */
+    private static final class RejectingErrorListener extends BaseErrorListener {
+        static final RejectingErrorListener INSTANCE = new RejectingErrorListener();
+
+        private static final ParsingException REJECTED = new ParsingException("syntax error") {
+            @Override
+            public synchronized Throwable fillInStackTrace() {
+                return this;
+            }
+        };
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                int charPositionInLine, String msg, RecognitionException e) {
+            throw REJECTED;
+        }
+    }
+
+    /** Same as the anonymous strategy in {@link SqlParser}: fail fast on a mismatch instead of recovering. */
+    private static final class TrinoErrorStrategy extends DefaultErrorStrategy {
+        @Override
+        public Token recoverInline(Parser recognizer) {
+            if (nextTokensContext == null) {
+                throw new InputMismatchException(recognizer);
+            }
+            throw new InputMismatchException(recognizer, nextTokensState, nextTokensContext);
+        }
+    }
+
+    private static final class Generation {
+        final long number;
+        final long createdMillis = System.currentTimeMillis();
+        final DFA[] lexerDfa = newDfa(SqlBaseLexer._ATN);
+        final PredictionContextCache lexerContexts = new PredictionContextCache();
+        final DFA[] parserDfa = newDfa(SqlBaseParser._ATN);
+        final PredictionContextCache parserContexts = new PredictionContextCache();
+
+        Generation(long number) {
+            this.number = number;
+        }
+
+        long parserDfaStates() {
+            return countStates(parserDfa);
+        }
+
+        long lexerDfaStates() {
+            return countStates(lexerDfa);
+        }
+
+        int contextCount() {
+            // ANTLR mutates the shared context cache under its monitor
+            synchronized (parserContexts) {
+                return parserContexts.size();
+            }
+        }
+
+        private static DFA[] newDfa(ATN atn) {
+            DFA[] dfa = new DFA[atn.getNumberOfDecisions()];
+            for (int i = 0; i < dfa.length; i++) {
+                dfa[i] = new DFA(atn.getDecisionState(i), i);
+            }
+            return dfa;
+        }
+
+        private static long countStates(DFA[] dfa) {
+            long states = 0;
+            for (DFA decision : dfa) {
+                // ANTLR adds DFA states under the map's monitor
+                synchronized (decision.states) {
+                    states += decision.states.size();
+                }
+            }
+            return states;
+        }
+    }
+}
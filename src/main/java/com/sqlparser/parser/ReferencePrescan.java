@@ -0,0 +1,115 @@
+package com.sqlparser.parser;
+
+/**
+ * Cheap scan of the raw SQL text that decides whether any expression in the statement
+ * could contain a qualified reference ({@code a.b}) or a nested query ({@code (SELECT ...},
+ * {@code (WITH ...}, {@code (VALUES ...}, {@code (TABLE ...}). When neither can occur,
+ * expression subtrees cannot produce table tokens and the extractor may skip them entirely.
+ * <p>
+ * The answer is conservative. Nested queries are looked for after every '(' without regard
+ * to strings or comments, and dots are only discounted when they sit inside a string,
+ * quoted identifier, comment or numeric literal. Both checks stop at the first hit.
+ */
+public final class ReferencePrescan {
+
+    private ReferencePrescan() {}
+
+    public static boolean expressionsMayContainReferences(String sql) {
+        // indexOf is intrinsified; only statements with a dot pay for the lexical scan
+        if (sql.indexOf('.') >= 0 && containsQualifiedReference(sql)) {
+            return true;
+        }
+        return mayContainNestedQuery(sql);
+    }
+
+    private static boolean mayContainNestedQuery(String sql) {
+        int n = sql.length();
+        int open = sql.indexOf('(');
+        while (open >= 0) {
+            int i = SqlText.skipInsignificant(sql, open + 1);
+            if (i < n && isQueryKeywordAt(sql, i)) {
+                return true;
+            }
+            open = sql.indexOf('(', open + 1);
+        }
+        return false;
+    }
+
+    private static boolean containsQualifiedReference(String sql) {
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            switch (c) {
+                case '.':
+                    if (!isNumericDot(sql, i)) {
+                        return true;
+                    }
+                    i++;
+                    break;
+                case '\'': {
+                    int end = SqlText.skipStringLiteral(sql, i);
+                    i = end < 0 ? n : end;
+                    break;
+                }
+                case '"':
+                case '`': {
+                    int end = SqlText.skipQuotedIdentifier(sql, i);
+                    i = end < 0 ? n : end;
+                    break;
+                }
+                case '-':
+                    i = SqlText.isLineCommentStart(sql, i) ? SqlText.skipLineComment(sql, i) : i + 1;
+                    break;
+                case '/':
+                    if (SqlText.isBlockCommentStart(sql, i)) {
+                        int end = SqlText.skipBlockComment(sql, i);
+                        i = end < 0 ? n : end;
+                    } else {
+                        i++;
+                    }
+                    break;
+                default:
+                    i++;
+            }
+        }
+        return false;
+    }
+
+    // 1.5, .5, 2.e3: the dot belongs to a numeric literal when the word before it is all digits
+    private static boolean isNumericDot(String sql, int dot) {
+        int start = dot;
+        while (start > 0 && isWordChar(sql.charAt(start - 1))) {
+            start--;
+        }
+        if (start == dot) {
+            return dot + 1 < sql.length() && isDigit(sql.charAt(dot + 1));
+        }
+        for (int i = start; i < dot; i++) {
+            char c = sql.charAt(i);
+            if (!isDigit(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isQueryKeywordAt(String sql, int start) {
+        int end = SqlText.skipWord(sql, start);
+        switch (end - start) {
+            case 4: return sql.regionMatches(true, start, "WITH", 0, 4);
+            case 5: return sql.regionMatches(true, start, "TABLE", 0, 5);
+            case 6: return sql.regionMatches(true, start, "SELECT", 0, 6)
+                || sql.regionMatches(true, start, "VALUES", 0, 6);
+            default: return false;
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return SqlText.isIdentifierPart(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,99 @@
+package com.sqlparser.parser;
+
+/**
+ * Character-level helpers for scanning raw SQL text without running the Trino lexer.
+ * Each skip method takes the index of the opening character and returns the index just
+ * past the construct, or -1 when the construct is not terminated.
+ */
+public final class SqlText {
+
+    private SqlText() {}
+
+    // '...' with '' as the escaped quote
+    public static int skipStringLiteral(String sql, int start) {
+        return skipDelimited(sql, start, '\'');
+    }
+
+    // "..." or `...` with a doubled delimiter as the escape
+    public static int skipQuotedIdentifier(String sql, int start) {
+        return skipDelimited(sql, start, sql.charAt(start));
+    }
+
+    // -- comment up to (not including) the line break; an unterminated comment runs to the end
+    public static int skipLineComment(String sql, int start) {
+        int i = start + 2;
+        while (i < sql.length() && sql.charAt(i) != '\n' && sql.charAt(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    // /* ... */ (Trino block comments do not nest)
+    public static int skipBlockComment(String sql, int start) {
+        int end = sql.indexOf("*/", start + 2);
+        return end < 0 ? -1 : end + 2;
+    }
+
+    public static boolean isLineCommentStart(String sql, int i) {
+        return sql.charAt(i) == '-' && i + 1 < sql.length() && sql.charAt(i + 1) == '-';
+    }
+
+    public static boolean isBlockCommentStart(String sql, int i) {
+        return sql.charAt(i) == '/' && i + 1 < sql.length() && sql.charAt(i + 1) == '*';
+    }
+
+    /**
+     * Skips whitespace and comments starting at {@code i}.
+     * Returns the index of the next significant character (or sql.length()).
+     */
+    public static int skipInsignificant(String sql, int i) {
+        int n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (isLineCommentStart(sql, i)) {
+                i = skipLineComment(sql, i);
+            } else if (isBlockCommentStart(sql, i)) {
+                int end = skipBlockComment(sql, i);
+                if (end < 0) return n;
+                i = end;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    public static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    public static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '@' || c == '$';
+    }
+
+    // Index just past the identifier-like word starting at i
+    public static int skipWord(String sql, int i) {
+        while (i < sql.length() && isIdentifierPart(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipDelimited(String sql, int start, char delimiter) {
+        int i = start + 1;
+        int n = sql.length();
+        while (i < n) {
+            if (sql.charAt(i) == delimiter) {
+                if (i + 1 < n && sql.charAt(i + 1) == delimiter) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+}
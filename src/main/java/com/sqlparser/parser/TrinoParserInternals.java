@@ -0,0 +1,115 @@
+package com.sqlparser.parser;
+
+import io.trino.grammar.sql.SqlBaseParser;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Node;
+import io.trino.sql.tree.NodeLocation;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.ParseTreeVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Handles on the pieces of Trino's parser pipeline that are not public API: the AST builder,
+ * the post-processing listener that rejects empty / digit / backquoted identifiers, and the
+ * shared lexer and parser error listeners. Reusing them keeps {@link ManagedSqlParser}'s
+ * reused recognizers producing exactly the trees and error messages of {@link SqlParser}.
+ * <p>
+ * If a Trino upgrade renames any of them, {@link #isAvailable()} turns false and callers fall
+ * back to the stock parser.
+ */
+final class TrinoParserInternals {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrinoParserInternals.class);
+
+    private static final MethodHandle NEW_AST_BUILDER;
+    private static final MethodHandle NEW_POST_PROCESSOR;
+    private static final ANTLRErrorListener LEXER_ERROR_LISTENER;
+    private static final ANTLRErrorListener PARSER_ERROR_HANDLER;
+
+    static {
+        MethodHandle astBuilder = null;
+        MethodHandle postProcessor = null;
+        ANTLRErrorListener lexerListener = null;
+        ANTLRErrorListener parserHandler = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(SqlParser.class, MethodHandles.lookup());
+            Class<?> astBuilderClass = lookup.findClass("io.trino.sql.parser.AstBuilder");
+            astBuilder = lookup.findConstructor(astBuilderClass, MethodType.methodType(void.class, Optional.class))
+                .asType(MethodType.methodType(ParseTreeVisitor.class, Optional.class));
+            Class<?> postProcessorClass = lookup.findClass("io.trino.sql.parser.SqlParser$PostProcessor");
+            postProcessor = lookup.findConstructor(postProcessorClass,
+                    MethodType.methodType(void.class, List.class, SqlBaseParser.class))
+                .asType(MethodType.methodType(ParseTreeListener.class, List.class, SqlBaseParser.class));
+            lexerListener = staticListener("LEXER_ERROR_LISTENER");
+            parserHandler = staticListener("PARSER_ERROR_HANDLER");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Trino parser internals are not accessible, recognizer reuse is disabled: {}", e.toString());
+            astBuilder = null;
+        }
+        NEW_AST_BUILDER = astBuilder;
+        NEW_POST_PROCESSOR = postProcessor;
+        LEXER_ERROR_LISTENER = lexerListener;
+        PARSER_ERROR_HANDLER = parserHandler;
+    }
+
+    private TrinoParserInternals() {
+    }
+
+    static boolean isAvailable() {
+        return NEW_AST_BUILDER != null;
+    }
+
+    static ANTLRErrorListener lexerErrorListener() {
+        return LEXER_ERROR_LISTENER;
+    }
+
+    static ANTLRErrorListener parserErrorHandler() {
+        return PARSER_ERROR_HANDLER;
+    }
+
+    static ParseTreeListener newPostProcessor(SqlBaseParser parser) {
+        try {
+            return (ParseTreeListener) NEW_POST_PROCESSOR.invokeExact(
+                Arrays.asList(parser.getRuleNames()), parser);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /** A fresh AST builder: it numbers parameters while visiting, so it is not reusable. */
+    @SuppressWarnings("unchecked")
+    static ParseTreeVisitor<Node> newAstBuilder() {
+        try {
+            return (ParseTreeVisitor<Node>) (ParseTreeVisitor<?>) NEW_AST_BUILDER.invokeExact(
+                Optional.<NodeLocation>empty());
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    private static ANTLRErrorListener staticListener(String name) throws ReflectiveOperationException {
+        Field field = SqlParser.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return (ANTLRErrorListener) field.get(null);
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException e) {
+            throw e;
+        }
+        if (t instanceof Error e) {
+            throw e;
+        }
+        throw new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,94 @@
+package com.sqlparser.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sqlparser.model.ExtractTablesResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes successful extract-tables response bodies. Dictionary-encoded cache entries do not
+ * keep the body, so it is rebuilt on each hit by splicing the JSON form of every table name
+ * (encoded once per name) between a fixed prefix and suffix, which is a plain byte copy.
+ * <p>
+ * The splice is checked once against the ObjectMapper's own output; if the mapper is configured
+ * differently (e.g. indented output), bodies are serialized by the mapper instead. At most
+ * {@code maxFragments} name fragments are kept; further names are encoded on every use.
+ */
+final class ExtractResponseEncoder {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final int maxFragments;
+    private final ConcurrentHashMap<String, byte[]> fragments = new ConcurrentHashMap<>();
+    // null when the mapper's output cannot be spliced
+    private final byte[] prefix;
+    private final byte[] suffix;
+
+    ExtractResponseEncoder(ObjectMapper objectMapper, int maxFragments) throws JsonProcessingException {
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writerFor(ExtractTablesResponse.class);
+        this.maxFragments = maxFragments;
+
+        // {"tableNames":[],...} split around the empty array
+        byte[] empty = serialize(Set.of());
+        int split = indexOf(empty, new byte[] {'[', ']'});
+        byte[] head = split >= 0 ? Arrays.copyOfRange(empty, 0, split + 1) : null;
+        byte[] tail = split >= 0 ? Arrays.copyOfRange(empty, split + 1, empty.length) : null;
+        Set<String> probe = new LinkedHashSet<>(List.of("s.t", "q\"u\\oü"));
+        boolean spliceable = head != null && Arrays.equals(splice(head, tail, probe), serialize(probe));
+        this.prefix = spliceable ? head : null;
+        this.suffix = spliceable ? tail : null;
+        // the probe names are not real table names
+        fragments.clear();
+    }
+
+    byte[] encode(Set<String> tableNames) throws JsonProcessingException {
+        return prefix != null ? splice(prefix, suffix, tableNames) : serialize(tableNames);
+    }
+
+    private byte[] serialize(Set<String> tableNames) throws JsonProcessingException {
+        return writer.writeValueAsBytes(new ExtractTablesResponse(tableNames, true, "Success"));
+    }
+
+    private byte[] splice(byte[] head, byte[] tail, Set<String> tableNames) throws JsonProcessingException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(head.length + tail.length + 32 * tableNames.size());
+        out.writeBytes(head);
+        boolean first = true;
+        for (String name : tableNames) {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            out.writeBytes(fragment(name));
+        }
+        out.writeBytes(tail);
+        return out.toByteArray();
+    }
+
+    private byte[] fragment(String name) throws JsonProcessingException {
+        byte[] fragment = fragments.get(name);
+        if (fragment == null) {
+            fragment = objectMapper.writeValueAsBytes(name);
+            if (fragments.size() < maxFragments) {
+                fragments.putIfAbsent(name, fragment);
+            }
+        }
+        return fragment;
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target) {
+        for (int i = 0; i + target.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + target.length, target, 0, target.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,216 @@
+package com.sqlparser.service;
+
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.verify.RewriteVerifier;
+import com.sqlparser.visitor.ExtractionResult;
+import com.sqlparser.visitor.TableNameExtractor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One parsed statement ready to be rewritten against any number of mappings: the table
+ * occurrences replace-tables would consider are resolved once, in text order, so each variant is
+ * the SQL between them copied into one buffer with each occurrence's replacement in between.
+ * Every variant equals what replace-tables returns for the same mapping.
+ * <p>
+ * When occurrences overlap (which the right-to-left splice of replace-tables resolves by
+ * skipping) each variant goes through that splice instead.
+ */
+public final class RewritePlan {
+
+    /**
+     * Placeholder in the replacements of a mapping template, filled in per shard.
+     */
+    public static final String SHARD_VARIABLE = "{shard}";
+
+    // Right-to-left splice of replace-tables, used when occurrences overlap
+    interface Splice {
+        String apply(TableMapping mapping, List<RewriteVerifier.Replacement> replacements);
+    }
+
+    /**
+     * A mapping template resolved against the plan's occurrences: the replacement of each
+     * occurrence is looked up once and split at {@link #SHARD_VARIABLE}, so rendering a shard
+     * only copies text.
+     */
+    public final class Template {
+        private final Map<String, String> template;
+        // per occurrence, null when the template does not cover it
+        private final String[][] pieces;
+        private final int fixedLength;
+
+        private Template(Map<String, String> template) {
+            this.template = template;
+            TableMapping mapping = TableMapping.of(template);
+            this.pieces = new String[tokens.length][];
+            int length = sql.length();
+            for (int i = 0; i < tokens.length; i++) {
+                String replacement = mapping.replacementFor(written[i], tokens[i].getText());
+                if (replacement != null) {
+                    pieces[i] = split(replacement);
+                    length += replacement.length() - written[i].length();
+                }
+            }
+            this.fixedLength = length;
+        }
+
+        /**
+         * The statement rewritten with the template's replacements for {@code shard}.
+         */
+        public String render(String shard) {
+            if (overlapping) {
+                Map<String, String> mapping = new LinkedHashMap<>(template);
+                mapping.replaceAll((table, replacement) -> replacement.replace(SHARD_VARIABLE, shard));
+                return rewrite(TableMapping.of(mapping));
+            }
+            boolean sampled = verifier.pick();
+            List<RewriteVerifier.Replacement> replacements = sampled ? new ArrayList<>() : null;
+            StringBuilder text = new StringBuilder(fixedLength + 16 * tokens.length);
+            int copied = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                if (pieces[i] == null) {
+                    continue;
+                }
+                text.append(sql, copied, starts[i]);
+                int from = text.length();
+                String[] parts = pieces[i];
+                for (int p = 0; p < parts.length; p++) {
+                    if (p > 0) {
+                        text.append(shard);
+                    }
+                    text.append(parts[p]);
+                }
+                if (sampled) {
+                    replacements.add(new RewriteVerifier.Replacement(tokens[i], text.substring(from)));
+                }
+                copied = ends[i];
+            }
+            text.append(sql, copied, sql.length());
+            String rewritten = text.toString();
+            if (sampled) {
+                verifier.submit(sql, result.getTableNames(), replacements, rewritten);
+            }
+            return rewritten;
+        }
+    }
+
+    private final String sql;
+    private final ExtractionResult result;
+    private final RewriteVerifier verifier;
+    private final Splice splice;
+    // occurrences that can be replaced, by start offset; the text written at each
+    private final TableNameExtractor.TableToken[] tokens;
+    private final int[] starts;
+    private final int[] ends;
+    private final String[] written;
+    private final boolean overlapping;
+
+    RewritePlan(String sql, ExtractionResult result, RewriteVerifier verifier, Splice splice) {
+        this.sql = sql;
+        this.result = result;
+        this.verifier = verifier;
+        this.splice = splice;
+        List<TableNameExtractor.TableToken> sorted = new ArrayList<>(result.getTokens());
+        sorted.sort(Comparator.comparingInt(TableNameExtractor.TableToken::getStart));
+        List<TableNameExtractor.TableToken> eligible = new ArrayList<>(sorted.size());
+        boolean overlap = false;
+        int previousEnd = 0;
+        for (TableNameExtractor.TableToken token : sorted) {
+            int start = token.getStart();
+            int end = Math.min(token.getEnd(), sql.length());
+            if (start < 0 || start >= end) {
+                continue;
+            }
+            overlap |= start < previousEnd;
+            previousEnd = Math.max(previousEnd, end);
+            // Same check as the splice: the text at the span is the table name
+            if (TableMapping.unquote(sql.substring(start, end)).equalsIgnoreCase(token.getText())) {
+                eligible.add(token);
+            }
+        }
+        this.overlapping = overlap;
+        this.tokens = eligible.toArray(new TableNameExtractor.TableToken[0]);
+        this.starts = new int[tokens.length];
+        this.ends = new int[tokens.length];
+        this.written = new String[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            starts[i] = tokens[i].getStart();
+            ends[i] = Math.min(tokens[i].getEnd(), sql.length());
+            written[i] = sql.substring(starts[i], ends[i]);
+        }
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public Set<String> getTableNames() {
+        return result.getTableNames();
+    }
+
+    /**
+     * The statement rewritten with {@code mapping}, as replace-tables would return it; a
+     * registered mapping's memoized output is used and filled in the same way.
+     */
+    public String rewrite(TableMapping mapping) {
+        String memoized = mapping.memoizedRewrite(sql);
+        if (memoized != null) {
+            return memoized;
+        }
+        boolean sampled = verifier.pick();
+        List<RewriteVerifier.Replacement> replacements = sampled || overlapping ? new ArrayList<>() : null;
+        String rewritten;
+        if (overlapping) {
+            rewritten = splice.apply(mapping, replacements);
+        } else {
+            String[] replaced = new String[tokens.length];
+            int length = sql.length();
+            for (int i = 0; i < tokens.length; i++) {
+                replaced[i] = mapping.replacementFor(written[i], tokens[i].getText());
+                if (replaced[i] != null) {
+                    length += replaced[i].length() - written[i].length();
+                }
+            }
+            StringBuilder text = new StringBuilder(length);
+            int copied = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                if (replaced[i] != null) {
+                    text.append(sql, copied, starts[i]).append(replaced[i]);
+                    copied = ends[i];
+                    if (sampled) {
+                        replacements.add(new RewriteVerifier.Replacement(tokens[i], replaced[i]));
+                    }
+                }
+            }
+            rewritten = text.append(sql, copied, sql.length()).toString();
+        }
+        if (sampled) {
+            verifier.submit(sql, result.getTableNames(), replacements, rewritten);
+        }
+        mapping.memoizeRewrite(sql, rewritten);
+        return rewritten;
+    }
+
+    /**
+     * Resolves a mapping template whose replacements contain {@link #SHARD_VARIABLE}.
+     */
+    public Template template(Map<String, String> template) {
+        return new Template(template);
+    }
+
+    private static String[] split(String replacement) {
+        List<String> parts = new ArrayList<>(2);
+        int from = 0;
+        for (int at = replacement.indexOf(SHARD_VARIABLE); at >= 0; at = replacement.indexOf(SHARD_VARIABLE, from)) {
+            parts.add(replacement.substring(from, at));
+            from = at + SHARD_VARIABLE.length();
+        }
+        parts.add(replacement.substring(from));
+        return parts.toArray(new String[0]);
+    }
+}
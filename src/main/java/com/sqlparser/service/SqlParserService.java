@@ -1,16 +1,56 @@
 package com.sqlparser.service;
 
+import com.sqlparser.cache.CacheStats;
+import com.sqlparser.cache.ExtractionCache;
+import com.sqlparser.cache.OffHeapExtractionCache;
+import com.sqlparser.cache.PersistentExtractionCache;
+import com.sqlparser.cache.TableNameDictionary;
+import com.sqlparser.cache.TieredExtractionCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlparser.config.SqlParserProperties;
+import com.sqlparser.index.AffectedQueries;
+import com.sqlparser.index.QueryIndex;
+import com.sqlparser.index.QueryIndexStats;
+import com.sqlparser.mapping.MappingFileStats;
+import com.sqlparser.mapping.MappingFileWatcher;
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.mapping.TableMappingRegistry;
 import com.sqlparser.model.RewriteInfo;
+import com.sqlparser.model.SqlFingerprint;
+import com.sqlparser.model.SqlLiteral;
+import com.sqlparser.model.RewriteSqlResponse;
+import com.sqlparser.model.SqlValidation;
+import com.sqlparser.model.TableOccurrence;
+import com.sqlparser.parser.DfaCacheStats;
+import com.sqlparser.parser.LiteralCompactor;
+import com.sqlparser.parser.ManagedSqlParser;
+import com.sqlparser.verify.RewriteMismatch;
+import com.sqlparser.verify.RewriteVerifier;
+import com.sqlparser.verify.VerificationStats;
+import com.sqlparser.visitor.ExtractionResult;
+import com.sqlparser.visitor.ExtractorMode;
+import com.sqlparser.visitor.ParseTreeTableExtractor;
+import com.sqlparser.visitor.QueryFingerprint;
+import com.sqlparser.visitor.QueryFingerprinter;
 import com.sqlparser.visitor.TableNameExtractor;
-import io.trino.sql.parser.SqlParser;
+import io.trino.grammar.sql.SqlBaseParser;
+import io.trino.sql.parser.ParsingException;
 import io.trino.sql.tree.Statement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -19,44 +59,506 @@ public class SqlParserService {
 
     private static final Logger logger = LoggerFactory.getLogger(SqlParserService.class);
 
-    private final SqlParser sqlParser;
-    private final TableNameExtractor extractor;
+    private final ManagedSqlParser sqlParser;
+    // null when literal compaction is disabled
+    private final LiteralCompactor literalCompactor;
+    private final boolean pruneExpressions;
+    private final ExtractorMode defaultMode;
+    // null when caching is disabled
+    private final ExtractionCache cache;
+    // null when request coalescing is disabled
+    private final SingleFlight<String, ExtractionResult> singleFlight;
+    // null when the off-heap tier stores table names as strings
+    private final TableNameDictionary dictionary;
+    // null unless cached results carry their encoded extract-tables response
+    private final ExtractResponseEncoder responseEncoder;
+    private final TableMappingRegistry mappings;
+    // null unless a mapping file directory is configured
+    private final MappingFileWatcher mappingFiles;
+    private final RewriteVerifier verifier;
+    private final int maxFanOutVariants;
+    private final QueryIndex queryIndex = new QueryIndex();
+    private final int maxQueryIds;
+    private final StoredQueryRegistry storedQueries;
+    private final int maxStoredQueryChanges;
 
     public SqlParserService() {
-        this.sqlParser = new SqlParser();
-        this.extractor = new TableNameExtractor();
+        this(new SqlParserProperties());
+    }
+
+    public SqlParserService(SqlParserProperties properties) {
+        this(properties, new ObjectMapper());
+    }
+
+    @Autowired
+    public SqlParserService(SqlParserProperties properties, ObjectMapper objectMapper) {
+        SqlParserProperties.Antlr antlr = properties.getAntlr();
+        this.sqlParser = new ManagedSqlParser(antlr.getMaxDfaStates(), antlr.getMaxAge(), antlr.isReuseRecognizers());
+        SqlParserProperties.Compaction compaction = properties.getCompaction();
+        this.literalCompactor = compaction.isEnabled() ? new LiteralCompactor(compaction.getMinRunLength()) : null;
+        this.pruneExpressions = properties.getExtractor().isPruneExpressions();
+        this.defaultMode = properties.getExtractor().getMode();
+        SqlParserProperties.Cache cacheProperties = properties.getCache();
+        int maxNames = cacheProperties.getDictionaryMaxNames();
+        this.dictionary = maxNames > 0 && cacheProperties.getOffHeap().isEnabled() ? new TableNameDictionary(maxNames) : null;
+        this.cache = createCache(cacheProperties, dictionary);
+        this.singleFlight = properties.getCoalescing().isEnabled() ? new SingleFlight<>() : null;
+        this.responseEncoder = cache != null && cacheProperties.isEncodedResponses()
+            ? createResponseEncoder(objectMapper, Math.max(maxNames, 1024)) : null;
+        SqlParserProperties.MappingRegistry registry = properties.getMappingRegistry();
+        this.mappings = new TableMappingRegistry(registry.getRetainedVersions(), registry.getMaxMemoizedChars());
+        properties.getMappings().forEach(mappings::register);
+        SqlParserProperties.MappingFiles files = properties.getMappingFiles();
+        this.mappingFiles = files.getDirectory().isEmpty() ? null
+            : new MappingFileWatcher(Path.of(files.getDirectory()), files.getPollInterval(), mappings);
+        SqlParserProperties.Verification verification = properties.getVerification();
+        this.verifier = new RewriteVerifier(sql -> parseAndExtract(sql, defaultMode), verification.getSampleRate(),
+            verification.getQueueCapacity(), verification.getMaxReports());
+        this.maxFanOutVariants = properties.getFanOut().getMaxVariants();
+        this.maxQueryIds = properties.getQueryIndex().getMaxQueryIds();
+        SqlParserProperties.StoredQueries stored = properties.getStoredQueries();
+        this.storedQueries = new StoredQueryRegistry(mappings, stored.getRetainedRemovals());
+        this.maxStoredQueryChanges = stored.getMaxChanges();
+    }
+
+    private static ExtractionCache createCache(SqlParserProperties.Cache cache, TableNameDictionary dictionary) {
+        List<ExtractionCache> tiers = new ArrayList<>();
+        SqlParserProperties.OffHeap offHeap = cache.getOffHeap();
+        if (offHeap.isEnabled()) {
+            tiers.add(new OffHeapExtractionCache(offHeap.getCapacityMb() * 1024L * 1024L,
+                offHeap.getSlabKb() * 1024, offHeap.getSegments(), dictionary));
+        }
+        SqlParserProperties.Persistent persistent = cache.getPersistent();
+        if (persistent.isEnabled()) {
+            tiers.add(new PersistentExtractionCache(Path.of(persistent.getPath()),
+                persistent.getCapacityMb() * 1024L * 1024L));
+        }
+        if (tiers.isEmpty()) {
+            return null;
+        }
+        return tiers.size() == 1 ? tiers.get(0) : new TieredExtractionCache(tiers);
+    }
+
+    private static ExtractResponseEncoder createResponseEncoder(ObjectMapper objectMapper, int maxFragments) {
+        try {
+            return new ExtractResponseEncoder(objectMapper, maxFragments);
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not set up extract-tables response encoding, cached responses are disabled", e);
+            return null;
+        }
     }
 
     public Set<String> extractTableNames(String sql) throws Exception {
+        return extractTableNames(sql, null);
+    }
+
+    public Set<String> extractTableNames(String sql, ExtractorMode mode) throws Exception {
+        return new HashSet<>(extract(sql, mode).getTableNames());
+    }
+
+    /**
+     * Parses the statement and collects table names plus token spans in original SQL offsets.
+     * Long literal runs are compacted away before parsing and token offsets are mapped back,
+     * so callers always work against the text they passed in.
+     * Results are served from the extraction cache when one is configured; failures are not cached.
+     * Results that went through the cache carry the encoded extract-tables response (see
+     * {@link ExtractionResult#getEncodedResponse()}) unless sqlparser.cache.encoded-responses is off;
+     * for dictionary-encoded entries it is rebuilt from the table names on each hit.
+     * Concurrent misses for the same SQL text share a single parse, including its failure.
+     */
+    public ExtractionResult extract(String sql) {
+        return extract(sql, null);
+    }
+
+    /**
+     * Same as {@link #extract(String)} with an explicit extractor; null uses the configured mode.
+     * Both modes give identical results, so they share cache entries and in-flight parses.
+     */
+    public ExtractionResult extract(String sql, ExtractorMode mode) {
+        ExtractorMode effective = mode != null ? mode : defaultMode;
+        if (cache != null) {
+            ExtractionResult cached = cache.get(sql);
+            if (cached != null) {
+                return withEncodedResponse(cached);
+            }
+        }
+        return singleFlight != null
+            ? singleFlight.execute(sql, () -> parseAndCache(sql, effective))
+            : parseAndCache(sql, effective);
+    }
+
+    /**
+     * Size of the parser's ANTLR DFA / prediction-context caches and how often they were rebuilt.
+     */
+    public DfaCacheStats getDfaCacheStats() {
+        return sqlParser.stats();
+    }
+
+    /**
+     * Number of extract calls that waited for an identical in-flight parse instead of parsing.
+     */
+    public long getCoalescedRequestCount() {
+        return singleFlight != null ? singleFlight.getCoalescedCount() : 0;
+    }
+
+    private ExtractionResult parseAndCache(String sql, ExtractorMode mode) {
+        ExtractionResult result = parseAndExtract(sql, mode);
+        if (cache != null) {
+            result = withEncodedResponse(result);
+            cache.put(sql, result);
+        }
+        return result;
+    }
+
+    // Attaches the body the controller would send for this result, unless the entry kept it
+    private ExtractionResult withEncodedResponse(ExtractionResult result) {
+        if (responseEncoder == null || result.getEncodedResponse() != null) {
+            return result;
+        }
+        try {
+            return result.withEncodedResponse(responseEncoder.encode(result.getTableNames()));
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not encode extract-tables response", e);
+            return result;
+        }
+    }
+
+    /**
+     * Number of table names in the off-heap tier's dictionary; 0 when names are stored as strings.
+     */
+    public int getDictionarySize() {
+        return dictionary != null ? dictionary.size() : 0;
+    }
+
+    /**
+     * Statistics of each extraction cache tier, fastest first; empty when caching is disabled.
+     */
+    public List<CacheStats> getCacheStats() {
+        return cache != null ? cache.stats() : List.of();
+    }
+
+    /**
+     * Flushes and releases the cache tiers (the persistent tier syncs its mapped file).
+     */
+    @PreDestroy
+    public void close() {
+        verifier.close();
+        if (mappingFiles != null) {
+            mappingFiles.close();
+        }
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private ExtractionResult parseAndExtract(String sql, ExtractorMode mode) {
+        LiteralCompactor.Result compacted = literalCompactor != null ? literalCompactor.compact(sql) : null;
+        if (compacted == null || !compacted.isCompacted()) {
+            return collectTables(sql, mode);
+        }
+        logger.debug("Compacted {} literal run(s), removed {} chars before parsing",
+            compacted.getRemovedRegionCount(), compacted.getRemovedCharCount());
+
+        ExtractionResult result;
+        try {
+            result = collectTables(compacted.getSql(), mode);
+        } catch (ParsingException e) {
+            // The error's line and column point into the compacted text; parsing the original
+            // statement reports them where the client wrote the SQL. Errors are rare enough that
+            // the second parse costs nothing that matters.
+            return collectTables(sql, mode);
+        }
+        List<TableNameExtractor.TableToken> remapped = new ArrayList<>(result.getTokens().size());
+        for (TableNameExtractor.TableToken token : result.getTokens()) {
+            int start = compacted.toOriginalOffset(token.getStart());
+            remapped.add(new TableNameExtractor.TableToken(token.getText(), start,
+                start + (token.getEnd() - token.getStart()), token.getKind()));
+        }
+        return new ExtractionResult(result.getTableNames(), remapped);
+    }
+
+    private ExtractionResult collectTables(String sql, ExtractorMode mode) {
+        // Extractors are stateful; one per call keeps the service safe for concurrent requests
+        if (mode == ExtractorMode.PARSE_TREE && sqlParser.supportsParseTree()) {
+            SqlBaseParser.SingleStatementContext tree = sqlParser.parseTree(sql);
+            ParseTreeTableExtractor extractor = new ParseTreeTableExtractor(pruneExpressions);
+            extractor.collect(tree, sql);
+            return new ExtractionResult(extractor.getTableNames(), extractor.getTableTokens());
+        }
         Statement statement = sqlParser.createStatement(sql);
+        TableNameExtractor extractor = new TableNameExtractor(pruneExpressions);
         extractor.collect(statement, sql);
-        return extractor.getTableNames();
+        return new ExtractionResult(extractor.getTableNames(), extractor.getTableTokens());
     }
 
     /**
      * Rewrites table names using AST + precise token positions captured by TableNameExtractor.
      * - Right-to-left replacements keep offsets stable
-     * - Case-aware mapping: prefer exact-token mapping, fallback to lower-cased key
+     * - Case-aware mapping: prefer exact-token mapping, fallback to lower-cased key (see TableMapping)
      * - Handles qualified names (schema.table) by extracting and replacing the last part
      * - Fallback anchored patterns for UPDATE/DELETE/MERGE targets when AST positions don't match
      */
     public String replaceTableNames(String sql, Map<String, String> tableMapping) throws Exception {
-        logger.info("=== Starting table replacement ===");
-        logger.info("Input SQL: {}", sql);
-        logger.info("Table mapping: {}", tableMapping);
+        return replaceTableNames(sql, tableMapping, false);
+    }
 
-        Statement statement = sqlParser.createStatement(sql);
-        extractor.collect(statement, sql);
+    /**
+     * Same as {@link #replaceTableNames(String, Map)}; with {@code verify} the output is checked
+     * before returning (see {@link RewriteVerifier}) and a failed check throws, otherwise it is
+     * only sampled for a background check.
+     */
+    public String replaceTableNames(String sql, Map<String, String> tableMapping, boolean verify) throws Exception {
+        logger.debug("=== Starting table replacement ===");
+        logger.debug("Input SQL: {}", sql);
+        logger.debug("Table mapping: {}", tableMapping);
+        return rewrite(sql, extract(sql), TableMapping.of(tableMapping), verify);
+    }
+
+    /**
+     * Same as {@link #replaceTableNames(String, Map, boolean)} with a compiled mapping. For a
+     * registered mapping the output is memoized per SQL text until the next version of the
+     * mapping is registered; verified requests bypass the memo.
+     */
+    public String replaceTableNames(String sql, TableMapping mapping, boolean verify) {
+        String memoized = verify ? null : mapping.memoizedRewrite(sql);
+        if (memoized != null) {
+            return memoized;
+        }
+        logger.debug("=== Starting table replacement ===");
+        logger.debug("Input SQL: {}", sql);
+        logger.debug("Table mapping: {}", mapping);
+        return rewrite(sql, extract(sql), mapping, verify);
+    }
+
+    /**
+     * Extracts and rewrites in one pass: the statement is parsed (or served from the cache) once
+     * and its token list drives both the reported occurrences and the rewrite, which is exactly
+     * what extract-tables followed by replace-tables with the same mapping would produce.
+     */
+    public RewriteSqlResponse rewrite(String sql, ExtractorMode mode, TableMapping mapping) {
+        return rewrite(sql, mode, mapping, false);
+    }
+
+    /**
+     * Same as {@link #rewrite(String, ExtractorMode, TableMapping)}, verifying the output like
+     * {@link #replaceTableNames(String, Map, boolean)}.
+     */
+    public RewriteSqlResponse rewrite(String sql, ExtractorMode mode, TableMapping mapping, boolean verify) {
+        ExtractionResult result = extract(sql, mode);
+        String rewritten = rewrite(sql, result, mapping, verify);
+        return new RewriteSqlResponse(new HashSet<>(result.getTableNames()), locateTables(sql, result),
+            rewritten, true, "Success");
+    }
+
+    /**
+     * Parses {@code sql} once (or serves it from the cache) for rewriting against many mappings;
+     * see {@link RewritePlan}.
+     */
+    public RewritePlan planRewrite(String sql, ExtractorMode mode) {
+        return plan(sql, extract(sql, mode));
+    }
+
+    /**
+     * Most variants one fan-out rewrite may produce (sqlparser.fan-out.max-variants).
+     */
+    public int getMaxFanOutVariants() {
+        return maxFanOutVariants;
+    }
+
+    /**
+     * Registered table mapping for {@code name} (latest version) or {@code name@version}, or null.
+     * Mappings come from sqlparser.mappings (version 1) and {@link #registerMapping}.
+     */
+    public TableMapping getMapping(String reference) {
+        return mappings.get(reference);
+    }
+
+    /**
+     * Compiles {@code mapping} as the next version of {@code name} and returns it.
+     */
+    public TableMapping registerMapping(String name, Map<String, String> mapping) {
+        return mappings.register(name, mapping);
+    }
+
+    /**
+     * Load state of each watched mapping file; empty when no mapping directory is configured.
+     */
+    public List<MappingFileStats> getMappingFileStats() {
+        return mappingFiles != null ? mappingFiles.stats() : List.of();
+    }
+
+    /**
+     * Adds or replaces stored queries in the query index, by id. Queries are parsed without the
+     * extraction cache, since a corpus is ingested once; one that fails to parse, or to be
+     * indexed, is dropped from the index (along with any earlier version) and returned with its
+     * error.
+     */
+    public Map<String, String> indexQueries(Map<String, String> queries) {
+        Map<String, String> failed = new LinkedHashMap<>();
+        queries.forEach((id, sql) -> {
+            String error;
+            if (sql == null || sql.trim().isEmpty()) {
+                error = "SQL cannot be empty";
+            } else {
+                try {
+                    queryIndex.put(id, parseAndExtract(sql, defaultMode).getTableNames());
+                    return;
+                } catch (RuntimeException e) {
+                    // Any failure stays with its query, so the rest of the batch is still indexed
+                    error = e.getMessage() != null ? e.getMessage() : e.toString();
+                }
+            }
+            queryIndex.remove(id);
+            failed.put(id, error);
+        });
+        return failed;
+    }
+
+    /**
+     * Drops stored queries from the query index; returns how many were indexed.
+     */
+    public int removeIndexedQueries(Collection<String> ids) {
+        int removed = 0;
+        for (String id : ids) {
+            if (queryIndex.remove(id)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Indexed queries that reference a table {@code mapping} covers (see {@link QueryIndex}),
+     * listing the ids of at most {@code limit} of them, capped by sqlparser.query-index.max-query-ids.
+     */
+    public AffectedQueries findAffectedQueries(TableMapping mapping, int limit) {
+        return queryIndex.affected(mapping, Math.min(limit, maxQueryIds));
+    }
+
+    public int getMaxQueryIds() {
+        return maxQueryIds;
+    }
+
+    public QueryIndexStats getQueryIndexStats() {
+        return queryIndex.stats();
+    }
+
+    /**
+     * Adds or replaces stored queries, by id, kept rewritten with the latest version of registered
+     * mapping {@code mapping} (see {@link StoredQueryRegistry}). Like {@link #indexQueries}, each is
+     * parsed without the extraction cache, and one that fails to parse, or to be rewritten, is
+     * dropped (along with any earlier version) and returned with its error.
+     *
+     * @throws IllegalArgumentException when no mapping of that name is registered
+     */
+    public Map<String, String> storeQueries(String mapping, Map<String, String> queries) {
+        if (mappings.get(mapping) == null) {
+            throw new IllegalArgumentException("Unknown table mapping: " + mapping);
+        }
+        Map<String, String> failed = new LinkedHashMap<>();
+        queries.forEach((id, sql) -> {
+            String error;
+            if (sql == null || sql.trim().isEmpty()) {
+                error = "SQL cannot be empty";
+            } else {
+                try {
+                    storedQueries.put(id, mapping, plan(sql, parseAndExtract(sql, defaultMode)));
+                    return;
+                } catch (RuntimeException e) {
+                    // Any failure stays with its query, so the rest of the batch is still stored
+                    error = e.getMessage() != null ? e.getMessage() : e.toString();
+                }
+            }
+            storedQueries.remove(id);
+            failed.put(id, error);
+        });
+        return failed;
+    }
 
+    /**
+     * Drops stored queries; returns how many were stored.
+     */
+    public int removeStoredQueries(Collection<String> ids) {
+        int removed = 0;
+        for (String id : ids) {
+            if (storedQueries.remove(id)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Stored-query outputs changed after sequence {@code since}, at most {@code limit} of them,
+     * capped by sqlparser.stored-queries.max-changes.
+     */
+    public StoredQueryChanges getStoredQueryChanges(long since, int limit) {
+        return storedQueries.changes(since, Math.min(limit, maxStoredQueryChanges));
+    }
+
+    public int getMaxStoredQueryChanges() {
+        return maxStoredQueryChanges;
+    }
+
+    public StoredQueryStats getStoredQueryStats() {
+        return storedQueries.stats();
+    }
+
+    /**
+     * Post-rewrite check counters; mismatches are also listed by {@link #getRewriteMismatches()}.
+     */
+    public VerificationStats getVerificationStats() {
+        return verifier.stats();
+    }
+
+    /**
+     * Most recent rewrites that failed verification, oldest first.
+     */
+    public List<RewriteMismatch> getRewriteMismatches() {
+        return verifier.recentMismatches();
+    }
+
+    private RewritePlan plan(String sql, ExtractionResult result) {
+        return new RewritePlan(sql, result, verifier,
+            (mapping, replacements) -> applyMapping(sql, result.getTokens(), mapping, replacements));
+    }
+
+    private String rewrite(String sql, ExtractionResult result, TableMapping mapping, boolean verify) {
+        String memoized = verify ? null : mapping.memoizedRewrite(sql);
+        if (memoized != null) {
+            return memoized;
+        }
+        List<RewriteVerifier.Replacement> replacements = new ArrayList<>();
+        String rewritten = applyMapping(sql, result.getTokens(), mapping, replacements);
+        if (verify) {
+            RewriteMismatch mismatch = verifier.verify(sql, result.getTableNames(), replacements, rewritten);
+            if (mismatch != null) {
+                throw new IllegalStateException("Rewritten SQL failed verification: " + mismatch.getReason());
+            }
+        } else {
+            verifier.sample(sql, result.getTableNames(), replacements, rewritten);
+        }
+        mapping.memoizeRewrite(sql, rewritten);
+        return rewritten;
+    }
+
+    // Collects what was written over each replaced token into replacements
+    private String applyMapping(String sql, List<TableNameExtractor.TableToken> extractedTokens, TableMapping tableMapping,
+                                List<RewriteVerifier.Replacement> replacements) {
         // Copy tokens and sort right-to-left
-        List<TableNameExtractor.TableToken> tokens = new ArrayList<>(extractor.getTableTokens());
-        logger.info("Extracted {} tokens from AST", tokens.size());
-        for (TableNameExtractor.TableToken token : tokens) {
-            logger.info("  Token: '{}' at position [{}:{}]", token.getText(), token.getStart(), token.getEnd());
+        List<TableNameExtractor.TableToken> tokens = new ArrayList<>(extractedTokens);
+        // Per-token tracing is debug only: at info it ran for every token of every statement, and
+        // logging the partial result after each replacement made large statements quadratic
+        boolean trace = logger.isDebugEnabled();
+        if (trace) {
+            logger.debug("Extracted {} tokens from AST", tokens.size());
+            for (TableNameExtractor.TableToken token : tokens) {
+                logger.debug("  Token: '{}' at position [{}:{}]", token.getText(), token.getStart(), token.getEnd());
+            }
         }
 
         tokens.sort(Comparator.comparingInt(TableNameExtractor.TableToken::getStart).reversed());
-        logger.info("Sorted tokens (right-to-left) for stable replacement");
+        logger.debug("Sorted tokens (right-to-left) for stable replacement");
 
         StringBuilder result = new StringBuilder(sql);
         int replacementCount = 0;
@@ -65,7 +567,9 @@ public class SqlParserService {
             int start = tok.getStart();
             int end = Math.min(tok.getEnd(), result.length());
 
-            logger.info("Processing token: '{}' at [{}:{}]", oldText, start, end);
+            if (trace) {
+                logger.debug("Processing token: '{}' at [{}:{}]", oldText, start, end);
+            }
 
             if (start < 0 || start >= end) {
                 logger.warn("  ⚠️  Invalid position range, skipping");
@@ -73,42 +577,16 @@ public class SqlParserService {
             }
 
             String actual = result.substring(start, end);
-            logger.info("  Actual text at position: '{}'", actual);
 
             // Strip quotes from actual text if present for comparison
-            String actualForComparison = actual;
-            boolean isQuoted = false;
-            if (actual.startsWith("\"") && actual.endsWith("\"") && actual.length() > 2) {
-                actualForComparison = actual.substring(1, actual.length() - 1);
-                isQuoted = true;
-            }
-
-            // Find replacement in mapping
-            // First try exact case match with the actual text (with or without quotes)
-            String replacement = tableMapping.get(actual);
-            if (replacement == null && isQuoted) {
-                // Try matching without quotes
-                replacement = tableMapping.get(actualForComparison);
-            }
+            String actualForComparison = TableMapping.unquote(actual);
+            String replacement = tableMapping.replacementFor(actual, oldText);
 
-            if (replacement == null) {
-                // Then try exact case match with the normalized AST token text
-                replacement = tableMapping.get(oldText);
+            if (trace) {
+                logger.debug("  Replacement lookup: actual='{}', actualForComparison='{}', oldText='{}' -> {}",
+                    actual, actualForComparison, oldText, replacement);
             }
 
-            if (replacement == null) {
-                // Finally try case-insensitive lookup
-                String finalActualForComparison = actualForComparison;
-                replacement = tableMapping.entrySet().stream()
-                    .filter(e -> e.getKey().equalsIgnoreCase(finalActualForComparison))
-                    .map(Map.Entry::getValue)
-                    .findFirst()
-                    .orElse(null);
-            }
-
-            logger.info("  Replacement lookup: actual='{}', actualForComparison='{}', oldText='{}' -> {}",
-                actual, actualForComparison, oldText, replacement);
-
             if (replacement != null) {
                 // Verify the actual text matches what we expect (case-insensitive, ignoring quotes)
                 if (!actualForComparison.equalsIgnoreCase(oldText)) {
@@ -117,33 +595,55 @@ public class SqlParserService {
                     continue;
                 }
 
-                logger.info("  ✅ Replacing '{}' with '{}' at position [{}:{}]",
-                    actual, replacement, start, end);
+                if (trace) {
+                    logger.debug("  ✅ Replacing '{}' with '{}' at position [{}:{}]",
+                        actual, replacement, start, end);
+                }
                 result.replace(start, end, replacement);
+                replacements.add(new RewriteVerifier.Replacement(tok, replacement));
                 replacementCount++;
-                logger.info("  Result after replacement: {}", result.toString());
-            } else {
-                logger.info("  ⏭️  Skipping replacement (no mapping found)");
             }
         }
 
-        logger.info("Total replacements made: {}", replacementCount);
-        logger.info("Final result: {}", result.toString());
-        logger.info("=== Replacement complete ===");
-
-        // Validate SQL is still parseable
-        // sqlParser.createStatement(result.toString());
+        logger.debug("Total replacements made: {}", replacementCount);
+        logger.debug("Final result: {}", result);
+        logger.debug("=== Replacement complete ===");
         return result.toString();
     }
 
+    /**
+     * Every table occurrence in {@code sql} with its span, in text order, from the result's tokens:
+     * the spans replaceTableNames would rewrite, so a client can splice its own replacements.
+     * Spans that do not fall inside the text, or whose text is not the table name (e.g. the
+     * keyword of {@code TABLE t}), are left out, as replaceTableNames skips them.
+     */
+    public List<TableOccurrence> locateTables(String sql, ExtractionResult result) {
+        List<TableNameExtractor.TableToken> tokens = new ArrayList<>(result.getTokens());
+        tokens.sort(Comparator.comparingInt(TableNameExtractor.TableToken::getStart));
+        List<TableOccurrence> occurrences = new ArrayList<>(tokens.size());
+        for (TableNameExtractor.TableToken token : tokens) {
+            int start = token.getStart();
+            int end = Math.min(token.getEnd(), sql.length());
+            if (start < 0 || start >= end) {
+                continue;
+            }
+            String text = sql.substring(start, end);
+            // Same check as the splice in applyMapping and RewritePlan
+            if (!TableMapping.unquote(text).equalsIgnoreCase(token.getText())) {
+                continue;
+            }
+            String kind = token.getKind().name().toLowerCase(Locale.ENGLISH).replace('_', '-');
+            occurrences.add(new TableOccurrence(token.getText(), text, start, end, text.indexOf('"') >= 0, kind));
+        }
+        return occurrences;
+    }
+
     /**
      * Analyze which tables would be affected by a rewrite without modifying SQL.
      */
     public RewriteInfo analyzeTableRewrite(String sql, Map<String, String> tableMapping) {
         try {
-            Statement statement = sqlParser.createStatement(sql);
-            extractor.collect(statement, sql);
-            Set<String> all = extractor.getTableNames();
+            Set<String> all = new HashSet<>(extract(sql).getTableNames());
             List<String> affected = all.stream().filter(tableMapping::containsKey).toList();
             return new RewriteInfo(all, affected, tableMapping);
         } catch (Exception e) {
@@ -152,17 +652,110 @@ public class SqlParserService {
     }
 
     /**
-     * Validates that the given SQL is syntactically correct and parseable.
+     * Validates that the given SQL is syntactically correct. Only the grammar runs, without
+     * building the AST, so checks Trino applies while building it (e.g. unicode escapes in
+     * literals) are not performed.
      */
     public boolean validateSql(String sql) {
         try {
-            sqlParser.createStatement(sql);
-            return true;
+            return sqlParser.isValid(sql);
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * Syntax check of each statement, in order. Parsing stops at a statement's first error,
+     * which is reported with its line and column unless verdictOnly is set.
+     */
+    public List<SqlValidation> validate(List<String> statements, boolean verdictOnly) {
+        List<SqlValidation> results = new ArrayList<>(statements.size());
+        for (String sql : statements) {
+            if (sql == null || sql.trim().isEmpty()) {
+                results.add(new SqlValidation(false, verdictOnly ? null : "SQL cannot be empty", null, null));
+            } else if (verdictOnly) {
+                results.add(new SqlValidation(validateSql(sql), null, null, null));
+            } else {
+                results.add(validate(sql));
+            }
+        }
+        return results;
+    }
+
+    private SqlValidation validate(String sql) {
+        try {
+            if (sqlParser.supportsParseTree()) {
+                sqlParser.parseTree(sql);
+            } else {
+                sqlParser.createStatement(sql);
+            }
+            return new SqlValidation(true, null, null, null);
+        } catch (ParsingException e) {
+            return new SqlValidation(false, e.getErrorMessage(), e.getLineNumber(), e.getColumnNumber());
+        }
+    }
+
+    /**
+     * Fingerprint, parameterized text, literals and table names of each statement, in order, all
+     * from one parse of the parse tree (see {@link QueryFingerprinter}). Literal compaction is
+     * skipped, since every literal is reported. A statement that does not parse gets only an
+     * error.
+     *
+     * @throws UnsupportedOperationException when the parser cannot produce parse trees
+     */
+    public List<SqlFingerprint> fingerprint(List<String> statements) {
+        requireFingerprinting();
+        List<SqlFingerprint> results = new ArrayList<>(statements.size());
+        for (String sql : statements) {
+            results.add(fingerprintStatement(sql));
+        }
+        return results;
+    }
+
+    /**
+     * Same as {@link #fingerprint(List)} for one statement.
+     */
+    public SqlFingerprint fingerprint(String sql) {
+        requireFingerprinting();
+        return fingerprintStatement(sql);
+    }
+
+    /**
+     * Whether {@link #fingerprint(List)} is available: it needs the Trino parse tree, which is
+     * not accessible with every Trino version. Callers about to fingerprint in bulk should check
+     * this once up front.
+     */
+    public boolean supportsFingerprinting() {
+        return sqlParser.supportsParseTree();
+    }
+
+    private void requireFingerprinting() {
+        if (!supportsFingerprinting()) {
+            throw new UnsupportedOperationException("Fingerprinting needs the Trino parse tree, which is not accessible");
+        }
+    }
+
+    private SqlFingerprint fingerprintStatement(String sql) {
+        if (sql == null || sql.trim().isEmpty()) {
+            return new SqlFingerprint(null, null, null, null, null, "SQL cannot be empty");
+        }
+        SqlBaseParser.SingleStatementContext tree;
+        try {
+            tree = sqlParser.parseTree(sql);
+        } catch (ParsingException e) {
+            return new SqlFingerprint(null, null, null, null, null, e.getMessage());
+        }
+        ParseTreeTableExtractor extractor = new ParseTreeTableExtractor(pruneExpressions);
+        extractor.collect(tree, sql);
+        QueryFingerprint fingerprint = QueryFingerprinter.fingerprint(tree);
+        List<SqlLiteral> literals = new ArrayList<>(fingerprint.getLiterals().size());
+        for (QueryFingerprinter.Literal literal : fingerprint.getLiterals()) {
+            literals.add(new SqlLiteral(literal.getType(), literal.getValue()));
+        }
+        return new SqlFingerprint(fingerprint.getFingerprint(), fingerprint.getFingerprint64(),
+            fingerprint.getParameterizedSql(), literals, new HashSet<>(extractor.getTableNames()), null);
+    }
+
     // Attempt to replace DML target tables with strict, anchored patterns while preserving formatting
     private String tryDmlAnchoredReplacement(String sql, String oldTable, String newTable) {
         String updated = replaceFirstAnchored(sql, "\\bUPDATE\\s+", oldTable, newTable);
@@ -0,0 +1,30 @@
+package com.sqlparser.service;
+
+/**
+ * One entry of the {@link StoredQueryRegistry} change feed: the new rewritten SQL of a stored
+ * query, or its removal.
+ */
+public final class StoredQueryChange {
+
+    private final long sequence;
+    private final String id;
+    private final String mapping;
+    private final String sql;
+    private final boolean removed;
+
+    public StoredQueryChange(long sequence, String id, String mapping, String sql, boolean removed) {
+        this.sequence = sequence;
+        this.id = id;
+        this.mapping = mapping;
+        this.sql = sql;
+        this.removed = removed;
+    }
+
+    public long getSequence() { return sequence; }
+    public String getId() { return id; }
+    // name@version of the mapping the SQL was rewritten with
+    public String getMapping() { return mapping; }
+    // null when removed
+    public String getSql() { return sql; }
+    public boolean isRemoved() { return removed; }
+}
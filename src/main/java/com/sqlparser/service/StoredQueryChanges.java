@@ -0,0 +1,25 @@
+package com.sqlparser.service;
+
+import java.util.List;
+
+/**
+ * A read of the {@link StoredQueryRegistry} change feed.
+ */
+public final class StoredQueryChanges {
+
+    private final List<StoredQueryChange> changes;
+    private final long lastSequence;
+    private final boolean reset;
+
+    public StoredQueryChanges(List<StoredQueryChange> changes, long lastSequence, boolean reset) {
+        this.changes = changes;
+        this.lastSequence = lastSequence;
+        this.reset = reset;
+    }
+
+    public List<StoredQueryChange> getChanges() { return changes; }
+    // Sequence to read from next time
+    public long getLastSequence() { return lastSequence; }
+    // Changes after the requested sequence are no longer all in the feed; read again from 0
+    public boolean isReset() { return reset; }
+}
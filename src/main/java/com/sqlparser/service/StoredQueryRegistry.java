@@ -0,0 +1,235 @@
+package com.sqlparser.service;
+
+import com.sqlparser.index.AffectedQueries;
+import com.sqlparser.index.QueryIndex;
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.mapping.TableMappingRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stored queries kept rewritten with the latest version of a registered mapping, so their
+ * physical-table form is always at hand.
+ * <p>
+ * Each query is parsed once when it is stored and keeps its {@link RewritePlan} and its tables
+ * in a {@link QueryIndex}. When a new version of a mapping is registered, the entries that
+ * differ from the version the queries were rewritten with give the changed tables; only the
+ * queries following that mapping and referencing one of them are rewritten again, by splicing
+ * their plan, and none is parsed. Prefix and wildcard rule changes are resolved by testing each
+ * indexed table against both versions.
+ * <p>
+ * Every new output goes to a change feed ordered by sequence number. The feed is compacted: it
+ * holds the latest change of each stored query, so reading from 0 returns them all, plus the
+ * most recent {@code retainedRemovals} removals. A reader whose last sequence predates a
+ * dropped removal, or a restart, is told to start over.
+ */
+public class StoredQueryRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoredQueryRegistry.class);
+
+    private static final class Entry {
+        private final String mapping;
+        private final RewritePlan plan;
+        private String rewritten;
+        // mapping version the output was rewritten with
+        private long version;
+        // of the entry's latest change in the feed, 0 before the first
+        private long sequence;
+
+        private Entry(String mapping, RewritePlan plan) {
+            this.mapping = mapping;
+            this.plan = plan;
+        }
+    }
+
+    private final TableMappingRegistry mappings;
+    private final int retainedRemovals;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final QueryIndex index = new QueryIndex();
+    // version of each followed mapping the stored queries are rewritten with
+    private final Map<String, TableMapping> applied = new HashMap<>();
+    private final TreeMap<Long, StoredQueryChange> feed = new TreeMap<>();
+    // sequence of the removal change of each removed id still in the feed, oldest first
+    private final LinkedHashMap<String, Long> removals = new LinkedHashMap<>();
+    private long sequence;
+    // changes up to this sequence may have been dropped from the feed
+    private long compactedThrough;
+    private long rerendered;
+
+    public StoredQueryRegistry(TableMappingRegistry mappings, int retainedRemovals) {
+        this.mappings = mappings;
+        this.retainedRemovals = Math.max(0, retainedRemovals);
+        mappings.addListener(this::mappingRegistered);
+    }
+
+    /**
+     * Stores (or replaces) query {@code id}, rewritten with the latest version of mapping
+     * {@code mapping} from now on, and feeds its output unless it is unchanged.
+     *
+     * @throws IllegalArgumentException when no mapping of that name is registered
+     */
+    public void put(String id, String mapping, RewritePlan plan) {
+        lock.writeLock().lock();
+        try {
+            TableMapping current = applied.computeIfAbsent(mapping, mappings::get);
+            if (current == null) {
+                throw new IllegalArgumentException("Unknown table mapping: " + mapping);
+            }
+            Entry entry = new Entry(mapping, plan);
+            Entry previous = entries.put(id, entry);
+            if (previous != null) {
+                // Moving to another mapping is a change even when the output stays the same
+                entry.rewritten = previous.mapping.equals(mapping) ? previous.rewritten : null;
+                entry.sequence = previous.sequence;
+            }
+            Long removal = removals.remove(id);
+            if (removal != null) {
+                feed.remove(removal);
+            }
+            index.put(id, plan.getTableNames());
+            render(id, entry, current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops query {@code id} and feeds its removal; returns false when it was not stored.
+     */
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.remove(id);
+            if (entry == null) {
+                return false;
+            }
+            index.remove(id);
+            feed.remove(entry.sequence);
+            sequence++;
+            feed.put(sequence, new StoredQueryChange(sequence, id, entry.mapping + "@" + entry.version, null, true));
+            removals.put(id, sequence);
+            if (removals.size() > retainedRemovals) {
+                Iterator<Long> oldest = removals.values().iterator();
+                long dropped = oldest.next();
+                oldest.remove();
+                feed.remove(dropped);
+                compactedThrough = Math.max(compactedThrough, dropped);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} changes after sequence {@code since}, oldest first. With a limit of
+     * 0 the page is empty and the last sequence stays {@code since}.
+     */
+    public StoredQueryChanges changes(long since, int limit) {
+        lock.readLock().lock();
+        try {
+            List<StoredQueryChange> changes = new ArrayList<>(Math.min(limit, feed.size()));
+            for (StoredQueryChange change : feed.tailMap(since, false).values()) {
+                if (changes.size() >= limit) {
+                    break;
+                }
+                changes.add(change);
+            }
+            // An empty page is the end of the feed only when the limit did not cut it
+            long last = !changes.isEmpty() ? changes.get(changes.size() - 1).getSequence()
+                : limit > 0 ? sequence : since;
+            return new StoredQueryChanges(changes, last, since < compactedThrough || since > sequence);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public StoredQueryStats stats() {
+        lock.readLock().lock();
+        try {
+            return new StoredQueryStats(entries.size(), sequence, rerendered);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void mappingRegistered(TableMapping current) {
+        lock.writeLock().lock();
+        try {
+            TableMapping before = applied.get(current.getName());
+            if (before == null || current.getVersion() <= before.getVersion()) {
+                return;
+            }
+            applied.put(current.getName(), current);
+            AffectedQueries affected = changedQueries(before, current);
+            int count = 0;
+            for (String id : affected.getQueryIds()) {
+                Entry entry = entries.get(id);
+                if (entry == null || !entry.mapping.equals(current.getName())) {
+                    continue;
+                }
+                try {
+                    render(id, entry, current);
+                    count++;
+                } catch (RuntimeException e) {
+                    logger.warn("Could not rewrite stored query {} with {}, keeping its previous output", id, current, e);
+                }
+            }
+            rerendered += count;
+            logger.info("Table mapping {} changes {} tables; rewrote {} stored queries", current,
+                affected.getTables().size(), count);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Indexed queries referencing a table the two versions rewrite differently
+    private AffectedQueries changedQueries(TableMapping before, TableMapping after) {
+        Map<String, String> old = before.asMap();
+        Map<String, String> now = after.asMap();
+        Set<String> tables = new HashSet<>();
+        boolean rules = false;
+        for (Map.Entry<String, String> mapping : now.entrySet()) {
+            if (!mapping.getValue().equals(old.get(mapping.getKey()))) {
+                rules |= mapping.getKey().indexOf('*') >= 0;
+                tables.add(TableMapping.tableKey(mapping.getKey()));
+            }
+        }
+        for (String key : old.keySet()) {
+            if (!now.containsKey(key)) {
+                rules |= key.indexOf('*') >= 0;
+                tables.add(TableMapping.tableKey(key));
+            }
+        }
+        if (!rules) {
+            return index.affected(tables, Integer.MAX_VALUE);
+        }
+        return index.affected(table -> tables.contains(table)
+            || !Objects.equals(before.replacementFor(table, table), after.replacementFor(table, table)), Integer.MAX_VALUE);
+    }
+
+    private void render(String id, Entry entry, TableMapping mapping) {
+        String rewritten = entry.plan.rewrite(mapping);
+        entry.version = mapping.getVersion();
+        if (rewritten.equals(entry.rewritten)) {
+            return;
+        }
+        entry.rewritten = rewritten;
+        feed.remove(entry.sequence);
+        entry.sequence = ++sequence;
+        feed.put(sequence, new StoredQueryChange(sequence, id, mapping.toString(), rewritten, false));
+    }
+}
@@ -0,0 +1,23 @@
+package com.sqlparser.service;
+
+/**
+ * Size and activity of the {@link StoredQueryRegistry}, serialized by the metrics endpoint.
+ */
+public final class StoredQueryStats {
+
+    private final int queries;
+    private final long lastSequence;
+    private final long rerendered;
+
+    public StoredQueryStats(int queries, long lastSequence, long rerendered) {
+        this.queries = queries;
+        this.lastSequence = lastSequence;
+        this.rerendered = rerendered;
+    }
+
+    public int getQueries() { return queries; }
+    // Sequence of the latest change in the feed
+    public long getLastSequence() { return lastSequence; }
+    // Stored queries rewritten again because a mapping they follow changed
+    public long getRerendered() { return rerendered; }
+}
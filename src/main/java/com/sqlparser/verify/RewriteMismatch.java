@@ -0,0 +1,40 @@
+package com.sqlparser.verify;
+
+import java.util.Set;
+
+/**
+ * A rewrite whose output did not re-extract to the expected tables, or did not parse at all
+ * (actual is null then).
+ */
+public final class RewriteMismatch {
+
+    private final long timestamp;
+    private final String sql;
+    private final String rewrittenSql;
+    private final Set<String> expected;
+    private final Set<String> actual;
+    private final String reason;
+
+    public RewriteMismatch(long timestamp, String sql, String rewrittenSql, Set<String> expected, Set<String> actual,
+                           String reason) {
+        this.timestamp = timestamp;
+        this.sql = sql;
+        this.rewrittenSql = rewrittenSql;
+        this.expected = expected;
+        this.actual = actual;
+        this.reason = reason;
+    }
+
+    // Epoch millis of the check
+    public long getTimestamp() { return timestamp; }
+    public String getSql() { return sql; }
+    public String getRewrittenSql() { return rewrittenSql; }
+    public Set<String> getExpected() { return expected; }
+    public Set<String> getActual() { return actual; }
+    public String getReason() { return reason; }
+
+    @Override
+    public String toString() {
+        return "RewriteMismatch{" + reason + ", rewrittenSql=" + rewrittenSql + '}';
+    }
+}
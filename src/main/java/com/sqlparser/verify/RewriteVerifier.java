@@ -0,0 +1,219 @@
+package com.sqlparser.verify;
+
+import com.sqlparser.visitor.ExtractionResult;
+import com.sqlparser.visitor.TableNameExtractor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Checks that rewritten SQL still parses and references the tables the mapping promised.
+ * <p>
+ * The rewritten text is extracted again and compared with the expected table set: every
+ * replacement written over a table occurrence (qualifiers aside) must appear, as must every
+ * table the rewrite did not touch, and nothing else may appear except the replaced names
+ * themselves, which can survive in positions the rewrite leaves alone (e.g. an INSERT target).
+ * <p>
+ * A sample of rewrites is checked on a single low-priority daemon thread so the rewrite returns
+ * immediately; when its bounded queue is full, samples are dropped rather than queued. Strict
+ * checks run on the caller's thread. Recent mismatches are kept for the diagnostics endpoint.
+ */
+public class RewriteVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(RewriteVerifier.class);
+
+    /**
+     * One table occurrence the rewrite replaced, and what it wrote there.
+     */
+    public static final class Replacement {
+        private final TableNameExtractor.TableToken token;
+        private final String text;
+
+        public Replacement(TableNameExtractor.TableToken token, String text) {
+            this.token = token;
+            this.text = text;
+        }
+
+        public TableNameExtractor.TableToken getToken() { return token; }
+        public String getText() { return text; }
+    }
+
+    private final Function<String, ExtractionResult> extractor;
+    private final double sampleRate;
+    private final int maxReports;
+    private final ThreadPoolExecutor executor;
+    private final ArrayDeque<RewriteMismatch> recent = new ArrayDeque<>();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+
+    /**
+     * @param extractor     extracts table names from SQL without going through the result cache
+     * @param sampleRate    fraction of rewrites checked in the background (0 disables sampling)
+     * @param queueCapacity samples waiting for the background thread before new ones are dropped
+     * @param maxReports    recent mismatches kept for diagnostics
+     */
+    public RewriteVerifier(Function<String, ExtractionResult> extractor, double sampleRate, int queueCapacity,
+                           int maxReports) {
+        this.extractor = extractor;
+        this.sampleRate = sampleRate;
+        this.maxReports = maxReports;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                Thread thread = new Thread(runnable, "rewrite-verifier");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+    }
+
+    /**
+     * Queues the rewrite for a background check if it falls in the sample.
+     */
+    public void sample(String sql, Set<String> tableNames, List<Replacement> replacements, String rewrittenSql) {
+        if (pick()) {
+            submit(sql, tableNames, replacements, rewrittenSql);
+        }
+    }
+
+    /**
+     * Draws whether the next rewrite falls in the sample, for callers that only collect its
+     * replacements when it does; a picked rewrite is then passed to {@link #submit}.
+     */
+    public boolean pick() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Queues the rewrite for a background check, dropping it when the queue is full.
+     */
+    public void submit(String sql, Set<String> tableNames, List<Replacement> replacements, String rewrittenSql) {
+        sampled.increment();
+        try {
+            executor.execute(() -> verify(sql, tableNames, replacements, rewrittenSql));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Checks the rewrite now; returns the mismatch, or null when the output is as expected.
+     */
+    public RewriteMismatch verify(String sql, Set<String> tableNames, List<Replacement> replacements,
+                                  String rewrittenSql) {
+        Set<String> expected = new HashSet<>(tableNames);
+        Set<String> touched = new HashSet<>();
+        Set<String> written = new HashSet<>();
+        for (Replacement replacement : replacements) {
+            TableNameExtractor.TableToken token = replacement.getToken();
+            if (token.getKind() == TableNameExtractor.TableToken.Kind.DDL_OBJECT) {
+                // Only the last part of a CREATE TABLE / ADD COLUMN name is a token
+                String last = token.getText().toLowerCase(Locale.ENGLISH);
+                for (String name : tableNames) {
+                    if (name.equals(last) || name.endsWith("." + last)) {
+                        touched.add(name);
+                        written.add(name.substring(0, name.length() - last.length()) + normalize(replacement.getText()));
+                    }
+                }
+            } else if (token.getKind() != TableNameExtractor.TableToken.Kind.QUALIFIER) {
+                touched.add(token.getText());
+                written.add(normalize(replacement.getText()));
+            }
+        }
+        expected.removeAll(touched);
+        expected.addAll(written);
+
+        Set<String> actual = null;
+        String reason = null;
+        try {
+            actual = extractor.apply(rewrittenSql).getTableNames();
+            Set<String> missing = new LinkedHashSet<>(expected);
+            missing.removeAll(actual);
+            Set<String> unexpected = new LinkedHashSet<>(actual);
+            unexpected.removeAll(expected);
+            unexpected.removeAll(touched);
+            if (!missing.isEmpty() || !unexpected.isEmpty()) {
+                reason = "missing " + missing + ", unexpected " + unexpected;
+            }
+        } catch (RuntimeException e) {
+            reason = "rewritten SQL does not parse: " + e.getMessage();
+        }
+        if (reason == null) {
+            verified.increment();
+            return null;
+        }
+        RewriteMismatch mismatch = new RewriteMismatch(System.currentTimeMillis(), sql, rewrittenSql,
+            expected, actual, reason);
+        mismatches.increment();
+        logger.warn("Rewrite verification failed: {} (sql: {}, rewritten: {})", reason, sql, rewrittenSql);
+        synchronized (recent) {
+            if (recent.size() == maxReports) {
+                recent.removeFirst();
+            }
+            if (maxReports > 0) {
+                recent.addLast(mismatch);
+            }
+        }
+        // Counted last, so a caller that sees the count also sees the report
+        verified.increment();
+        return mismatch;
+    }
+
+    /**
+     * Most recent mismatches, oldest first.
+     */
+    public List<RewriteMismatch> recentMismatches() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public VerificationStats stats() {
+        return new VerificationStats(sampleRate, sampled.sum(), dropped.sum(), executor.getQueue().size(),
+            verified.sum(), mismatches.sum());
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Table name the extractor reports for a replacement written as SQL text, e.g. Sch."a.B" -> sch.a.b
+    // (QualifiedName lower-cases quoted parts too)
+    static String normalize(String text) {
+        StringBuilder name = new StringBuilder(text.length());
+        StringBuilder part = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    part.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == '.' && !quoted) {
+                name.append(part.toString().trim()).append('.');
+                part.setLength(0);
+            } else {
+                part.append(c);
+            }
+        }
+        return name.append(part.toString().trim()).toString().toLowerCase(Locale.ENGLISH);
+    }
+}
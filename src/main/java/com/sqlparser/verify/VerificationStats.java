@@ -0,0 +1,38 @@
+package com.sqlparser.verify;
+
+/**
+ * Counters of the post-rewrite verifier, serialized by the metrics endpoint.
+ */
+public final class VerificationStats {
+
+    private final double sampleRate;
+    private final long sampled;
+    private final long dropped;
+    private final int pending;
+    private final long verified;
+    private final long mismatches;
+
+    public VerificationStats(double sampleRate, long sampled, long dropped, int pending, long verified, long mismatches) {
+        this.sampleRate = sampleRate;
+        this.sampled = sampled;
+        this.dropped = dropped;
+        this.pending = pending;
+        this.verified = verified;
+        this.mismatches = mismatches;
+    }
+
+    public double getSampleRate() { return sampleRate; }
+    // Rewrites picked for background verification, and those skipped because the queue was full
+    public long getSampled() { return sampled; }
+    public long getDropped() { return dropped; }
+    public int getPending() { return pending; }
+    // Completed checks, background and strict, and how many of them failed
+    public long getVerified() { return verified; }
+    public long getMismatches() { return mismatches; }
+
+    @Override
+    public String toString() {
+        return "VerificationStats{sampled=" + sampled + ", dropped=" + dropped + ", verified=" + verified
+            + ", mismatches=" + mismatches + '}';
+    }
+}
@@ -0,0 +1,51 @@
+package com.sqlparser.visitor;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable outcome of one extraction pass: the table names referenced by a statement and
+ * the token spans (in original SQL offsets) that a rewrite may replace.
+ * <p>
+ * A cached result may also carry the encoded /extract-tables response body for these names,
+ * so a cache hit can be written out without building and serializing the response again.
+ * The array is shared, not copied; callers must not modify it.
+ */
+public final class ExtractionResult {
+
+    private final Set<String> tableNames;
+    private final List<TableNameExtractor.TableToken> tokens;
+    // null unless the result went through a cache that stores encoded responses
+    private final byte[] encodedResponse;
+
+    public ExtractionResult(Set<String> tableNames, List<TableNameExtractor.TableToken> tokens) {
+        this(tableNames, tokens, null);
+    }
+
+    public ExtractionResult(Set<String> tableNames, List<TableNameExtractor.TableToken> tokens, byte[] encodedResponse) {
+        this.tableNames = Collections.unmodifiableSet(new LinkedHashSet<>(tableNames));
+        this.tokens = List.copyOf(tokens);
+        this.encodedResponse = encodedResponse;
+    }
+
+    private ExtractionResult(ExtractionResult result, byte[] encodedResponse) {
+        this.tableNames = result.tableNames;
+        this.tokens = result.tokens;
+        this.encodedResponse = encodedResponse;
+    }
+
+    public Set<String> getTableNames() { return tableNames; }
+    public List<TableNameExtractor.TableToken> getTokens() { return tokens; }
+    public byte[] getEncodedResponse() { return encodedResponse; }
+
+    public ExtractionResult withEncodedResponse(byte[] encodedResponse) {
+        return new ExtractionResult(this, encodedResponse);
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionResult{tableNames=" + tableNames + ", tokens=" + tokens + '}';
+    }
+}
@@ -0,0 +1,26 @@
+package com.sqlparser.visitor;
+
+import java.util.Locale;
+
+/**
+ * How table names are collected: from Trino's AST ({@link TableNameExtractor}) or straight from
+ * the ANTLR parse tree ({@link ParseTreeTableExtractor}), which skips building the AST.
+ * Both produce the same names and tokens.
+ */
+public enum ExtractorMode {
+    AST,
+    PARSE_TREE;
+
+    /**
+     * Parses "ast" / "parse-tree" (case and '-' vs '_' are ignored).
+     */
+    public static ExtractorMode fromName(String name) {
+        String normalized = name.trim().replace('-', '_').toUpperCase(Locale.ENGLISH);
+        for (ExtractorMode mode : values()) {
+            if (mode.name().equals(normalized)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown extractor mode: " + name + " (expected ast or parse-tree)");
+    }
+}
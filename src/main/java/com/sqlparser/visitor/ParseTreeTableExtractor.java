@@ -0,0 +1,733 @@
+package com.sqlparser.visitor;
+
+import com.sqlparser.parser.ReferencePrescan;
+import com.sqlparser.visitor.TableNameExtractor.TableToken.Kind;
+import io.trino.grammar.sql.SqlBaseBaseVisitor;
+import io.trino.grammar.sql.SqlBaseParser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.RuleNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Collects the same table names and token spans as {@link TableNameExtractor}, but straight
+ * from the ANTLR parse tree, so Trino's AstBuilder never runs and no Expression, Identifier or
+ * Literal nodes are allocated.
+ * <p>
+ * Every rule below mirrors a visit method of {@link TableNameExtractor} (or of Trino's
+ * DefaultTraversalVisitor where that one does not override) together with the shape AstBuilder
+ * would have produced: names are the lower-cased, unquoted parts joined by dots like
+ * {@code QualifiedName.toString()}, locations are the start tokens AstBuilder uses (including
+ * its quirks, such as {@code TABLE t} being located at the keyword), and children are visited
+ * in the AST's order where it differs from the text (FILTER after OVER, TRIM source before the
+ * trim characters, POSITION haystack before needle), since whether a dereference yields a
+ * token depends on the aliases and tables seen before it. Statements the AST extractor does not
+ * descend into are skipped wholesale.
+ * <p>
+ * Traversal uses an explicit stack like {@link TableNameExtractor}, and applies the same
+ * {@link ReferencePrescan} pruning to expression subtrees.
+ */
+public class ParseTreeTableExtractor extends SqlBaseBaseVisitor<Void> {
+
+    // Statements TableNameExtractor (or DefaultTraversalVisitor) looks into; all others yield nothing
+    private static final Set<Class<?>> TRAVERSED_STATEMENTS = Set.of(
+        SqlBaseParser.StatementDefaultContext.class,
+        SqlBaseParser.InsertIntoContext.class,
+        SqlBaseParser.DeleteContext.class,
+        SqlBaseParser.UpdateContext.class,
+        SqlBaseParser.MergeContext.class,
+        SqlBaseParser.TableExecuteContext.class,
+        SqlBaseParser.CreateTableContext.class,
+        SqlBaseParser.CreateTableAsSelectContext.class,
+        SqlBaseParser.DropTableContext.class,
+        SqlBaseParser.TruncateTableContext.class,
+        SqlBaseParser.AddColumnContext.class,
+        SqlBaseParser.DropColumnContext.class,
+        SqlBaseParser.RenameColumnContext.class,
+        SqlBaseParser.SetColumnTypeContext.class,
+        SqlBaseParser.DropNotNullConstraintContext.class,
+        SqlBaseParser.RenameTableContext.class,
+        SqlBaseParser.AnalyzeContext.class,
+        SqlBaseParser.SetTablePropertiesContext.class,
+        SqlBaseParser.SetMaterializedViewPropertiesContext.class,
+        SqlBaseParser.CommentTableContext.class,
+        SqlBaseParser.CommentViewContext.class,
+        SqlBaseParser.ShowColumnsContext.class,
+        SqlBaseParser.ShowCreateTableContext.class,
+        SqlBaseParser.ShowCreateMaterializedViewContext.class,
+        SqlBaseParser.ShowStatsContext.class,
+        SqlBaseParser.ShowStatsForQueryContext.class,
+        SqlBaseParser.CreateViewContext.class,
+        SqlBaseParser.DropViewContext.class,
+        SqlBaseParser.RenameViewContext.class,
+        SqlBaseParser.CreateMaterializedViewContext.class,
+        SqlBaseParser.DropMaterializedViewContext.class,
+        SqlBaseParser.RenameMaterializedViewContext.class,
+        SqlBaseParser.RefreshMaterializedViewContext.class,
+        SqlBaseParser.GrantPrivilegesContext.class,
+        SqlBaseParser.RevokePrivilegesContext.class,
+        SqlBaseParser.ShowGrantsContext.class,
+        SqlBaseParser.CreateSchemaContext.class,
+        SqlBaseParser.SetSessionContext.class,
+        SqlBaseParser.ExplainContext.class,
+        SqlBaseParser.ExplainAnalyzeContext.class);
+
+    private final Set<String> tableNames = new HashSet<>();
+    private final List<TableNameExtractor.TableToken> tokens = new ArrayList<>();
+    private final Set<String> aliases = new HashSet<>();
+    private final List<TableNameExtractor.TableToken> pendingQualifiers = new ArrayList<>();
+
+    private int[] lineStartOffsets = new int[0];
+    private String originalSql = "";
+
+    // Children scheduled by the context currently being visited
+    private final List<ParserRuleContext> scheduled = new ArrayList<>();
+
+    private final boolean pruneExpressions;
+    private boolean expressionsMatter = true;
+
+    public ParseTreeTableExtractor() {
+        this(true);
+    }
+
+    public ParseTreeTableExtractor(boolean pruneExpressions) {
+        this.pruneExpressions = pruneExpressions;
+    }
+
+    // === Public API ===
+
+    public void reset() {
+        tableNames.clear();
+        tokens.clear();
+        aliases.clear();
+        pendingQualifiers.clear();
+        scheduled.clear();
+        lineStartOffsets = new int[0];
+        originalSql = "";
+        expressionsMatter = true;
+    }
+
+    public void collect(SqlBaseParser.SingleStatementContext tree, String originalSql) {
+        reset();
+        this.originalSql = originalSql;
+        buildLineStartOffsets(originalSql);
+        if (pruneExpressions) {
+            expressionsMatter = ReferencePrescan.expressionsMayContainReferences(originalSql);
+        }
+        traverse(tree);
+        resolveQualifiers();
+    }
+
+    public Set<String> getTableNames() {
+        return new HashSet<>(tableNames);
+    }
+
+    public List<TableNameExtractor.TableToken> getTableTokens() {
+        return new ArrayList<>(tokens);
+    }
+
+    // === Traversal driver ===
+
+    private void traverse(ParserRuleContext root) {
+        ArrayDeque<ParserRuleContext> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            stack.pop().accept(this);
+            // Push in reverse so the first scheduled child is visited next (pre-order)
+            for (int i = scheduled.size() - 1; i >= 0; i--) {
+                stack.push(scheduled.get(i));
+            }
+            scheduled.clear();
+        }
+    }
+
+    // Default for every rule without an override: visit all rule children in text order
+    @Override
+    public Void visitChildren(RuleNode node) {
+        for (int i = 0; i < node.getChildCount(); i++) {
+            ParseTree child = node.getChild(i);
+            if (child instanceof ParserRuleContext context) {
+                schedule(context);
+            }
+        }
+        return null;
+    }
+
+    private void schedule(ParserRuleContext context) {
+        if (context != null && !canSkip(context)) {
+            scheduled.add(context);
+        }
+    }
+
+    private void schedule(List<? extends ParserRuleContext> contexts) {
+        for (ParserRuleContext context : contexts) {
+            schedule(context);
+        }
+    }
+
+    // Names never yield tokens on their own; expressions are pruned like in TableNameExtractor
+    private boolean canSkip(ParserRuleContext context) {
+        if (context instanceof SqlBaseParser.IdentifierContext || context instanceof SqlBaseParser.QualifiedNameContext) {
+            return true;
+        }
+        return pruneExpressions && !expressionsMatter && isExpression(context);
+    }
+
+    private static boolean isExpression(ParserRuleContext context) {
+        return context instanceof SqlBaseParser.ExpressionContext
+            || context instanceof SqlBaseParser.BooleanExpressionContext
+            || context instanceof SqlBaseParser.ValueExpressionContext
+            || context instanceof SqlBaseParser.PrimaryExpressionContext;
+    }
+
+    private void scheduleStatement(SqlBaseParser.StatementContext statement) {
+        if (TRAVERSED_STATEMENTS.contains(statement.getClass())) {
+            schedule(statement);
+        }
+    }
+
+    // === Core helpers ===
+
+    // QualifiedName.toString(): lower-cased identifier values joined by dots
+    private static String name(SqlBaseParser.QualifiedNameContext context) {
+        List<SqlBaseParser.IdentifierContext> parts = context.identifier();
+        if (parts.size() == 1) {
+            return identifierValue(parts.get(0)).toLowerCase(Locale.ENGLISH);
+        }
+        StringBuilder name = new StringBuilder();
+        for (SqlBaseParser.IdentifierContext part : parts) {
+            if (name.length() > 0) {
+                name.append('.');
+            }
+            name.append(identifierValue(part).toLowerCase(Locale.ENGLISH));
+        }
+        return name.toString();
+    }
+
+    // Identifier.getValue(): quotes removed and doubled quotes unescaped, case preserved
+    private static String identifierValue(SqlBaseParser.IdentifierContext context) {
+        String text = context.getText();
+        if (context instanceof SqlBaseParser.QuotedIdentifierContext) {
+            return text.substring(1, text.length() - 1).replace("\"\"", "\"");
+        }
+        return text;
+    }
+
+    private static SqlBaseParser.IdentifierContext lastPart(SqlBaseParser.QualifiedNameContext context) {
+        List<SqlBaseParser.IdentifierContext> parts = context.identifier();
+        return parts.get(parts.size() - 1);
+    }
+
+    private void addName(SqlBaseParser.QualifiedNameContext context) {
+        tableNames.add(name(context));
+    }
+
+    // Same span arithmetic as TableNameExtractor.addToken
+    private void addToken(String text, Token location, Kind kind) {
+        int start = toCharOffset(location);
+        int end = start + text.length();
+        if (start < originalSql.length() && originalSql.charAt(start) == '"') {
+            end = start + text.length() + 2;
+        }
+        tokens.add(new TableNameExtractor.TableToken(text, start, end, kind));
+    }
+
+    // Same span arithmetic as TableNameExtractor.addQualifiedToken
+    private void addQualifiedToken(String fullName, SqlBaseParser.IdentifierContext lastIdentifier, Kind kind) {
+        tokens.add(qualifiedToken(fullName, lastIdentifier, kind));
+    }
+
+    private TableNameExtractor.TableToken qualifiedToken(String fullName, SqlBaseParser.IdentifierContext lastIdentifier,
+                                                         Kind kind) {
+        int lastPartStart = toCharOffset(lastIdentifier.getStart());
+        int fullNameStart = lastPartStart - (fullName.length() - identifierValue(lastIdentifier).length());
+        int fullNameEnd = fullNameStart + fullName.length();
+        if (fullNameStart < originalSql.length() && originalSql.charAt(fullNameStart) == '"') {
+            fullNameEnd = fullNameStart + fullName.length() + 2;
+        }
+        return new TableNameExtractor.TableToken(fullName, fullNameStart, fullNameEnd, kind);
+    }
+
+    // Same as TableNameExtractor.resolveQualifiers
+    private void resolveQualifiers() {
+        if (pendingQualifiers.isEmpty()) return;
+        Map<Integer, Integer> accepted = new HashMap<>();
+        for (TableNameExtractor.TableToken token : pendingQualifiers) {
+            if (tableNames.contains(token.getText())) {
+                tokens.add(token);
+                accepted.merge(token.getStart(), token.getEnd(), Math::max);
+            }
+        }
+        tokens.removeIf(token -> token.getKind() == Kind.QUALIFIER
+            && token.getEnd() < accepted.getOrDefault(token.getStart(), Integer.MIN_VALUE));
+    }
+
+    // Trino's NodeLocation (line, charPositionInLine + 1) converted like TableNameExtractor does
+    private int toCharOffset(Token token) {
+        int lineIdx = Math.max(0, token.getLine() - 1);
+        int colIdx = Math.max(0, token.getCharPositionInLine());
+        if (lineIdx >= lineStartOffsets.length) return 0;
+        return lineStartOffsets[lineIdx] + colIdx;
+    }
+
+    private void buildLineStartOffsets(String sql) {
+        int[] starts = new int[16];
+        int count = 1;
+        for (int nl = sql.indexOf('\n'); nl >= 0; nl = sql.indexOf('\n', nl + 1)) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count++] = nl + 1;
+        }
+        lineStartOffsets = Arrays.copyOf(starts, count);
+    }
+
+    // Strips the wrappers AstBuilder collapses, so "(t).x" has the same base as "t.x"
+    private static ParserRuleContext unwrap(ParserRuleContext context) {
+        while (true) {
+            if (context instanceof SqlBaseParser.ParenthesizedExpressionContext parenthesized) {
+                context = parenthesized.expression();
+            } else if (context instanceof SqlBaseParser.ExpressionContext expression) {
+                context = expression.booleanExpression();
+            } else if (context instanceof SqlBaseParser.PredicatedContext predicated && predicated.predicate() == null) {
+                context = predicated.valueExpression();
+            } else if (context instanceof SqlBaseParser.ValueExpressionDefaultContext value) {
+                context = value.primaryExpression();
+            } else {
+                return context;
+            }
+        }
+    }
+
+    // DereferenceExpression.getQualifiedName: the identifiers of a pure a.b.c chain, else null
+    private static List<SqlBaseParser.IdentifierContext> chainParts(SqlBaseParser.DereferenceContext dereference) {
+        ParserRuleContext base = unwrap(dereference.base);
+        List<SqlBaseParser.IdentifierContext> parts;
+        if (base instanceof SqlBaseParser.ColumnReferenceContext column) {
+            parts = new ArrayList<>();
+            parts.add(column.identifier());
+        } else if (base instanceof SqlBaseParser.DereferenceContext inner) {
+            parts = chainParts(inner);
+            if (parts == null) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        parts.add(dereference.fieldName);
+        return parts;
+    }
+
+    // === Statements ===
+
+    @Override
+    public Void visitSingleStatement(SqlBaseParser.SingleStatementContext context) {
+        scheduleStatement(context.statement());
+        return null;
+    }
+
+    @Override
+    public Void visitExplain(SqlBaseParser.ExplainContext context) {
+        scheduleStatement(context.statement());
+        return null;
+    }
+
+    @Override
+    public Void visitExplainAnalyze(SqlBaseParser.ExplainAnalyzeContext context) {
+        scheduleStatement(context.statement());
+        return null;
+    }
+
+    @Override
+    public Void visitInsertInto(SqlBaseParser.InsertIntoContext context) {
+        // Target name only, no token (see TableNameExtractor.visitInsert)
+        addName(context.qualifiedName());
+        schedule(context.rootQuery());
+        return null;
+    }
+
+    @Override
+    public Void visitDelete(SqlBaseParser.DeleteContext context) {
+        addName(context.qualifiedName());
+        addQualifiedToken(name(context.qualifiedName()), lastPart(context.qualifiedName()), Kind.DML_TARGET);
+        schedule(context.booleanExpression());
+        return null;
+    }
+
+    @Override
+    public Void visitUpdate(SqlBaseParser.UpdateContext context) {
+        addName(context.qualifiedName());
+        addQualifiedToken(name(context.qualifiedName()), lastPart(context.qualifiedName()), Kind.DML_TARGET);
+        for (SqlBaseParser.UpdateAssignmentContext assignment : context.updateAssignment()) {
+            schedule(assignment.expression());
+        }
+        schedule(context.where);
+        return null;
+    }
+
+    @Override
+    public Void visitMerge(SqlBaseParser.MergeContext context) {
+        addName(context.qualifiedName());
+        addQualifiedToken(name(context.qualifiedName()), lastPart(context.qualifiedName()), Kind.DML_TARGET);
+        if (context.identifier() != null) {
+            aliases.add(identifierValue(context.identifier()));
+        }
+        schedule(context.relation());
+        schedule(context.expression());
+        for (SqlBaseParser.MergeCaseContext mergeCase : context.mergeCase()) {
+            if (mergeCase instanceof SqlBaseParser.MergeUpdateContext update) {
+                schedule(update.condition);
+                schedule(update.values);
+            } else if (mergeCase instanceof SqlBaseParser.MergeInsertContext insert) {
+                schedule(insert.condition);
+                schedule(insert.values);
+            } else if (mergeCase instanceof SqlBaseParser.MergeDeleteContext delete) {
+                schedule(delete.condition);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitTableExecute(SqlBaseParser.TableExecuteContext context) {
+        addName(context.tableName);
+        addQualifiedToken(name(context.tableName), lastPart(context.tableName), Kind.DML_TARGET);
+        // WHERE before the arguments, like the AST extractor
+        schedule(context.where);
+        schedule(context.callArgument());
+        return null;
+    }
+
+    @Override
+    public Void visitCreateTable(SqlBaseParser.CreateTableContext context) {
+        addName(context.qualifiedName());
+        SqlBaseParser.IdentifierContext last = lastPart(context.qualifiedName());
+        addToken(identifierValue(last), last.getStart(), Kind.DDL_OBJECT);
+        return null;
+    }
+
+    @Override
+    public Void visitAddColumn(SqlBaseParser.AddColumnContext context) {
+        addName(context.tableName);
+        SqlBaseParser.IdentifierContext last = lastPart(context.tableName);
+        addToken(identifierValue(last), last.getStart(), Kind.DDL_OBJECT);
+        return null;
+    }
+
+    @Override
+    public Void visitCreateTableAsSelect(SqlBaseParser.CreateTableAsSelectContext context) {
+        addName(context.qualifiedName());
+        schedule(context.rootQuery());
+        return null;
+    }
+
+    @Override
+    public Void visitCreateView(SqlBaseParser.CreateViewContext context) {
+        addName(context.qualifiedName());
+        schedule(context.rootQuery());
+        return null;
+    }
+
+    @Override
+    public Void visitCreateMaterializedView(SqlBaseParser.CreateMaterializedViewContext context) {
+        addName(context.qualifiedName());
+        schedule(context.rootQuery());
+        return null;
+    }
+
+    @Override
+    public Void visitDropTable(SqlBaseParser.DropTableContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitTruncateTable(SqlBaseParser.TruncateTableContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitDropColumn(SqlBaseParser.DropColumnContext context) {
+        addName(context.tableName);
+        return null;
+    }
+
+    @Override
+    public Void visitRenameColumn(SqlBaseParser.RenameColumnContext context) {
+        addName(context.tableName);
+        return null;
+    }
+
+    @Override
+    public Void visitSetColumnType(SqlBaseParser.SetColumnTypeContext context) {
+        addName(context.tableName);
+        return null;
+    }
+
+    @Override
+    public Void visitDropNotNullConstraint(SqlBaseParser.DropNotNullConstraintContext context) {
+        addName(context.tableName);
+        return null;
+    }
+
+    @Override
+    public Void visitRenameTable(SqlBaseParser.RenameTableContext context) {
+        addName(context.from);
+        addName(context.to);
+        return null;
+    }
+
+    @Override
+    public Void visitAnalyze(SqlBaseParser.AnalyzeContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitSetTableProperties(SqlBaseParser.SetTablePropertiesContext context) {
+        addName(context.tableName);
+        return null;
+    }
+
+    @Override
+    public Void visitSetMaterializedViewProperties(SqlBaseParser.SetMaterializedViewPropertiesContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitCommentTable(SqlBaseParser.CommentTableContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitCommentView(SqlBaseParser.CommentViewContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitShowColumns(SqlBaseParser.ShowColumnsContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitShowCreateTable(SqlBaseParser.ShowCreateTableContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitShowCreateMaterializedView(SqlBaseParser.ShowCreateMaterializedViewContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitShowStats(SqlBaseParser.ShowStatsContext context) {
+        // AstBuilder gives this Table no location, so there is no token
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitDropView(SqlBaseParser.DropViewContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitRenameView(SqlBaseParser.RenameViewContext context) {
+        addName(context.from);
+        addName(context.to);
+        return null;
+    }
+
+    @Override
+    public Void visitDropMaterializedView(SqlBaseParser.DropMaterializedViewContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitRenameMaterializedView(SqlBaseParser.RenameMaterializedViewContext context) {
+        addName(context.from);
+        addName(context.to);
+        return null;
+    }
+
+    @Override
+    public Void visitRefreshMaterializedView(SqlBaseParser.RefreshMaterializedViewContext context) {
+        addName(context.qualifiedName());
+        return null;
+    }
+
+    @Override
+    public Void visitGrantPrivileges(SqlBaseParser.GrantPrivilegesContext context) {
+        addTableGrantObject(context.grantObject());
+        return null;
+    }
+
+    @Override
+    public Void visitRevokePrivileges(SqlBaseParser.RevokePrivilegesContext context) {
+        addTableGrantObject(context.grantObject());
+        return null;
+    }
+
+    @Override
+    public Void visitShowGrants(SqlBaseParser.ShowGrantsContext context) {
+        addTableGrantObject(context.grantObject());
+        return null;
+    }
+
+    private void addTableGrantObject(SqlBaseParser.GrantObjectContext grantObject) {
+        if (grantObject != null && grantObject.entityKind() != null
+                && grantObject.entityKind().getText().equalsIgnoreCase("TABLE")) {
+            addName(grantObject.qualifiedName());
+        }
+    }
+
+    // === Queries and relations ===
+
+    @Override
+    public Void visitRootQuery(SqlBaseParser.RootQueryContext context) {
+        // Inline function definitions are not traversed
+        schedule(context.query());
+        return null;
+    }
+
+    @Override
+    public Void visitQuery(SqlBaseParser.QueryContext context) {
+        // CTE definitions are skipped, like TableNameExtractor.visitQuery
+        schedule(context.queryNoWith());
+        return null;
+    }
+
+    @Override
+    public Void visitQueryNoWith(SqlBaseParser.QueryNoWithContext context) {
+        schedule(context.queryTerm());
+        // AstBuilder folds ORDER BY into a plain query specification; on set operations,
+        // VALUES and parenthesized queries it stays on the Query, whose ORDER BY is not visited
+        if (context.queryTerm() instanceof SqlBaseParser.QueryTermDefaultContext term
+                && term.queryPrimary() instanceof SqlBaseParser.QueryPrimaryDefaultContext) {
+            schedule(context.sortItem());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitTableName(SqlBaseParser.TableNameContext context) {
+        String name = name(context.qualifiedName());
+        tableNames.add(name);
+        addToken(name, context.getStart(), Kind.SOURCE);
+        return null;
+    }
+
+    @Override
+    public Void visitTable(SqlBaseParser.TableContext context) {
+        // "TABLE t": AstBuilder locates this Table at the TABLE keyword
+        String name = name(context.qualifiedName());
+        tableNames.add(name);
+        addToken(name, context.getStart(), Kind.SOURCE);
+        return null;
+    }
+
+    @Override
+    public Void visitAliasedRelation(SqlBaseParser.AliasedRelationContext context) {
+        if (context.identifier() != null) {
+            aliases.add(identifierValue(context.identifier()));
+        }
+        schedule(context.relationPrimary());
+        return null;
+    }
+
+    @Override
+    public Void visitPatternRecognition(SqlBaseParser.PatternRecognitionContext context) {
+        if (context.MATCH_RECOGNIZE() == null) {
+            schedule(context.aliasedRelation());
+            return null;
+        }
+        // The traversal does not enter MATCH_RECOGNIZE relations; only their alias is recorded
+        if (context.identifier() != null) {
+            aliases.add(identifierValue(context.identifier()));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitTableFunctionArgument(SqlBaseParser.TableFunctionArgumentContext context) {
+        // Only scalar arguments are traversed; table and descriptor arguments are not
+        schedule(context.expression());
+        return null;
+    }
+
+    // === Expressions ===
+
+    @Override
+    public Void visitDereference(SqlBaseParser.DereferenceContext context) {
+        ParserRuleContext base = unwrap(context.base);
+        if (base instanceof SqlBaseParser.ColumnReferenceContext column) {
+            // t.column: token at the start of the whole expression unless t is an alias
+            String value = identifierValue(column.identifier());
+            if (!aliases.contains(value)) {
+                addToken(value.toLowerCase(Locale.ENGLISH), context.getStart(), Kind.QUALIFIER);
+            }
+        } else if (base instanceof SqlBaseParser.DereferenceContext dereferenceBase) {
+            // cat.sch.tab.column: token only for a multi-part qualifier naming a table of the statement
+            List<SqlBaseParser.IdentifierContext> parts = chainParts(dereferenceBase);
+            if (parts != null && !aliases.contains(identifierValue(parts.get(0)))) {
+                StringBuilder qualifiedName = new StringBuilder();
+                for (SqlBaseParser.IdentifierContext part : parts) {
+                    if (qualifiedName.length() > 0) {
+                        qualifiedName.append('.');
+                    }
+                    qualifiedName.append(identifierValue(part).toLowerCase(Locale.ENGLISH));
+                }
+                pendingQualifiers.add(qualifiedToken(qualifiedName.toString(), parts.get(parts.size() - 1), Kind.QUALIFIER));
+            }
+        }
+        schedule(context.base);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionCall(SqlBaseParser.FunctionCallContext context) {
+        // Arguments, ORDER BY and OVER in text order, then FILTER (the AST visits it last)
+        for (int i = 0; i < context.getChildCount(); i++) {
+            ParseTree child = context.getChild(i);
+            if (child instanceof ParserRuleContext rule && !(child instanceof SqlBaseParser.FilterContext)) {
+                schedule(rule);
+            }
+        }
+        schedule(context.filter());
+        return null;
+    }
+
+    @Override
+    public Void visitTrim(SqlBaseParser.TrimContext context) {
+        schedule(context.trimSource);
+        schedule(context.trimChar);
+        return null;
+    }
+
+    @Override
+    public Void visitPosition(SqlBaseParser.PositionContext context) {
+        // POSITION(needle IN haystack) becomes strpos(haystack, needle)
+        schedule(context.valueExpression(1));
+        schedule(context.valueExpression(0));
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.sqlparser.visitor;
+
+import java.util.List;
+
+/**
+ * Parameterized text, literals and 128-bit fingerprint of one statement (see
+ * {@link QueryFingerprinter}).
+ */
+public final class QueryFingerprint {
+
+    private final String parameterizedSql;
+    private final List<QueryFingerprinter.Literal> literals;
+    private final long high;
+    private final long low;
+
+    QueryFingerprint(String parameterizedSql, List<QueryFingerprinter.Literal> literals, long high, long low) {
+        this.parameterizedSql = parameterizedSql;
+        this.literals = List.copyOf(literals);
+        this.high = high;
+        this.low = low;
+    }
+
+    public String getParameterizedSql() { return parameterizedSql; }
+    public List<QueryFingerprinter.Literal> getLiterals() { return literals; }
+
+    /** All 128 bits as 32 hex digits. */
+    public String getFingerprint() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    /** The high 64 bits as 16 hex digits, for keys that have to fit a long. */
+    public String getFingerprint64() {
+        return String.format("%016x", high);
+    }
+
+    public long getHigh() { return high; }
+    public long getLow() { return low; }
+}
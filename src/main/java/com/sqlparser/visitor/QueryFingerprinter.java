@@ -0,0 +1,158 @@
+package com.sqlparser.visitor;
+
+import com.sqlparser.cache.SqlHash;
+import io.trino.grammar.sql.SqlBaseLexer;
+import io.trino.grammar.sql.SqlBaseParser;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalizes a parsed statement into a parameterized text and a fingerprint that ignore
+ * formatting and literal values, straight from the ANTLR parse tree.
+ * <p>
+ * The text is the statement's tokens (comments and whitespace dropped) separated by single
+ * spaces, keywords upper-cased and unquoted identifiers lower-cased. Each literal in an
+ * expression becomes {@code ?}: strings, numbers, binary literals, typed literals such as
+ * {@code DATE '2024-01-01'} (as a whole) and LIMIT / OFFSET / FETCH counts; an interval keeps its
+ * unit ({@code INTERVAL ? DAY}). Literals are reported in text order with their type, which
+ * is also part of the fingerprint, so {@code a = 1} and {@code a = '1'} differ. Booleans and
+ * NULL are left in the text, as are strings that are not expressions (LIKE patterns of SHOW
+ * statements, comments, ...).
+ */
+public final class QueryFingerprinter {
+
+    private static final boolean[] KEYWORDS = keywords();
+
+    /**
+     * One literal replaced by {@code ?}: its type ({@code string}, {@code integer},
+     * {@code decimal}, {@code double}, {@code binary}, {@code interval}, or the lower-cased type
+     * name of a typed literal) and its value, unquoted and unescaped.
+     */
+    public static final class Literal {
+        private final String type;
+        private final String value;
+
+        public Literal(String type, String value) {
+            this.type = type;
+            this.value = value;
+        }
+
+        public String getType() { return type; }
+        public String getValue() { return value; }
+    }
+
+    private final StringBuilder text = new StringBuilder();
+    // text with each '?' followed by its literal's type, which is what gets hashed
+    private final StringBuilder key = new StringBuilder();
+    private final List<Literal> literals = new ArrayList<>();
+    private String previous;
+    private boolean previousIdentifier;
+
+    private QueryFingerprinter() {
+    }
+
+    public static QueryFingerprint fingerprint(SqlBaseParser.SingleStatementContext tree) {
+        QueryFingerprinter fingerprinter = new QueryFingerprinter();
+        fingerprinter.walk(tree.statement());
+        long[] hash = SqlHash.hash128(fingerprinter.key.toString().getBytes(StandardCharsets.UTF_8));
+        return new QueryFingerprint(fingerprinter.text.toString(), fingerprinter.literals, hash[0], hash[1]);
+    }
+
+    private void walk(ParseTree root) {
+        ArrayDeque<ParseTree> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ParseTree node = stack.pop();
+            if (node instanceof TerminalNode terminal) {
+                token(terminal.getSymbol());
+            } else if (node instanceof SqlBaseParser.NumericLiteralContext numeric) {
+                SqlBaseParser.NumberContext number = numeric.number();
+                literal(number instanceof SqlBaseParser.IntegerLiteralContext ? "integer"
+                    : number instanceof SqlBaseParser.DecimalLiteralContext ? "decimal" : "double", number.getText());
+            } else if (node instanceof SqlBaseParser.StringContext string
+                    && (string.getParent() instanceof SqlBaseParser.StringLiteralContext
+                        || string.getParent() instanceof SqlBaseParser.IntervalContext)) {
+                literal(string.getParent() instanceof SqlBaseParser.IntervalContext ? "interval" : "string",
+                    stringValue(string));
+            } else if (node instanceof SqlBaseParser.TypeConstructorContext typed) {
+                String type = typed.identifier() != null ? typed.identifier().getText().toLowerCase(Locale.ENGLISH) : "double";
+                literal(type, stringValue(typed.string()));
+            } else if (node instanceof SqlBaseParser.BinaryLiteralContext binary) {
+                String written = binary.getText();
+                literal("binary", written.substring(2, written.length() - 1));
+            } else if (node instanceof SqlBaseParser.RowCountContext count && count.INTEGER_VALUE() != null) {
+                literal("integer", count.getText());
+            } else {
+                for (int i = node.getChildCount() - 1; i >= 0; i--) {
+                    stack.push(node.getChild(i));
+                }
+            }
+        }
+    }
+
+    private void token(Token token) {
+        int type = token.getType();
+        if (type == Token.EOF) {
+            return;
+        }
+        String written = token.getText();
+        boolean identifier = type == SqlBaseLexer.IDENTIFIER || type == SqlBaseLexer.DIGIT_IDENTIFIER;
+        if (identifier) {
+            written = written.toLowerCase(Locale.ENGLISH);
+        } else if (type < KEYWORDS.length && KEYWORDS[type]) {
+            written = written.toUpperCase(Locale.ENGLISH);
+        }
+        append(written, written);
+        previousIdentifier = identifier || type == SqlBaseLexer.QUOTED_IDENTIFIER
+            || type == SqlBaseLexer.BACKQUOTED_IDENTIFIER;
+    }
+
+    private void literal(String type, String value) {
+        literals.add(new Literal(type, value));
+        append("?", "?" + type);
+        previousIdentifier = false;
+    }
+
+    private void append(String written, String keyed) {
+        if (previous != null && !tight(previous, written)) {
+            text.append(' ');
+            key.append(' ');
+        }
+        text.append(written);
+        key.append(keyed);
+        previous = written;
+    }
+
+    // No space inside parentheses and brackets, before separators, around dots, or before the
+    // parenthesis of a function call
+    private boolean tight(String before, String next) {
+        return switch (next) {
+            case ",", ")", "]", "." -> true;
+            case "(" -> previousIdentifier || before.equals("(") || before.equals(".");
+            default -> before.equals("(") || before.equals("[") || before.equals(".");
+        };
+    }
+
+    // Text of a string literal without its quotes and with '' unescaped (U&'...' keeps its escapes)
+    private static String stringValue(SqlBaseParser.StringContext string) {
+        String written = string.getStart().getText();
+        int open = written.indexOf('\'');
+        return written.substring(open + 1, written.length() - 1).replace("''", "'");
+    }
+
+    private static boolean[] keywords() {
+        boolean[] keywords = new boolean[SqlBaseLexer.VOCABULARY.getMaxTokenType() + 1];
+        for (int type = 1; type < keywords.length; type++) {
+            String literal = SqlBaseLexer.VOCABULARY.getLiteralName(type);
+            keywords[type] = literal != null && literal.length() > 2 && Character.isLetter(literal.charAt(1));
+        }
+        return keywords;
+    }
+}
@@ -1,18 +1,35 @@
 package com.sqlparser.visitor;
 
+import com.sqlparser.parser.ReferencePrescan;
 import io.trino.sql.tree.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Traverses Trino AST to collect table identifiers and their positions.
  * This integrates table-name extraction and precise token position capture
  * (so we can later do string replacements without a separate rewriter class).
+ * <p>
+ * Traversal is driven by an explicit stack rather than Java recursion: the visit methods
+ * still call {@link #process(Node, Void)} for their children, but while a node is being
+ * visited those calls only schedule the child. Children are then visited in the same
+ * pre-order as the recursive visitor, so deeply nested subqueries or expression chains
+ * need constant Java stack regardless of depth.
+ * <p>
+ * With expression pruning enabled (the default), scheduling also drops expression subtrees
+ * that cannot yield a token: leaf expressions (literals, bare identifiers, parameters) always,
+ * and every expression when a {@link ReferencePrescan} of the SQL text shows it has neither
+ * qualified references nor nested queries. Wide projections of plain column arithmetic then
+ * cost one check per select item instead of a walk over every operand.
  */
 public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
 
@@ -20,43 +37,79 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
 
     // One occurrence of a table token or an unaliased qualifier base in the SQL text
     public static final class TableToken {
+        /**
+         * Where the occurrence sits in the statement.
+         */
+        public enum Kind {
+            SOURCE,      // relation read by a query (FROM, JOIN, subquery, MERGE source)
+            DML_TARGET,  // table written by UPDATE / DELETE / MERGE / ALTER TABLE EXECUTE
+            DDL_OBJECT,  // table defined or altered by CREATE TABLE / ALTER TABLE ADD COLUMN
+            QUALIFIER    // table qualifying a column reference, e.g. orders in orders.id
+        }
+
         private final String text;      // token text as it appears in AST (may contain qualifiers or quotes)
         private final int start;        // 0-based character offset in original SQL
         private final int end;          // exclusive end offset
+        private final Kind kind;
 
         public TableToken(String text, int start, int end) {
+            this(text, start, end, Kind.SOURCE);
+        }
+
+        public TableToken(String text, int start, int end, Kind kind) {
             this.text = text;
             this.start = start;
             this.end = end;
+            this.kind = kind;
         }
 
         public String getText() { return text; }
         public int getStart() { return start; }
         public int getEnd() { return end; }
+        public Kind getKind() { return kind; }
 
         @Override
         public String toString() {
-            return "TableToken{" + text + ", " + start + ":" + end + "}";
+            return "TableToken{" + text + ", " + start + ":" + end + ", " + kind + "}";
         }
     }
 
     private final Set<String> tableNames = new HashSet<>();
     private final List<TableToken> tokens = new ArrayList<>();
     private final Set<String> aliases = new HashSet<>();
+    // Multi-part column qualifiers, kept once the statement turns out to reference them as tables
+    private final List<TableToken> pendingQualifiers = new ArrayList<>();
 
     // Precomputed line start offsets for fast NodeLocation -> char offset conversion
     private int[] lineStartOffsets = new int[0];
     // Original SQL for detecting quoted identifiers
     private String originalSql = "";
 
+    // Children scheduled by the node currently being visited; null when no traversal is running
+    private List<Node> scheduled;
+
+    private final boolean pruneExpressions;
+    // Result of ReferencePrescan for the current SQL; true means expressions must be walked
+    private boolean expressionsMatter = true;
+
+    public TableNameExtractor() {
+        this(true);
+    }
+
+    public TableNameExtractor(boolean pruneExpressions) {
+        this.pruneExpressions = pruneExpressions;
+    }
+
     // === Public API ===
 
     public void reset() {
         tableNames.clear();
         tokens.clear();
         aliases.clear();
+        pendingQualifiers.clear();
         lineStartOffsets = new int[0];
         originalSql = "";
+        expressionsMatter = true;
     }
 
     // Entry point that also provides the original SQL for computing character offsets
@@ -64,7 +117,11 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
         reset();
         this.originalSql = originalSql;
         buildLineStartOffsets(originalSql);
+        if (pruneExpressions) {
+            expressionsMatter = ReferencePrescan.expressionsMayContainReferences(originalSql);
+        }
         process(stmt, null);
+        resolveQualifiers();
     }
 
     public Set<String> getTableNames() {
@@ -79,9 +136,55 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
         return process(node, null);
     }
 
+    @Override
+    public Void process(Node node, Void context) {
+        if (scheduled != null) {
+            // Called from inside a visit method: defer instead of recursing
+            if (!canSkip(node)) {
+                scheduled.add(node);
+            }
+            return null;
+        }
+        traverse(node);
+        return null;
+    }
+
+    // === Traversal driver ===
+
+    // Expression subtrees that cannot contain a Table, subquery or DereferenceExpression
+    private boolean canSkip(Node node) {
+        if (!pruneExpressions || !(node instanceof Expression)) {
+            return false;
+        }
+        return !expressionsMatter
+            || node instanceof Literal
+            || node instanceof Identifier
+            || node instanceof Parameter;
+    }
+
+    private void traverse(Node root) {
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        List<Node> children = new ArrayList<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            scheduled = children;
+            try {
+                super.process(node, null);
+            } finally {
+                scheduled = null;
+            }
+            // Push in reverse so the first scheduled child is visited next (pre-order, like recursion)
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+            children.clear();
+        }
+    }
+
     // === Core helpers ===
 
-    private void addToken(String text, NodeLocation location) {
+    private void addToken(String text, NodeLocation location, TableToken.Kind kind) {
         if (location == null) return;
         int start = toCharOffset(location.getLineNumber(), location.getColumnNumber());
         int end = start + (text != null ? text.length() : 0);
@@ -94,7 +197,7 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
             end = start + text.length() + 2;
         }
 
-        tokens.add(new TableToken(text, start, end));
+        tokens.add(new TableToken(text, start, end, kind));
     }
 
     /**
@@ -103,9 +206,17 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
      *
      * @param fullName The full qualified name (e.g., "schema.orders")
      * @param lastIdentifier The last identifier in the name (e.g., "orders")
+     * @param kind Where the occurrence sits in the statement
      */
-    private void addQualifiedToken(String fullName, Identifier lastIdentifier) {
-        if (lastIdentifier.getLocation().isEmpty()) return;
+    private void addQualifiedToken(String fullName, Identifier lastIdentifier, TableToken.Kind kind) {
+        TableToken token = qualifiedToken(fullName, lastIdentifier, kind);
+        if (token != null) {
+            tokens.add(token);
+        }
+    }
+
+    private TableToken qualifiedToken(String fullName, Identifier lastIdentifier, TableToken.Kind kind) {
+        if (lastIdentifier.getLocation().isEmpty()) return null;
         NodeLocation location = lastIdentifier.getLocation().get();
         int lastPartStart = toCharOffset(location.getLineNumber(), location.getColumnNumber());
         int lastPartLength = lastIdentifier.getValue().length();
@@ -124,7 +235,25 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
             fullNameEnd = fullNameStart + fullNameLength + 2;
         }
 
-        tokens.add(new TableToken(fullName, fullNameStart, fullNameEnd));
+        return new TableToken(fullName, fullNameStart, fullNameEnd, kind);
+    }
+
+    /**
+     * Keeps the multi-part qualifiers naming a table referenced anywhere in the statement (a
+     * SELECT list is visited before its FROM clause), each replacing the token reported for its
+     * leading part: raw.events.id yields raw.events, not raw.
+     */
+    private void resolveQualifiers() {
+        if (pendingQualifiers.isEmpty()) return;
+        Map<Integer, Integer> accepted = new HashMap<>();
+        for (TableToken token : pendingQualifiers) {
+            if (tableNames.contains(token.getText())) {
+                tokens.add(token);
+                accepted.merge(token.getStart(), token.getEnd(), Math::max);
+            }
+        }
+        tokens.removeIf(token -> token.getKind() == TableToken.Kind.QUALIFIER
+            && token.getEnd() < accepted.getOrDefault(token.getStart(), Integer.MIN_VALUE));
     }
 
     private int toCharOffset(int lineNumber1Based, int columnNumber1Based) {
@@ -137,15 +266,15 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
     private void buildLineStartOffsets(String sql) {
         // Compute start offsets for each line (1-based in Trino; we store 0-based indexes)
         // Keep positions consistent for multi-line SQL with various line lengths
-        List<Integer> starts = new ArrayList<>();
-        starts.add(0);
-        for (int i = 0; i < sql.length(); i++) {
-            char c = sql.charAt(i);
-            if (c == '\n') {
-                starts.add(i + 1);
+        int[] starts = new int[16];
+        int count = 1;
+        for (int nl = sql.indexOf('\n'); nl >= 0; nl = sql.indexOf('\n', nl + 1)) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
             }
+            starts[count++] = nl + 1;
         }
-        lineStartOffsets = starts.stream().mapToInt(Integer::intValue).toArray();
+        lineStartOffsets = Arrays.copyOf(starts, count);
     }
 
     // === Visitor overrides ===
@@ -154,12 +283,12 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
     protected Void visitTable(Table table, Void context) {
         QualifiedName name = table.getName();
         String tokenText = name.toString(); // include qualifiers/quotes if present
-        logger.info("visitTable: table name='{}', location={}", tokenText, table.getLocation());
+        logger.debug("visitTable: table name='{}', location={}", tokenText, table.getLocation());
         tableNames.add(tokenText);
         table.getLocation().ifPresent(loc -> {
-            logger.info("  Adding token for table '{}' at location: line={}, col={}",
+            logger.debug("  Adding token for table '{}' at location: line={}, col={}",
                 tokenText, loc.getLineNumber(), loc.getColumnNumber());
-            addToken(tokenText, loc);
+            addToken(tokenText, loc, TableToken.Kind.SOURCE);
         });
         return null;
     }
@@ -212,12 +341,12 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
     @Override
     protected Void visitDelete(Delete node, Void context) {
         // DELETE FROM <table>
-        logger.info("visitDelete: Processing DELETE statement");
+        logger.debug("visitDelete: Processing DELETE statement");
         Table table = node.getTable();
         QualifiedName tableName = table.getName();
-        logger.info("  Table node: {}", table);
-        logger.info("  Table name: {}", tableName);
-        logger.info("  Table location (incorrect for DELETE): {}", table.getLocation());
+        logger.debug("  Table node: {}", table);
+        logger.debug("  Table name: {}", tableName);
+        logger.debug("  Table location (incorrect for DELETE): {}", table.getLocation());
 
         // Add table name to set
         tableNames.add(tableName.toString());
@@ -228,16 +357,16 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
         List<Identifier> parts = tableName.getOriginalParts();
         if (!parts.isEmpty()) {
             Identifier last = parts.get(parts.size() - 1);
-            logger.info("  Correct table position from identifier: line={}, col={}",
+            logger.debug("  Correct table position from identifier: line={}, col={}",
                 last.getLocation().map(l -> l.getLineNumber()).orElse(-1),
                 last.getLocation().map(l -> l.getColumnNumber()).orElse(-1));
             // Use qualified token helper to handle position correctly
-            addQualifiedToken(tableName.toString(), last);
+            addQualifiedToken(tableName.toString(), last, TableToken.Kind.DML_TARGET);
         }
 
         // WHERE may contain subqueries
         node.getWhere().ifPresent(expr -> {
-            logger.info("  Processing WHERE clause: {}", expr);
+            logger.debug("  Processing WHERE clause: {}", expr);
             process(expr, null);
         });
         return null;
@@ -246,12 +375,12 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
     @Override
     protected Void visitUpdate(Update node, Void context) {
         // UPDATE <table>
-        logger.info("visitUpdate: Processing UPDATE statement");
+        logger.debug("visitUpdate: Processing UPDATE statement");
         Table table = node.getTable();
         QualifiedName tableName = table.getName();
-        logger.info("  Table node: {}", table);
-        logger.info("  Table name: {}", tableName);
-        logger.info("  Table location (incorrect for UPDATE): {}", table.getLocation());
+        logger.debug("  Table node: {}", table);
+        logger.debug("  Table name: {}", tableName);
+        logger.debug("  Table location (incorrect for UPDATE): {}", table.getLocation());
 
         // Add table name to set
         tableNames.add(tableName.toString());
@@ -262,22 +391,22 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
         List<Identifier> parts = tableName.getOriginalParts();
         if (!parts.isEmpty()) {
             Identifier last = parts.get(parts.size() - 1);
-            logger.info("  Correct table position from identifier: line={}, col={}",
+            logger.debug("  Correct table position from identifier: line={}, col={}",
                 last.getLocation().map(l -> l.getLineNumber()).orElse(-1),
                 last.getLocation().map(l -> l.getColumnNumber()).orElse(-1));
             // Use qualified token helper to handle position correctly
-            addQualifiedToken(tableName.toString(), last);
+            addQualifiedToken(tableName.toString(), last, TableToken.Kind.DML_TARGET);
         }
 
         // Assignments may contain subqueries
         node.getAssignments().forEach(a -> {
-            logger.info("  Processing assignment: {}", a);
+            logger.debug("  Processing assignment: {}", a);
             process(a.getValue(), null);
         });
 
         // WHERE may contain subqueries
         node.getWhere().ifPresent(expr -> {
-            logger.info("  Processing WHERE clause: {}", expr);
+            logger.debug("  Processing WHERE clause: {}", expr);
             process(expr, null);
         });
         return null;
@@ -292,7 +421,7 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
         if (!parts.isEmpty()) {
             Identifier last = parts.get(parts.size() - 1);
             if (last.getLocation().isPresent()) {
-                addToken(last.getValue(), last.getLocation().get());
+                addToken(last.getValue(), last.getLocation().get(), TableToken.Kind.DDL_OBJECT);
             }
         }
         return null;
@@ -328,7 +457,7 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
         if (!parts.isEmpty()) {
             Identifier last = parts.get(parts.size() - 1);
             if (last.getLocation().isPresent()) {
-                addToken(last.getValue(), last.getLocation().get());
+                addToken(last.getValue(), last.getLocation().get(), TableToken.Kind.DDL_OBJECT);
             }
         }
         return null;
@@ -375,15 +504,15 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
     // MERGE
     @Override
     protected Void visitMerge(Merge node, Void context) {
-        logger.info("visitMerge: Processing MERGE statement");
+        logger.debug("visitMerge: Processing MERGE statement");
 
         // Handle target table - similar to UPDATE/DELETE, the table location may be incorrect
         Relation target = node.getTarget();
         if (target instanceof Table) {
             Table targetTable = (Table) target;
             QualifiedName tableName = targetTable.getName();
-            logger.info("  Target table name: {}", tableName);
-            logger.info("  Target table location (may be incorrect for MERGE): {}", targetTable.getLocation());
+            logger.debug("  Target table name: {}", tableName);
+            logger.debug("  Target table location (may be incorrect for MERGE): {}", targetTable.getLocation());
 
             // Add table name to set
             tableNames.add(tableName.toString());
@@ -393,11 +522,11 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
             List<Identifier> parts = tableName.getOriginalParts();
             if (!parts.isEmpty()) {
                 Identifier last = parts.get(parts.size() - 1);
-                logger.info("  Correct target position from identifier: line={}, col={}",
+                logger.debug("  Correct target position from identifier: line={}, col={}",
                     last.getLocation().map(l -> l.getLineNumber()).orElse(-1),
                     last.getLocation().map(l -> l.getColumnNumber()).orElse(-1));
                 // Use qualified token helper to handle position correctly
-                addQualifiedToken(tableName.toString(), last);
+                addQualifiedToken(tableName.toString(), last, TableToken.Kind.DML_TARGET);
             }
         } else if (target instanceof AliasedRelation) {
             // If target is aliased, extract the underlying table
@@ -405,7 +534,7 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
             if (aliased.getRelation() instanceof Table) {
                 Table targetTable = (Table) aliased.getRelation();
                 QualifiedName tableName = targetTable.getName();
-                logger.info("  Aliased target table name: {}", tableName);
+                logger.debug("  Aliased target table name: {}", tableName);
 
                 tableNames.add(tableName.toString());
 
@@ -413,11 +542,11 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
                 List<Identifier> parts = tableName.getOriginalParts();
                 if (!parts.isEmpty()) {
                     Identifier last = parts.get(parts.size() - 1);
-                    logger.info("  Correct aliased target position from identifier: line={}, col={}",
+                    logger.debug("  Correct aliased target position from identifier: line={}, col={}",
                         last.getLocation().map(l -> l.getLineNumber()).orElse(-1),
                         last.getLocation().map(l -> l.getColumnNumber()).orElse(-1));
                     // Use qualified token helper to handle position correctly
-                    addQualifiedToken(tableName.toString(), last);
+                    addQualifiedToken(tableName.toString(), last, TableToken.Kind.DML_TARGET);
                 }
             }
             // Track the alias
@@ -455,11 +584,11 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
     // TABLE EXECUTE
     @Override
     protected Void visitTableExecute(TableExecute node, Void context) {
-        logger.info("visitTableExecute: Processing TABLE EXECUTE statement");
+        logger.debug("visitTableExecute: Processing TABLE EXECUTE statement");
         Table table = node.getTable();
         QualifiedName tableName = table.getName();
-        logger.info("  Table name: {}", tableName);
-        logger.info("  Table location (may be incorrect for TABLE EXECUTE): {}", table.getLocation());
+        logger.debug("  Table name: {}", tableName);
+        logger.debug("  Table location (may be incorrect for TABLE EXECUTE): {}", table.getLocation());
 
         // Add table name to set
         tableNames.add(tableName.toString());
@@ -469,11 +598,11 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
         List<Identifier> parts = tableName.getOriginalParts();
         if (!parts.isEmpty()) {
             Identifier last = parts.get(parts.size() - 1);
-            logger.info("  Correct table position from identifier: line={}, col={}",
+            logger.debug("  Correct table position from identifier: line={}, col={}",
                 last.getLocation().map(l -> l.getLineNumber()).orElse(-1),
                 last.getLocation().map(l -> l.getColumnNumber()).orElse(-1));
             // Use qualified token helper to handle position correctly
-            addQualifiedToken(tableName.toString(), last);
+            addQualifiedToken(tableName.toString(), last, TableToken.Kind.DML_TARGET);
         }
 
         // Process WHERE clause and arguments which may contain subqueries
@@ -647,12 +776,15 @@ public class TableNameExtractor extends DefaultTraversalVisitor<Void> {
                     // For multi-part qualifiers, we need to check if it's a known table
                     if (parts.size() == 1) {
                         // Simple case: users.id where users is not an alias
-                        addToken(qualifiedName, baseLocation);
-                    } else if (tableNames.contains(qualifiedName)) {
-                        // Multi-part qualified name that matches a known table
+                        addToken(qualifiedName, baseLocation, TableToken.Kind.QUALIFIER);
+                    } else {
+                        // Multi-part qualified name, kept if it names a table of the statement
                         // For multi-part, we need to use the last identifier's location
                         Identifier lastPart = parts.get(parts.size() - 1);
-                        addQualifiedToken(qualifiedName, lastPart);
+                        TableToken token = qualifiedToken(qualifiedName, lastPart, TableToken.Kind.QUALIFIER);
+                        if (token != null) {
+                            pendingQualifiers.add(token);
+                        }
                     }
                 }
             }
@@ -0,0 +1,259 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.parser.DfaCacheStats;
+import com.sqlparser.parser.ManagedSqlParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Soak test for the ANTLR DFA cache policy: parses a million or more structurally distinct
+ * generated statements and samples retained heap (after GC) and DFA size, with the state-count
+ * rebuild policy and, for comparison, with the caches left to grow.
+ * <pre>
+ *   ./mvnw test -Dtest=DfaCacheSoakBenchmark [-Dsoak.statements=3000000] [-Dsoak.maxDfaStates=100000]
+ * </pre>
+ */
+class DfaCacheSoakBenchmark {
+
+    private static final int STATEMENTS = Integer.getInteger("soak.statements", 1_000_000);
+    private static final long MAX_DFA_STATES = Long.getLong("soak.maxDfaStates", 50_000);
+    private static final int SAMPLES = 10;
+
+    @Test
+    void soakDfaCache() {
+        // Left alone the caches grow until the heap is exhausted (~4.7KB per DFA state with its
+        // prediction contexts), so that leg only runs a twentieth as long
+        long[] unbounded = soak("unbounded", new ManagedSqlParser(0, null), STATEMENTS / 20);
+        long[] bounded = soak("bounded", new ManagedSqlParser(MAX_DFA_STATES, null), STATEMENTS);
+        // Bounded heap must not keep climbing: the last sample stays within the range seen early on
+        long earlyPeak = Math.max(bounded[1], bounded[2]);
+        assertTrue(bounded[SAMPLES - 1] < earlyPeak * 1.5 + (16L << 20),
+            "bounded heap grew from " + earlyPeak + " to " + bounded[SAMPLES - 1]);
+        assertTrue(unbounded[SAMPLES - 1] > unbounded[0], "unbounded heap did not grow");
+    }
+
+    private static long[] soak(String label, ManagedSqlParser parser, int statements) {
+        Random random = new Random(42);
+        long[] heap = new long[SAMPLES];
+        int step = statements / SAMPLES;
+        long start = System.nanoTime();
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            for (int i = 0; i < step; i++) {
+                parser.createStatement(new StatementGenerator(random).statement());
+            }
+            heap[sample] = usedHeap();
+            DfaCacheStats stats = parser.stats();
+            System.out.printf("%-9s %,10d statements: heap %,6d MB, parser DFA %,8d states, %,7d contexts, %d rebuild(s), %,d s%n",
+                label, (long) (sample + 1) * step, heap[sample] >> 20, stats.getParserDfaStates(),
+                stats.getPredictionContexts(), stats.getRebuilds(), (System.nanoTime() - start) / 1_000_000_000L);
+        }
+        return heap;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Random SELECTs whose token-type sequences (not just literal values) vary, since only
+     * new lookahead paths add DFA states.
+     */
+    private static final class StatementGenerator {
+        private static final String[] FUNCTIONS = {"abs", "upper", "lower", "nvl", "round", "length", "concat", "greatest"};
+        private static final String[] TYPES = {"bigint", "varchar", "double", "date", "decimal(10, 2)"};
+        private static final String[] BINARY = {" + ", " - ", " * ", " / ", " || ", " % "};
+        private static final String[] WRAPPERS = {"abs(", "f(", "g(x, ", "CAST(", "("};
+        private static final String[] COMPARE = {" = ", " <> ", " < ", " >= ", " > ", " <= "};
+
+        private final Random random;
+        private final StringBuilder sql = new StringBuilder(256);
+
+        StatementGenerator(Random random) {
+            this.random = random;
+        }
+
+        String statement() {
+            if (random.nextInt(6) == 0) {
+                sql.append("WITH w AS (");
+                query(1);
+                sql.append(") ");
+            }
+            query(0);
+            return sql.toString();
+        }
+
+        private void query(int depth) {
+            sql.append("SELECT ");
+            if (random.nextInt(8) == 0) sql.append("DISTINCT ");
+            int items = 1 + random.nextInt(8);
+            for (int i = 0; i < items; i++) {
+                if (i > 0) sql.append(", ");
+                expression(depth, 0);
+                if (random.nextBoolean()) sql.append(" AS c").append(i);
+            }
+            sql.append(" FROM ");
+            relation(depth);
+            int joins = random.nextInt(3);
+            for (int i = 0; i < joins; i++) {
+                sql.append(random.nextBoolean() ? " JOIN " : " LEFT JOIN ");
+                relation(depth);
+                sql.append(" ON ");
+                predicate(depth, 1);
+            }
+            if (random.nextInt(3) > 0) {
+                sql.append(" WHERE ");
+                predicate(depth, 0);
+            }
+            if (random.nextInt(4) == 0) {
+                sql.append(" GROUP BY ");
+                expression(depth, 2);
+                if (random.nextBoolean()) {
+                    sql.append(" HAVING ");
+                    predicate(depth, 2);
+                }
+            }
+            if (random.nextInt(3) == 0) {
+                sql.append(" ORDER BY ");
+                expression(depth, 2);
+                sql.append(random.nextBoolean() ? " DESC" : " ASC");
+            }
+            if (random.nextInt(4) == 0) {
+                sql.append(" LIMIT ").append(1 + random.nextInt(1000));
+            }
+        }
+
+        // Wrapped operands in predicates: each distinct wrapper/prefix sequence leaves new
+        // lookahead configurations (with distinct call-stack contexts) in the DFA
+        private void nested() {
+            int depth = 1 + random.nextInt(8);
+            StringBuilder close = new StringBuilder();
+            for (int i = 0; i < depth; i++) {
+                String wrapper = WRAPPERS[random.nextInt(WRAPPERS.length)];
+                sql.append(wrapper);
+                close.insert(0, wrapper.equals("CAST(") ? " AS bigint)" : ")");
+                if (random.nextBoolean()) {
+                    sql.append("col").append(i).append(BINARY[random.nextInt(BINARY.length)]);
+                }
+            }
+            sql.append('x').append(close);
+        }
+
+        private void relation(int depth) {
+            if (depth < 2 && random.nextInt(6) == 0) {
+                sql.append('(');
+                query(depth + 1);
+                sql.append(") s").append(random.nextInt(10));
+                return;
+            }
+            switch (random.nextInt(3)) {
+                case 0 -> sql.append("t").append(random.nextInt(100));
+                case 1 -> sql.append("sch").append(random.nextInt(10)).append(".t").append(random.nextInt(100));
+                default -> sql.append("cat.sch").append(random.nextInt(10)).append(".t").append(random.nextInt(100));
+            }
+            if (random.nextBoolean()) sql.append(" a").append(random.nextInt(10));
+        }
+
+        private void predicate(int depth, int level) {
+            int kind = level > 2 ? 0 : random.nextInt(8);
+            switch (kind) {
+                case 0 -> {
+                    expression(depth, level + 1);
+                    sql.append(COMPARE[random.nextInt(COMPARE.length)]);
+                    expression(depth, level + 1);
+                }
+                case 1 -> {
+                    nested();
+                    sql.append(COMPARE[random.nextInt(COMPARE.length)]);
+                    literal();
+                }
+                case 2 -> {
+                    predicate(depth, level + 1);
+                    sql.append(random.nextBoolean() ? " AND " : " OR ");
+                    predicate(depth, level + 1);
+                }
+                case 3 -> {
+                    expression(depth, level + 1);
+                    sql.append(" IN (");
+                    int n = 1 + random.nextInt(5);
+                    for (int i = 0; i < n; i++) {
+                        if (i > 0) sql.append(", ");
+                        literal();
+                    }
+                    sql.append(')');
+                }
+                case 4 -> {
+                    expression(depth, level + 1);
+                    sql.append(" BETWEEN ");
+                    literal();
+                    sql.append(" AND ");
+                    literal();
+                }
+                case 5 -> {
+                    expression(depth, level + 1);
+                    sql.append(random.nextBoolean() ? " IS NULL" : " IS NOT NULL");
+                }
+                case 6 -> {
+                    expression(depth, level + 1);
+                    sql.append(" LIKE '%").append(random.nextInt(100)).append("%'");
+                }
+                default -> {
+                    sql.append("NOT (");
+                    predicate(depth, level + 1);
+                    sql.append(')');
+                }
+            }
+        }
+
+        private void expression(int depth, int level) {
+            int kind = level > 3 ? random.nextInt(3) : random.nextInt(8);
+            switch (kind) {
+                case 0 -> sql.append("col").append(random.nextInt(50));
+                case 1 -> sql.append('a').append(random.nextInt(10)).append(".col").append(random.nextInt(50));
+                case 2 -> literal();
+                case 3 -> {
+                    sql.append(FUNCTIONS[random.nextInt(FUNCTIONS.length)]).append('(');
+                    int args = 1 + random.nextInt(3);
+                    for (int i = 0; i < args; i++) {
+                        if (i > 0) sql.append(", ");
+                        expression(depth, level + 1);
+                    }
+                    sql.append(')');
+                }
+                case 4, 5 -> {
+                    expression(depth, level + 1);
+                    sql.append(BINARY[random.nextInt(BINARY.length)]);
+                    expression(depth, level + 1);
+                }
+                case 6 -> {
+                    sql.append("CASE WHEN ");
+                    predicate(depth, level + 1);
+                    sql.append(" THEN ");
+                    expression(depth, level + 1);
+                    sql.append(" ELSE ");
+                    expression(depth, level + 1);
+                    sql.append(" END");
+                }
+                default -> {
+                    sql.append("CAST(");
+                    expression(depth, level + 1);
+                    sql.append(" AS ").append(TYPES[random.nextInt(TYPES.length)]).append(')');
+                }
+            }
+        }
+
+        private void literal() {
+            switch (random.nextInt(3)) {
+                case 0 -> sql.append(random.nextInt(10_000));
+                case 1 -> sql.append('\'').append(Integer.toHexString(random.nextInt())).append('\'');
+                default -> sql.append(random.nextInt(1000)).append('.').append(random.nextInt(100));
+            }
+        }
+    }
+}
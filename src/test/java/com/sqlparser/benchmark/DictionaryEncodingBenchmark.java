@@ -0,0 +1,124 @@
+package com.sqlparser.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlparser.cache.CacheStats;
+import com.sqlparser.config.SqlParserProperties;
+import com.sqlparser.model.ExtractTablesResponse;
+import com.sqlparser.service.SqlParserService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Off-heap cache footprint of a realistic workload (many distinct statements over a few
+ * thousand table names) with names stored as strings plus the encoded response body, versus
+ * dictionary ids with the body rebuilt on each hit; and what that costs per hit.
+ * <pre>
+ *   ./mvnw test -Dtest=DictionaryEncodingBenchmark
+ * </pre>
+ */
+class DictionaryEncodingBenchmark {
+
+    private static final int STATEMENTS = 50_000;
+    private static final int TABLES = 3_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int OPERATIONS = 100_000;
+
+    private static final String[] SCHEMAS = {"warehouse", "sales", "crm", "analytics_raw", "finance_reporting", "ods"};
+    private static final String[] SUBJECTS = {"orders", "customers", "line_items", "payments", "sessions", "events"};
+
+    @Test
+    void benchmarkDictionaryEncoding() throws Exception {
+        List<String> statements = corpus();
+        SqlParserProperties inline = new SqlParserProperties();
+        inline.getCache().setDictionaryMaxNames(0);
+        SqlParserService strings = new SqlParserService(inline);
+        SqlParserService dictionary = new SqlParserService();
+        for (String sql : statements) {
+            strings.extract(sql);
+            dictionary.extract(sql);
+        }
+        for (int i = 0; i < 100; i++) {
+            String sql = statements.get(i * (STATEMENTS / 100));
+            assertEquals(read(strings.extract(sql).getEncodedResponse()), read(dictionary.extract(sql).getEncodedResponse()));
+        }
+        CacheStats before = offHeap(strings);
+        CacheStats after = offHeap(dictionary);
+        System.out.printf("%,d statements, %,d names: strings %,d B (%d B/entry) | dictionary %,d B (%d B/entry), "
+                + "%,d names (-%d%% off-heap)%n",
+            before.getEntries(), dictionary.getDictionarySize(), before.getUsedBytes(), before.getUsedBytes() / before.getEntries(),
+            after.getUsedBytes(), after.getUsedBytes() / after.getEntries(), dictionary.getDictionarySize(),
+            100 - after.getUsedBytes() * 100 / before.getUsedBytes());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            measure(strings, statements, out, new long[] {Long.MAX_VALUE, 0});
+            measure(dictionary, statements, out, new long[] {Long.MAX_VALUE, 0});
+        }
+        // Alternate the two so JIT and GC noise hits both alike; keep each one's best round
+        long[] stored = {Long.MAX_VALUE, 0};
+        long[] rebuilt = {Long.MAX_VALUE, 0};
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            measure(strings, statements, out, stored);
+            measure(dictionary, statements, out, rebuilt);
+        }
+        System.out.printf("hit + body: strings %,d ns/op %,d B/op | dictionary %,d ns/op %,d B/op%n",
+            stored[0], stored[1], rebuilt[0], rebuilt[1]);
+        strings.close();
+        dictionary.close();
+    }
+
+    // Joins and subqueries over TABLES names like warehouse.fact_orders_17
+    private static List<String> corpus() {
+        List<String> names = new ArrayList<>(TABLES);
+        for (int i = 0; i < TABLES; i++) {
+            String prefix = i % 3 == 0 ? "fact_" : i % 3 == 1 ? "dim_" : "stg_";
+            names.add(SCHEMAS[i % SCHEMAS.length] + "." + prefix + SUBJECTS[(i / 7) % SUBJECTS.length] + "_" + i);
+        }
+        List<String> statements = new ArrayList<>(STATEMENTS);
+        for (int i = 0; i < STATEMENTS; i++) {
+            String a = names.get(i % TABLES);
+            String b = names.get((i * 31 + 7) % TABLES);
+            String c = names.get((i * 131 + 11) % TABLES);
+            statements.add(switch (i % 4) {
+                case 0 -> "SELECT * FROM " + a + " WHERE id = " + i;
+                case 1 -> "SELECT x.id, y.amount FROM " + a + " x JOIN " + b + " y ON x.id = y.ref WHERE y.amount > " + i;
+                case 2 -> "INSERT INTO " + a + " SELECT * FROM " + b + " WHERE k IN (SELECT k FROM " + c + " WHERE v = " + i + ")";
+                default -> "SELECT a.k, count(*) FROM " + a + " a JOIN " + b + " b ON a.k = b.k "
+                    + "LEFT JOIN " + c + " c ON b.k = c.k WHERE a.ts > " + i + " GROUP BY a.k";
+            });
+        }
+        return statements;
+    }
+
+    private static CacheStats offHeap(SqlParserService service) {
+        return service.getCacheStats().stream().filter(stats -> stats.getTier().equals("off-heap")).findFirst().orElseThrow();
+    }
+
+    private static Object read(byte[] body) throws Exception {
+        return new ObjectMapper().readValue(body, ExtractTablesResponse.class).getTableNames();
+    }
+
+    // Updates best {ns/op, bytes/op} with one round of OPERATIONS hits spread over the corpus
+    private static void measure(SqlParserService service, List<String> statements, ByteArrayOutputStream out, long[] best) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            out.reset();
+            out.writeBytes(service.extract(statements.get((i * 7919) % STATEMENTS)).getEncodedResponse());
+        }
+        long nanos = (System.nanoTime() - start) / OPERATIONS;
+        if (nanos < best[0]) {
+            best[0] = nanos;
+            best[1] = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / OPERATIONS;
+        }
+    }
+}
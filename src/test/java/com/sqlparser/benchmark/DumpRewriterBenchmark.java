@@ -0,0 +1,64 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.cli.DumpRewriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of the rewrite-dump command over a generated dump of view definitions, on one
+ * thread and on every core, with a mapping covering half of the tables.
+ * <pre>
+ *   ./mvnw test -Dtest=DumpRewriterBenchmark
+ * </pre>
+ */
+class DumpRewriterBenchmark {
+
+    private static final int STATEMENTS = 100_000;
+    private static final int TABLES = 2_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkDumpRewriter() throws Exception {
+        Path dump = directory.resolve("views.sql");
+        try (BufferedWriter writer = Files.newBufferedWriter(dump)) {
+            for (int i = 0; i < STATEMENTS; i++) {
+                int table = i * 7919 % TABLES;
+                writer.write("-- view " + i + "\nCREATE OR REPLACE VIEW reporting.v_" + i + " AS\nSELECT o.id, c.name, sum(o.total) AS total\n"
+                    + "FROM sales.orders_" + table + " o\nJOIN crm.customers_" + table % 37 + " c ON o.cid = c.id\n"
+                    + "WHERE o.status <> 'void;deleted' AND o.region IN ('eu', 'us')\nGROUP BY o.id, c.name;\n\n");
+            }
+        }
+        Path mapping = directory.resolve("migration.mapping");
+        try (BufferedWriter writer = Files.newBufferedWriter(mapping)) {
+            for (int table = 0; table < TABLES; table += 2) {
+                writer.write("sales.orders_" + table + "\tlake.sales.orders_" + table + "\n");
+            }
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : cores > 1 ? new int[] {1, cores} : new int[] {1}) {
+            // Warm-up pass, then the measured one
+            rewrite(dump, mapping, threads);
+            System.out.print(rewrite(dump, mapping, threads));
+        }
+    }
+
+    private static String rewrite(Path dump, Path mapping, int threads) throws Exception {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exit = DumpRewriter.run(new String[] {"--mapping", mapping.toString(), "--threads", String.valueOf(threads),
+            dump.toString(), dump.resolveSibling("views.out.sql").toString()}, System.out,
+            new PrintStream(err, true, StandardCharsets.UTF_8));
+        assertEquals(0, exit, err.toString(StandardCharsets.UTF_8));
+        return err.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package com.sqlparser.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sqlparser.config.SqlParserProperties;
+import com.sqlparser.model.ExtractTablesResponse;
+import com.sqlparser.service.SqlParserService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cost of serving an extract-tables cache hit: building and serializing the response on every
+ * hit versus writing the body encoded when the entry was cached. The output stream is reused,
+ * so only the response work is measured, not the network.
+ * <pre>
+ *   ./mvnw test -Dtest=EncodedResponseBenchmark
+ * </pre>
+ */
+class EncodedResponseBenchmark {
+
+    private static final int WARMUP_ROUNDS = 50_000;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int OPERATIONS = 100_000;
+
+    private static final List<String> STATEMENTS = List.of(
+        "SELECT * FROM users WHERE id = 42",
+        "SELECT o.id, c.name FROM sales.orders o JOIN crm.customers c ON o.cid = c.id WHERE o.total > 100",
+        "SELECT * FROM a JOIN b ON a.k = b.k JOIN c ON b.k = c.k JOIN d ON c.k = d.k JOIN e ON d.k = e.k");
+
+    private static final ObjectWriter WRITER = new ObjectMapper().writerFor(ExtractTablesResponse.class);
+
+    @Test
+    void benchmarkEncodedResponses() throws Exception {
+        SqlParserProperties plain = new SqlParserProperties();
+        plain.getCache().setEncodedResponses(false);
+        SqlParserService serializing = new SqlParserService(plain);
+        SqlParserService encoded = new SqlParserService();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+
+        for (String sql : STATEMENTS) {
+            // same body up to the order of the names
+            assertEquals(read(serialize(serializing, sql)), read(encoded.extract(sql).getEncodedResponse()));
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                serve(serializing, sql, out);
+                serve(encoded, sql, out);
+            }
+            // Alternate the two so JIT and GC noise hits both alike; keep each one's best round
+            long[] perHit = {Long.MAX_VALUE, 0};
+            long[] cached = {Long.MAX_VALUE, 0};
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                measure(serializing, sql, out, perHit);
+                measure(encoded, sql, out, cached);
+            }
+            System.out.printf("%3d chars: serialize per hit %,6d ns/op %,6d B/op | encoded %,6d ns/op %,6d B/op (%.2fx)%n",
+                sql.length(), perHit[0], perHit[1], cached[0], cached[1], (double) perHit[0] / cached[0]);
+        }
+        serializing.close();
+        encoded.close();
+    }
+
+    private static Object read(byte[] body) throws Exception {
+        return new ObjectMapper().readValue(body, ExtractTablesResponse.class).getTableNames();
+    }
+
+    private static byte[] serialize(SqlParserService service, String sql) throws Exception {
+        return WRITER.writeValueAsBytes(new ExtractTablesResponse(
+            new HashSet<>(service.extract(sql).getTableNames()), true, "Success"));
+    }
+
+    // What the controller and EncodedResponseConverter do for one hit
+    private static void serve(SqlParserService service, String sql, ByteArrayOutputStream out) throws Exception {
+        out.reset();
+        byte[] body = service.extract(sql).getEncodedResponse();
+        if (body != null) {
+            out.write(body);
+        } else {
+            WRITER.writeValue(out, new ExtractTablesResponse(
+                new HashSet<>(service.extract(sql).getTableNames()), true, "Success"));
+        }
+    }
+
+    // Updates best {ns/op, bytes/op} with one round of OPERATIONS hits
+    private static void measure(SqlParserService service, String sql, ByteArrayOutputStream out, long[] best)
+            throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            serve(service, sql, out);
+        }
+        long nanos = (System.nanoTime() - start) / OPERATIONS;
+        if (nanos < best[0]) {
+            best[0] = nanos;
+            best[1] = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / OPERATIONS;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.sqlparser.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.sqlparser.config.SqlParserProperties;
+import com.sqlparser.service.RewritePlan;
+import com.sqlparser.service.SqlParserService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rewriting one statement for every shard of a 512-shard mapping: one replace-tables call per
+ * shard (each parsing the statement, then each served from the result cache), against one
+ * fan-out plan rendering the shards, with copying the statement once per shard as the floor.
+ * The per-token INFO logging of replace-tables is switched off so it does not dominate.
+ * <pre>
+ *   ./mvnw test -Dtest=FanOutRewriteBenchmark
+ * </pre>
+ */
+class FanOutRewriteBenchmark {
+
+    private static final int SHARDS = 512;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static final String SQL = "WITH recent AS (SELECT user_id, sum(total) AS total FROM sales.orders "
+        + "WHERE created_at > current_date - INTERVAL '7' DAY GROUP BY user_id) "
+        + "SELECT u.id, u.name, r.total, p.tier FROM crm.users u JOIN recent r ON r.user_id = u.id "
+        + "LEFT JOIN billing.plans p ON p.id = u.plan_id WHERE u.region IN ('eu', 'us') ORDER BY r.total DESC LIMIT 100";
+
+    @Test
+    void benchmarkFanOutRewrite() throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.sqlparser")).setLevel(Level.WARN);
+        Map<String, String> template = new LinkedHashMap<>();
+        template.put("sales.orders", "shard_{shard}.orders");
+        template.put("crm.users", "shard_{shard}.users");
+        List<String> shards = new ArrayList<>();
+        List<Map<String, String>> mappings = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            String name = String.format("%03d", shard);
+            shards.add(name);
+            Map<String, String> mapping = new LinkedHashMap<>();
+            template.forEach((table, replacement) -> mapping.put(table, replacement.replace(RewritePlan.SHARD_VARIABLE, name)));
+            mappings.add(mapping);
+        }
+
+        SqlParserProperties uncachedProperties = new SqlParserProperties();
+        uncachedProperties.getCache().getOffHeap().setEnabled(false);
+        SqlParserService uncached = new SqlParserService(uncachedProperties);
+        SqlParserService cached = new SqlParserService();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertEquals(uncached.replaceTableNames(SQL, mappings.get(shard), false),
+                cached.planRewrite(SQL, null).template(template).render(shards.get(shard)));
+        }
+
+        long[] parsed = {Long.MAX_VALUE};
+        long[] cachedCalls = {Long.MAX_VALUE};
+        long[] fanOut = {Long.MAX_VALUE};
+        long[] copy = {Long.MAX_VALUE};
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            // Alternate the four so JIT and GC noise hits them alike; keep each one's best round
+            measure(() -> {
+                for (Map<String, String> mapping : mappings) {
+                    uncached.replaceTableNames(SQL, mapping, false);
+                }
+            }, parsed);
+            measure(() -> {
+                for (Map<String, String> mapping : mappings) {
+                    cached.replaceTableNames(SQL, mapping, false);
+                }
+            }, cachedCalls);
+            measure(() -> {
+                RewritePlan.Template plan = cached.planRewrite(SQL, null).template(template);
+                for (String shard : shards) {
+                    plan.render(shard);
+                }
+            }, fanOut);
+            measure(() -> {
+                for (int shard = 0; shard < SHARDS; shard++) {
+                    new StringBuilder(SQL.length() + 16).append(SQL).toString();
+                }
+            }, copy);
+        }
+        System.out.printf("%d shards, per variant: replace-tables %,d ns | replace-tables cached %,d ns | fan-out %,d ns"
+                + " | string copy %,d ns%n",
+            SHARDS, parsed[0] / SHARDS, cachedCalls[0] / SHARDS, fanOut[0] / SHARDS, copy[0] / SHARDS);
+        uncached.close();
+        cached.close();
+    }
+
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    private static void measure(Call call, long[] best) throws Exception {
+        long start = System.nanoTime();
+        call.run();
+        best[0] = Math.min(best[0], System.nanoTime() - start);
+    }
+}
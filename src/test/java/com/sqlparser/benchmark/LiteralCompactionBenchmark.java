@@ -0,0 +1,60 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.config.SqlParserProperties;
+import com.sqlparser.service.SqlParserService;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Extraction cost on an ETL-style statement with a 1M-literal IN list, with and without
+ * literal compaction. Not part of the default test run (surefire only picks up *Test classes):
+ * <pre>
+ *   ./mvnw test -Dtest=LiteralCompactionBenchmark
+ * </pre>
+ * The uncompacted run needs a large heap; pass -DargLine=-Xmx8g if it fails with OOM.
+ */
+class LiteralCompactionBenchmark {
+
+    private static final int LITERALS = 1_000_000;
+    private static final int ITERATIONS = 5;
+
+    @Test
+    void benchmarkMillionLiteralInList() throws Exception {
+        StringBuilder sb = new StringBuilder("SELECT orders.id FROM orders WHERE orders.customer_id IN (");
+        for (int i = 0; i < LITERALS; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(i);
+        }
+        sb.append(")");
+        String sql = sb.toString();
+
+        SqlParserService compacting = new SqlParserService();
+        SqlParserProperties plain = new SqlParserProperties();
+        plain.getCompaction().setEnabled(false);
+        SqlParserService uncompacted = new SqlParserService(plain);
+
+        run("compacted", compacting, sql);
+        run("uncompacted", uncompacted, sql);
+    }
+
+    private static void run(String label, SqlParserService service, String sql) throws Exception {
+        // warm-up
+        assertEquals(Set.of("orders"), service.extractTableNames(sql));
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            System.gc();
+            long start = System.nanoTime();
+            service.extractTableNames(sql);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("%-12s %d literals (%,d chars): best %,d ms, avg %,d ms%n",
+            label, LITERALS, sql.length(), best / 1_000_000, total / ITERATIONS / 1_000_000);
+    }
+}
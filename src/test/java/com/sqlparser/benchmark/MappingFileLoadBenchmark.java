@@ -0,0 +1,88 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.mapping.MappingFileStats;
+import com.sqlparser.mapping.MappingFileWatcher;
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.mapping.TableMappingRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load time of a catalog-sized mapping file (read through mapped windows and compiled), and
+ * lookups per second on the registry while nothing loads versus while the file reloads, showing
+ * that the swap does not stall readers.
+ * <pre>
+ *   ./mvnw test -Dtest=MappingFileLoadBenchmark
+ * </pre>
+ */
+class MappingFileLoadBenchmark {
+
+    private static final int LINES = 2_000_000;
+    private static final int RELOADS = 3;
+    private static final long LOOKUP_MILLIS = 500;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkMappingFileLoad() throws Exception {
+        Path file = directory.resolve("catalog.mapping");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < LINES; i++) {
+                writer.write("warehouse_" + (i % 40) + ".fact_table_" + i + "\tarchive_" + (i % 40) + ".fact_table_" + i + "\n");
+            }
+        }
+        TableMappingRegistry registry = new TableMappingRegistry();
+        MappingFileWatcher watcher = new MappingFileWatcher(directory, Duration.ZERO, registry);
+        assertEquals(LINES, watcher.stats().get(0).getEntries());
+
+        long idle = lookups(registry, null);
+        long best = watcher.stats().get(0).getLoadMillis();
+        long during = 0;
+        for (int i = 0; i < RELOADS; i++) {
+            // A new watcher over the same directory loads the file again as the next version
+            MappingFileWatcher[] reloaded = new MappingFileWatcher[1];
+            AtomicBoolean done = new AtomicBoolean();
+            Thread reload = new Thread(() -> {
+                reloaded[0] = new MappingFileWatcher(directory, Duration.ZERO, registry);
+                done.set(true);
+            });
+            reload.start();
+            during = Math.max(during, lookups(registry, done));
+            reload.join();
+            best = Math.min(best, reloaded[0].stats().get(0).getLoadMillis());
+        }
+        MappingFileStats stats = watcher.stats().get(0);
+        System.out.printf("%,d lines, %,d bytes: best load %,d ms (now at version %d) | lookups idle %,d/s, during reload %,d/s%n",
+            stats.getEntries(), stats.getBytes(), best, registry.get("catalog").getVersion(), idle, during);
+        watcher.close();
+    }
+
+    // Resolve-and-lookup rate for LOOKUP_MILLIS, or until done is set
+    private static long lookups(TableMappingRegistry registry, AtomicBoolean done) {
+        LongAdder count = new LongAdder();
+        long start = System.nanoTime();
+        long deadline = start + LOOKUP_MILLIS * 1_000_000;
+        int i = 0;
+        while (System.nanoTime() < deadline && (done == null || !done.get())) {
+            TableMapping mapping = registry.get("catalog");
+            int line = (int) (i * 7919L % LINES);
+            String table = "warehouse_" + (line % 40) + ".fact_table_" + line;
+            if (mapping.replacementFor(table, table) == null) {
+                throw new AssertionError(table);
+            }
+            count.increment();
+            i++;
+        }
+        return count.sum() * 1_000_000_000L / Math.max(1, System.nanoTime() - start);
+    }
+}
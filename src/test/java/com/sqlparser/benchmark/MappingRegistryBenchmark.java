@@ -0,0 +1,106 @@
+package com.sqlparser.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlparser.config.SqlParserProperties;
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.model.ReplaceTablesRequest;
+import com.sqlparser.service.SqlParserService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cost of one replace-tables call with a large mapping: sending it inline (request JSON parsing
+ * plus building the lookup on every call), referencing a registered mapping without
+ * memoization, and referencing it with the rewrite memoized. Extraction is served from the
+ * result cache in all three, and the per-token INFO logging of the rewrite is switched off so
+ * it does not dominate.
+ * <pre>
+ *   ./mvnw test -Dtest=MappingRegistryBenchmark
+ * </pre>
+ */
+class MappingRegistryBenchmark {
+
+    private static final int MAPPING_SIZE = 20_000;
+    private static final int WARMUP_ROUNDS = 500;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int OPERATIONS = 200;
+
+    private static final String SQL = "SELECT o.id, c.name FROM sales.orders_17 o JOIN crm.customers_4242 c ON o.cid = c.id "
+        + "WHERE o.total > 100 AND c.region IN (SELECT region FROM ref.regions_19999)";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void benchmarkMappingRegistry() throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.sqlparser")).setLevel(Level.WARN);
+        Map<String, String> mapping = new LinkedHashMap<>();
+        for (int i = 0; i < MAPPING_SIZE; i++) {
+            String schema = i % 3 == 0 ? "sales.orders_" : i % 3 == 1 ? "crm.customers_" : "ref.regions_";
+            mapping.put(schema + i, "archive." + schema.replace('.', '_') + i);
+        }
+        mapping.put("sales.orders_17", "archive.orders_17");
+        mapping.put("crm.customers_4242", "archive.customers_4242");
+        String inlineJson = MAPPER.writeValueAsString(new ReplaceTablesRequest(SQL, mapping));
+        ReplaceTablesRequest byName = new ReplaceTablesRequest(SQL, null);
+        byName.setMapping("archive");
+        String referenceJson = MAPPER.writeValueAsString(byName);
+
+        SqlParserService memoizing = new SqlParserService();
+        SqlParserProperties plain = new SqlParserProperties();
+        plain.getMappingRegistry().setMaxMemoizedChars(0);
+        SqlParserService compiledOnly = new SqlParserService(plain);
+        memoizing.registerMapping("archive", mapping);
+        compiledOnly.registerMapping("archive", mapping);
+
+        String expected = memoizing.replaceTableNames(SQL, mapping, false);
+        assertEquals(expected, inline(memoizing, inlineJson));
+        assertEquals(expected, registered(memoizing, referenceJson));
+        assertEquals(expected, registered(compiledOnly, referenceJson));
+
+        long[] inline = {Long.MAX_VALUE};
+        long[] compiled = {Long.MAX_VALUE};
+        long[] memoized = {Long.MAX_VALUE};
+        for (int round = 0; round < WARMUP_ROUNDS / OPERATIONS + MEASURED_ROUNDS; round++) {
+            // Alternate the three so JIT and GC noise hits them alike; keep each one's best round
+            measure(() -> inline(memoizing, inlineJson), inline);
+            measure(() -> registered(compiledOnly, referenceJson), compiled);
+            measure(() -> registered(memoizing, referenceJson), memoized);
+        }
+        System.out.printf("%,d-entry mapping: inline %,d ns/op | registered %,d ns/op (%.0fx) | registered + memo %,d ns/op (%.0fx)%n",
+            mapping.size(), inline[0], compiled[0], (double) inline[0] / compiled[0],
+            memoized[0], (double) inline[0] / memoized[0]);
+        memoizing.close();
+        compiledOnly.close();
+    }
+
+    private interface Call {
+        String run() throws Exception;
+    }
+
+    // What the controller does for a request carrying the whole mapping
+    private static String inline(SqlParserService service, String json) throws Exception {
+        ReplaceTablesRequest request = MAPPER.readValue(json, ReplaceTablesRequest.class);
+        return service.replaceTableNames(request.getSql(), request.getTableMapping(), false);
+    }
+
+    // ... and for one referencing a registered mapping
+    private static String registered(SqlParserService service, String json) throws Exception {
+        ReplaceTablesRequest request = MAPPER.readValue(json, ReplaceTablesRequest.class);
+        TableMapping mapping = service.getMapping(request.getMapping());
+        return service.replaceTableNames(request.getSql(), mapping, false);
+    }
+
+    private static void measure(Call call, long[] best) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            call.run();
+        }
+        best[0] = Math.min(best[0], (System.nanoTime() - start) / OPERATIONS);
+    }
+}
@@ -0,0 +1,74 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.cache.CacheStats;
+import com.sqlparser.cache.OffHeapExtractionCache;
+import com.sqlparser.config.SqlParserProperties;
+import com.sqlparser.service.SqlParserService;
+import com.sqlparser.visitor.ExtractionResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Fills the off-heap tier with distinct statements and compares hit latency against a fresh
+ * parse, plus the heap the tier retains per entry (its on-heap index only).
+ * <pre>
+ *   ./mvnw test -Dtest=OffHeapCacheBenchmark
+ * </pre>
+ */
+class OffHeapCacheBenchmark {
+
+    private static final int STATEMENTS = 200_000;
+
+    @Test
+    void benchmarkOffHeapTier() {
+        SqlParserService service = new SqlParserService();
+        String template = "SELECT o.id, c.name FROM sales.orders o JOIN crm.customers c ON o.cid = c.id "
+            + "WHERE o.region = 'r%d' AND o.total > (SELECT avg(total) FROM sales.orders_archive)";
+        ExtractionResult result = service.extract(String.format(template, 0));
+
+        long heapBefore = usedHeap();
+        OffHeapExtractionCache cache = new OffHeapExtractionCache(512L << 20, 1 << 20, 16);
+        for (int i = 0; i < STATEMENTS; i++) {
+            cache.put(String.format(template, i), result);
+        }
+        long heapAfter = usedHeap();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < STATEMENTS; i++) {
+            assertNotNull(cache.get(String.format(template, i)));
+        }
+        long hitNanos = (System.nanoTime() - start) / STATEMENTS;
+
+        SqlParserService uncached = new SqlParserService(noCache());
+        int parses = 2_000;
+        for (int i = 0; i < parses; i++) {
+            uncached.extract(String.format(template, i));
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < parses; i++) {
+            uncached.extract(String.format(template, i));
+        }
+        long parseNanos = (System.nanoTime() - start) / parses;
+
+        CacheStats stats = cache.stats().get(0);
+        System.out.printf("%,d entries: off-heap reserved %,d KB, used %,d KB, heap retained ~%d B/entry%n",
+            stats.getEntries(), stats.getOffHeapBytes() / 1024, stats.getUsedBytes() / 1024,
+            (heapAfter - heapBefore) / STATEMENTS);
+        System.out.printf("hit %,d ns/op (incl. formatting the key), parse+extract %,d ns/op%n", hitNanos, parseNanos);
+    }
+
+    private static SqlParserProperties noCache() {
+        SqlParserProperties properties = new SqlParserProperties();
+        properties.getCache().getOffHeap().setEnabled(false);
+        return properties;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,90 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.parser.ManagedSqlParser;
+import com.sqlparser.visitor.ParseTreeTableExtractor;
+import com.sqlparser.visitor.TableNameExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Per-statement latency and allocation of table extraction through Trino's AST versus straight
+ * from the ANTLR parse tree. Both share one warmed-up parser, so the difference is AST
+ * construction plus the traversal itself.
+ * <pre>
+ *   ./mvnw test -Dtest=ParseTreeExtractionBenchmark
+ * </pre>
+ */
+class ParseTreeExtractionBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int OPERATIONS = 10_000;
+
+    private static final List<String> STATEMENTS = List.of(
+        "SELECT id, name FROM users WHERE id = 42",
+        "SELECT o.id, c.name FROM sales.orders o JOIN crm.customers c ON o.cid = c.id WHERE o.total > 100",
+        "WITH recent AS (SELECT * FROM events WHERE ts > current_date - INTERVAL '7' DAY) "
+            + "SELECT user_id, count(*) FROM recent GROUP BY user_id HAVING count(*) > 10 ORDER BY 2 DESC LIMIT 20",
+        "SELECT a.k, sum(b.v), CASE WHEN a.x > 0 THEN upper(a.s) ELSE lower(b.s) END FROM a LEFT JOIN b ON a.k = b.k "
+            + "WHERE a.flag AND b.v IS NOT NULL AND a.k IN (SELECT k FROM c WHERE c.region = 'eu') GROUP BY a.k, 3",
+        "UPDATE sch.orders SET total = price * qty, note = concat(note, 'x') WHERE id IN (SELECT id FROM archive)");
+
+    private static final ManagedSqlParser PARSER = new ManagedSqlParser();
+
+    @Test
+    void benchmarkParseTreeExtraction() {
+        for (String sql : STATEMENTS) {
+            assertEquals(viaAst(sql), viaParseTree(sql));
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                viaAst(sql);
+                viaParseTree(sql);
+            }
+            // Alternate the two so JIT and GC noise hits both alike; keep each one's best round
+            long[] ast = {Long.MAX_VALUE, 0};
+            long[] tree = {Long.MAX_VALUE, 0};
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                measure(true, sql, ast);
+                measure(false, sql, tree);
+            }
+            System.out.printf("%4d chars: AST %,7d ns/op %,7d B/op | parse tree %,7d ns/op %,7d B/op (%.2fx, -%d%% alloc)%n",
+                sql.length(), ast[0], ast[1], tree[0], tree[1],
+                (double) ast[0] / tree[0], 100 - tree[1] * 100 / Math.max(1, ast[1]));
+        }
+    }
+
+    private static String viaAst(String sql) {
+        TableNameExtractor extractor = new TableNameExtractor();
+        extractor.collect(PARSER.createStatement(sql), sql);
+        return extractor.getTableNames() + " " + extractor.getTableTokens();
+    }
+
+    private static String viaParseTree(String sql) {
+        ParseTreeTableExtractor extractor = new ParseTreeTableExtractor();
+        extractor.collect(PARSER.parseTree(sql), sql);
+        return extractor.getTableNames() + " " + extractor.getTableTokens();
+    }
+
+    // Updates best {ns/op, bytes/op} with one round of OPERATIONS extractions
+    private static void measure(boolean ast, String sql, long[] best) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (ast) {
+                viaAst(sql);
+            } else {
+                viaParseTree(sql);
+            }
+        }
+        long nanos = (System.nanoTime() - start) / OPERATIONS;
+        if (nanos < best[0]) {
+            best[0] = nanos;
+            best[1] = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / OPERATIONS;
+        }
+    }
+}
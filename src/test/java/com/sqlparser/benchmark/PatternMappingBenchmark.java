@@ -0,0 +1,70 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.mapping.TableMappingRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Lookup cost of prefix and wildcard rules as the rule count grows: names are resolved by
+ * walking the rule trie part by part, so the cost should stay flat from ten rules to a hundred
+ * thousand.
+ * <pre>
+ *   ./mvnw test -Dtest=PatternMappingBenchmark
+ * </pre>
+ */
+class PatternMappingBenchmark {
+
+    private static final int[] RULE_COUNTS = {10, 1_000, 100_000};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int OPERATIONS = 200_000;
+
+    @Test
+    void benchmarkPatternMapping() {
+        TableMapping[] mappings = new TableMapping[RULE_COUNTS.length];
+        TableMappingRegistry registry = new TableMappingRegistry();
+        for (int i = 0; i < RULE_COUNTS.length; i++) {
+            Map<String, String> rules = new LinkedHashMap<>();
+            for (int tenant = 0; tenant < RULE_COUNTS[i]; tenant++) {
+                rules.put("tenant_" + tenant + ".*", "shard_" + tenant % 16 + ".tenant_" + tenant + ".*");
+            }
+            rules.put("*.events", "archive.*");
+            mappings[i] = registry.register("rules_" + i, rules);
+            assertEquals("shard_7.tenant_7.orders", mappings[i].replacementFor("tenant_7.orders", "tenant_7.orders"));
+            assertEquals("archive.web", mappings[i].replacementFor("web.events", "web.events"));
+        }
+
+        long[][] best = new long[RULE_COUNTS.length][2];
+        for (long[] row : best) {
+            row[0] = row[1] = Long.MAX_VALUE;
+        }
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            // Alternate the sizes so JIT and GC noise hits them alike; keep each one's best round
+            for (int i = 0; i < mappings.length; i++) {
+                best[i][0] = Math.min(best[i][0], measure(mappings[i], "tenant_7.orders"));
+                best[i][1] = Math.min(best[i][1], measure(mappings[i], "web.events"));
+            }
+        }
+        for (int i = 0; i < RULE_COUNTS.length; i++) {
+            System.out.printf("%,7d prefix rules: prefix match %,d ns/op | wildcard match %,d ns/op%n",
+                RULE_COUNTS[i], best[i][0], best[i][1]);
+        }
+    }
+
+    private static long measure(TableMapping mapping, String name) {
+        long start = System.nanoTime();
+        int matched = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (mapping.replacementFor(name, name) != null) {
+                matched++;
+            }
+        }
+        assertEquals(OPERATIONS, matched);
+        return (System.nanoTime() - start) / OPERATIONS;
+    }
+}
@@ -0,0 +1,57 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.cache.PersistentExtractionCache;
+import com.sqlparser.service.SqlParserService;
+import com.sqlparser.visitor.ExtractionResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Warm-restart cost of the persistent tier: time to reopen a populated cache file (index
+ * rebuild from record headers only) and the latency of the first hits after reopening.
+ * <pre>
+ *   ./mvnw test -Dtest=PersistentCacheBenchmark
+ * </pre>
+ */
+class PersistentCacheBenchmark {
+
+    private static final int STATEMENTS = 200_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void benchmarkWarmRestart() {
+        String template = "SELECT o.id, c.name FROM sales.orders o JOIN crm.customers c ON o.cid = c.id "
+            + "WHERE o.region = 'r%d' AND o.total > (SELECT avg(total) FROM sales.orders_archive)";
+        ExtractionResult result = new SqlParserService().extract(String.format(template, 0));
+        Path file = dir.resolve("extraction-cache.bin");
+
+        PersistentExtractionCache cache = new PersistentExtractionCache(file, 256L << 20);
+        long start = System.nanoTime();
+        for (int i = 0; i < STATEMENTS; i++) {
+            cache.put(String.format(template, i), result);
+        }
+        long putNanos = (System.nanoTime() - start) / STATEMENTS;
+        long used = cache.stats().get(0).getUsedBytes();
+        cache.close();
+
+        start = System.nanoTime();
+        PersistentExtractionCache reopened = new PersistentExtractionCache(file, 256L << 20);
+        long openMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        for (int i = 0; i < STATEMENTS; i++) {
+            assertNotNull(reopened.get(String.format(template, i)));
+        }
+        long hitNanos = (System.nanoTime() - start) / STATEMENTS;
+        reopened.close();
+
+        System.out.printf("%,d records, %,d KB: put %,d ns/op, reopen %,d ms, hit after reopen %,d ns/op%n",
+            STATEMENTS, used / 1024, putNanos, openMillis, hitNanos);
+    }
+}
@@ -0,0 +1,106 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.index.AffectedQueries;
+import com.sqlparser.index.QueryIndex;
+import com.sqlparser.index.QueryIndexStats;
+import com.sqlparser.mapping.TableMapping;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Impact lookups over an index of two million stored queries, each reading three of 50,000
+ * tables: a mapping of 1,000 tables, a prefix rule covering one schema, and, as the baseline
+ * the index replaces, a scan of every query's table list (already extracted, so without any
+ * re-parsing). Also times incremental replacement of queries.
+ * <pre>
+ *   ./mvnw test -Dtest=QueryIndexBenchmark
+ * </pre>
+ */
+class QueryIndexBenchmark {
+
+    private static final int QUERIES = 2_000_000;
+    private static final int TABLES = 50_000;
+    private static final int SCHEMAS = 50;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int UPDATES = 100_000;
+
+    @Test
+    void benchmarkQueryIndex() {
+        QueryIndex index = new QueryIndex();
+        String[][] tablesOf = new String[QUERIES][];
+        long start = System.nanoTime();
+        for (int q = 0; q < QUERIES; q++) {
+            tablesOf[q] = tables(q, 0);
+            index.put("query-" + q, List.of(tablesOf[q]));
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        QueryIndexStats stats = index.stats();
+        System.out.printf("Indexed %,d queries over %,d tables in %,d ms; posting lists take %,d KB%n",
+            stats.getQueries(), stats.getTables(), buildMillis, stats.getPostingBytes() / 1024);
+
+        Map<String, String> exact = new HashMap<>();
+        for (int t = 0; t < TABLES; t += TABLES / 1_000) {
+            exact.put(table(t), "lake." + table(t));
+        }
+        TableMapping exactMapping = TableMapping.of(exact);
+        TableMapping prefixMapping = TableMapping.of(Map.of("schema_7.*", "lake.schema_7.*"));
+        long expected = scan(tablesOf, exactMapping);
+
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            AffectedQueries affected = index.affected(exactMapping, 1_000);
+            long t1 = System.nanoTime();
+            AffectedQueries prefix = index.affected(prefixMapping, 1_000);
+            long t2 = System.nanoTime();
+            long scanned = scan(tablesOf, exactMapping);
+            long t3 = System.nanoTime();
+            assertEquals(expected, affected.getCount());
+            assertEquals(expected, scanned);
+            assertEquals(1_000, prefix.getQueryIds().size());
+            best[0] = Math.min(best[0], t1 - t0);
+            best[1] = Math.min(best[1], t2 - t1);
+            best[2] = Math.min(best[2], t3 - t2);
+        }
+        System.out.printf("1,000-table mapping: %,d affected queries in %,d us | prefix rule: %,d us | "
+                + "scan of extracted table lists: %,d us%n",
+            expected, best[0] / 1_000, best[1] / 1_000, best[2] / 1_000);
+
+        start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            int q = i * 19 % QUERIES;
+            index.put("query-" + q, List.of(tables(q, 1)));
+        }
+        System.out.printf("Re-indexed %,d queries at %,d ns each%n", UPDATES, (System.nanoTime() - start) / UPDATES);
+    }
+
+    // Three tables per query, the first one skewed towards low table numbers
+    private static String[] tables(int query, int version) {
+        int hash = (query + version) * 0x9E3779B1;
+        int hot = (int) ((hash >>> 1) % TABLES * (long) (hash >>> 17 & 0xFF) / 255);
+        return new String[] {table(hot), table((hash >>> 3) % TABLES), table((query * 31 + version) % TABLES)};
+    }
+
+    private static String table(int t) {
+        return "schema_" + t % SCHEMAS + ".table_" + t;
+    }
+
+    private static long scan(String[][] tablesOf, TableMapping mapping) {
+        long count = 0;
+        for (String[] tables : tablesOf) {
+            for (String table : tables) {
+                if (mapping.replacementFor(table, table) != null) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,59 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.cli.QueryLogAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of the analyze-logs command over a generated JSON-lines query log, on one thread
+ * and on every core; the command reports statements per second per core itself.
+ * <pre>
+ *   ./mvnw test -Dtest=QueryLogAnalyzerBenchmark
+ * </pre>
+ */
+class QueryLogAnalyzerBenchmark {
+
+    private static final int RECORDS = 200_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkQueryLogAnalyzer() throws Exception {
+        Path log = directory.resolve("queries.log");
+        try (BufferedWriter writer = Files.newBufferedWriter(log)) {
+            for (int i = 0; i < RECORDS; i++) {
+                int table = i * 7919 % 500;
+                writer.write("{\"timestamp\":\"2024-03-01T" + String.format("%02d:%02d:%02d", i / 3600 % 24, i / 60 % 60, i % 60)
+                    + "Z\",\"user\":\"etl_" + i % 13 + "\",\"query\":\"SELECT o.id, c.name, sum(o.total) FROM sales.orders_" + table
+                    + " o JOIN crm.customers_" + table % 37 + " c ON o.cid = c.id WHERE o.created_at > DATE '2024-01-"
+                    + String.format("%02d", i % 28 + 1) + "' AND o.region IN ('eu', 'us') GROUP BY o.id, c.name LIMIT " + (i % 100 + 1)
+                    + "\"}\n");
+            }
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : cores > 1 ? new int[] {1, cores} : new int[] {1}) {
+            // Warm-up pass, then the measured one
+            analyze(log, threads);
+            System.out.print(analyze(log, threads));
+        }
+    }
+
+    private static String analyze(Path log, int threads) throws Exception {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Path output = log.resolveSibling("usage.json");
+        int exit = QueryLogAnalyzer.run(new String[] {"--threads", String.valueOf(threads), "--chunk-mb", "4",
+            "--output", output.toString(), log.toString()}, System.out, new PrintStream(err, true, StandardCharsets.UTF_8));
+        assertEquals(0, exit, err.toString(StandardCharsets.UTF_8));
+        return err.toString(StandardCharsets.UTF_8);
+    }
+}
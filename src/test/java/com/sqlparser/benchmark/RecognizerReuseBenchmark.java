@@ -0,0 +1,80 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.parser.ManagedSqlParser;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Per-parse latency and allocation for sub-1KB statements, with per-thread reused recognizers
+ * versus Trino's build-everything-per-call path. Both parsers are warmed up on the same
+ * statements first, so the DFA is fully learned and only the setup cost differs. Allocation is
+ * the thread's allocated bytes per operation (what JMH's gc profiler reports as gc.alloc.rate.norm).
+ * <pre>
+ *   ./mvnw test -Dtest=RecognizerReuseBenchmark
+ * </pre>
+ */
+class RecognizerReuseBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int OPERATIONS = 10_000;
+
+    private static final List<String> STATEMENTS = List.of(
+        "SELECT 1",
+        "SELECT id, name FROM users WHERE id = 42",
+        "SELECT o.id, c.name FROM sales.orders o JOIN crm.customers c ON o.cid = c.id WHERE o.total > 100",
+        "INSERT INTO audit.events (id, kind, payload) VALUES (1, 'login', 'ok')",
+        "WITH recent AS (SELECT * FROM events WHERE ts > current_date - INTERVAL '7' DAY) "
+            + "SELECT user_id, count(*) FROM recent GROUP BY user_id HAVING count(*) > 10 ORDER BY 2 DESC LIMIT 20",
+        "SELECT a.k, sum(b.v) FROM a LEFT JOIN b ON a.k = b.k WHERE a.flag AND b.v IS NOT NULL "
+            + "AND a.k IN (SELECT k FROM c WHERE c.region = 'eu') GROUP BY a.k");
+
+    @Test
+    void benchmarkRecognizerReuse() {
+        ManagedSqlParser reused = new ManagedSqlParser(0, null, true);
+        ManagedSqlParser fresh = new ManagedSqlParser(0, null, false);
+        for (String sql : STATEMENTS) {
+            assertEquals(fresh.createStatement(sql), reused.createStatement(sql));
+        }
+        for (String sql : STATEMENTS) {
+            warmUp(reused, sql);
+            warmUp(fresh, sql);
+            // Alternate the two so JIT and GC noise hits both alike; keep each one's best round
+            long[] perCall = {Long.MAX_VALUE, 0};
+            long[] reuse = {Long.MAX_VALUE, 0};
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                measure(fresh, sql, perCall);
+                measure(reused, sql, reuse);
+            }
+            System.out.printf("%4d chars: per-call %,7d ns/op %,7d B/op | reused %,7d ns/op %,7d B/op (%.2fx, -%d%% alloc)%n",
+                sql.length(), perCall[0], perCall[1], reuse[0], reuse[1],
+                (double) perCall[0] / reuse[0], 100 - reuse[1] * 100 / Math.max(1, perCall[1]));
+        }
+    }
+
+    private static void warmUp(ManagedSqlParser parser, String sql) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            parser.createStatement(sql);
+        }
+    }
+
+    // Updates best {ns/op, bytes/op} with one round of OPERATIONS parses
+    private static void measure(ManagedSqlParser parser, String sql, long[] best) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            parser.createStatement(sql);
+        }
+        long nanos = (System.nanoTime() - start) / OPERATIONS;
+        if (nanos < best[0]) {
+            best[0] = nanos;
+            best[1] = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / OPERATIONS;
+        }
+    }
+}
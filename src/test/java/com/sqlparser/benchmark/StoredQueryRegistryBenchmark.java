@@ -0,0 +1,88 @@
+package com.sqlparser.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.sqlparser.config.SqlParserProperties;
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.service.SqlParserService;
+import com.sqlparser.service.StoredQueryChange;
+import com.sqlparser.service.StoredQueryChanges;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Keeping 5,000 stored queries (each joining three of 2,000 tables) rewritten with a mapping of
+ * all 2,000 tables while single entries change: registering the new version with the stored-query
+ * registry, which rewrites only the queries on the changed table from their kept plans, against
+ * re-running every query through replace-tables with the compiled new version (extraction served
+ * from the result cache, so neither side parses). Logging is switched off so it does not dominate.
+ * <pre>
+ *   ./mvnw test -Dtest=StoredQueryRegistryBenchmark
+ * </pre>
+ */
+class StoredQueryRegistryBenchmark {
+
+    private static final int QUERIES = 5_000;
+    private static final int TABLES = 2_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    @Test
+    void benchmarkIncrementalRewrite() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.sqlparser")).setLevel(Level.WARN);
+        SqlParserProperties properties = new SqlParserProperties();
+        properties.getVerification().setSampleRate(0);
+        properties.getStoredQueries().setMaxChanges(QUERIES);
+        SqlParserService service = new SqlParserService(properties);
+        Map<String, String> physical = new LinkedHashMap<>();
+        for (int t = 0; t < TABLES; t++) {
+            physical.put(table(t), "dw.t" + t + "_v0");
+        }
+        service.registerMapping("physical", physical);
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (int q = 0; q < QUERIES; q++) {
+            queries.put("report-" + q, "SELECT a.id, b.total, c.name FROM " + table(q % TABLES) + " a JOIN "
+                + table(q * 7 % TABLES) + " b ON b.id = a.id LEFT JOIN " + table(q * 13 % TABLES)
+                + " c ON c.id = b.ref WHERE a.day >= DATE '2026-01-01' AND b.total > " + q);
+        }
+        long start = System.nanoTime();
+        assertEquals(Map.of(), service.storeQueries("physical", queries));
+        System.out.printf("Stored %,d queries in %,d ms%n", QUERIES, (System.nanoTime() - start) / 1_000_000);
+        long since = service.getStoredQueryChanges(0, QUERIES).getLastSequence();
+
+        long incremental = Long.MAX_VALUE;
+        long rerun = Long.MAX_VALUE;
+        int changed = 0;
+        for (int round = 1; round <= WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            int t = round * 37 % TABLES;
+            physical.put(table(t), "dw.t" + t + "_v" + round);
+            long t0 = System.nanoTime();
+            TableMapping mapping = service.registerMapping("physical", physical);
+            long t1 = System.nanoTime();
+            Map<String, String> outputs = new LinkedHashMap<>();
+            for (Map.Entry<String, String> query : queries.entrySet()) {
+                outputs.put(query.getKey(), service.replaceTableNames(query.getValue(), mapping, false));
+            }
+            long t2 = System.nanoTime();
+            StoredQueryChanges changes = service.getStoredQueryChanges(since, QUERIES);
+            for (StoredQueryChange change : changes.getChanges()) {
+                assertEquals(outputs.get(change.getId()), change.getSql());
+            }
+            since = changes.getLastSequence();
+            changed = changes.getChanges().size();
+            incremental = Math.min(incremental, t1 - t0);
+            rerun = Math.min(rerun, t2 - t1);
+        }
+        System.out.printf("One changed table (%d queries on it): register with incremental rewrite %,d us | "
+                + "re-run every query through replace-tables %,d us%n", changed, incremental / 1_000, rerun / 1_000);
+        service.close();
+    }
+
+    private static String table(int t) {
+        return "s" + t % 20 + ".t" + t;
+    }
+}
@@ -0,0 +1,90 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.parser.ManagedSqlParser;
+import io.trino.sql.parser.ParsingException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Per-statement cost of validating through the full AST (what validateSql used to do), through
+ * the parse tree with Trino's error messages, and as a bare verdict. Invalid statements show the
+ * cost of Trino's expected-token analysis, which the verdict mode never runs.
+ * <pre>
+ *   ./mvnw test -Dtest=ValidationBenchmark
+ * </pre>
+ */
+class ValidationBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int OPERATIONS = 10_000;
+
+    private static final List<String> STATEMENTS = List.of(
+        "SELECT o.id, c.name FROM sales.orders o JOIN crm.customers c ON o.cid = c.id WHERE o.total > 100",
+        "SELECT a.k, sum(b.v) FROM a LEFT JOIN b ON a.k = b.k WHERE a.flag AND b.v IS NOT NULL "
+            + "AND a.k IN (SELECT k FROM c WHERE c.region = 'eu') GROUP BY a.k",
+        "SELECT o.id, c.name FROM sales.orders o JOIN crm.customers c ON o.cid = c.id WHERE o.total > > 100",
+        "SELECT a.k, sum(b.v) FROM a LEFT JOIN b ON a.k = b.k WHERE a.flag AND b.v IS NOT NULL "
+            + "AND a.k IN (SELECT k FROM c WHERE c.region = 'eu') GROUP BY");
+
+    private static final ManagedSqlParser PARSER = new ManagedSqlParser();
+
+    @Test
+    void benchmarkValidation() {
+        for (String sql : STATEMENTS) {
+            boolean valid = viaAst(sql);
+            assertEquals(valid, viaParseTree(sql));
+            assertEquals(valid, PARSER.isValid(sql));
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                viaAst(sql);
+                viaParseTree(sql);
+                PARSER.isValid(sql);
+            }
+            // Alternate the three so JIT and GC noise hits them alike; keep each one's best round
+            long ast = Long.MAX_VALUE;
+            long tree = Long.MAX_VALUE;
+            long verdict = Long.MAX_VALUE;
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                ast = Math.min(ast, measure(0, sql));
+                tree = Math.min(tree, measure(1, sql));
+                verdict = Math.min(verdict, measure(2, sql));
+            }
+            System.out.printf("%4d chars, %s: AST %,7d ns/op | parse tree %,7d ns/op | verdict %,7d ns/op (%.2fx)%n",
+                sql.length(), valid ? "valid  " : "invalid", ast, tree, verdict, (double) ast / verdict);
+        }
+    }
+
+    private static boolean viaAst(String sql) {
+        try {
+            PARSER.createStatement(sql);
+            return true;
+        } catch (ParsingException e) {
+            return false;
+        }
+    }
+
+    private static boolean viaParseTree(String sql) {
+        try {
+            PARSER.parseTree(sql);
+            return true;
+        } catch (ParsingException e) {
+            return false;
+        }
+    }
+
+    // ns/op of one round of OPERATIONS validations: 0 = AST, 1 = parse tree, 2 = verdict
+    private static long measure(int path, String sql) {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            switch (path) {
+                case 0 -> viaAst(sql);
+                case 1 -> viaParseTree(sql);
+                default -> PARSER.isValid(sql);
+            }
+        }
+        return (System.nanoTime() - start) / OPERATIONS;
+    }
+}
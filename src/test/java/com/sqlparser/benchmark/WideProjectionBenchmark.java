@@ -0,0 +1,65 @@
+package com.sqlparser.benchmark;
+
+import com.sqlparser.visitor.TableNameExtractor;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Statement;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Traversal cost of TableNameExtractor on wide analytical SELECTs, with and without
+ * expression pruning. Parsing is done once up front; only collect() is timed.
+ * <pre>
+ *   ./mvnw test -Dtest=WideProjectionBenchmark
+ * </pre>
+ */
+class WideProjectionBenchmark {
+
+    private static final int COLUMNS = 500;
+    private static final int ITERATIONS = 2_000;
+
+    @Test
+    void benchmarkWideProjection() {
+        run("unqualified", wideSelect(""));
+        run("qualified", wideSelect("f."));
+    }
+
+    private static String wideSelect(String qualifier) {
+        StringBuilder sb = new StringBuilder("SELECT ");
+        for (int i = 0; i < COLUMNS; i++) {
+            if (i > 0) sb.append(",\n  ");
+            String q = qualifier;
+            sb.append("round(").append(q).append("revenue_").append(i).append(" * (1 - ").append(q).append("discount_").append(i)
+                .append(") / nullif(").append(q).append("units_").append(i).append(", 0), 2) + coalesce(")
+                .append(q).append("adj_").append(i).append(", 0, 1, 2) AS m").append(i);
+        }
+        sb.append("\nFROM facts f WHERE region IN ('EU', 'US', 'APAC')");
+        return sb.toString();
+    }
+
+    private static void run(String label, String sql) {
+        Statement statement = new SqlParser().createStatement(sql);
+        long full = time(statement, sql, false);
+        long pruned = time(statement, sql, true);
+        System.out.printf("%-12s %d projections: full %,d us/op, pruned %,d us/op (%.1fx)%n",
+            label, COLUMNS, full / 1_000, pruned / 1_000, (double) full / pruned);
+    }
+
+    private static long time(Statement statement, String sql, boolean prune) {
+        TableNameExtractor reference = new TableNameExtractor(false);
+        reference.collect(statement, sql);
+        for (int i = 0; i < ITERATIONS; i++) {
+            new TableNameExtractor(prune).collect(statement, sql);
+        }
+        long start = System.nanoTime();
+        TableNameExtractor extractor = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            extractor = new TableNameExtractor(prune);
+            extractor.collect(statement, sql);
+        }
+        long perOp = (System.nanoTime() - start) / ITERATIONS;
+        assertEquals(reference.getTableTokens().size(), extractor.getTableTokens().size());
+        return perOp;
+    }
+}
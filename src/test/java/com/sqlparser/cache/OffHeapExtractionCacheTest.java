@@ -0,0 +1,141 @@
+package com.sqlparser.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlparser.model.ExtractTablesResponse;
+import com.sqlparser.service.SqlParserService;
+import com.sqlparser.visitor.ExtractionResult;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapExtractionCacheTest {
+
+    private final SqlParserService service = new SqlParserService();
+
+    @Test
+    void testRoundTripPreservesNamesAndTokens() {
+        String sql = "SELECT * FROM \"Sales\".\"Orders\" o JOIN cat.sch.users u ON o.uid = u.id WHERE u.name = 'ü'";
+        ExtractionResult expected = service.extract(sql);
+        OffHeapExtractionCache cache = new OffHeapExtractionCache(1 << 20, 4096, 4);
+
+        assertNull(cache.get(sql));
+        cache.put(sql, expected);
+        ExtractionResult cached = cache.get(sql);
+
+        assertNotNull(cached);
+        assertEquals(expected.getTableNames(), cached.getTableNames());
+        assertEquals(expected.getTokens().toString(), cached.getTokens().toString());
+        assertNull(cache.get(sql + " "));
+    }
+
+    @Test
+    void testDecodeRejectsDifferentKey() {
+        byte[] key = "SELECT 1 FROM a".getBytes(StandardCharsets.UTF_8);
+        byte[] entry = ExtractionCodec.encode(key, service.extract("SELECT 1 FROM a"));
+
+        assertNotNull(ExtractionCodec.decode(entry, key));
+        assertNull(ExtractionCodec.decode(entry, "SELECT 1 FROM b".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testEncodedResponseTravelsWithTheEntry() throws Exception {
+        String sql = "SELECT * FROM \"Sales\".\"Orders\" o JOIN users u ON o.uid = u.id";
+        ExtractionResult result = service.extract(sql);
+        byte[] response = result.getEncodedResponse();
+
+        assertNotNull(response);
+        ExtractTablesResponse decoded = new ObjectMapper().readValue(response, ExtractTablesResponse.class);
+        assertEquals(result.getTableNames(), decoded.getTableNames());
+        assertTrue(decoded.isSuccess());
+        assertArrayEquals(response, service.extract(sql).getEncodedResponse());
+
+        byte[] key = sql.getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(response, ExtractionCodec.decode(ExtractionCodec.encode(key, result), key).getEncodedResponse());
+        // entries written without a response still decode
+        ExtractionResult plain = new ExtractionResult(result.getTableNames(), result.getTokens());
+        ExtractionResult decodedPlain = ExtractionCodec.decode(ExtractionCodec.encode(key, plain), key);
+        assertNull(decodedPlain.getEncodedResponse());
+        assertEquals(result.getTokens().toString(), decodedPlain.getTokens().toString());
+    }
+
+    @Test
+    void testDictionaryEncodedEntriesShareNames() {
+        String sql = "SELECT * FROM \"Sales\".\"Orders\" o JOIN cat.sch.users u ON o.uid = u.id JOIN \"Users\" x ON x.id = u.id";
+        ExtractionResult expected = service.extract(sql);
+        TableNameDictionary dictionary = new TableNameDictionary(1000);
+        OffHeapExtractionCache cache = new OffHeapExtractionCache(1 << 20, 4096, 4, dictionary);
+
+        cache.put(sql, expected);
+        ExtractionResult first = cache.get(sql);
+        ExtractionResult second = cache.get(sql);
+
+        assertEquals(expected.getTableNames(), first.getTableNames());
+        assertEquals(expected.getTokens().toString(), first.getTokens().toString());
+        // the body only repeats the names; the service rebuilds it
+        assertNull(first.getEncodedResponse());
+        assertEquals(expected.getTableNames().size(), dictionary.size());
+        for (String name : first.getTableNames()) {
+            assertSame(dictionary.nameOf(dictionary.idOf(name)), second.getTableNames().stream()
+                .filter(name::equals).findFirst().orElseThrow());
+        }
+
+        byte[] key = sql.getBytes(StandardCharsets.UTF_8);
+        assertTrue(ExtractionCodec.encode(key, expected, dictionary).length < ExtractionCodec.encode(key, expected).length);
+    }
+
+    @Test
+    void testFullDictionaryStoresNamesInline() {
+        TableNameDictionary dictionary = new TableNameDictionary(1);
+        OffHeapExtractionCache cache = new OffHeapExtractionCache(1 << 20, 4096, 4, dictionary);
+        String sql = "SELECT * FROM a JOIN b ON a.id = b.id JOIN c ON c.id = b.id";
+        ExtractionResult expected = service.extract(sql);
+
+        cache.put(sql, expected);
+        ExtractionResult cached = cache.get(sql);
+
+        assertEquals(1, dictionary.size());
+        assertEquals(-1, dictionary.idOf("zzz"));
+        assertEquals(expected.getTableNames(), cached.getTableNames());
+        assertEquals(expected.getTokens().toString(), cached.getTokens().toString());
+    }
+
+    @Test
+    void testOldestSlabIsEvictedWhenRingWraps() {
+        // one segment, two 1KB slabs
+        OffHeapExtractionCache cache = new OffHeapExtractionCache(2048, 1024, 1);
+        int count = 200;
+        for (int i = 0; i < count; i++) {
+            String sql = "SELECT * FROM t" + i;
+            cache.put(sql, service.extract(sql));
+        }
+
+        assertNull(cache.get("SELECT * FROM t0"));
+        ExtractionResult newest = cache.get("SELECT * FROM t" + (count - 1));
+        assertNotNull(newest);
+        assertTrue(newest.getTableNames().contains("t" + (count - 1)));
+
+        CacheStats stats = cache.stats().get(0);
+        assertEquals(2048, stats.getOffHeapBytes());
+        assertTrue(stats.getEvictions() > 0);
+        assertEquals(count, stats.getEntries() + stats.getEvictions());
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void testServiceServesRepeatedStatementsFromCache() {
+        String sql = "SELECT a FROM t WHERE b IN (SELECT c FROM u)";
+        ExtractionResult first = service.extract(sql);
+        ExtractionResult second = service.extract(sql);
+
+        assertEquals(first.getTokens().toString(), second.getTokens().toString());
+        CacheStats stats = service.getCacheStats().get(0);
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEntries());
+        assertTrue(stats.getOffHeapBytes() > 0);
+    }
+}
@@ -0,0 +1,139 @@
+package com.sqlparser.cache;
+
+import com.sqlparser.service.SqlParserService;
+import com.sqlparser.visitor.ExtractionResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentExtractionCacheTest {
+
+    private static final SqlParserService SERVICE = new SqlParserService();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testEntriesSurviveReopen() {
+        Path file = dir.resolve("cache.bin");
+        String sql = "SELECT * FROM \"Sales\".orders o JOIN users u ON o.uid = u.id";
+        ExtractionResult expected = SERVICE.extract(sql);
+
+        PersistentExtractionCache cache = new PersistentExtractionCache(file, 1 << 16);
+        cache.put(sql, expected);
+        cache.put("SELECT 1 FROM other", SERVICE.extract("SELECT 1 FROM other"));
+        cache.close();
+
+        PersistentExtractionCache reopened = new PersistentExtractionCache(file, 1 << 16);
+        ExtractionResult cached = reopened.get(sql);
+        assertNotNull(cached);
+        assertEquals(expected.getTableNames(), cached.getTableNames());
+        assertEquals(expected.getTokens().toString(), cached.getTokens().toString());
+        assertEquals(2, reopened.stats().get(0).getEntries());
+        reopened.close();
+    }
+
+    @Test
+    void testCorruptRecordIsAMiss() throws Exception {
+        Path file = dir.resolve("cache.bin");
+        String sql = "SELECT a FROM t";
+        PersistentExtractionCache cache = new PersistentExtractionCache(file, 1 << 16);
+        cache.put(sql, SERVICE.extract(sql));
+        cache.put("SELECT b FROM u", SERVICE.extract("SELECT b FROM u"));
+        cache.close();
+
+        // flip a byte inside the first record's entry (file header 16 + record header 16)
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(34);
+            int b = raf.read();
+            raf.seek(34);
+            raf.write(b ^ 0xFF);
+        }
+
+        PersistentExtractionCache reopened = new PersistentExtractionCache(file, 1 << 16);
+        assertNull(reopened.get(sql));
+        assertEquals(1, reopened.getCorruptRecordCount());
+        assertNotNull(reopened.get("SELECT b FROM u"));
+        reopened.close();
+    }
+
+    @Test
+    void testTornLastRecordIsTruncatedOnOpen() throws Exception {
+        Path file = dir.resolve("cache.bin");
+        PersistentExtractionCache cache = new PersistentExtractionCache(file, 1 << 16);
+        cache.put("SELECT a FROM t", SERVICE.extract("SELECT a FROM t"));
+        cache.put("SELECT b FROM u", SERVICE.extract("SELECT b FROM u"));
+        long used = cache.stats().get(0).getUsedBytes();
+        cache.close();
+
+        // damage the tail of the last record, as if the process died mid-append
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(used - 1);
+            raf.write(0x7F);
+        }
+
+        PersistentExtractionCache reopened = new PersistentExtractionCache(file, 1 << 16);
+        assertNotNull(reopened.get("SELECT a FROM t"));
+        assertNull(reopened.get("SELECT b FROM u"));
+        assertEquals(1, reopened.stats().get(0).getEntries());
+        reopened.put("SELECT c FROM v", SERVICE.extract("SELECT c FROM v"));
+        reopened.close();
+
+        PersistentExtractionCache again = new PersistentExtractionCache(file, 1 << 16);
+        assertNotNull(again.get("SELECT c FROM v"));
+        again.close();
+    }
+
+    @Test
+    void testCompactionKeepsNewestRecordsAndReplacesFile() {
+        Path file = dir.resolve("cache.bin");
+        PersistentExtractionCache cache = new PersistentExtractionCache(file, 8192);
+        int count = 400;
+        for (int i = 0; i < count; i++) {
+            String sql = "SELECT * FROM t" + i;
+            cache.put(sql, SERVICE.extract(sql));
+        }
+        // rewriting an existing statement must not leave two live copies
+        cache.put("SELECT * FROM t" + (count - 1), SERVICE.extract("SELECT * FROM t" + (count - 1)));
+
+        assertTrue(cache.getCompactionCount() > 0);
+        assertNull(cache.get("SELECT * FROM t0"));
+        assertNotNull(cache.get("SELECT * FROM t" + (count - 1)));
+        CacheStats stats = cache.stats().get(0);
+        assertEquals(count, stats.getEntries() + stats.getEvictions());
+        assertTrue(stats.getUsedBytes() <= 8192);
+        cache.close();
+
+        assertFalse(Files.exists(dir.resolve("cache.bin.compact")));
+        PersistentExtractionCache reopened = new PersistentExtractionCache(file, 8192);
+        assertEquals(stats.getEntries(), reopened.stats().get(0).getEntries());
+        reopened.close();
+    }
+
+    @Test
+    void testTieredCachePromotesPersistentHits() {
+        Path file = dir.resolve("cache.bin");
+        String sql = "SELECT x FROM warm";
+        PersistentExtractionCache persistent = new PersistentExtractionCache(file, 1 << 16);
+        persistent.put(sql, SERVICE.extract(sql));
+
+        OffHeapExtractionCache offHeap = new OffHeapExtractionCache(1 << 16, 4096, 1);
+        TieredExtractionCache tiered = new TieredExtractionCache(List.of(offHeap, persistent));
+        assertNotNull(tiered.get(sql));
+        assertNotNull(tiered.get(sql));
+
+        List<CacheStats> stats = tiered.stats();
+        assertEquals("off-heap", stats.get(0).getTier());
+        assertEquals(1, stats.get(0).getHits());
+        assertEquals(1, stats.get(0).getMisses());
+        assertEquals("persistent", stats.get(1).getTier());
+        assertEquals(1, stats.get(1).getHits());
+        tiered.close();
+    }
+}
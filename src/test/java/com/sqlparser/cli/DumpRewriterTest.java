@@ -0,0 +1,126 @@
+package com.sqlparser.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.mapping.TableMappingRegistry;
+import com.sqlparser.service.RewritePlan;
+import com.sqlparser.service.SqlParserService;
+import com.sqlparser.visitor.ExtractorMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DumpRewriterTest {
+
+    private static final String DUMP = "-- exported views; do not edit\n"
+        + "SELECT * FROM old_t WHERE name = 'a;b';\n"
+        + "INSERT INTO other /* ; */ SELECT \"x;y\" FROM old_t;\n"
+        + "\n"
+        + "SELECT 'é' AS \"ü\", id FROM Old_T WHERE 1 = 1;\n"
+        + "SELECT FROM old_t;\n"
+        + "SELECT 1; SELECT FROM t;;\n"
+        + "  select * from untouched;\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testBatchesAreWrittenInOrderWithRejectsAndPositions() throws Exception {
+        Path input = Files.writeString(directory.resolve("views.sql"), DUMP.repeat(20) + "SELECT * FROM old_t");
+        Path mappingFile = Files.writeString(directory.resolve("migration.mapping"), "old_t\tnew_t\n");
+        Path output = directory.resolve("views.out.sql");
+        Path rejects = directory.resolve("rejects.jsonl");
+
+        SqlParserService service = new SqlParserService();
+        DumpRewriter rewriter = new DumpRewriter(service, new TableMappingRegistry().load("dump", mappingFile), false, 64);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        // Batches of one or two statements, at most two in flight
+        DumpRewriter.Totals totals = rewriter.rewrite(input, output, rejects, executor, 2);
+        executor.shutdown();
+        service.close();
+
+        String expected = DUMP.replace("FROM old_t WHERE", "FROM new_t WHERE")
+            .replace("\"x;y\" FROM old_t", "\"x;y\" FROM new_t")
+            .replace("Old_T", "new_t");
+        assertEquals(expected.repeat(20) + "SELECT * FROM new_t", Files.readString(output));
+        assertEquals(20 * 7 + 1, totals.statements);
+        assertEquals(20 * 3 + 1, totals.changed);
+        assertEquals(20 * 2, totals.rejected);
+        assertEquals(Files.size(input), totals.bytesRead);
+        assertEquals(Files.size(output), totals.bytesWritten);
+
+        List<String> lines = Files.readAllLines(rejects);
+        assertEquals(40, lines.size());
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(DUMP.substring(0, DUMP.indexOf("SELECT FROM old_t")).getBytes(StandardCharsets.UTF_8).length,
+            first.get("offset").asLong());
+        assertEquals(6, first.get("line").asInt());
+        assertEquals(1, first.get("column").asInt());
+        assertEquals(6, first.get("errorLine").asInt());
+        assertEquals(8, first.get("errorColumn").asInt());
+        assertEquals("SELECT FROM old_t", first.get("sql").asText());
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertEquals(7, second.get("line").asInt());
+        assertEquals(11, second.get("column").asInt());
+        assertEquals(7, second.get("errorLine").asInt());
+        assertEquals(18, second.get("errorColumn").asInt());
+        JsonNode last = objectMapper.readTree(lines.get(39));
+        assertEquals(19 * 8 + 7, last.get("line").asInt());
+    }
+
+    @Test
+    void testWorkerFailureIsReportedAsAnIoError() throws Exception {
+        Path input = Files.writeString(directory.resolve("deep.sql"), "SELECT * FROM old_t;\n");
+        SqlParserService service = new SqlParserService() {
+            @Override
+            public RewritePlan planRewrite(String sql, ExtractorMode mode) {
+                throw new StackOverflowError();
+            }
+        };
+        DumpRewriter rewriter = new DumpRewriter(service, TableMapping.of(Map.of("old_t", "new_t")), false, 64);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        IOException error = assertThrows(IOException.class, () -> rewriter.rewrite(input,
+            directory.resolve("deep.out.sql"), directory.resolve("deep.rejects.jsonl"), executor, 2));
+        assertInstanceOf(StackOverflowError.class, error.getCause());
+        executor.shutdown();
+        service.close();
+    }
+
+    @Test
+    void testCommandLine() throws Exception {
+        Path input = Files.writeString(directory.resolve("dump.sql"), "SELECT * FROM a.b;\nSELECT FROM x;\n");
+        Path mappingFile = Files.writeString(directory.resolve("m.mapping"), "a.b=c.d\n");
+        Path output = directory.resolve("dump.out.sql");
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int exit = DumpRewriter.run(new String[] {"--mapping", mappingFile.toString(), "--threads", "2",
+            input.toString(), output.toString()}, System.out, new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        assertEquals(0, exit, err.toString(StandardCharsets.UTF_8));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Rewrote 2 statements (1 changed, 1 rejected to "));
+        assertEquals("SELECT * FROM c.d;\nSELECT FROM x;\n", Files.readString(output));
+        assertEquals(1, Files.readAllLines(directory.resolve("dump.out.sql.rejects.jsonl")).size());
+
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        assertEquals(2, DumpRewriter.run(new String[] {input.toString(), output.toString()}, System.out, quiet));
+        assertEquals(2, DumpRewriter.run(new String[] {"--mapping", mappingFile.toString(), input.toString(),
+            input.toString()}, System.out, quiet));
+        assertEquals(1, DumpRewriter.run(new String[] {"--mapping", mappingFile.toString(),
+            directory.resolve("missing.sql").toString(), output.toString()}, System.out, quiet));
+    }
+}
@@ -0,0 +1,86 @@
+package com.sqlparser.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlparser.service.SqlParserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryLogAnalyzerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRangesSplitAtLinesAndMergeAcrossWorkers() throws Exception {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            log.append("{\"timestamp\":\"2024-03-01T00:00:").append(String.format("%02d", i % 60)).append("Z\",")
+                .append("\"user\":{\"name\":\"etl\"},")
+                .append("\"query\":\"SELECT * FROM sales.orders o JOIN crm.users u ON o.uid = u.id WHERE o.id = ")
+                .append(i).append("\"}\n");
+        }
+        log.append("{\"timestamp\":1709251200,\"query\":\"select count(*) from sales.orders\"}\r\n");
+        log.append("{\"query\":\"SELECT FROM\"}\n");
+        log.append("not json\n\n");
+        Path file = Files.writeString(directory.resolve("queries.log"), log.toString());
+
+        SqlParserService service = new SqlParserService();
+        // Ranges of 1 KB, so most records are read by a different task than their neighbours
+        QueryLogAnalyzer analyzer = new QueryLogAnalyzer(service, QueryLogAnalyzer.Format.JSONL, "query", "timestamp", 1024);
+        LogAnalysis analysis = analyzer.analyze(List.of(file), new ForkJoinPool(4));
+        service.close();
+
+        assertEquals(303, analysis.records);
+        assertEquals(301, analysis.statements);
+        assertEquals(1, analysis.failed);
+        assertEquals(1, analysis.malformed);
+        assertEquals(Files.size(file), analysis.bytes);
+        LogAnalysis.TableUsage orders = analysis.tables.get("sales.orders");
+        assertEquals(301, orders.count);
+        assertEquals(Instant.parse("2024-03-01T00:00:00Z").toEpochMilli(), orders.firstSeen);
+        assertEquals(Instant.parse("2024-03-01T00:00:59Z").toEpochMilli(), orders.lastSeen);
+        assertEquals(300, analysis.tables.get("crm.users").count);
+        assertEquals(2, analysis.shapes.size());
+    }
+
+    @Test
+    void testCommandWritesCompactSummary() throws Exception {
+        Files.writeString(directory.resolve("a.tsv"), "2024-03-01 10:00:00\tSELECT * FROM t WHERE id = 1\n"
+            + "2024-03-02 10:00:00\tSELECT * FROM t WHERE id = 2\n");
+        Files.writeString(directory.resolve("b.tsv"), "1709460000000\tINSERT INTO u SELECT * FROM t\n");
+        Path output = directory.resolve("out").resolve("usage.json");
+        Files.createDirectories(output.getParent());
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int exit = QueryLogAnalyzer.run(new String[] {"--format", "tsv", "--top", "1", "--threads", "2",
+            "--output", output.toString(), directory.resolve("a.tsv").toString(), directory.resolve("b.tsv").toString()},
+            System.out, new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        assertEquals(0, exit, err.toString(StandardCharsets.UTF_8));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("statements/s per core on 2 threads"));
+        JsonNode result = new ObjectMapper().readTree(output.toFile());
+        assertEquals(3, result.get("statements").asInt());
+        assertEquals("t", result.get("tables").get(0).get("name").asText());
+        assertEquals(3, result.get("tables").get(0).get("count").asInt());
+        assertEquals("2024-03-01T10:00:00Z", result.get("tables").get(0).get("firstSeen").asText());
+        assertEquals("2024-03-03T10:00:00Z", result.get("tables").get(0).get("lastSeen").asText());
+        assertEquals(1, result.get("topShapes").size());
+        assertEquals(2, result.get("topShapes").get(0).get("count").asInt());
+        assertEquals("SELECT * FROM t WHERE id = ?", result.get("topShapes").get(0).get("sql").asText());
+
+        assertEquals(2, QueryLogAnalyzer.run(new String[] {"--threads", "0", "x.log"}, System.out,
+            new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8)));
+    }
+}
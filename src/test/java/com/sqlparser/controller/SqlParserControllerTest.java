@@ -1,17 +1,46 @@
 package com.sqlparser.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlparser.cache.CacheStats;
+import com.sqlparser.index.AffectedQueries;
+import com.sqlparser.index.QueryIndexStats;
+import com.sqlparser.mapping.MappingFileStats;
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.mapping.TableMappingRegistry;
+import com.sqlparser.model.AffectedQueriesRequest;
 import com.sqlparser.model.ExtractTablesRequest;
+import com.sqlparser.model.FanOutRewriteRequest;
+import com.sqlparser.model.FingerprintRequest;
+import com.sqlparser.model.IndexQueriesRequest;
 import com.sqlparser.model.ReplaceTablesRequest;
+import com.sqlparser.model.RewriteSqlRequest;
+import com.sqlparser.model.RewriteSqlResponse;
+import com.sqlparser.model.SqlFingerprint;
+import com.sqlparser.model.SqlLiteral;
+import com.sqlparser.model.SqlValidation;
+import com.sqlparser.model.StoreQueriesRequest;
+import com.sqlparser.model.TableOccurrence;
+import com.sqlparser.model.ValidateSqlRequest;
+import com.sqlparser.verify.RewriteMismatch;
+import com.sqlparser.verify.VerificationStats;
+import com.sqlparser.visitor.ExtractionResult;
+import com.sqlparser.visitor.ExtractorMode;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import com.sqlparser.service.SqlParserService;
+import com.sqlparser.service.StoredQueryChange;
+import com.sqlparser.service.StoredQueryChanges;
+import com.sqlparser.service.StoredQueryStats;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -41,6 +70,47 @@ public class SqlParserControllerTest {
                 .andExpect(content().string("SQL Parser Server is running"));
     }
 
+    @Test
+    public void testMetricsEndpoint() throws Exception {
+        when(sqlParserService.getCacheStats())
+                .thenReturn(List.of(new CacheStats("off-heap", 3, 9, 1, 0, 1024, 300, 5_000)));
+        when(sqlParserService.getCoalescedRequestCount()).thenReturn(4L);
+        when(sqlParserService.getDictionarySize()).thenReturn(12);
+        when(sqlParserService.getVerificationStats()).thenReturn(new VerificationStats(0.01, 20, 1, 0, 19, 2));
+        when(sqlParserService.getMappingFileStats()).thenReturn(List.of(new MappingFileStats("archive",
+                "mappings/archive.mapping", 3, 2_000_000, 96_000_000, 1L, 2L, 850, 1, null)));
+        when(sqlParserService.getQueryIndexStats()).thenReturn(new QueryIndexStats(2_000_000, 50_000, 3_000_000));
+        when(sqlParserService.getStoredQueryStats()).thenReturn(new StoredQueryStats(5_000, 7_200, 1_200));
+
+        mockMvc.perform(get("/api/sql/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.caches[0].tier").value("off-heap"))
+                .andExpect(jsonPath("$.caches[0].offHeapBytes").value(1024))
+                .andExpect(jsonPath("$.caches[0].hitRate").value(0.9))
+                .andExpect(jsonPath("$.caches[0].averageLookupMicros").value(0.5))
+                .andExpect(jsonPath("$.coalescedRequests").value(4))
+                .andExpect(jsonPath("$.dictionaryNames").value(12))
+                .andExpect(jsonPath("$.verification.sampled").value(20))
+                .andExpect(jsonPath("$.verification.mismatches").value(2))
+                .andExpect(jsonPath("$.mappingFiles[0].version").value(3))
+                .andExpect(jsonPath("$.mappingFiles[0].entries").value(2_000_000))
+                .andExpect(jsonPath("$.mappingFiles[0].loadMillis").value(850))
+                .andExpect(jsonPath("$.queryIndex.queries").value(2_000_000))
+                .andExpect(jsonPath("$.queryIndex.postingBytes").value(3_000_000))
+                .andExpect(jsonPath("$.storedQueries.rerendered").value(1_200));
+    }
+
+    @Test
+    public void testRewriteMismatchDiagnostics() throws Exception {
+        when(sqlParserService.getRewriteMismatches()).thenReturn(List.of(new RewriteMismatch(1L,
+                "SELECT * FROM t", "SELECT * FROM (", Set.of("u"), null, "rewritten SQL does not parse: x")));
+
+        mockMvc.perform(get("/api/sql/diagnostics/rewrite-mismatches"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].rewrittenSql").value("SELECT * FROM ("))
+                .andExpect(jsonPath("$[0].reason").value("rewritten SQL does not parse: x"));
+    }
+
     @Test
     public void testExtractTables() throws Exception {
         ExtractTablesRequest request = new ExtractTablesRequest("SELECT * FROM users JOIN orders ON users.id = orders.user_id");
@@ -48,7 +118,7 @@ public class SqlParserControllerTest {
         Set<String> mockResult = new HashSet<>();
         mockResult.add("users");
         mockResult.add("orders");
-        when(sqlParserService.extractTableNames(anyString())).thenReturn(mockResult);
+        when(sqlParserService.extract(anyString(), any())).thenReturn(new ExtractionResult(mockResult, List.of()));
 
         mockMvc.perform(post("/api/sql/extract-tables")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -58,6 +128,351 @@ public class SqlParserControllerTest {
                 .andExpect(jsonPath("$.tableNames").isArray());
     }
 
+    @Test
+    public void testExtractTablesWritesEncodedResponse() throws Exception {
+        // spacing Jackson would not produce, so the cached bytes must have been written verbatim
+        String body = "{\"tableNames\": [\"users\"], \"success\": true, \"message\": \"Success\"}";
+        when(sqlParserService.extract(anyString(), any())).thenReturn(
+                new ExtractionResult(Set.of("users"), List.of(), body.getBytes(StandardCharsets.UTF_8)));
+
+        mockMvc.perform(post("/api/sql/extract-tables")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ExtractTablesRequest("SELECT * FROM users"))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(body));
+    }
+
+    @Test
+    public void testExtractTablesWithExtractorMode() throws Exception {
+        ExtractTablesRequest request = new ExtractTablesRequest("SELECT * FROM users");
+        request.setExtractor("parse-tree");
+        when(sqlParserService.extract("SELECT * FROM users", ExtractorMode.PARSE_TREE))
+                .thenReturn(new ExtractionResult(Set.of("users"), List.of()));
+
+        mockMvc.perform(post("/api/sql/extract-tables")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tableNames[0]").value("users"));
+
+        request.setExtractor("regex");
+        mockMvc.perform(post("/api/sql/extract-tables")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    public void testExtractTablesWithPositions() throws Exception {
+        String sql = "SELECT * FROM users";
+        ExtractTablesRequest request = new ExtractTablesRequest(sql);
+        request.setPositions(true);
+        ExtractionResult result = new ExtractionResult(Set.of("users"), List.of(), "{}".getBytes(StandardCharsets.UTF_8));
+        when(sqlParserService.extract(sql, null)).thenReturn(result);
+        when(sqlParserService.locateTables(sql, result))
+                .thenReturn(List.of(new TableOccurrence("users", "users", 14, 19, false, "source")));
+
+        mockMvc.perform(post("/api/sql/extract-tables")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tableNames[0]").value("users"))
+                .andExpect(jsonPath("$.occurrences[0].start").value(14))
+                .andExpect(jsonPath("$.occurrences[0].end").value(19))
+                .andExpect(jsonPath("$.occurrences[0].quoted").value(false))
+                .andExpect(jsonPath("$.occurrences[0].kind").value("source"));
+
+        request.setPositions(false);
+        mockMvc.perform(post("/api/sql/extract-tables")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{}"));
+    }
+
+    @Test
+    public void testRewriteWithInlineOrRegisteredMapping() throws Exception {
+        String sql = "SELECT * FROM users";
+        when(sqlParserService.rewrite(eq(sql), isNull(), any(TableMapping.class), eq(false))).thenReturn(new RewriteSqlResponse(
+                Set.of("users"), List.of(new TableOccurrence("users", "users", 14, 19, false, "source")),
+                "SELECT * FROM crm.users", true, "Success"));
+        when(sqlParserService.getMapping("crm")).thenReturn(TableMapping.of(Map.of("users", "crm.users")));
+
+        RewriteSqlRequest request = new RewriteSqlRequest(sql, Map.of("users", "crm.users"));
+        mockMvc.perform(post("/api/sql/rewrite")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sql").value("SELECT * FROM crm.users"))
+                .andExpect(jsonPath("$.tableNames[0]").value("users"))
+                .andExpect(jsonPath("$.occurrences[0].start").value(14));
+
+        request = new RewriteSqlRequest(sql, null);
+        request.setMapping("crm");
+        mockMvc.perform(post("/api/sql/rewrite")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sql").value("SELECT * FROM crm.users"));
+
+        request.setMapping("missing");
+        mockMvc.perform(post("/api/sql/rewrite")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown table mapping: missing"));
+    }
+
+    @Test
+    public void testRegisterMapping() throws Exception {
+        TableMappingRegistry registry = new TableMappingRegistry();
+        registry.register("crm", Map.of("users", "crm.users_v1"));
+        when(sqlParserService.registerMapping("crm", Map.of("users", "crm.users")))
+                .thenReturn(registry.register("crm", Map.of("users", "crm.users")));
+
+        mockMvc.perform(put("/api/sql/mappings/crm")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"users\": \"crm.users\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(2))
+                .andExpect(jsonPath("$.tables").value(1));
+        verify(sqlParserService).registerMapping("crm", Map.of("users", "crm.users"));
+
+        mockMvc.perform(put("/api/sql/mappings/crm")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(put("/api/sql/mappings/crm")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"users\": \"crm.users\", \"a.b\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Replacement for a.b cannot be empty"));
+        mockMvc.perform(put("/api/sql/mappings/crm")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"a.b\": \" \"}"))
+                .andExpect(status().isBadRequest());
+        verify(sqlParserService, times(1)).registerMapping(eq("crm"), any());
+    }
+
+    @Test
+    public void testReplaceTablesWithRegisteredMapping() throws Exception {
+        TableMapping mapping = new TableMappingRegistry().register("crm", Map.of("users", "crm.users"));
+        when(sqlParserService.getMapping("crm@1")).thenReturn(mapping);
+        when(sqlParserService.replaceTableNames("SELECT * FROM users", mapping, false)).thenReturn("SELECT * FROM crm.users");
+
+        ReplaceTablesRequest request = new ReplaceTablesRequest("SELECT * FROM users", null);
+        request.setMapping("crm@1");
+        mockMvc.perform(post("/api/sql/replace-tables")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sql").value("SELECT * FROM crm.users"));
+
+        request.setMapping("crm@7");
+        mockMvc.perform(post("/api/sql/replace-tables")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown table mapping: crm@7"));
+    }
+
+    @Test
+    public void testFanOutRewriteStreamsEveryShard() throws Exception {
+        String sql = "SELECT * FROM orders o JOIN users u ON o.user_id = u.id";
+        when(sqlParserService.getMaxFanOutVariants()).thenReturn(4);
+        when(sqlParserService.planRewrite(sql, null)).thenReturn(new SqlParserService().planRewrite(sql, null));
+
+        FanOutRewriteRequest request = new FanOutRewriteRequest();
+        request.setSql(sql);
+        request.setTableMappingTemplate(Map.of("orders", "shard_{shard}.orders"));
+        request.setShardCount(3);
+        MvcResult result = mockMvc.perform(post("/api/sql/rewrite/fan-out")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.tableNames.length()").value(2))
+                .andExpect(jsonPath("$.variants.length()").value(3))
+                .andExpect(jsonPath("$.variants[2].shard").value("2"))
+                .andExpect(jsonPath("$.variants[2].sql").value("SELECT * FROM shard_2.orders o JOIN users u ON o.user_id = u.id"));
+
+        request.setShardCount(5);
+        result = mockMvc.perform(post("/api/sql/rewrite/fan-out")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Too many variants: 5 (max 4)"));
+
+        request.setShardCount(2_000_000_000);
+        result = mockMvc.perform(post("/api/sql/rewrite/fan-out")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Too many variants: 2000000000 (max 4)"));
+
+        FanOutRewriteRequest inline = new FanOutRewriteRequest();
+        inline.setSql(sql);
+        inline.setTableMappings(Collections.nCopies(5, Map.of("orders", "archive.orders")));
+        result = mockMvc.perform(post("/api/sql/rewrite/fan-out")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(inline)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Too many variants: 5 (max 4)"));
+    }
+
+    @Test
+    public void testFingerprintBatch() throws Exception {
+        List<String> statements = List.of("SELECT * FROM users WHERE id = 7", "SELECT FROM");
+        when(sqlParserService.fingerprint(statements)).thenReturn(List.of(
+                new SqlFingerprint("00112233445566778899aabbccddeeff", "0011223344556677",
+                        "SELECT * FROM users WHERE id = ?", List.of(new SqlLiteral("integer", "7")), Set.of("users"), null),
+                new SqlFingerprint(null, null, null, null, null, "line 1:8: mismatched input 'FROM'")));
+
+        mockMvc.perform(post("/api/sql/fingerprint")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new FingerprintRequest(statements))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].parameterizedSql").value("SELECT * FROM users WHERE id = ?"))
+                .andExpect(jsonPath("$.results[0].literals[0].value").value("7"))
+                .andExpect(jsonPath("$.results[0].fingerprint64").value("0011223344556677"))
+                .andExpect(jsonPath("$.results[1].error").value("line 1:8: mismatched input 'FROM'"));
+
+        mockMvc.perform(post("/api/sql/fingerprint")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testFingerprintWithoutParseTreeIsNotImplemented() throws Exception {
+        when(sqlParserService.fingerprint(anyList())).thenThrow(
+                new UnsupportedOperationException("Fingerprinting needs the Trino parse tree, which is not accessible"));
+
+        mockMvc.perform(post("/api/sql/fingerprint")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sql\": \"SELECT 1\"}"))
+                .andExpect(status().isNotImplemented())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Fingerprinting needs the Trino parse tree, which is not accessible"));
+    }
+
+    @Test
+    public void testQueryIndexUpdatesAndAffectedQueries() throws Exception {
+        when(sqlParserService.indexQueries(any())).thenReturn(Map.of("q2", "line 1:8: mismatched input 'FROM'"));
+        when(sqlParserService.removeIndexedQueries(List.of("old"))).thenReturn(1);
+        when(sqlParserService.getQueryIndexStats()).thenReturn(new QueryIndexStats(1, 2, 64));
+        Map<String, String> queries = new HashMap<>();
+        queries.put("q1", "SELECT * FROM sales.orders");
+        queries.put("q2", "SELECT FROM");
+
+        mockMvc.perform(post("/api/sql/query-index")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new IndexQueriesRequest(queries, List.of("old")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.indexed").value(1))
+                .andExpect(jsonPath("$.removed").value(1))
+                .andExpect(jsonPath("$.failed.q2").value("line 1:8: mismatched input 'FROM'"))
+                .andExpect(jsonPath("$.size").value(1));
+
+        when(sqlParserService.getMaxQueryIds()).thenReturn(100);
+        when(sqlParserService.findAffectedQueries(any(TableMapping.class), eq(100)))
+                .thenReturn(new AffectedQueries(List.of("sales.orders"), 1, List.of("q1")));
+        mockMvc.perform(post("/api/sql/query-index/affected")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new AffectedQueriesRequest(null, Map.of("sales.orders", "lake.orders"), null))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tables[0]").value("sales.orders"))
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.queryIds[0]").value("q1"));
+
+        mockMvc.perform(post("/api/sql/query-index/affected")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"mapping\": \"unknown\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown table mapping: unknown"));
+    }
+
+    @Test
+    public void testStoredQueriesAndChangeFeed() throws Exception {
+        TableMapping physical = new TableMappingRegistry().register("physical", Map.of("sales.orders", "dw.orders"));
+        when(sqlParserService.getMapping("physical")).thenReturn(physical);
+        when(sqlParserService.storeQueries(eq("physical"), any())).thenReturn(Map.of());
+        when(sqlParserService.removeStoredQueries(List.of("old"))).thenReturn(1);
+        when(sqlParserService.getStoredQueryStats()).thenReturn(new StoredQueryStats(1, 3, 0));
+
+        mockMvc.perform(post("/api/sql/stored-queries")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new StoreQueriesRequest("physical",
+                        Map.of("q1", "SELECT * FROM sales.orders"), List.of("old")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stored").value(1))
+                .andExpect(jsonPath("$.removed").value(1))
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.lastSequence").value(3));
+
+        mockMvc.perform(post("/api/sql/stored-queries")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new StoreQueriesRequest("physical@1",
+                        Map.of("q1", "SELECT * FROM sales.orders"), null))))
+                .andExpect(status().isBadRequest());
+
+        when(sqlParserService.getMaxStoredQueryChanges()).thenReturn(100);
+        when(sqlParserService.getStoredQueryChanges(1, 100)).thenReturn(new StoredQueryChanges(List.of(
+                new StoredQueryChange(2, "old", "physical@1", null, true),
+                new StoredQueryChange(3, "q1", "physical@1", "SELECT * FROM dw.orders", false)), 3, false));
+        mockMvc.perform(get("/api/sql/stored-queries/changes").param("since", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].removed").value(true))
+                .andExpect(jsonPath("$.changes[1].id").value("q1"))
+                .andExpect(jsonPath("$.changes[1].sql").value("SELECT * FROM dw.orders"))
+                .andExpect(jsonPath("$.lastSequence").value(3))
+                .andExpect(jsonPath("$.reset").value(false));
+
+        mockMvc.perform(get("/api/sql/stored-queries/changes").param("since", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testValidateBatch() throws Exception {
+        List<String> statements = List.of("SELECT 1", "SELEC 1");
+        when(sqlParserService.validate(statements, false)).thenReturn(List.of(
+                new SqlValidation(true, null, null, null),
+                new SqlValidation(false, "mismatched input 'SELEC'", 1, 1)));
+
+        mockMvc.perform(post("/api/sql/validate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ValidateSqlRequest(statements, false))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.invalidCount").value(1))
+                .andExpect(jsonPath("$.results[0].valid").value(true))
+                .andExpect(jsonPath("$.results[1].valid").value(false))
+                .andExpect(jsonPath("$.results[1].line").value(1))
+                .andExpect(jsonPath("$.results[1].column").value(1));
+    }
+
+    @Test
+    public void testValidateWithoutSQL() throws Exception {
+        mockMvc.perform(post("/api/sql/validate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
     @Test
     public void testReplaceTables() throws Exception {
         Map<String, String> tableMapping = new HashMap<>();
@@ -69,7 +484,7 @@ public class SqlParserControllerTest {
                 tableMapping
         );
 
-        when(sqlParserService.replaceTableNames(anyString(), any(Map.class)))
+        when(sqlParserService.replaceTableNames(anyString(), any(Map.class), anyBoolean()))
                 .thenReturn("SELECT * FROM user_table JOIN order_table ON user_table.id = order_table.user_id");
 
         mockMvc.perform(post("/api/sql/replace-tables")
@@ -84,7 +499,7 @@ public class SqlParserControllerTest {
     public void testExtractTablesWithEmptySQL() throws Exception {
         ExtractTablesRequest request = new ExtractTablesRequest("");
 
-        when(sqlParserService.extractTableNames(anyString())).thenThrow(new RuntimeException("Empty SQL"));
+        when(sqlParserService.extract(anyString(), any())).thenThrow(new RuntimeException("Empty SQL"));
 
         mockMvc.perform(post("/api/sql/extract-tables")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,144 @@
+package com.sqlparser.index;
+
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.service.SqlParserService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryIndexTest {
+
+    @Test
+    void testBitmapMatchesSortedSetAcrossContainerConversions() {
+        Random random = new Random(42);
+        List<PostingBitmap> bitmaps = new ArrayList<>();
+        TreeSet<Integer> union = new TreeSet<>();
+        for (int b = 0; b < 3; b++) {
+            PostingBitmap bitmap = new PostingBitmap();
+            TreeSet<Integer> expected = new TreeSet<>();
+            // Dense runs (bitmap containers) in the first key, sparse values spread over others
+            int dense = b == 0 ? 20_000 : 3_000;
+            for (int i = 0; i < dense; i++) {
+                int value = random.nextInt(65_536);
+                assertEquals(expected.add(value), bitmap.add(value));
+            }
+            for (int i = 0; i < 2_000; i++) {
+                int value = random.nextInt(1 << 22);
+                assertEquals(expected.add(value), bitmap.add(value));
+            }
+            if (b == 0) {
+                // Brings the dense container back under the array limit
+                for (int value = 0; value < 65_536; value++) {
+                    if (value % 16 != 0) {
+                        assertEquals(expected.remove(value), bitmap.remove(value));
+                    }
+                }
+            }
+            assertEquals(expected.size(), bitmap.cardinality());
+            assertEquals(expected, values(bitmap));
+            assertTrue(bitmap.contains(expected.first()));
+            bitmaps.add(bitmap);
+            union.addAll(expected);
+        }
+
+        PostingBitmap merged = PostingBitmap.or(bitmaps);
+        assertEquals(union.size(), merged.cardinality());
+        assertEquals(union, values(merged));
+    }
+
+    @Test
+    void testAffectedQueriesFollowUpdatesAndMappingRules() {
+        QueryIndex index = new QueryIndex();
+        assertFalse(index.put("q1", List.of("sales.orders", "crm.users")));
+        index.put("q2", List.of("Sales.Orders"));
+        index.put("q3", List.of("raw.events"));
+        index.put("q4", List.of("crm.users"));
+
+        AffectedQueries orders = index.affected(TableMapping.of(Map.of("SALES.orders", "lake.orders", "x.y", "z")), 10);
+        assertEquals(List.of("sales.orders"), orders.getTables());
+        assertEquals(2, orders.getCount());
+        assertEquals(List.of("q1", "q2"), orders.getQueryIds());
+
+        AffectedQueries rules = index.affected(TableMapping.of(Map.of("raw.*", "lake_raw.*", "crm.users", "u")), 1);
+        assertEquals(List.of("crm.users", "raw.events"), rules.getTables());
+        assertEquals(3, rules.getCount());
+        assertEquals(List.of("q1"), rules.getQueryIds());
+
+        // Re-indexing moves q1 off its old tables; its ordinal is reused after a removal
+        assertTrue(index.put("q1", List.of("raw.events")));
+        assertTrue(index.remove("q2"));
+        assertFalse(index.remove("q2"));
+        index.put("q5", List.of("sales.orders"));
+        AffectedQueries after = index.affected(TableMapping.of(Map.of("sales.orders", "lake.orders")), 10);
+        assertEquals(List.of("q5"), after.getQueryIds());
+        assertEquals(4, index.stats().getQueries());
+        assertEquals(3, index.stats().getTables());
+    }
+
+    @Test
+    void testQuotedKeysMatchTheSameTablesWhicheverWayTheyAreResolved() {
+        Map<String, String> quoted = new LinkedHashMap<>();
+        quoted.put("\"Orders\"", "lake.orders");
+        quoted.put("\"Sales\".\"Users\"", "lake.users");
+        quoted.put("crm.\"events\"", "lake.events");
+        TableMapping mapping = TableMapping.of(quoted);
+
+        // Fewer keys than indexed tables: each key's table is looked up
+        QueryIndex large = new QueryIndex();
+        large.put("q1", List.of("orders"));
+        large.put("q2", List.of("sales.users", "other.a"));
+        large.put("q3", List.of("crm.events", "other.b"));
+        large.put("q4", List.of("other.c"));
+        // More keys than indexed tables: each table is tested against the mapping
+        QueryIndex small = new QueryIndex();
+        small.put("q1", List.of("orders"));
+        small.put("q2", List.of("sales.users"));
+
+        List<String> tables = List.of("crm.events", "orders", "sales.users");
+        assertEquals(tables, large.affected(mapping, 10).getTables());
+        assertEquals(List.of("q1", "q2", "q3"), large.affected(mapping, 10).getQueryIds());
+        assertEquals(tables.subList(1, 3), small.affected(mapping, 10).getTables());
+        for (String table : tables) {
+            assertNotNull(mapping.replacementFor(table, table), table);
+        }
+        assertEquals("sales.users", TableMapping.tableKey("\"Sales\".\"Users\""));
+        assertEquals("a.b.c", TableMapping.tableKey("a.\"B\".c"));
+    }
+
+    @Test
+    void testServiceIndexesParsedQueries() {
+        SqlParserService service = new SqlParserService();
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put("report", "SELECT * FROM sales.orders o JOIN crm.users u ON o.uid = u.id");
+        queries.put("load", "INSERT INTO sales.orders SELECT * FROM staging.orders");
+        queries.put("broken", "SELECT FROM");
+        service.indexQueries(Map.of("broken", "SELECT * FROM sales.orders"));
+
+        Map<String, String> failed = service.indexQueries(queries);
+
+        assertEquals(List.of("broken"), new ArrayList<>(failed.keySet()));
+        AffectedQueries affected = service.findAffectedQueries(TableMapping.of(Map.of("sales.orders", "lake.orders")), 10);
+        assertEquals(List.of("report", "load"), affected.getQueryIds());
+        assertEquals(1, service.removeIndexedQueries(List.of("load", "missing")));
+        assertEquals(1, service.getQueryIndexStats().getQueries());
+        service.close();
+    }
+
+    private static TreeSet<Integer> values(PostingBitmap bitmap) {
+        TreeSet<Integer> values = new TreeSet<>();
+        List<Integer> order = new ArrayList<>();
+        bitmap.forEach(value -> {
+            order.add(value);
+            return values.add(value);
+        });
+        assertEquals(new ArrayList<>(values), order);
+        return values;
+    }
+}
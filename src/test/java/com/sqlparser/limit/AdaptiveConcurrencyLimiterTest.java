@@ -0,0 +1,107 @@
+package com.sqlparser.limit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASE_RTT = 1_000_000;
+
+    @Test
+    void testRejectsBeyondLimitAndAcceptsAfterRelease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(BASE_RTT);
+        assertTrue(limiter.tryAcquire());
+
+        LimiterStats stats = limiter.stats();
+        assertEquals(3, stats.getAccepted());
+        assertEquals(1, stats.getRejected());
+        assertEquals(2, stats.getInFlight());
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyStaysFlat() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 200);
+        for (int i = 0; i < 500; i++) {
+            limiter.onSample(BASE_RTT, limiter.getLimit());
+        }
+        assertEquals(200, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhenMostlyIdle() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 200);
+        for (int i = 0; i < 500; i++) {
+            limiter.onSample(BASE_RTT, 2);
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitConvergesNearCapacityWhenQueueingInflatesLatency() {
+        // A server that runs 32 requests in parallel; beyond that latency grows with the queue
+        int capacity = 32;
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 500);
+        for (int i = 0; i < 2_000; i++) {
+            int inFlight = limiter.getLimit();
+            long rtt = BASE_RTT * Math.max(1, inFlight) / capacity;
+            limiter.onSample(Math.max(BASE_RTT, rtt), inFlight);
+        }
+        int limit = limiter.getLimit();
+        assertTrue(limit >= capacity / 2 && limit <= capacity * 3, "limit " + limit);
+    }
+
+    @Test
+    void testFilterAnswersWithRetryAfterWhenSaturated() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, 503);
+        assertTrue(limiter.tryAcquire());
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain rejectedChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/sql/extract-tables"), rejected, rejectedChain);
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("\"success\":false"));
+        assertNull(rejectedChain.getRequest());
+
+        MockHttpServletResponse health = new MockHttpServletResponse();
+        MockFilterChain healthChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/sql/health"), health, healthChain);
+        assertNotNull(healthChain.getRequest());
+
+        limiter.release(BASE_RTT);
+        MockFilterChain acceptedChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/sql/extract-tables"), new MockHttpServletResponse(), acceptedChain);
+        assertNotNull(acceptedChain.getRequest());
+        assertEquals(0, limiter.stats().getInFlight());
+    }
+
+    @Test
+    void testFilterHoldsPermitUntilAsyncResponseCompletes() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, 503);
+        MockHttpServletRequest streamed = new MockHttpServletRequest("POST", "/api/sql/rewrite/fan-out");
+        streamed.setAsyncSupported(true);
+        filter.doFilter(streamed, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        // The body is still rendering: the permit is held and the next request is shed
+        assertEquals(1, limiter.stats().getInFlight());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/sql/extract-tables"), rejected, new MockFilterChain());
+        assertEquals(503, rejected.getStatus());
+
+        streamed.getAsyncContext().complete();
+        assertEquals(0, limiter.stats().getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+}
@@ -0,0 +1,156 @@
+package com.sqlparser.mapping;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappingFileWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadsBothSeparatorsAndSkipsComments() throws Exception {
+        Path file = write("archive.mapping", "# generated\r\n"
+            + "sales.orders\tarchive.orders\r\n"
+            + "\n"
+            + "  \"Mixed.Case\" = archive.\"Zoë\"  \n"
+            + "café\tarchive.café \n"
+            + "sales.orders=archive.orders_v2");
+
+        PackedStringMap mapping = MappingFileWatcher.read(file, 1 << 20);
+
+        assertEquals(Map.of("sales.orders", "archive.orders_v2", "\"Mixed.Case\"", "archive.\"Zoë\"",
+            "café", "archive.café"), mapping);
+    }
+
+    @Test
+    void testLinesSpanningWindowsAreReassembled() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            text.append("schema_").append(i).append(".table_").append(i).append('\t').append("target_").append(i).append('\n');
+        }
+        Path file = write("big.mapping", text.toString());
+
+        PackedStringMap mapping = MappingFileWatcher.read(file, 100);
+
+        assertEquals(500, mapping.size());
+        assertEquals("target_0", mapping.get("schema_0.table_0"));
+        assertEquals("target_499", mapping.get("schema_499.table_499"));
+        assertEquals(mapping, MappingFileWatcher.read(file, 7));
+    }
+
+    @Test
+    void testChangedFileIsRegisteredAsNextVersion() throws Exception {
+        write("archive.mapping", "orders\tarchive.orders\n");
+        write("ignored.txt", "orders\tignored\n");
+        TableMappingRegistry registry = new TableMappingRegistry();
+        MappingFileWatcher watcher = new MappingFileWatcher(directory, Duration.ZERO, registry);
+
+        TableMapping first = registry.get("archive");
+        assertEquals(1, first.getVersion());
+        assertEquals("archive.orders", first.replacementFor("orders", "orders"));
+        assertNull(registry.get("ignored"));
+
+        watcher.poll();
+        assertSame(first, registry.get("archive"), "unchanged file is not reloaded");
+
+        Path file = write("archive.mapping", "orders\tarchive.orders_v2\nusers\tarchive.users\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        watcher.poll();
+
+        TableMapping second = registry.get("archive");
+        assertEquals(2, second.getVersion());
+        assertEquals("archive.orders_v2", second.replacementFor("orders", "orders"));
+        // A request that resolved the first version still sees it whole
+        assertEquals("archive.orders", first.replacementFor("orders", "orders"));
+        assertSame(first, registry.get("archive@1"));
+
+        List<MappingFileStats> stats = watcher.stats();
+        assertEquals(1, stats.size());
+        assertEquals("archive", stats.get(0).getName());
+        assertEquals(2, stats.get(0).getVersion());
+        assertEquals(2, stats.get(0).getEntries());
+        assertEquals(Files.size(file), stats.get(0).getBytes());
+        assertEquals(0, stats.get(0).getFailures());
+        watcher.close();
+    }
+
+    @Test
+    void testMalformedFileKeepsRegisteredVersion() throws Exception {
+        write("archive.mapping", "orders\tarchive.orders\n");
+        TableMappingRegistry registry = new TableMappingRegistry();
+        MappingFileWatcher watcher = new MappingFileWatcher(directory, Duration.ZERO, registry);
+
+        Path file = write("archive.mapping", "orders\tarchive.orders_v2\nno separator here\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        watcher.poll();
+
+        assertEquals(1, registry.get("archive").getVersion());
+        assertEquals("archive.orders", registry.get("archive").replacementFor("orders", "orders"));
+        MappingFileStats stats = watcher.stats().get(0);
+        assertEquals(1, stats.getVersion());
+        assertEquals(1, stats.getFailures());
+        assertTrue(stats.getLastError().contains("Line 2"), stats.getLastError());
+        watcher.close();
+    }
+
+    @Test
+    void testEmptyFileIsAnEmptyMapping() throws Exception {
+        write("archive.mapping", "orders\tarchive.orders\n");
+        TableMappingRegistry registry = new TableMappingRegistry();
+        MappingFileWatcher watcher = new MappingFileWatcher(directory, Duration.ZERO, registry);
+
+        // A sync job truncating the file before rewriting it
+        Path file = write("archive.mapping", "");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        watcher.poll();
+
+        assertEquals(2, registry.get("archive").getVersion());
+        assertTrue(registry.get("archive").isEmpty());
+        assertEquals(0, watcher.stats().get(0).getFailures());
+        assertTrue(registry.load("empty", file).isEmpty());
+        watcher.close();
+    }
+
+    @Test
+    void testUnexpectedFailureIsCountedAndPollingContinues() throws Exception {
+        TableMappingRegistry registry = new TableMappingRegistry();
+        boolean[] fail = {true};
+        registry.addListener(mapping -> {
+            if (fail[0] && mapping.getName().equals("archive")) {
+                throw new IllegalStateException("listener failed");
+            }
+        });
+        write("archive.mapping", "orders\tarchive.orders\n");
+        write("users.mapping", "users\tarchive.users\n");
+        MappingFileWatcher watcher = new MappingFileWatcher(directory, Duration.ZERO, registry);
+
+        // The failure stays with its file; the files after it still load
+        assertEquals(1, registry.get("users").getVersion());
+        MappingFileStats archive = watcher.stats().get(0);
+        assertEquals(1, archive.getFailures());
+        assertTrue(archive.getLastError().contains("listener failed"), archive.getLastError());
+
+        fail[0] = false;
+        Path file = write("archive.mapping", "orders\tarchive.orders_v2\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        watcher.poll();
+        assertEquals("archive.orders_v2", registry.get("archive").replacementFor("orders", "orders"));
+        assertEquals(1, watcher.stats().get(0).getFailures());
+        watcher.close();
+    }
+
+    private Path write(String name, String text) throws Exception {
+        return Files.write(directory.resolve(name), text.getBytes(StandardCharsets.UTF_8));
+    }
+}
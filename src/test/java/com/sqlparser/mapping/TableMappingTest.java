@@ -0,0 +1,153 @@
+package com.sqlparser.mapping;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableMappingTest {
+
+    @Test
+    void testLookupOrderMatchesReplaceTables() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("\"Orders\"", "quoted_key");
+        map.put("Users", "exact_unquoted");
+        map.put("sch.items", "by_table_name");
+        map.put("EVENTS", "any_case");
+        TableMapping mapping = TableMapping.of(map);
+
+        assertEquals("quoted_key", mapping.replacementFor("\"Orders\"", "orders"));
+        assertEquals("exact_unquoted", mapping.replacementFor("\"Users\"", "users"));
+        assertEquals("by_table_name", mapping.replacementFor("SCH.ITEMS", "sch.items"));
+        assertEquals("any_case", mapping.replacementFor("\"Events\"", "events"));
+        assertNull(mapping.replacementFor("other", "other"));
+    }
+
+    @Test
+    void testFirstKeyWinsAmongCaseVariants() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("ORDERS", "first");
+        map.put("Orders", "second");
+        TableMapping mapping = TableMapping.of(map);
+
+        assertEquals("second", mapping.replacementFor("Orders", "orders"));
+        assertEquals("first", mapping.replacementFor("orders", "orders"));
+    }
+
+    @Test
+    void testRegisteredMappingKeepsLookupRules() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("\"Orders\"", "quoted_key");
+        map.put("sch.items", "by_table_name");
+        map.put("ÉVÉNEMENTS", "first");
+        map.put("Événements", "second");
+        TableMapping mapping = new TableMappingRegistry().register("m", map);
+
+        assertEquals("quoted_key", mapping.replacementFor("\"Orders\"", "orders"));
+        assertEquals("by_table_name", mapping.replacementFor("SCH.ITEMS", "sch.items"));
+        assertEquals("second", mapping.replacementFor("Événements", "événements"));
+        assertEquals("first", mapping.replacementFor("\"événements\"", "événements"));
+        assertNull(mapping.replacementFor("other", "other"));
+        assertEquals(map, mapping.asMap());
+    }
+
+    @Test
+    void testRulePrecedenceIsExactThenLongestPrefixThenWildcard() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("raw.*", "lake_raw.*");
+        map.put("raw.eu.*", "lake_eu.*");
+        map.put("raw.eu.orders", "orders_eu");
+        map.put("*.events", "archive.*");
+        map.put("cat.*.*", "*.*");
+        TableMapping mapping = new TableMappingRegistry().register("rules", map);
+
+        assertEquals("orders_eu", mapping.replacementFor("RAW.EU.ORDERS", "raw.eu.orders"));
+        assertEquals("lake_eu.Items", mapping.replacementFor("raw.eu.Items", "raw.eu.items"));
+        assertEquals("lake_raw.\"Clicks\"", mapping.replacementFor("Raw.\"Clicks\"", "raw.clicks"));
+        assertEquals("lake_raw.events", mapping.replacementFor("raw.events", "raw.events"));
+        assertEquals("archive.web", mapping.replacementFor("web.events", "web.events"));
+        assertEquals("s.t", mapping.replacementFor("cat.s.t", "cat.s.t"));
+        // A prefix needs at least one part after it; wildcard parts match exactly one part
+        assertNull(mapping.replacementFor("raw", "raw"));
+        assertNull(mapping.replacementFor("events", "events"));
+        assertNull(mapping.replacementFor("a.b.events", "a.b.events"));
+        assertEquals(mapping.replacementFor("web.events", "web.events"),
+            TableMapping.of(map).replacementFor("web.events", "web.events"));
+    }
+
+    @Test
+    void testRegistryReplacesMappings() {
+        TableMappingRegistry registry = new TableMappingRegistry();
+        registry.register("archive", Map.of("orders", "archive.orders"));
+        registry.register("archive", Map.of("orders", "cold.orders"));
+
+        assertEquals(1, registry.size());
+        assertEquals("cold.orders", registry.get("archive").replacementFor("orders", "orders"));
+        assertNull(registry.get("missing"));
+    }
+
+    @Test
+    void testVersionsAreRetainedAndMemosInvalidated() {
+        TableMappingRegistry registry = new TableMappingRegistry(2, 1_000);
+        TableMapping first = registry.register("archive", Map.of("orders", "v1.orders"));
+        first.memoizeRewrite("SELECT * FROM orders", "SELECT * FROM v1.orders");
+        assertEquals("SELECT * FROM v1.orders", registry.get("archive@1").memoizedRewrite("SELECT * FROM orders"));
+
+        TableMapping second = registry.register("archive", Map.of("orders", "v2.orders"));
+        assertEquals(2, second.getVersion());
+        assertSame(second, registry.get("archive"));
+        assertSame(first, registry.get("archive@1"));
+        assertEquals(0, first.getMemoizedRewriteCount());
+
+        registry.register("archive", Map.of("orders", "v3.orders"));
+        assertNull(registry.get("archive@1"));
+        assertSame(second, registry.get("archive@2"));
+        assertNull(registry.get("archive@x"));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("a@b", Map.of("t", "u")));
+    }
+
+    @Test
+    void testMemoIsBoundedByCharactersAndEvictsUnusedEntries() {
+        TableMapping mapping = new TableMappingRegistry(1, 6).register("m", Map.of("t", "u"));
+        mapping.memoizeRewrite("a", "A");
+        mapping.memoizeRewrite("b", "B");
+        mapping.memoizeRewrite("c", "C");
+        assertEquals(6, mapping.getMemoizedRewriteChars());
+
+        // a was hit, so it gets a second chance and b, the oldest unused entry, makes room
+        assertEquals("A", mapping.memoizedRewrite("a"));
+        mapping.memoizeRewrite("d", "D");
+        assertEquals(3, mapping.getMemoizedRewriteCount());
+        assertEquals("A", mapping.memoizedRewrite("a"));
+        assertNull(mapping.memoizedRewrite("b"));
+        assertEquals("D", mapping.memoizedRewrite("d"));
+        assertEquals(1, mapping.getMemoizedRewriteEvictions());
+
+        // One long statement takes the room of several short ones; output over the bound is not kept
+        mapping.memoizeRewrite("long", "LO");
+        assertEquals("LO", mapping.memoizedRewrite("long"));
+        assertTrue(mapping.getMemoizedRewriteChars() <= 6);
+        mapping.memoizeRewrite("longer", "L");
+        assertNull(mapping.memoizedRewrite("longer"));
+
+        // Replacing an entry keeps the count of characters exact
+        mapping.memoizeRewrite("long", "L2");
+        assertEquals("L2", mapping.memoizedRewrite("long"));
+        assertTrue(mapping.getMemoizedRewriteChars() <= 6);
+        assertNull(TableMapping.of(Map.of("t", "u")).memoizedRewrite("a"));
+    }
+
+    @Test
+    void testMemoConfirmsTextOnHashCollision() {
+        // "Aa" and "BB" have the same String hash
+        TableMapping mapping = new TableMappingRegistry(1, 100).register("m", Map.of("t", "u"));
+        mapping.memoizeRewrite("Aa", "x");
+        assertNull(mapping.memoizedRewrite("BB"));
+        mapping.memoizeRewrite("BB", "y");
+        assertEquals("y", mapping.memoizedRewrite("BB"));
+        assertNull(mapping.memoizedRewrite("Aa"));
+        assertEquals(3, mapping.getMemoizedRewriteChars());
+    }
+}
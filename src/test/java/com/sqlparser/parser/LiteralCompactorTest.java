@@ -0,0 +1,154 @@
+package com.sqlparser.parser;
+
+import com.sqlparser.model.SqlValidation;
+import com.sqlparser.service.SqlParserService;
+import io.trino.sql.parser.ParsingException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for literal-run compaction and the offset mapping back to the original SQL.
+ */
+class LiteralCompactorTest {
+
+    private static String numbers(int count) {
+        return IntStream.range(0, count).mapToObj(Integer::toString).collect(Collectors.joining(", "));
+    }
+
+    @Test
+    void testShortListIsLeftAlone() {
+        LiteralCompactor compactor = new LiteralCompactor(4);
+        String sql = "SELECT * FROM users WHERE id IN (1, 2, 3)";
+
+        LiteralCompactor.Result result = compactor.compact(sql);
+
+        assertFalse(result.isCompacted());
+        assertEquals(sql, result.getSql());
+        assertEquals(10, result.toOriginalOffset(10));
+    }
+
+    @Test
+    void testInListCollapsesToFirstLiteral() {
+        LiteralCompactor compactor = new LiteralCompactor(4);
+        String sql = "SELECT * FROM users WHERE id IN (" + numbers(10) + ") AND users.active = true";
+
+        LiteralCompactor.Result result = compactor.compact(sql);
+
+        assertTrue(result.isCompacted());
+        assertEquals("SELECT * FROM users WHERE id IN (0) AND users.active = true", result.getSql());
+        int compactedPos = result.getSql().indexOf("users.active");
+        assertEquals(sql.indexOf("users.active"), result.toOriginalOffset(compactedPos));
+    }
+
+    @Test
+    void testValuesRowsCollapseToFirstRow() {
+        LiteralCompactor compactor = new LiteralCompactor(3);
+        String sql = "INSERT INTO t VALUES (1, 'a', NULL), (2, 'b''s', TRUE), (-3, 'c', 1.5e3), (4, 'd', FALSE)";
+
+        LiteralCompactor.Result result = compactor.compact(sql);
+
+        assertEquals("INSERT INTO t VALUES (1, 'a', NULL)", result.getSql());
+    }
+
+    @Test
+    void testRunStopsAtNonLiteral() {
+        LiteralCompactor compactor = new LiteralCompactor(3);
+        String sql = "SELECT * FROM t WHERE x IN (1, 2, 3, 4, DATE '2020-01-01', 5, y)";
+
+        LiteralCompactor.Result result = compactor.compact(sql);
+
+        assertEquals("SELECT * FROM t WHERE x IN (1, DATE '2020-01-01', 5, y)", result.getSql());
+    }
+
+    @Test
+    void testLiteralsInsideStringsAndCommentsAreIgnored() {
+        LiteralCompactor compactor = new LiteralCompactor(3);
+        String sql = "SELECT '1, 2, 3, 4' FROM t /* 1, 2, 3, 4 */ WHERE c1 = 1 -- 5, 6, 7, 8";
+
+        assertFalse(compactor.compact(sql).isCompacted());
+    }
+
+    @Test
+    void testDigitIdentifiersAreNotLiterals() {
+        LiteralCompactor compactor = new LiteralCompactor(3);
+        String sql = "SELECT * FROM t WHERE x IN (1abc, 2, 3, 4)";
+
+        // 1abc is an identifier, so the run starts at 2 and keeps it
+        assertEquals("SELECT * FROM t WHERE x IN (1abc, 2)", compactor.compact(sql).getSql());
+    }
+
+    @Test
+    void testMultipleRunsMapOffsetsBackward() {
+        LiteralCompactor compactor = new LiteralCompactor(4);
+        String sql = "SELECT a.x FROM a WHERE a.id IN (" + numbers(20) + ") AND b.id IN (" + numbers(30) + ") AND c.v = 1";
+
+        LiteralCompactor.Result result = compactor.compact(sql);
+
+        assertEquals(2, result.getRemovedRegionCount());
+        assertEquals("SELECT a.x FROM a WHERE a.id IN (0) AND b.id IN (0) AND c.v = 1", result.getSql());
+        for (String marker : new String[] {"a.x", "b.id", "c.v"}) {
+            assertEquals(sql.indexOf(marker), result.toOriginalOffset(result.getSql().indexOf(marker)), marker);
+        }
+    }
+
+    @Test
+    void testServiceReplacesUsingOriginalOffsets() throws Exception {
+        SqlParserService service = new SqlParserService();
+        String inList = numbers(500);
+        String sql = "SELECT users.name FROM users WHERE users.id IN (" + inList + ")\n"
+            + "  AND users.org IN (SELECT orgs.id FROM orgs WHERE orgs.code IN (" + inList + "))";
+
+        Set<String> tables = service.extractTableNames(sql);
+        assertEquals(Set.of("users", "orgs"), tables);
+
+        String result = service.replaceTableNames(sql, Map.of("users", "user_accounts", "orgs", "organizations"));
+        String expected = "SELECT user_accounts.name FROM user_accounts WHERE user_accounts.id IN (" + inList + ")\n"
+            + "  AND user_accounts.org IN (SELECT organizations.id FROM organizations WHERE organizations.code IN (" + inList + "))";
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void testItemsTrinoWouldRejectEndTheRun() throws Exception {
+        LiteralCompactor compactor = new LiteralCompactor(4);
+        SqlParserService service = new SqlParserService();
+        for (String invalid : new String[] {"0xZZ", "1__2", "1_", "0b12", "1_0e5", "-0x", "1.5e"}) {
+            String sql = "SELECT * FROM t WHERE x IN (" + numbers(50) + ", " + invalid + ", " + numbers(50) + ")";
+
+            // The removed text never reaches Trino's lexer, so the invalid item must be kept
+            assertTrue(compactor.compact(sql).getSql().contains(", " + invalid + ", "), invalid);
+            assertFalse(service.validateSql(sql), invalid);
+            assertThrows(ParsingException.class, () -> service.extractTableNames(sql), invalid);
+        }
+        for (String valid : new String[] {"0x_1F", "0O17", "0b1_01", "1_000.5", "1.e5", ".5E-3", "1_000"}) {
+            String sql = "SELECT * FROM t WHERE x IN (0, " + numbers(50).replace(", 7,", ", " + valid + ",") + ")";
+
+            assertEquals("SELECT * FROM t WHERE x IN (0)", compactor.compact(sql).getSql(), valid);
+            assertEquals(Set.of("t"), service.extractTableNames(sql), valid);
+        }
+        service.close();
+    }
+
+    @Test
+    void testParseErrorReportsOriginalPosition() {
+        SqlParserService service = new SqlParserService();
+        StringBuilder sql = new StringBuilder("SELECT * FROM t WHERE x IN (\n");
+        for (int line = 2; line < 100; line++) {
+            sql.append("    ").append(line).append(",\n");
+        }
+        sql.append("    100) AND AND y = 1");
+
+        ParsingException error = assertThrows(ParsingException.class, () -> service.extractTableNames(sql.toString()));
+        SqlValidation validation = service.validate(List.of(sql.toString()), false).get(0);
+        assertEquals(100, error.getLineNumber());
+        assertEquals(validation.getLine(), error.getLineNumber());
+        assertEquals(validation.getColumn(), error.getColumnNumber());
+        service.close();
+    }
+}
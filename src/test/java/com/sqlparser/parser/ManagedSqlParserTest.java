@@ -0,0 +1,185 @@
+package com.sqlparser.parser;
+
+import io.trino.sql.parser.ParsingException;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Statement;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManagedSqlParserTest {
+
+    @Test
+    void testStatsReflectLearnedLookaheadAndRebuildClearsIt() {
+        ManagedSqlParser parser = new ManagedSqlParser();
+        parser.createStatement("SELECT a, abs(b + 1) FROM t JOIN u ON t.id = u.id WHERE c IN (1, 2)");
+
+        DfaCacheStats before = parser.stats();
+        assertEquals(1, before.getGeneration());
+        assertTrue(before.getParserDfaStates() > 0);
+        assertTrue(before.getLexerDfaStates() > 0);
+
+        parser.rebuild();
+        DfaCacheStats after = parser.stats();
+        assertEquals(2, after.getGeneration());
+        assertEquals(0, after.getParserDfaStates());
+        assertEquals(0, after.getPredictionContexts());
+        assertEquals(1, after.getRebuilds());
+
+        // parsing keeps working and re-learns on the new generation
+        Statement statement = parser.createStatement("SELECT a FROM t");
+        assertNotNull(statement);
+        assertTrue(parser.stats().getParserDfaStates() > 0);
+    }
+
+    @Test
+    void testStateThresholdTriggersRebuild() {
+        ManagedSqlParser parser = new ManagedSqlParser(1, null);
+        for (int i = 0; i < ManagedSqlParser.CHECK_INTERVAL; i++) {
+            parser.createStatement("SELECT c" + i + " FROM t WHERE x > " + i);
+        }
+        assertEquals(1, parser.stats().getRebuilds());
+    }
+
+    @Test
+    void testAgePolicyTriggersRebuild() {
+        ManagedSqlParser parser = new ManagedSqlParser(0, Duration.ofMillis(1));
+        for (int i = 0; i < ManagedSqlParser.CHECK_INTERVAL; i++) {
+            parser.createStatement("SELECT 1");
+        }
+        assertEquals(1, parser.stats().getRebuilds());
+    }
+
+    @Test
+    void testRebuildDuringConcurrentParsing() throws Exception {
+        ManagedSqlParser parser = new ManagedSqlParser();
+        String sql = "SELECT o.id FROM orders o WHERE o.total > (SELECT avg(total) FROM orders) AND o.k IN (1, 2, 3)";
+        String expected = parser.createStatement(sql).toString();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            results.add(pool.submit(() -> parser.createStatement(sql).toString()));
+            if (i % 50 == 0) {
+                parser.rebuild();
+            }
+        }
+        for (Future<String> result : results) {
+            assertEquals(expected, result.get());
+        }
+        pool.shutdown();
+        assertEquals(8, parser.stats().getRebuilds());
+    }
+
+    @Test
+    void testReusedRecognizersMatchTrinoTrees() {
+        ManagedSqlParser parser = new ManagedSqlParser(0, null, true);
+        assertTrue(parser.isReusingRecognizers());
+        SqlParser trino = new SqlParser();
+        List<String> statements = List.of(
+            "SELECT 1",
+            "SELECT a, b FROM t WHERE c = ? AND d = ?",
+            "WITH x AS (SELECT * FROM s.t) SELECT count(*) FROM x JOIN y USING (id) GROUP BY 1",
+            "INSERT INTO c.s.t (a, b) VALUES (1, 'x'), (2, 'y')",
+            "CREATE TABLE IF NOT EXISTS t (id bigint, name varchar) WITH (format = 'ORC')",
+            "SELECT \"select\", \"Mixed\" FROM \"quoted\".\"table\"",
+            "SELECT * FROM t WHERE (a, b) IN (SELECT a, b FROM u) AND ((c)) > 1");
+        for (String sql : statements) {
+            assertEquals(trino.createStatement(sql), parser.createStatement(sql), sql);
+            // and again, on the now-reused recognizers
+            assertEquals(trino.createStatement(sql), parser.createStatement(sql), sql);
+        }
+    }
+
+    @Test
+    void testReusedRecognizersReportTrinoErrors() {
+        ManagedSqlParser parser = new ManagedSqlParser(0, null, true);
+        SqlParser trino = new SqlParser();
+        List<String> invalid = List.of(
+            "SELEC 1",
+            "SELECT * FROM",
+            "SELECT 'unterminated FROM t",
+            "SELECT \"\" FROM t",
+            "SELECT `a` FROM t",
+            "SELECT 1a FROM t",
+            "SELECT a FROM t WHERE");
+        // every one of these fails SLL first, so the LL retry on the reused parser is covered too
+        for (String sql : invalid) {
+            ParsingException expected = assertThrows(ParsingException.class, () -> trino.createStatement(sql));
+            ParsingException actual = assertThrows(ParsingException.class, () -> parser.createStatement(sql));
+            assertEquals(expected.getMessage(), actual.getMessage(), sql);
+            assertEquals(expected.getLineNumber(), actual.getLineNumber(), sql);
+            assertEquals(expected.getColumnNumber(), actual.getColumnNumber(), sql);
+            // a failed parse leaves the thread's recognizers usable
+            assertEquals(trino.createStatement("SELECT x FROM y"), parser.createStatement("SELECT x FROM y"));
+        }
+    }
+
+    @Test
+    void testValidationAgreesWithTrino() {
+        SqlParser trino = new SqlParser();
+        List<String> statements = List.of(
+            "SELECT a FROM t WHERE b IN (SELECT c FROM u)",
+            "SELECT\n  a,\n  b\nFROM t\nWHERE c = 1",
+            "SELECT\n  a,\n  b\nFROM t\nWHERE c = = 1",
+            "SELEC 1",
+            "SELECT * FROM",
+            "SELECT 'unterminated FROM t",
+            "SELECT `a` FROM t",
+            "SELECT 1a FROM t",
+            "INSERT INTO t VALUES (1, 2",
+            "");
+        for (ManagedSqlParser parser : List.of(new ManagedSqlParser(0, null, true), new ManagedSqlParser(0, null, false))) {
+            for (String sql : statements) {
+                ParsingException expected = null;
+                try {
+                    trino.createStatement(sql);
+                } catch (ParsingException e) {
+                    expected = e;
+                }
+                assertEquals(expected == null, parser.isValid(sql), sql);
+                if (expected == null) {
+                    assertNotNull(parser.parseTree(sql), sql);
+                    continue;
+                }
+                ParsingException actual = assertThrows(ParsingException.class, () -> parser.parseTree(sql));
+                assertEquals(expected.getMessage(), actual.getMessage(), sql);
+                assertEquals(expected.getLineNumber(), actual.getLineNumber(), sql);
+                assertEquals(expected.getColumnNumber(), actual.getColumnNumber(), sql);
+            }
+        }
+    }
+
+    @Test
+    void testReusedRecognizersAcrossThreadsAndRebuilds() throws Exception {
+        ManagedSqlParser parser = new ManagedSqlParser(0, null, true);
+        Statement expected = new SqlParser().createStatement("SELECT a FROM t WHERE b > 1");
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Statement>> results = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            results.add(pool.submit(() -> parser.createStatement("SELECT a FROM t WHERE b > 1")));
+            if (i % 100 == 0) {
+                parser.rebuild();
+            }
+        }
+        for (Future<Statement> result : results) {
+            assertEquals(expected, result.get());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    void testPerCallParsingWhenReuseDisabled() {
+        ManagedSqlParser parser = new ManagedSqlParser(0, null, false);
+        assertFalse(parser.isReusingRecognizers());
+        assertEquals(new SqlParser().createStatement("SELECT 1"), parser.createStatement("SELECT 1"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.sqlparser.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sqlparser.model.ExtractTablesResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Spliced bodies must be byte-for-byte what the ObjectMapper writes for the same response.
+ */
+class ExtractResponseEncoderTest {
+
+    private static final List<Set<String>> NAME_SETS = List.of(
+        Set.of(),
+        Set.of("users"),
+        new LinkedHashSet<>(List.of("sales.orders", "crm.customers", "users")),
+        new LinkedHashSet<>(List.of("chaintable.token.eth", "we\"ird\\name", "ü.表", "tab\tname")));
+
+    @Test
+    void testSplicedBodiesMatchObjectMapper() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        ExtractResponseEncoder encoder = new ExtractResponseEncoder(mapper, 2);
+        for (int round = 0; round < 2; round++) {
+            for (Set<String> names : NAME_SETS) {
+                assertArrayEquals(mapper.writeValueAsBytes(new ExtractTablesResponse(names, true, "Success")),
+                    encoder.encode(names), names.toString());
+            }
+        }
+    }
+
+    @Test
+    void testDifferentlyConfiguredMapperIsUsedDirectly() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ExtractResponseEncoder encoder = new ExtractResponseEncoder(mapper, 100);
+        for (Set<String> names : NAME_SETS) {
+            assertArrayEquals(mapper.writeValueAsBytes(new ExtractTablesResponse(names, true, "Success")),
+                encoder.encode(names), names.toString());
+        }
+    }
+}
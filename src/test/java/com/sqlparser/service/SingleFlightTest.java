@@ -0,0 +1,101 @@
+package com.sqlparser.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    @Test
+    void testConcurrentCallersShareOneComputation() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(flight, "SELECT 1", () -> {
+            executions.incrementAndGet();
+            await(release);
+            return "parsed";
+        }, release);
+
+        for (Future<String> result : results) {
+            assertEquals("parsed", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(CALLERS - 1, flight.getCoalescedCount());
+    }
+
+    @Test
+    void testConcurrentCallersShareTheFailure() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(flight, "SELEC", () -> {
+            executions.incrementAndGet();
+            await(release);
+            throw new IllegalArgumentException("mismatched input 'SELEC'");
+        }, release);
+
+        for (Future<String> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            assertEquals("mismatched input 'SELEC'", e.getCause().getMessage());
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testSequentialCallsAreNotCoalesced() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+
+        flight.execute("k", executions::incrementAndGet);
+        flight.execute("k", executions::incrementAndGet);
+
+        assertEquals(2, executions.get());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+
+    private static List<Future<String>> runConcurrently(SingleFlight<String, String> flight, String key,
+                                                        Supplier<String> computation,
+                                                        CountDownLatch release) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(pool.submit(() -> {
+                started.countDown();
+                return flight.execute(key, computation);
+            }));
+        }
+        started.await();
+        // give the followers time to attach to the leader's future before it completes
+        while (flight.getCoalescedCount() < CALLERS - 1) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        pool.shutdown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,7 +6,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.sqlparser.mapping.TableMapping;
+import com.sqlparser.model.RewriteSqlResponse;
+import com.sqlparser.model.SqlValidation;
+import com.sqlparser.model.TableOccurrence;
+import com.sqlparser.verify.RewriteMismatch;
+
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -216,4 +225,175 @@ public class SqlParserServiceTest {
         assertEquals(1, tableNames.size());
         assertTrue(tableNames.contains("orders"));
     }
+
+    @Test
+    public void testValidateReportsFirstErrorPosition() {
+        List<String> statements = Arrays.asList(
+                "SELECT * FROM users",
+                "SELECT *\nFROM users\nWHERE id = = 1",
+                "   ",
+                null);
+        List<SqlValidation> results = sqlParserService.validate(statements, false);
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isValid());
+        assertNull(results.get(0).getError());
+        assertFalse(results.get(1).isValid());
+        assertEquals(Integer.valueOf(3), results.get(1).getLine());
+        assertEquals(Integer.valueOf(12), results.get(1).getColumn());
+        assertTrue(results.get(1).getError().startsWith("mismatched input '='"));
+        assertFalse(results.get(2).isValid());
+        assertFalse(results.get(3).isValid());
+
+        List<SqlValidation> verdicts = sqlParserService.validate(statements, true);
+        assertTrue(verdicts.get(0).isValid());
+        assertFalse(verdicts.get(1).isValid());
+        assertNull(verdicts.get(1).getError());
+        assertNull(verdicts.get(1).getLine());
+    }
+
+    @Test
+    public void testLocateTablesSplicesLikeReplace() throws Exception {
+        String sql = "UPDATE sch.orders SET v = 1\nWHERE id IN (SELECT oid FROM \"Items\" WHERE items.x = 1)";
+        List<TableOccurrence> occurrences = sqlParserService.locateTables(sql, sqlParserService.extract(sql));
+
+        assertEquals(3, occurrences.size());
+        assertEquals("sch.orders", occurrences.get(0).getText());
+        assertEquals("dml-target", occurrences.get(0).getKind());
+        assertFalse(occurrences.get(0).isQuoted());
+        assertEquals("\"Items\"", occurrences.get(1).getText());
+        assertEquals("items", occurrences.get(1).getTable());
+        assertEquals("source", occurrences.get(1).getKind());
+        assertTrue(occurrences.get(1).isQuoted());
+        assertEquals("qualifier", occurrences.get(2).getKind());
+
+        Map<String, String> mapping = new HashMap<>();
+        mapping.put("sch.orders", "archive.orders");
+        mapping.put("items", "stock");
+        StringBuilder spliced = new StringBuilder(sql);
+        for (int i = occurrences.size() - 1; i >= 0; i--) {
+            TableOccurrence occurrence = occurrences.get(i);
+            spliced.replace(occurrence.getStart(), occurrence.getEnd(), mapping.get(occurrence.getTable()));
+        }
+        assertEquals(sqlParserService.replaceTableNames(sql, mapping), spliced.toString());
+    }
+
+    @Test
+    public void testLocateTablesLeavesOutSpansReplaceSkips() throws Exception {
+        Map<String, String> mapping = new HashMap<>();
+        mapping.put("sch.t", "archive.t");
+        mapping.put("s.t", "archive.st");
+        mapping.put("orders", "archive.orders");
+        for (String sql : Arrays.asList("TABLE sch.t", "SELECT * FROM \"S\".\"T\" JOIN orders ON true")) {
+            List<TableOccurrence> occurrences = sqlParserService.locateTables(sql, sqlParserService.extract(sql));
+            StringBuilder spliced = new StringBuilder(sql);
+            for (int i = occurrences.size() - 1; i >= 0; i--) {
+                TableOccurrence occurrence = occurrences.get(i);
+                assertTrue(sql, TableMapping.unquote(occurrence.getText()).equalsIgnoreCase(occurrence.getTable()));
+                spliced.replace(occurrence.getStart(), occurrence.getEnd(), mapping.get(occurrence.getTable()));
+            }
+            assertEquals(sql, sqlParserService.replaceTableNames(sql, mapping), spliced.toString());
+            assertEquals(sql, occurrences.size(),
+                    sqlParserService.rewrite(sql, null, TableMapping.of(mapping)).getOccurrences().size());
+        }
+    }
+
+    @Test
+    public void testRewriteMatchesExtractThenReplace() throws Exception {
+        Map<String, String> mapping = new HashMap<>();
+        mapping.put("orders", "archive.orders");
+        mapping.put("Users", "crm.users");
+        sqlParserService.registerMapping("archive", mapping);
+        List<String> statements = Arrays.asList(
+                "SELECT u.id, orders.total FROM users u JOIN orders ON u.id = orders.uid",
+                "DELETE FROM \"Users\" WHERE id IN (SELECT uid FROM orders)",
+                "INSERT INTO orders SELECT * FROM users");
+
+        for (String sql : statements) {
+            RewriteSqlResponse rewrite = sqlParserService.rewrite(sql, null, sqlParserService.getMapping("archive"));
+            assertEquals(sql, sqlParserService.replaceTableNames(sql, mapping), rewrite.getSql());
+            assertEquals(sql, sqlParserService.extractTableNames(sql), rewrite.getTableNames());
+            assertEquals(sql, sqlParserService.locateTables(sql, sqlParserService.extract(sql)).size(),
+                    rewrite.getOccurrences().size());
+        }
+        assertEquals("DELETE FROM crm.users WHERE id IN (SELECT uid FROM archive.orders)",
+                sqlParserService.rewrite(statements.get(1), null, TableMapping.of(mapping)).getSql());
+    }
+
+    @Test
+    public void testStrictVerificationRejectsBrokenRewrite() throws Exception {
+        String sql = "SELECT * FROM orders o JOIN users u ON o.uid = u.id";
+        Map<String, String> mapping = new HashMap<>();
+        mapping.put("orders", "archive.orders");
+        assertEquals("SELECT * FROM archive.orders o JOIN users u ON o.uid = u.id",
+                sqlParserService.replaceTableNames(sql, mapping, true));
+
+        long mismatches = sqlParserService.getVerificationStats().getMismatches();
+        mapping.put("users", "(users");
+        try {
+            sqlParserService.replaceTableNames(sql, mapping, true);
+            fail("expected the rewrite to fail verification");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Rewritten SQL failed verification"));
+        }
+        assertEquals(mismatches + 1, sqlParserService.getVerificationStats().getMismatches());
+        List<RewriteMismatch> recent = sqlParserService.getRewriteMismatches();
+        assertEquals("SELECT * FROM archive.orders o JOIN (users u ON o.uid = u.id", recent.get(recent.size() - 1).getRewrittenSql());
+    }
+
+    @Test
+    public void testRegisteredMappingMemoizesRewrites() {
+        String sql = "SELECT o.id FROM orders o WHERE o.uid IN (SELECT id FROM users)";
+        TableMapping first = sqlParserService.registerMapping("memo", Map.of("orders", "v1.orders"));
+        assertEquals("SELECT o.id FROM v1.orders o WHERE o.uid IN (SELECT id FROM users)",
+                sqlParserService.replaceTableNames(sql, first, false));
+        assertEquals(1, first.getMemoizedRewriteCount());
+        assertEquals(sqlParserService.replaceTableNames(sql, first, false),
+                sqlParserService.rewrite(sql, null, sqlParserService.getMapping("memo@" + first.getVersion())).getSql());
+
+        TableMapping second = sqlParserService.registerMapping("memo", Map.of("orders", "v2.orders"));
+        assertEquals(0, first.getMemoizedRewriteCount());
+        assertSame(second, sqlParserService.getMapping("memo"));
+        assertEquals("SELECT o.id FROM v2.orders o WHERE o.uid IN (SELECT id FROM users)",
+                sqlParserService.replaceTableNames(sql, second, false));
+    }
+
+    @Test
+    public void testPrefixRulesRewriteTablesAndQualifiers() throws Exception {
+        Map<String, String> mapping = new LinkedHashMap<>();
+        mapping.put("raw.*", "lake_raw.*");
+        mapping.put("tenant_42.*", "shard_7.tenant_42.*");
+        mapping.put("raw.audit", "secure.audit");
+        String sql = "SELECT raw.events.id, o.total FROM raw.events "
+                + "JOIN tenant_42.orders o ON raw.events.id = o.event_id JOIN raw.audit a ON a.id = o.id";
+
+        assertEquals("SELECT lake_raw.events.id, o.total FROM lake_raw.events "
+                + "JOIN shard_7.tenant_42.orders o ON lake_raw.events.id = o.event_id JOIN secure.audit a ON a.id = o.id",
+                sqlParserService.replaceTableNames(sql, mapping, true));
+    }
+
+    @Test
+    public void testFanOutMatchesReplaceTablesPerMapping() throws Exception {
+        String sql = "WITH recent AS (SELECT * FROM sales.orders WHERE ts > now() - INTERVAL '1' DAY) "
+                + "SELECT sales.orders.id, u.name FROM recent JOIN \"Users\" u ON recent.user_id = u.id "
+                + "JOIN sales.orders ON sales.orders.id = recent.id";
+        RewritePlan plan = sqlParserService.planRewrite(sql, null);
+
+        for (int shard = 0; shard < 4; shard++) {
+            Map<String, String> mapping = new LinkedHashMap<>();
+            mapping.put("sales.orders", "shard_" + shard + ".orders");
+            if (shard % 2 == 0) {
+                mapping.put("users", "crm_" + shard + ".users");
+            }
+            assertEquals(sqlParserService.replaceTableNames(sql, mapping), plan.rewrite(TableMapping.of(mapping)));
+        }
+
+        Map<String, String> template = Map.of("sales.orders", "shard_{shard}.orders", "users", "crm.users_{shard}");
+        RewritePlan.Template sharded = plan.template(template);
+        for (String shard : List.of("00", "07", "511")) {
+            Map<String, String> mapping = new HashMap<>();
+            template.forEach((table, replacement) -> mapping.put(table, replacement.replace("{shard}", shard)));
+            assertEquals(sqlParserService.replaceTableNames(sql, mapping), sharded.render(shard));
+        }
+    }
 }
@@ -0,0 +1,129 @@
+package com.sqlparser.service;
+
+import com.sqlparser.config.SqlParserProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoredQueryRegistryTest {
+
+    private final SqlParserService service = new SqlParserService(properties());
+
+    @AfterEach
+    void close() {
+        service.close();
+    }
+
+    @Test
+    void testOnlyQueriesOnChangedTablesAreRewrittenAgain() throws Exception {
+        Map<String, String> physical = new LinkedHashMap<>();
+        physical.put("sales.orders", "dw.orders_v1");
+        physical.put("crm.users", "dw.users_v1");
+        physical.put("raw.*", "lake_raw.*");
+        service.registerMapping("physical", physical);
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put("orders", "SELECT o.id, u.name FROM sales.orders o JOIN crm.users u ON o.uid = u.id");
+        queries.put("users", "SELECT count(*) FROM CRM.Users");
+        queries.put("events", "SELECT * FROM raw.events WHERE day = '2026-10-19'");
+        queries.put("other", "SELECT * FROM finance.ledger");
+        assertEquals(Map.of(), service.storeQueries("physical", queries));
+        StoredQueryChanges initial = service.getStoredQueryChanges(0, 100);
+        assertEquals(List.of("orders", "users", "events", "other"), ids(initial));
+        assertEquals("SELECT count(*) FROM dw.users_v1", initial.getChanges().get(1).getSql());
+        assertEquals("physical@1", initial.getChanges().get(1).getMapping());
+
+        // One entry changes: only the two queries on crm.users are rewritten, by the plan they kept
+        physical.put("crm.users", "dw.users_v2");
+        service.registerMapping("physical", physical);
+        StoredQueryChanges changed = service.getStoredQueryChanges(initial.getLastSequence(), 100);
+        assertEquals(List.of("orders", "users"), ids(changed));
+        assertEquals(service.replaceTableNames(queries.get("orders"), physical), changed.getChanges().get(0).getSql());
+        assertEquals("physical@2", changed.getChanges().get(1).getMapping());
+        assertEquals(2, service.getStoredQueryStats().getRerendered());
+
+        // A rule change reaches the tables it covers; other mappings and no-op versions feed nothing
+        physical.put("raw.*", "lake.raw.*");
+        physical.put("finance.ledger", "finance.ledger");
+        service.registerMapping("physical", physical);
+        service.registerMapping("archive", Map.of("sales.orders", "archive.orders"));
+        service.registerMapping("physical", physical);
+        StoredQueryChanges rules = service.getStoredQueryChanges(changed.getLastSequence(), 100);
+        assertEquals(List.of("events"), ids(rules));
+        assertEquals("SELECT * FROM lake.raw.events WHERE day = '2026-10-19'", rules.getChanges().get(0).getSql());
+        assertEquals(4, service.getStoredQueryStats().getRerendered());
+
+        // The feed keeps the latest output of each query, so a read from 0 is the current state
+        StoredQueryChanges all = service.getStoredQueryChanges(0, 100);
+        assertEquals(List.of("other", "orders", "users", "events"), ids(all));
+        assertFalse(all.isReset());
+        assertEquals(rules.getLastSequence(), all.getLastSequence());
+    }
+
+    @Test
+    void testChangedQuotedKeyRewritesQueriesOnItsTable() throws Exception {
+        service.registerMapping("physical", Map.of("\"Sales\".\"Orders\"", "dw.orders_v1"));
+        String sql = "SELECT * FROM sales.orders JOIN crm.users ON true";
+        assertEquals(Map.of(), service.storeQueries("physical", Map.of("orders", sql)));
+        long stored = service.getStoredQueryChanges(0, 100).getLastSequence();
+
+        Map<String, String> physical = Map.of("\"Sales\".\"Orders\"", "dw.orders_v2");
+        service.registerMapping("physical", physical);
+        StoredQueryChanges changed = service.getStoredQueryChanges(stored, 100);
+        assertEquals(List.of("orders"), ids(changed));
+        assertEquals(service.replaceTableNames(sql, physical), changed.getChanges().get(0).getSql());
+        assertEquals("SELECT * FROM dw.orders_v2 JOIN crm.users ON true", changed.getChanges().get(0).getSql());
+    }
+
+    @Test
+    void testRemovalsAndResetOfLaggingReaders() {
+        service.registerMapping("physical", Map.of("sales.orders", "dw.orders"));
+        assertEquals(Map.of(), service.storeQueries("physical", Map.of("a", "SELECT * FROM sales.orders")));
+        service.storeQueries("physical", Map.of("b", "SELECT * FROM sales.orders o"));
+        service.storeQueries("physical", Map.of("c", "SELECT 1"));
+        long stored = service.getStoredQueryChanges(0, 100).getLastSequence();
+
+        // Re-storing the same output feeds nothing; failing to parse drops the query
+        service.storeQueries("physical", Map.of("a", "SELECT * FROM sales.orders"));
+        assertEquals(List.of(), ids(service.getStoredQueryChanges(stored, 100)));
+        Map<String, String> failed = service.storeQueries("physical", Map.of("a", "SELECT FROM"));
+        assertEquals(List.of("a"), List.copyOf(failed.keySet()));
+        assertEquals(1, service.removeStoredQueries(List.of("b", "missing")));
+
+        // One removal is retained: a reader from before the dropped one has to start over
+        StoredQueryChanges after = service.getStoredQueryChanges(stored, 100);
+        assertEquals(List.of("b"), ids(after));
+        assertTrue(after.getChanges().get(0).isRemoved());
+        assertNull(after.getChanges().get(0).getSql());
+        assertTrue(after.isReset());
+        assertFalse(service.getStoredQueryChanges(after.getLastSequence(), 100).isReset());
+        assertTrue(service.getStoredQueryChanges(after.getLastSequence() + 1, 100).isReset());
+        assertEquals(List.of("c", "b"), ids(service.getStoredQueryChanges(0, 100)));
+        assertEquals(List.of("c"), ids(service.getStoredQueryChanges(0, 1)));
+        // A page cut to nothing by the limit does not skip the changes it left out
+        StoredQueryChanges none = service.getStoredQueryChanges(stored, 0);
+        assertEquals(List.of(), ids(none));
+        assertEquals(stored, none.getLastSequence());
+        assertEquals(List.of("b"), ids(service.getStoredQueryChanges(none.getLastSequence(), 100)));
+        assertEquals(1, service.getStoredQueryStats().getQueries());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> service.storeQueries("unknown", Map.of("d", "SELECT 1")));
+    }
+
+    private static List<String> ids(StoredQueryChanges changes) {
+        return changes.getChanges().stream().map(StoredQueryChange::getId).collect(Collectors.toList());
+    }
+
+    private static SqlParserProperties properties() {
+        SqlParserProperties properties = new SqlParserProperties();
+        properties.getStoredQueries().setRetainedRemovals(1);
+        properties.getVerification().setSampleRate(0);
+        return properties;
+    }
+}
@@ -0,0 +1,108 @@
+package com.sqlparser.verify;
+
+import com.sqlparser.parser.ManagedSqlParser;
+import com.sqlparser.visitor.ExtractionResult;
+import com.sqlparser.visitor.TableNameExtractor;
+import io.trino.sql.tree.Statement;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewriteVerifierTest {
+
+    private static final ManagedSqlParser PARSER = new ManagedSqlParser();
+
+    private static ExtractionResult extract(String sql) {
+        Statement statement = PARSER.createStatement(sql);
+        TableNameExtractor extractor = new TableNameExtractor();
+        extractor.collect(statement, sql);
+        return new ExtractionResult(extractor.getTableNames(), extractor.getTableTokens());
+    }
+
+    // Replaces tokens right to left like SqlParserService, recording each replacement
+    private static String rewrite(String sql, ExtractionResult result, Map<String, String> mapping,
+                                  List<RewriteVerifier.Replacement> replacements) {
+        List<TableNameExtractor.TableToken> tokens = new ArrayList<>(result.getTokens());
+        tokens.sort((a, b) -> Integer.compare(b.getStart(), a.getStart()));
+        StringBuilder out = new StringBuilder(sql);
+        for (TableNameExtractor.TableToken token : tokens) {
+            String replacement = mapping.get(token.getText().toLowerCase());
+            if (replacement != null) {
+                out.replace(token.getStart(), token.getEnd(), replacement);
+                replacements.add(new RewriteVerifier.Replacement(token, replacement));
+            }
+        }
+        return out.toString();
+    }
+
+    private static RewriteMismatch check(RewriteVerifier verifier, String sql, Map<String, String> mapping) {
+        ExtractionResult result = extract(sql);
+        List<RewriteVerifier.Replacement> replacements = new ArrayList<>();
+        String rewritten = rewrite(sql, result, mapping, replacements);
+        return verifier.verify(sql, result.getTableNames(), replacements, rewritten);
+    }
+
+    @Test
+    void testFaithfulRewritesPass() {
+        RewriteVerifier verifier = new RewriteVerifier(RewriteVerifierTest::extract, 0, 10, 10);
+        assertNull(check(verifier, "SELECT orders.id FROM orders JOIN users ON orders.uid = users.id",
+            Map.of("orders", "Archive.\"Orders\"")));
+        // the INSERT target is not rewritten, so both names remain
+        assertNull(check(verifier, "INSERT INTO orders SELECT * FROM orders", Map.of("orders", "archive.orders")));
+        assertNull(check(verifier, "CREATE TABLE sch.\"NewTable\" (id bigint)", Map.of("newtable", "other")));
+        assertNull(check(verifier, "UPDATE sch.t SET v = 1 WHERE id IN (SELECT id FROM u)", Map.of("sch.t", "x.y")));
+        assertEquals(4, verifier.stats().getVerified());
+        assertEquals(0, verifier.stats().getMismatches());
+        verifier.close();
+    }
+
+    @Test
+    void testBrokenRewritesAreReported() {
+        RewriteVerifier verifier = new RewriteVerifier(RewriteVerifierTest::extract, 0, 10, 1);
+        RewriteMismatch unparsable = check(verifier, "SELECT * FROM orders", Map.of("orders", "(orders"));
+        assertNotNull(unparsable);
+        assertNull(unparsable.getActual());
+        assertTrue(unparsable.getReason().startsWith("rewritten SQL does not parse"));
+
+        // a replacement that is not a table reference
+        RewriteMismatch subquery = check(verifier, "SELECT * FROM orders", Map.of("orders", "(SELECT * FROM a.b)"));
+        assertNotNull(subquery);
+        assertEquals(Set.of("a.b"), subquery.getActual());
+
+        assertEquals(2, verifier.stats().getMismatches());
+        assertEquals(List.of(subquery), verifier.recentMismatches());
+        verifier.close();
+    }
+
+    @Test
+    void testSampledRewritesAreCheckedInTheBackground() throws Exception {
+        RewriteVerifier verifier = new RewriteVerifier(RewriteVerifierTest::extract, 1.0, 100, 10);
+        String sql = "SELECT * FROM orders";
+        ExtractionResult result = extract(sql);
+        for (int i = 0; i < 3; i++) {
+            List<RewriteVerifier.Replacement> replacements = new ArrayList<>();
+            String rewritten = rewrite(sql, result, Map.of("orders", i == 2 ? "(x" : "archive.orders"), replacements);
+            verifier.sample(sql, result.getTableNames(), replacements, rewritten);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (verifier.stats().getVerified() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        verifier.close();
+        assertEquals(3, verifier.stats().getSampled());
+        assertEquals(3, verifier.stats().getVerified());
+        assertEquals(1, verifier.recentMismatches().size());
+    }
+
+    @Test
+    void testNormalizeMatchesExtractedNames() {
+        assertEquals("sch.a.b", RewriteVerifier.normalize("Sch.\"a.B\""));
+        assertEquals("x\"y.t", RewriteVerifier.normalize("\"X\"\"Y\".T"));
+    }
+}
@@ -0,0 +1,161 @@
+package com.sqlparser.visitor;
+
+import com.sqlparser.parser.ManagedSqlParser;
+import io.trino.grammar.sql.SqlBaseParser;
+import io.trino.sql.parser.ParsingException;
+import io.trino.sql.tree.Statement;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parse-tree extraction must collect exactly the names and tokens (in the same order) that
+ * AST extraction does, quirks included, with and without expression pruning.
+ */
+class ParseTreeTableExtractorTest {
+
+    private static final ManagedSqlParser PARSER = new ManagedSqlParser();
+
+    private static final List<String> STATEMENTS = List.of(
+        // queries and relations
+        "SELECT * FROM users",
+        "SELECT * FROM \"MySchema\".\"MyTable\"",
+        "SELECT * FROM catalog1.schema1.table1 t1 JOIN schema2.table2 t2 ON t1.id = t2.id",
+        "SELECT u.name, o.total FROM users u LEFT JOIN orders o ON u.id = o.user_id WHERE o.total > 100",
+        "SELECT users.id, orders.id FROM users, orders WHERE users.id = orders.uid",
+        "SELECT raw.events.id, c.s.t.x FROM raw.events JOIN c.s.t ON raw.events.id = c.s.t.id WHERE a.b.c > 0",
+        "SELECT \"Users\".id FROM \"Users\"",
+        "SELECT \"T\".x FROM \"T\"",
+        "SELECT (u).y FROM u",
+        "SELECT cat.sch.tab.col, sch.tab.col FROM cat.sch.tab, sch.tab",
+        "SELECT s.t.a.b FROM s.t",
+        "SELECT x.y.z FROM t AS x",
+        "SELECT a FROM t WHERE b IN (SELECT c FROM u WHERE u.d = 'x.y')",
+        "SELECT x FROM (SELECT y AS x FROM t) s WHERE x > 1.5",
+        "WITH recent AS (SELECT * FROM events) SELECT r.id FROM recent r JOIN users ON users.id = r.uid",
+        "SELECT a FROM t UNION SELECT b FROM u ORDER BY t.a",
+        "SELECT a FROM t ORDER BY t.a, u.b LIMIT 10",
+        "(SELECT a FROM t) ORDER BY t.a",
+        "TABLE sch.t",
+        "VALUES (1, 2), (3, 4)",
+        "SELECT * FROM t CROSS JOIN UNNEST(t.arr) AS x(v)",
+        "SELECT * FROM t, LATERAL (SELECT * FROM u WHERE u.k = t.k)",
+        "SELECT * FROM TABLE(sys.fn(input => TABLE(t), n => t2.x))",
+        "SELECT * FROM t MATCH_RECOGNIZE (ORDER BY ts PATTERN (A) DEFINE A AS A.v > 0) AS m WHERE m.x > 1",
+        "SELECT * FROM t TABLESAMPLE BERNOULLI (10) WHERE t.a = 1",
+        "SELECT * FROM t FOR TIMESTAMP AS OF TIMESTAMP '2024-01-01 00:00:00'",
+        "SELECT\n  a.x,\n  b.y\nFROM\n  sch.a\n  JOIN b ON a.id = b.id\nWHERE a.z = 'line\nbreak'",
+        // expressions
+        "SELECT count(t.x) FILTER (WHERE u.y > 0) OVER (PARTITION BY t.z ORDER BY u.w) FROM t, u",
+        "SELECT array_agg(t.a ORDER BY u.b) FROM t, u",
+        "SELECT trim(BOTH u.c FROM t.s), position(t.a IN u.b), substring(t.s FROM 1 FOR 2) FROM t, u",
+        "SELECT CASE WHEN t.a > 1 THEN u.b ELSE t.c END, cast(t.d AS varchar), t.e IS NULL FROM t, u",
+        "SELECT t.a BETWEEN u.b AND t.c, t.d LIKE u.e ESCAPE '!', t.f IN (u.g, 1) FROM t, u",
+        "SELECT ROW(t.a, u.b).field0, t.arr[1], u.m['k'], transform(t.arr, x -> x + u.c) FROM t, u",
+        "SELECT EXISTS (SELECT 1 FROM v WHERE v.a = t.a), (SELECT max(b) FROM w) FROM t",
+        "SELECT a + b * 2, coalesce(c, d, 0), CASE WHEN e > 1 THEN 'x' ELSE 'y' END FROM t WHERE f IN (1, 2, 3)",
+        "SELECT count(*) FROM t /* t.x */ WHERE c = '(SELECT 1 FROM hidden)'",
+        "SELECT json_extract(t.j, '$.a'), extract(YEAR FROM t.d), t.d AT TIME ZONE 'UTC' FROM t",
+        // DML
+        "INSERT INTO t SELECT a * 2 FROM \"Src\".\"Tab\" WHERE b = 1e3",
+        "INSERT INTO sch.target (a, b) VALUES (1, 'x')",
+        "UPDATE orders SET total = price * qty, note = 'a.b' WHERE id = (SELECT max(id) FROM archive)",
+        "UPDATE sch.orders SET v = sch.orders.v + 1 WHERE orders.id = 3",
+        "DELETE FROM cat.sch.orders WHERE cat.sch.orders.id = 5 -- orders.x",
+        "DELETE FROM \"S\".\"T\" WHERE \"T\".x = 1",
+        "MERGE INTO target t USING source s ON t.id = s.id WHEN MATCHED AND s.d THEN DELETE "
+            + "WHEN MATCHED THEN UPDATE SET v = s.v WHEN NOT MATCHED AND s.k > 0 THEN INSERT (id, v) VALUES (s.id, source.v)",
+        "MERGE INTO sch.target USING (SELECT * FROM src) s ON target.id = s.id WHEN MATCHED THEN UPDATE SET v = s.v",
+        "ALTER TABLE sch.t EXECUTE optimize(file_size_threshold => u.x) WHERE t.p = 1",
+        // DDL and utility statements
+        "CREATE TABLE sch.\"NewTable\" (id bigint, name varchar)",
+        "CREATE TABLE IF NOT EXISTS t2 AS SELECT * FROM t1 WHERE t1.a > 0",
+        "CREATE OR REPLACE VIEW v AS SELECT a.x FROM a",
+        "CREATE MATERIALIZED VIEW mv AS SELECT * FROM base",
+        "DROP TABLE IF EXISTS sch.t",
+        "TRUNCATE TABLE t",
+        "ALTER TABLE sch.t ADD COLUMN c bigint",
+        "ALTER TABLE t DROP COLUMN c",
+        "ALTER TABLE t RENAME COLUMN a TO b",
+        "ALTER TABLE t ALTER COLUMN c SET DATA TYPE bigint",
+        "ALTER TABLE t ALTER COLUMN c DROP NOT NULL",
+        "ALTER TABLE a.t RENAME TO b.u",
+        "ALTER VIEW v RENAME TO w",
+        "ALTER MATERIALIZED VIEW mv RENAME TO mw",
+        "ALTER TABLE t SET PROPERTIES x = 1",
+        "ALTER MATERIALIZED VIEW mv SET PROPERTIES x = 1",
+        "ANALYZE sch.t",
+        "COMMENT ON TABLE t IS 'x'",
+        "COMMENT ON VIEW v IS 'x'",
+        "SHOW COLUMNS FROM sch.t",
+        "SHOW CREATE TABLE t",
+        "SHOW CREATE MATERIALIZED VIEW mv",
+        "SHOW STATS FOR s.t",
+        "SHOW STATS FOR (SELECT * FROM t WHERE t.a > 1)",
+        "DROP VIEW v",
+        "DROP MATERIALIZED VIEW mv",
+        "REFRESH MATERIALIZED VIEW mv",
+        "GRANT SELECT ON TABLE sch.t TO alice",
+        "GRANT SELECT ON sch.t TO alice",
+        "REVOKE INSERT ON TABLE t FROM bob",
+        "SHOW GRANTS ON TABLE t",
+        "CREATE SCHEMA s WITH (location = 'x')",
+        "SET SESSION a.b = 1",
+        "EXPLAIN SELECT * FROM t WHERE t.a = 1",
+        "EXPLAIN ANALYZE DELETE FROM t WHERE t.a = 1",
+        "SHOW TABLES FROM sch",
+        "USE sch",
+        "CALL sys.proc(t.a)",
+        "DESCRIBE t"
+    );
+
+    @Test
+    void testParseTreeExtractionMatchesAstExtraction() {
+        for (boolean prune : new boolean[] {false, true}) {
+            for (String sql : STATEMENTS) {
+                Statement statement = PARSER.createStatement(sql);
+                TableNameExtractor ast = new TableNameExtractor(prune);
+                ast.collect(statement, sql);
+
+                SqlBaseParser.SingleStatementContext tree = PARSER.parseTree(sql);
+                ParseTreeTableExtractor parseTree = new ParseTreeTableExtractor(prune);
+                parseTree.collect(tree, sql);
+
+                assertEquals(ast.getTableNames(), parseTree.getTableNames(), sql);
+                assertEquals(ast.getTableTokens().toString(), parseTree.getTableTokens().toString(), sql);
+            }
+        }
+    }
+
+    @Test
+    void testTokensPointAtTableNames() {
+        String sql = "SELECT t.x FROM S.T JOIN u ON u.id = t.id\nWHERE \"U\".y > 0";
+        ParseTreeTableExtractor extractor = new ParseTreeTableExtractor();
+        extractor.collect(PARSER.parseTree(sql), sql);
+
+        assertEquals(Set.of("s.t", "u"), extractor.getTableNames());
+        for (TableNameExtractor.TableToken token : extractor.getTableTokens()) {
+            assertEquals(token.getText(), sql.substring(token.getStart(), token.getEnd()).replace("\"", "").toLowerCase(), sql);
+        }
+    }
+
+    @Test
+    void testMultiPartQualifiersResolveAgainstWholeStatement() {
+        String sql = "SELECT raw.events.id, x.y.z FROM raw.events WHERE raw.events.id > 0";
+        ParseTreeTableExtractor extractor = new ParseTreeTableExtractor();
+        extractor.collect(PARSER.parseTree(sql), sql);
+
+        // x.y is not a table of the statement, so x.y.z keeps the single-part reading (x qualifies column y)
+        assertEquals("[TableToken{x, 22:23, QUALIFIER}, TableToken{raw.events, 33:43, SOURCE}, "
+            + "TableToken{raw.events, 7:17, QUALIFIER}, TableToken{raw.events, 50:60, QUALIFIER}]",
+            extractor.getTableTokens().toString());
+    }
+
+    @Test
+    void testParseTreeReportsSyntaxErrors() {
+        assertThrows(ParsingException.class, () -> PARSER.parseTree("SELECT FROM WHERE"));
+    }
+}
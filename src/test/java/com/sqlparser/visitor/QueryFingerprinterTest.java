@@ -0,0 +1,74 @@
+package com.sqlparser.visitor;
+
+import com.sqlparser.cache.SqlHash;
+import com.sqlparser.parser.ManagedSqlParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryFingerprinterTest {
+
+    private static final ManagedSqlParser PARSER = new ManagedSqlParser();
+
+    @Test
+    void testLiteralsAndFormattingDoNotChangeTheFingerprint() {
+        QueryFingerprint first = fingerprint("select o.id, count(*) from Sales.Orders o\n"
+            + "where o.status = 'open' and o.total > 10.5 -- recent only\n"
+            + "group by o.id limit 100");
+        QueryFingerprint second = fingerprint("SELECT  O.ID,COUNT( * ) FROM sales.orders O /* again */ "
+            + "WHERE o.status='it''s' AND o.total>99.0 GROUP BY o.id LIMIT 5");
+
+        assertEquals("SELECT o.id, count(*) FROM sales.orders o WHERE o.status = ? AND o.total > ? GROUP BY o.id LIMIT ?",
+            first.getParameterizedSql());
+        assertEquals(first.getParameterizedSql(), second.getParameterizedSql());
+        assertEquals(first.getFingerprint(), second.getFingerprint());
+        assertEquals(32, first.getFingerprint().length());
+        assertEquals(first.getFingerprint().substring(0, 16), first.getFingerprint64());
+        assertEquals(List.of("string:it's", "decimal:99.0", "integer:5"), describe(second));
+    }
+
+    @Test
+    void testLiteralTypesArePartOfTheFingerprint() {
+        QueryFingerprint number = fingerprint("SELECT * FROM t WHERE a = 1");
+        QueryFingerprint string = fingerprint("SELECT * FROM t WHERE a = '1'");
+
+        assertEquals(number.getParameterizedSql(), string.getParameterizedSql());
+        assertNotEquals(number.getFingerprint(), string.getFingerprint());
+        assertNotEquals(number.getFingerprint(), fingerprint("SELECT * FROM u WHERE a = 1").getFingerprint());
+    }
+
+    @Test
+    void testTypedLiteralsIntervalsAndQuotedIdentifiers() {
+        QueryFingerprint fingerprint = fingerprint("SELECT \"Total\", X'00ff' FROM t "
+            + "WHERE d >= DATE '2024-01-01' - INTERVAL '7' DAY AND flag = true AND v IS NOT NULL AND n IN (-1, 2e3)");
+
+        assertEquals("SELECT \"Total\", ? FROM t WHERE d >= ? - INTERVAL ? DAY AND flag = TRUE AND v IS NOT NULL "
+            + "AND n IN (?, ?)", fingerprint.getParameterizedSql());
+        assertEquals(List.of("binary:00ff", "date:2024-01-01", "interval:7", "integer:-1", "double:2e3"), describe(fingerprint));
+    }
+
+    @Test
+    void testStringsOutsideExpressionsAreKept() {
+        assertEquals("SHOW TABLES FROM s LIKE 'orders%'", fingerprint("show tables from s like 'orders%'").getParameterizedSql());
+    }
+
+    @Test
+    void testHash128MatchesMurmur3() {
+        // Reference values of MurmurHash3_x64_128 with seed 0
+        assertArrayEquals(new long[] {0, 0}, SqlHash.hash128(new byte[0]));
+        long[] hash = SqlHash.hash128("The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0xe34bbc7bbc071b6cL, hash[0]);
+        assertEquals(0x7a433ca9c49a9347L, hash[1]);
+    }
+
+    private static QueryFingerprint fingerprint(String sql) {
+        return QueryFingerprinter.fingerprint(PARSER.parseTree(sql));
+    }
+
+    private static List<String> describe(QueryFingerprint fingerprint) {
+        return fingerprint.getLiterals().stream().map(literal -> literal.getType() + ":" + literal.getValue()).toList();
+    }
+}
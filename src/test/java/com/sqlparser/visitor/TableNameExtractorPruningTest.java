@@ -0,0 +1,58 @@
+package com.sqlparser.visitor;
+
+import com.sqlparser.parser.ReferencePrescan;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Statement;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruned and unpruned traversal must collect exactly the same names and tokens.
+ */
+class TableNameExtractorPruningTest {
+
+    private static final SqlParser PARSER = new SqlParser();
+
+    private static final List<String> STATEMENTS = List.of(
+        "SELECT a + b * 2, coalesce(c, d, 0), CASE WHEN e > 1 THEN 'x' ELSE 'y' END FROM t WHERE f IN (1, 2, 3)",
+        "SELECT t.a + t.b, upper(t.c) FROM t JOIN u ON t.id = u.id WHERE u.flag = true",
+        "SELECT a FROM t WHERE b IN (SELECT c FROM u WHERE u.d = 'x.y')",
+        "SELECT a, (SELECT max(b) FROM u) FROM t WHERE EXISTS (SELECT 1 FROM v)",
+        "SELECT x FROM (SELECT y AS x FROM t) s WHERE x > 1.5",
+        "UPDATE orders SET total = price * qty, note = 'a.b' WHERE id = (SELECT max(id) FROM archive)",
+        "DELETE FROM cat.sch.orders WHERE cat.sch.orders.id = 5 -- orders.x",
+        "MERGE INTO target t USING source s ON t.id = s.id WHEN MATCHED THEN UPDATE SET v = s.v",
+        "INSERT INTO t SELECT a * 2 FROM \"Src\".\"Tab\" WHERE b = 1e3",
+        "SELECT count(*) FROM t /* t.x */ WHERE c = '(SELECT 1 FROM hidden)'"
+    );
+
+    @Test
+    void testPrunedTraversalMatchesFullTraversal() {
+        for (String sql : STATEMENTS) {
+            Statement statement = PARSER.createStatement(sql);
+
+            TableNameExtractor full = new TableNameExtractor(false);
+            full.collect(statement, sql);
+            TableNameExtractor pruned = new TableNameExtractor(true);
+            pruned.collect(statement, sql);
+
+            assertEquals(full.getTableNames(), pruned.getTableNames(), sql);
+            assertEquals(full.getTableTokens().toString(), pruned.getTableTokens().toString(), sql);
+        }
+    }
+
+    @Test
+    void testPrescanIgnoresStringsCommentsAndNumbers() {
+        assertFalse(ReferencePrescan.expressionsMayContainReferences(
+            "SELECT a + 1.5, .5, 2.5e3, 'x.y', \"q.r\" FROM t -- u.v\n WHERE c = 1 /* w.z */"));
+        // nested-query detection is deliberately naive about strings and comments
+        assertTrue(ReferencePrescan.expressionsMayContainReferences("SELECT a FROM t WHERE c = '(SELECT 1)'"));
+        assertTrue(ReferencePrescan.expressionsMayContainReferences("SELECT \"t\".\"a\" FROM t"));
+        assertTrue(ReferencePrescan.expressionsMayContainReferences("SELECT t1.a FROM t1"));
+        assertTrue(ReferencePrescan.expressionsMayContainReferences("SELECT a FROM t WHERE b IN ( select c FROM u)"));
+        assertFalse(ReferencePrescan.expressionsMayContainReferences("SELECT selected, (tables) FROM t"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.sqlparser.visitor;
+
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Statement;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for the explicit-stack traversal: 10k-deep statements are parsed on a thread
+ * with a large stack (Trino's parser and AstBuilder are recursive), then collected on a thread
+ * limited to 256KB of stack.
+ */
+class TableNameExtractorStackSafetyTest {
+
+    private static final int DEPTH = 10_000;
+    private static final long PARSE_STACK = 2L * 1024 * 1024 * 1024;
+    private static final long SMALL_STACK = 256 * 1024;
+
+    @Test
+    void testDeepArithmeticChainOnSmallStack() throws Throwable {
+        // Kept in WHERE: in a select list ANTLR's lookahead for selectItem scans the whole chain
+        StringBuilder sql = new StringBuilder("SELECT * FROM t WHERE t.c0");
+        for (int i = 1; i < DEPTH; i++) {
+            sql.append(" + t.c").append(i);
+        }
+        sql.append(" > 0");
+
+        TableNameExtractor extractor = collectOnSmallStack(sql.toString());
+
+        assertEquals(Set.of("t"), extractor.getTableNames());
+        // one token per t.cN qualifier plus the FROM table
+        assertEquals(DEPTH + 1, extractor.getTableTokens().size());
+    }
+
+    @Test
+    void testDeeplyNestedSubqueriesOnSmallStack() throws Throwable {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < DEPTH; i++) {
+            sql.append("SELECT * FROM (");
+        }
+        sql.append("SELECT * FROM inner_most");
+        for (int i = 0; i < DEPTH; i++) {
+            sql.append(")");
+        }
+
+        TableNameExtractor extractor = collectOnSmallStack(sql.toString());
+
+        assertEquals(Set.of("inner_most"), extractor.getTableNames());
+        assertEquals(1, extractor.getTableTokens().size());
+        assertEquals(sql.indexOf("inner_most"), extractor.getTableTokens().get(0).getStart());
+    }
+
+    @Test
+    void testDeepCaseChainWithSubqueriesOnSmallStack() throws Throwable {
+        StringBuilder sql = new StringBuilder("SELECT * FROM orders o WHERE ");
+        for (int i = 0; i < DEPTH; i++) {
+            sql.append("CASE WHEN o.k = ").append(i).append(" THEN (SELECT max(v) FROM lookup) ELSE ");
+        }
+        sql.append("0");
+        for (int i = 0; i < DEPTH; i++) {
+            sql.append(" END");
+        }
+        sql.append(" = 1");
+
+        TableNameExtractor extractor = collectOnSmallStack(sql.toString());
+
+        assertEquals(Set.of("orders", "lookup"), extractor.getTableNames());
+        long lookupTokens = extractor.getTableTokens().stream().filter(t -> t.getText().equals("lookup")).count();
+        assertEquals(DEPTH, lookupTokens);
+    }
+
+    private static TableNameExtractor collectOnSmallStack(String sql) throws Throwable {
+        Statement statement = runOnThread(PARSE_STACK, () -> new SqlParser().createStatement(sql));
+        return runOnThread(SMALL_STACK, () -> {
+            TableNameExtractor extractor = new TableNameExtractor();
+            extractor.collect(statement, sql);
+            return extractor;
+        });
+    }
+
+    private static <T> T runOnThread(long stackSize, Supplier<T> task) throws Throwable {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                result.set(task.get());
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        }, "stack-safety-" + stackSize, stackSize);
+        thread.start();
+        thread.join();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return result.get();
+    }
+}